@@ -16,6 +16,8 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.loaders.jdbc.logging.Log;
+import org.infinispan.loaders.spi.AbstractCacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.LogFactory;
 
@@ -179,6 +181,45 @@ public final Set<InternalCacheEntry> loadAllSupport(boolean filterExpired) throw
       }
    }
 
+   /**
+    * Passes the entries to the task as the rows are fetched from the database, instead of collecting all of them in
+    * memory like {@link #loadAllSupport(boolean)}.
+    */
+   public final void processSupport(CacheLoaderTask task, boolean filterExpired) throws CacheLoaderException {
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         String sql = filterExpired ? tableManipulation.getLoadNonExpiredAllRowsSql() : tableManipulation.getLoadAllRowsSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql %s", sql);
+         }
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(sql);
+         if (filterExpired) {
+            ps.setLong(1, timeService.wallClockTime());
+         }
+         rs = ps.executeQuery();
+         rs.setFetchSize(tableManipulation.getFetchSize());
+         Set<InternalCacheEntry> rowEntries = new HashSet<InternalCacheEntry>();
+         while (rs.next()) {
+            loadAllProcess(rs, rowEntries);
+            for (InternalCacheEntry entry : rowEntries) {
+               if (!AbstractCacheLoader.processEntry(task, entry))
+                  return;
+            }
+            rowEntries.clear();
+         }
+      } catch (SQLException e) {
+         log.sqlFailureFetchingAllStoredEntries(e);
+         throw new CacheLoaderException("SQL error while fetching all StoredEntries", e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
    public Set<Object> loadAllKeysSupport(Set<Object> keysToExclude) throws CacheLoaderException {
       Connection conn = null;
       PreparedStatement ps = null;
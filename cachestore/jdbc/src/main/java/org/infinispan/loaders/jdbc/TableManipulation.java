@@ -40,14 +40,21 @@ public class TableManipulation implements Cloneable {
    /* Cache the sql for managing data */
    private String insertRowSql;
    private String updateRowSql;
+   private String upsertRowSql;
+   private boolean upsertRowSqlResolved;
    private String selectRowSql;
    private String selectIdRowSql;
+   private String selectMultipleRowSql;
    private String deleteRowSql;
    private String loadAllRowsSql;
    private String loadAllNonExpiredRowsSql;
+   private String countNonExpiredRowsSql;
    private String deleteAllRows;
    private String selectExpiredRowsSql;
    private String deleteExpiredRowsSql;
+   private String selectExpiredIdsSql;
+   private String selectExpiredIdsAfterSql;
+   private String deleteExpiredRowSql;
    private String loadSomeRowsSql;
    public DatabaseType databaseType;
    private String loadAllKeysBinarySql;
@@ -188,6 +195,39 @@ public String getUpdateRowSql() {
       return updateRowSql;
    }
 
+   /**
+    * Returns the statement inserting a row, or updating it if a row with the same id already exists, in a single round
+    * trip. It takes the same parameters as {@link #getInsertRowSql()} and {@link #getUpdateRowSql()}.
+    *
+    * @return the statement, or null if the database doesn't support native upserts, in which case the row has to be
+    *         looked up before choosing between an insert and an update
+    */
+   public String getUpsertRowSql() {
+      if (!upsertRowSqlResolved) {
+         switch (getDatabaseType()) {
+            case MYSQL:
+               upsertRowSql = getInsertRowSql() + " ON DUPLICATE KEY UPDATE " + config.dataColumnName() + " = VALUES(" + config.dataColumnName() + "), " + config.timestampColumnName() + " = VALUES(" + config.timestampColumnName() + ")";
+               break;
+            case POSTGRES:
+               // ON CONFLICT is only available since PostgreSQL 9.5
+               if (isDatabaseVersionAtLeast(9, 5)) {
+                  upsertRowSql = getInsertRowSql() + " ON CONFLICT (" + config.idColumnName() + ") DO UPDATE SET " + config.dataColumnName() + " = EXCLUDED." + config.dataColumnName() + ", " + config.timestampColumnName() + " = EXCLUDED." + config.timestampColumnName();
+               }
+               break;
+            case H2:
+               upsertRowSql = "MERGE INTO " + getTableName() + " (" + config.dataColumnName() + ", " + config.timestampColumnName() + ", " + config.idColumnName() + ") KEY(" + config.idColumnName() + ") VALUES(?,?,?)";
+               break;
+            default:
+               break;
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Using upsert sql '%s' for database type %s", upsertRowSql, getDatabaseType());
+         }
+         upsertRowSqlResolved = true;
+      }
+      return upsertRowSql;
+   }
+
    public String getSelectRowSql() {
       if (selectRowSql == null) {
          switch(getDatabaseType()) {
@@ -205,6 +245,40 @@ public String getSelectRowSql() {
       return selectRowSql;
    }
 
+   /**
+    * Returns the statement selecting the id and the data of the rows having any of <tt>count</tt> ids, which are its
+    * parameters.  The statement for {@link #getBatchSize()} ids is cached, as bulk loads are split in batches of this
+    * size.
+    */
+   public String getSelectMultipleRowSql(int count) {
+      if (count == getBatchSize() && selectMultipleRowSql != null) {
+         return selectMultipleRowSql;
+      }
+      String idParameter;
+      switch(getDatabaseType()) {
+         case SYBASE:
+            idParameter = "convert(" + config.idColumnType() + "," + "?)";
+            break;
+         case POSTGRES:
+            idParameter = "cast(? as " + config.idColumnType() + ")";
+            break;
+         default:
+            idParameter = "?";
+            break;
+      }
+      StringBuilder sql = new StringBuilder("SELECT ").append(config.idColumnName()).append(", ").append(config.dataColumnName())
+            .append(" FROM ").append(getTableName()).append(" WHERE ").append(config.idColumnName()).append(" IN (");
+      for (int i = 0; i < count; i++) {
+         if (i > 0) sql.append(", ");
+         sql.append(idParameter);
+      }
+      sql.append(")");
+      if (count == getBatchSize()) {
+         selectMultipleRowSql = sql.toString();
+      }
+      return sql.toString();
+   }
+
    public String getSelectIdRowSql() {
       if (selectIdRowSql == null) {
          switch(getDatabaseType()) {
@@ -247,6 +321,17 @@ public String getLoadNonExpiredAllRowsSql() {
       return loadAllNonExpiredRowsSql;
    }
 
+   /**
+    * Returns the statement counting the rows which aren't expired at the time given as its parameter.
+    */
+   public String getCountNonExpiredRowsSql() {
+      if (countNonExpiredRowsSql == null) {
+         countNonExpiredRowsSql = "SELECT COUNT(*) FROM " + getTableName() + " WHERE " +
+               config.timestampColumnName() + " > ? OR " + config.timestampColumnName() + " < 0";
+      }
+      return countNonExpiredRowsSql;
+   }
+
    public String getLoadAllRowsSql() {
       if (loadAllRowsSql == null) {
          loadAllRowsSql = "SELECT " + config.dataColumnName() + "," + config.idColumnName() + " FROM " + getTableName();
@@ -275,6 +360,62 @@ public String getDeleteExpiredRowsSql() {
       return deleteExpiredRowsSql;
    }
 
+   /**
+    * Returns the statement selecting, in the order of their ids, the ids of the rows expired at the time given as its
+    * parameter.
+    */
+   public String getSelectExpiredIdsSql() {
+      if (selectExpiredIdsSql == null) {
+         selectExpiredIdsSql = "SELECT " + config.idColumnName() + " FROM " + getTableName() + " WHERE " + config.timestampColumnName() + "< ? AND " + config.timestampColumnName() + "> 0 ORDER BY " + config.idColumnName();
+      }
+      return selectExpiredIdsSql;
+   }
+
+   /**
+    * The same as {@link #getSelectExpiredIdsSql()}, except that only the ids greater than the second parameter are
+    * selected, so that the expired rows can be read one page at a time.
+    */
+   public String getSelectExpiredIdsAfterSql() {
+      if (selectExpiredIdsAfterSql == null) {
+         String select = "SELECT " + config.idColumnName() + " FROM " + getTableName() + " WHERE " + config.timestampColumnName() + "< ? AND " + config.timestampColumnName() + "> 0 AND " + config.idColumnName();
+         String order = " ORDER BY " + config.idColumnName();
+         switch(getDatabaseType()) {
+            case SYBASE:
+               selectExpiredIdsAfterSql = select + " > convert(" + config.idColumnType() + "," + "?)" + order;
+               break;
+            case POSTGRES:
+               selectExpiredIdsAfterSql = select + " > cast(? as " + config.idColumnType() + ")" + order;
+               break;
+            default:
+               selectExpiredIdsAfterSql = select + " > ?" + order;
+               break;
+         }
+      }
+      return selectExpiredIdsAfterSql;
+   }
+
+   /**
+    * Returns the statement deleting a row, given its id as first parameter, only if it's expired at the time given as
+    * second parameter, so that a row updated since it was found expired is kept.
+    */
+   public String getDeleteExpiredRowSql() {
+      if (deleteExpiredRowSql == null) {
+         String expired = " AND " + config.timestampColumnName() + "< ? AND " + config.timestampColumnName() + "> 0";
+         switch(getDatabaseType()) {
+            case SYBASE:
+               deleteExpiredRowSql = "DELETE FROM " + getTableName() + " WHERE " + config.idColumnName() + " = convert(" + config.idColumnType() + "," + "?)" + expired;
+               break;
+            case POSTGRES:
+               deleteExpiredRowSql = "DELETE FROM " + getTableName() + " WHERE " + config.idColumnName() + " = cast(? as " + config.idColumnType() + ")" + expired;
+               break;
+            default:
+               deleteExpiredRowSql = "DELETE FROM " + getTableName() + " WHERE " + config.idColumnName() + " = ?" + expired;
+               break;
+         }
+      }
+      return deleteExpiredRowSql;
+   }
+
    @Override
    public TableManipulation clone() {
       try {
@@ -409,6 +550,24 @@ private DatabaseType getDatabaseType() {
       return databaseType;
    }
 
+   private boolean isDatabaseVersionAtLeast(int major, int minor) {
+      if (connectionFactory == null) {
+         return false;
+      }
+      Connection connection = null;
+      try {
+         connection = connectionFactory.getConnection();
+         DatabaseMetaData metaData = connection.getMetaData();
+         int databaseMajor = metaData.getDatabaseMajorVersion();
+         return databaseMajor > major || (databaseMajor == major && metaData.getDatabaseMinorVersion() >= minor);
+      } catch (Exception e) {
+         log.debug("Unable to determine database version from JDBC metadata.", e);
+         return false;
+      } finally {
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
    private DatabaseType guessDatabaseType(String name) {
       DatabaseType type = null;
       if (name != null) {
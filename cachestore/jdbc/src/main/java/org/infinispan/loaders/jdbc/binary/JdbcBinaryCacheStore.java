@@ -14,6 +14,7 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.connectionfactory.ManagedConnectionFactory;
 import org.infinispan.loaders.jdbc.logging.Log;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.LogFactory;
 
@@ -25,9 +26,15 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -238,6 +245,68 @@ protected void updateBucket(Bucket bucket) throws CacheLoaderException {
       }
    }
 
+   @Override
+   protected void insertBuckets(Collection<Bucket> buckets) throws CacheLoaderException {
+      writeBuckets(tableManipulation.getInsertRowSql(), buckets);
+   }
+
+   @Override
+   protected void updateBuckets(Collection<Bucket> buckets) throws CacheLoaderException {
+      writeBuckets(tableManipulation.getUpdateRowSql(), buckets);
+   }
+
+   /**
+    * Writes buckets using JDBC batches of the configured batch size, with a statement taking the bucket, the expiry time
+    * of its first entry to expire and its id as parameters.
+    */
+   private void writeBuckets(String sql, Collection<Bucket> buckets) throws CacheLoaderException {
+      Connection conn = null;
+      PreparedStatement ps = null;
+      try {
+         if (log.isTraceEnabled()) {
+            log.tracef("Running writeBuckets. Sql: '%s', on %d buckets", sql, buckets.size());
+         }
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(sql);
+         int batchSize = tableManipulation.getBatchSize();
+         int count = 0;
+         for (Bucket bucket : buckets) {
+            ByteBuffer buffer = JdbcUtil.marshall(getMarshaller(), bucket);
+            ps.setBinaryStream(1, buffer.getStream(), buffer.getLength());
+            ps.setLong(2, bucket.timestampOfFirstEntryToExpire());
+            ps.setString(3, bucket.getBucketIdAsString());
+            ps.addBatch();
+            if (++count % batchSize == 0) {
+               checkBatchResult(ps.executeBatch());
+            }
+         }
+         if (count % batchSize != 0) {
+            checkBatchResult(ps.executeBatch());
+         }
+      } catch (SQLException e) {
+         log.sqlFailureWritingBuckets(buckets.size(), e);
+         throw new CacheLoaderException(String.format(
+               "Sql failure while writing a batch of %d buckets", buckets.size()), e);
+      } catch (InterruptedException ie) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to write buckets");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   private static void checkBatchResult(int[] rowCounts) throws CacheLoaderException {
+      for (int rowCount : rowCounts) {
+         // drivers may execute the batch without reporting the number of rows affected by each statement
+         if (rowCount != 1 && rowCount != Statement.SUCCESS_NO_INFO) {
+            throw new CacheLoaderException("Unexpected batch result: '" + rowCount + "'. Expected value is 1");
+         }
+      }
+   }
+
    @Override
    protected Bucket loadBucket(Integer keyHashCode) throws CacheLoaderException {
       Connection conn = null;
@@ -271,11 +340,62 @@ protected Bucket loadBucket(Integer keyHashCode) throws CacheLoaderException {
       }
    }
 
+   /**
+    * Loads the buckets with queries selecting up to the configured batch size of ids at once.
+    */
+   @Override
+   protected Map<Integer, Bucket> loadBuckets(Collection<Integer> keyHashCodes) throws CacheLoaderException {
+      Map<Integer, Bucket> buckets = new HashMap<Integer, Bucket>();
+      List<Integer> hashes = new ArrayList<Integer>(keyHashCodes);
+      int batchSize = tableManipulation.getBatchSize();
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         conn = connectionFactory.getConnection();
+         for (int from = 0; from < hashes.size(); from += batchSize) {
+            List<Integer> batch = hashes.subList(from, Math.min(from + batchSize, hashes.size()));
+            String sql = tableManipulation.getSelectMultipleRowSql(batch.size());
+            if (log.isTraceEnabled()) {
+               log.tracef("Running loadBuckets. Sql: '%s', on %d keys", sql, batch.size());
+            }
+            ps = conn.prepareStatement(sql);
+            for (int i = 0; i < batch.size(); i++) {
+               ps.setInt(i + 1, batch.get(i));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+               String bucketName = rs.getString(1);
+               InputStream inputStream = rs.getBinaryStream(2);
+               Bucket bucket = (Bucket) JdbcUtil.unmarshall(getMarshaller(), inputStream);
+               bucket.setBucketId(bucketName);//bucket name is volatile, so not persisted.
+               buckets.put(bucket.getBucketId(), bucket);
+            }
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
+         }
+      } catch (SQLException e) {
+         log.sqlFailureLoadingKeys(hashes.size(), e);
+         throw new CacheLoaderException(String.format(
+               "Sql failure while loading a batch of %d keys", hashes.size()), e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+      return buckets;
+   }
+
    @Override
    public Set<InternalCacheEntry> loadAllLockSafe() throws CacheLoaderException {
       return dmHelper.loadAllSupport(false);
    }
 
+   @Override
+   protected void processLockSafe(CacheLoaderTask task) throws CacheLoaderException {
+      dmHelper.processSupport(task, false);
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       return dmHelper.loadAllKeysSupport(keysToExclude);
@@ -309,19 +429,37 @@ protected void clearLockSafe() throws CacheLoaderException {
 
    @Override
    public void purgeInternal() throws CacheLoaderException {
+      long now = timeService.wallClockTime();
+      int maxBuckets = getPurgeBatchSize();
+      // the buckets purged by a round aren't expired anymore, so the next round selects the following ones
+      while (purgeExpiredBuckets(now, maxBuckets) == maxBuckets && !Thread.currentThread().isInterrupted()) {
+         if (isPurgeBudgetExhausted()) {
+            log.debug("Purge time budget used up, leaving the remaining expired buckets to the next purge");
+            break;
+         }
+      }
+   }
+
+   /**
+    * Purges the expired entries of at most the given number of buckets, which stay locked until they are updated.
+    *
+    * @return the number of buckets purged
+    */
+   private int purgeExpiredBuckets(long now, int maxBuckets) throws CacheLoaderException {
       Connection conn = null;
       PreparedStatement ps = null;
       ResultSet rs = null;
       Set<Bucket> expiredBuckets = new HashSet<Bucket>();
+      List<Object> purgedKeys = hasPurgeListeners() ? new ArrayList<Object>() : null;
       final int batchSize = 100;
       try {
          try {
             String sql = tableManipulation.getSelectExpiredRowsSql();
             conn = connectionFactory.getConnection();
             ps = conn.prepareStatement(sql);
-            ps.setLong(1, timeService.wallClockTime());
+            ps.setLong(1, now);
             rs = ps.executeQuery();
-            while (rs.next()) {
+            while (expiredBuckets.size() < maxBuckets && rs.next()) {
                Integer key = rs.getInt(2);
                if (immediateLockForWriting(key)) {
                   if (log.isTraceEnabled()) {
@@ -360,8 +498,9 @@ public void purgeInternal() throws CacheLoaderException {
          }
 
          if (expiredBuckets.isEmpty()) {
-            return;
+            return 0;
          }
+         int purgedBuckets = expiredBuckets.size();
 
          Set<Bucket> emptyBuckets = new HashSet<Bucket>();
          // now update all the buckets in batch
@@ -372,7 +511,7 @@ public void purgeInternal() throws CacheLoaderException {
             Iterator<Bucket> it = expiredBuckets.iterator();
             while (it.hasNext()) {
                Bucket bucket = it.next();
-               bucket.removeExpiredEntries();
+               bucket.removeExpiredEntries(purgedKeys);
                if (!bucket.isEmpty()) {
                   ByteBuffer byteBuffer = JdbcUtil.marshall(getMarshaller(), bucket);
                   ps.setBinaryStream(1, byteBuffer.getStream(), byteBuffer.getLength());
@@ -406,6 +545,8 @@ public void purgeInternal() throws CacheLoaderException {
                log.trace("Interrupted while marshalling to purge expired entries");
             }
             Thread.currentThread().interrupt();
+            // some of the purged buckets may not have been updated
+            purgedKeys = null;
          } catch (Exception ex) {
             // if something happens make sure buckets locks are being release
             releaseLocks(emptyBuckets);
@@ -423,7 +564,8 @@ public void purgeInternal() throws CacheLoaderException {
          }
 
          if (emptyBuckets.isEmpty()) {
-            return;
+            notifyEntriesPurged(purgedKeys);
+            return purgedBuckets;
          }
          // then remove the empty buckets
          try {
@@ -455,11 +597,19 @@ public void purgeInternal() throws CacheLoaderException {
             releaseLocks(emptyBuckets);
             JdbcUtil.safeClose(ps);
          }
+         notifyEntriesPurged(purgedKeys);
+         return purgedBuckets;
       } finally {
          connectionFactory.releaseConnection(conn);
       }
    }
 
+   private void notifyEntriesPurged(List<Object> purgedKeys) {
+      if (purgedKeys != null) {
+         for (Object key : purgedKeys) notifyEntryPurged(key);
+      }
+   }
+
    private void releaseLocks(Set<Bucket> expiredBucketKeys) {
       for (Bucket bucket : expiredBucketKeys) {
          unlock(bucket.getBucketId());
@@ -22,6 +22,10 @@
  * in various ways, as described <a href="http://www.mchange.com/projects/c3p0/index.html#configuration_files">here</a>.
  * The simplest way is by having an <tt>c3p0.properties</tt> file in the classpath. If no such file is found, default,
  * hardcoded values will be used.
+ * <p/>
+ * Unless the pool is configured with a statement cache, prepared statements are cached per connection (see {@link
+ * #DEFAULT_MAX_STATEMENTS_PER_CONNECTION}), so that the statements issued by the stores for every write aren't parsed
+ * by the database each time.
  *
  * @author Mircea.Markus@jboss.com
  * @author Tristan Tarrant
@@ -29,6 +33,12 @@
 public class PooledConnectionFactory extends ConnectionFactory {
 
    private static final Log log = LogFactory.getLog(PooledConnectionFactory.class, Log.class);
+
+   /**
+    * Enough for all the statements of the tables of a mixed store.
+    */
+   public static final int DEFAULT_MAX_STATEMENTS_PER_CONNECTION = 32;
+
    private ComboPooledDataSource pooledDataSource;
 
    @Override
@@ -58,6 +68,9 @@ public void start(ConnectionFactoryConfiguration config, ClassLoader classLoader
       pooledDataSource.setJdbcUrl(pooledConfiguration.connectionUrl());
       pooledDataSource.setUser(pooledConfiguration.username());
       pooledDataSource.setPassword(pooledConfiguration.password());
+      if (pooledDataSource.getMaxStatements() == 0 && pooledDataSource.getMaxStatementsPerConnection() == 0) {
+         pooledDataSource.setMaxStatementsPerConnection(DEFAULT_MAX_STATEMENTS_PER_CONNECTION);
+      }
       if (log.isTraceEnabled()) {
          log.tracef("Started connection factory with config: %s", config);
       }
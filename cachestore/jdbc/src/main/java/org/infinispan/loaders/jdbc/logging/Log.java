@@ -145,4 +145,20 @@ public interface Log extends org.infinispan.util.logging.Log {
 
    @Message(value = "Cannot specify a ConnectionFactory and manageConnectionFactory at the same time", id = 8030)
    CacheConfigurationException unmanagedConnectionFactory();
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Sql failure while writing a batch of %d buckets", id = 8031)
+   void sqlFailureWritingBuckets(int bucketCount, @Cause SQLException e);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Sql failure while loading a batch of %d keys", id = 8032)
+   void sqlFailureLoadingKeys(int keyCount, @Cause SQLException e);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Sql failure while counting the rows of the cache store", id = 8033)
+   void sqlFailureCountingRows(@Cause SQLException e);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Sql failure while purging the expired rows of the cache store", id = 8034)
+   void sqlFailurePurgingExpired(@Cause SQLException e);
 }
@@ -15,13 +15,20 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.jdbc.stringbased.JdbcStringBasedCacheStore;
 import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.PurgeListener;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -110,8 +117,21 @@ public void stop() throws CacheLoaderException {
 
    @Override
    protected void purgeInternal() throws CacheLoaderException {
-      binaryCacheStore.purgeInternal();
-      stringBasedCacheStore.purgeInternal();
+      // each store purges with its own purger threads and time budget
+      binaryCacheStore.purgeExpired();
+      stringBasedCacheStore.purgeExpired();
+   }
+
+   @Override
+   public void addPurgeListener(PurgeListener listener) {
+      binaryCacheStore.addPurgeListener(listener);
+      stringBasedCacheStore.addPurgeListener(listener);
+   }
+
+   @Override
+   public void removePurgeListener(PurgeListener listener) {
+      binaryCacheStore.removePurgeListener(listener);
+      stringBasedCacheStore.removePurgeListener(listener);
    }
 
    @Override
@@ -119,6 +139,22 @@ public InternalCacheEntry load(Object key) throws CacheLoaderException {
       return getCacheStore(key).load(key);
    }
 
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      Set<Object> stringKeys = new HashSet<Object>();
+      Set<Object> binaryKeys = new HashSet<Object>();
+      for (Object key : keys) {
+         if (getCacheStore(key) == stringBasedCacheStore) {
+            stringKeys.add(key);
+         } else {
+            binaryKeys.add(key);
+         }
+      }
+      Map<Object, InternalCacheEntry> entries = stringBasedCacheStore.loadAll(stringKeys);
+      entries.putAll(binaryCacheStore.loadAll(binaryKeys));
+      return entries;
+   }
+
    @Override
    public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
       Set<InternalCacheEntry> fromBuckets = binaryCacheStore.loadAll();
@@ -131,6 +167,21 @@ public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
       return fromBuckets;
    }
 
+   @Override
+   public void process(final CacheLoaderTask task) throws CacheLoaderException {
+      final boolean[] stopped = new boolean[1];
+      CacheLoaderTask stopTracking = new CacheLoaderTask() {
+         @Override
+         public boolean processEntry(InternalCacheEntry entry) throws InterruptedException {
+            stopped[0] = !task.processEntry(entry);
+            return !stopped[0];
+         }
+      };
+      stringBasedCacheStore.process(stopTracking);
+      if (!stopped[0])
+         binaryCacheStore.process(stopTracking);
+   }
+
    @Override
    public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
       if (numEntries < 0) return loadAll();
@@ -144,6 +195,12 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return set;
    }
 
+   @Override
+   public int size() throws CacheLoaderException {
+      long size = (long) stringBasedCacheStore.size() + binaryCacheStore.size();
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       Set<Object> fromBuckets = binaryCacheStore.loadAllKeys(keysToExclude);
@@ -157,6 +214,21 @@ public void store(InternalCacheEntry ed) throws CacheLoaderException {
       getCacheStore(ed.getKey()).store(ed);
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      List<InternalCacheEntry> stringEntries = new ArrayList<InternalCacheEntry>();
+      List<InternalCacheEntry> binaryEntries = new ArrayList<InternalCacheEntry>();
+      for (InternalCacheEntry ed : entries) {
+         if (getCacheStore(ed.getKey()) == stringBasedCacheStore) {
+            stringEntries.add(ed);
+         } else {
+            binaryEntries.add(ed);
+         }
+      }
+      stringBasedCacheStore.storeAll(stringEntries);
+      binaryCacheStore.storeAll(binaryEntries);
+   }
+
    @Override
    public void fromStream(ObjectInput inputStream) throws CacheLoaderException {
       binaryCacheStore.fromStream(inputStream);
@@ -174,6 +246,21 @@ public boolean remove(Object key) throws CacheLoaderException {
       return getCacheStore(key).remove(key);
    }
 
+   @Override
+   public void removeAll(Set<Object> keys) throws CacheLoaderException {
+      Set<Object> stringKeys = new HashSet<Object>();
+      Set<Object> binaryKeys = new HashSet<Object>();
+      for (Object key : keys) {
+         if (getCacheStore(key) == stringBasedCacheStore) {
+            stringKeys.add(key);
+         } else {
+            binaryKeys.add(key);
+         }
+      }
+      stringBasedCacheStore.removeAll(stringKeys);
+      binaryCacheStore.removeAll(binaryKeys);
+   }
+
    @Override
    public void clear() throws CacheLoaderException {
       binaryCacheStore.clear();
@@ -201,6 +288,7 @@ private JdbcStringBasedCacheStoreConfiguration buildStringStoreConfiguration(Jdb
       ConfigurationBuilder builder = new ConfigurationBuilder();
       JdbcStringBasedCacheStoreConfigurationBuilder stringBuilder = builder.loaders().addLoader
             (JdbcStringBasedCacheStoreConfigurationBuilder.class).manageConnectionFactory(false);
+      stringBuilder.purgeSynchronously(configuration.purgeSynchronously()).purgerThreads(configuration.purgerThreads());
       stringBuilder.
             key2StringMapper(configuration.key2StringMapper()).
             table().read(configuration.stringTable());
@@ -212,6 +300,7 @@ private JdbcBinaryCacheStoreConfiguration buildBinaryStoreConfiguration(JdbcMixe
       ConfigurationBuilder builder = new ConfigurationBuilder();
       JdbcBinaryCacheStoreConfigurationBuilder binaryBuilder = builder.loaders().addLoader
             (JdbcBinaryCacheStoreConfigurationBuilder.class).manageConnectionFactory(false);
+      binaryBuilder.purgeSynchronously(configuration.purgeSynchronously()).purgerThreads(configuration.purgerThreads());
       binaryBuilder.table().read(configuration.binaryTable());
       return binaryBuilder.create();
    }
@@ -16,6 +16,7 @@
 import org.infinispan.loaders.keymappers.Key2StringMapper;
 import org.infinispan.loaders.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.loaders.keymappers.UnsupportedKeyTypeException;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.LockSupportCacheStore;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.LogFactory;
@@ -28,6 +29,11 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -211,20 +217,23 @@ public void storeLockSafe(InternalCacheEntry ed, String lockingKey) throws Cache
       try {
          byteBuffer = JdbcUtil.marshall(getMarshaller(), ed.toInternalCacheValue());
          connection = connectionFactory.getConnection();
-         String sql = tableManipulation.getSelectIdRowSql();
-         if (log.isTraceEnabled()) {
-            log.tracef("Running sql '%s' on %s. Key string is '%s'", sql, ed, lockingKey);
-         }
-         ps = connection.prepareStatement(sql);
-         ps.setString(1, lockingKey);
-         ResultSet rs = ps.executeQuery();
-         if (rs.next()) {
-            sql = tableManipulation.getUpdateRowSql();
-         } else {
-            sql = tableManipulation.getInsertRowSql();
+         String sql = tableManipulation.getUpsertRowSql();
+         if (sql == null) {
+            sql = tableManipulation.getSelectIdRowSql();
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' on %s. Key string is '%s'", sql, ed, lockingKey);
+            }
+            ps = connection.prepareStatement(sql);
+            ps.setString(1, lockingKey);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+               sql = tableManipulation.getUpdateRowSql();
+            } else {
+               sql = tableManipulation.getInsertRowSql();
+            }
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
          }
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
          if (log.isTraceEnabled()) {
              log.tracef("Running sql '%s' on %s. Key string is '%s', value size is %d bytes", sql, ed, lockingKey, byteBuffer.getLength());
          }
@@ -271,6 +280,199 @@ public boolean removeLockSafe(Object key, String keyStr) throws CacheLoaderExcep
       }
    }
 
+   /**
+    * Upserts the rows of all the entries with a JDBC batch if the database supports it. Otherwise updates the rows with
+    * a JDBC batch, then inserts the rows which didn't exist with a second batch, and stores one by one the entries for
+    * which the driver doesn't report whether a row was updated.
+    */
+   @Override
+   protected void storeAllLockSafe(Map<String, List<InternalCacheEntry>> entriesByLock) throws CacheLoaderException {
+      List<String> keyStrings = new ArrayList<String>(entriesByLock.size());
+      List<InternalCacheEntry> entries = new ArrayList<InternalCacheEntry>(entriesByLock.size());
+      List<ByteBuffer> values = new ArrayList<ByteBuffer>(entriesByLock.size());
+      List<Integer> unknown = new ArrayList<Integer>();
+      Connection connection = null;
+      PreparedStatement ps = null;
+      try {
+         for (Map.Entry<String, List<InternalCacheEntry>> e : entriesByLock.entrySet()) {
+            // keys mapped to the same string share a row, the last one stored wins
+            InternalCacheEntry ed = e.getValue().get(e.getValue().size() - 1);
+            keyStrings.add(e.getKey());
+            entries.add(ed);
+            values.add(JdbcUtil.marshall(getMarshaller(), ed.toInternalCacheValue()));
+         }
+         connection = connectionFactory.getConnection();
+
+         String sql = tableManipulation.getUpsertRowSql();
+         if (sql != null) {
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' on %d entries", sql, entries.size());
+            }
+            ps = connection.prepareStatement(sql);
+            executeStoreBatch(ps, keyStrings, entries, values, null);
+            return;
+         }
+
+         sql = tableManipulation.getUpdateRowSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' on %d entries", sql, entries.size());
+         }
+         ps = connection.prepareStatement(sql);
+         int[] updated = executeStoreBatch(ps, keyStrings, entries, values, null);
+         JdbcUtil.safeClose(ps);
+
+         List<Integer> missing = new ArrayList<Integer>();
+         for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+               missing.add(i);
+            } else if (updated[i] == Statement.SUCCESS_NO_INFO) {
+               unknown.add(i);
+            }
+         }
+         if (!missing.isEmpty()) {
+            sql = tableManipulation.getInsertRowSql();
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' on %d entries", sql, missing.size());
+            }
+            ps = connection.prepareStatement(sql);
+            executeStoreBatch(ps, keyStrings, entries, values, missing);
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new CacheLoaderException("Error while storing string keys to database", ex);
+      } catch (InterruptedException e) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(connection);
+      }
+      for (int i : unknown) {
+         storeLockSafe(entries.get(i), keyStrings.get(i));
+      }
+   }
+
+   /**
+    * Executes a statement taking the value, the expiry time and the key string of an entry as parameters, in batches
+    * of the configured size, for the entries at the given indexes or for all of them.
+    *
+    * @return the number of rows affected by each statement
+    */
+   private int[] executeStoreBatch(PreparedStatement ps, List<String> keyStrings, List<InternalCacheEntry> entries,
+                                   List<ByteBuffer> values, List<Integer> indexes) throws SQLException {
+      int size = indexes == null ? entries.size() : indexes.size();
+      int batchSize = tableManipulation.getBatchSize();
+      int[] rowCounts = new int[size];
+      int executed = 0;
+      for (int n = 0; n < size; n++) {
+         int i = indexes == null ? n : indexes.get(n);
+         ByteBuffer value = values.get(i);
+         ps.setBinaryStream(1, value.getStream(), value.getLength());
+         ps.setLong(2, entries.get(i).getExpiryTime());
+         ps.setString(3, keyStrings.get(i));
+         ps.addBatch();
+         if ((n + 1) % batchSize == 0 || n == size - 1) {
+            int[] batch = ps.executeBatch();
+            System.arraycopy(batch, 0, rowCounts, executed, batch.length);
+            executed += batch.length;
+         }
+      }
+      return rowCounts;
+   }
+
+   /**
+    * Deletes the rows of all the keys with a JDBC batch.
+    */
+   @Override
+   protected void removeAllLockSafe(Map<String, List<Object>> keysByLock) throws CacheLoaderException {
+      Connection connection = null;
+      PreparedStatement ps = null;
+      try {
+         String sql = tableManipulation.getDeleteRowSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql '%s' on %d keys", sql, keysByLock.size());
+         }
+         connection = connectionFactory.getConnection();
+         ps = connection.prepareStatement(sql);
+         int batchSize = tableManipulation.getBatchSize();
+         int count = 0;
+         for (String keyStr : keysByLock.keySet()) {
+            ps.setString(1, keyStr);
+            ps.addBatch();
+            if (++count % batchSize == 0) {
+               ps.executeBatch();
+            }
+         }
+         if (count % batchSize != 0) {
+            ps.executeBatch();
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureRemovingKeys(ex);
+         throw new CacheLoaderException("Error while removing string keys from database", ex);
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
+   /**
+    * Loads the rows of the keys with queries selecting up to the configured batch size of ids at once.
+    */
+   @Override
+   protected Map<Object, InternalCacheEntry> loadAllLockSafe(Map<String, List<Object>> keysByLock) throws CacheLoaderException {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      List<String> keyStrings = new ArrayList<String>(keysByLock.keySet());
+      int batchSize = tableManipulation.getBatchSize();
+      long now = timeService.wallClockTime();
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         conn = connectionFactory.getConnection();
+         for (int from = 0; from < keyStrings.size(); from += batchSize) {
+            List<String> batch = keyStrings.subList(from, Math.min(from + batchSize, keyStrings.size()));
+            String sql = tableManipulation.getSelectMultipleRowSql(batch.size());
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s' on %d keys", sql, batch.size());
+            }
+            ps = conn.prepareStatement(sql);
+            for (int i = 0; i < batch.size(); i++) {
+               ps.setString(i + 1, batch.get(i));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+               String keyStr = rs.getString(1);
+               List<Object> keys = keysByLock.get(keyStr);
+               if (keys == null) {
+                  // fixed length id columns are padded with spaces
+                  keys = keysByLock.get(keyStr.trim());
+                  if (keys == null) continue;
+               }
+               InternalCacheValue icv = (InternalCacheValue) JdbcUtil.unmarshall(getMarshaller(), rs.getBinaryStream(2));
+               if (icv.isExpired(now)) {
+                  continue;
+               }
+               for (Object key : keys) {
+                  entries.put(key, icv.toInternalCacheEntry(key));
+               }
+            }
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
+         }
+      } catch (SQLException e) {
+         log.sqlFailureLoadingKeys(keyStrings.size(), e);
+         throw new CacheLoaderException(String.format(
+               "SQL error while loading a batch of %d keys", keyStrings.size()), e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+      return entries;
+   }
+
    @Override
    public void fromStreamLockSafe(ObjectInput objectInput) throws CacheLoaderException {
       dmHelper.fromStreamSupport(objectInput);
@@ -296,27 +498,151 @@ protected Set<InternalCacheEntry> loadLockSafe(int maxEntries) throws CacheLoade
       return dmHelper.loadSome(maxEntries);
    }
 
+   @Override
+   protected void processLockSafe(CacheLoaderTask task) throws CacheLoaderException {
+      dmHelper.processSupport(task, true);
+   }
+
    @Override
    protected Set<Object> loadAllKeysLockSafe(Set<Object> keysToExclude) throws CacheLoaderException {
       return dmHelper.loadAllKeysSupport(keysToExclude);
    }
 
+   /**
+    * {@inheritDoc} The rows are counted by the database.
+    */
    @Override
-   public void purgeInternal() throws CacheLoaderException {
+   public int size() throws CacheLoaderException {
       Connection conn = null;
       PreparedStatement ps = null;
+      ResultSet rs = null;
       try {
-         String sql = tableManipulation.getDeleteExpiredRowsSql();
+         String sql = tableManipulation.getCountNonExpiredRowsSql();
          conn = connectionFactory.getConnection();
          ps = conn.prepareStatement(sql);
          ps.setLong(1, timeService.wallClockTime());
-         int result = ps.executeUpdate();
+         rs = ps.executeQuery();
+         rs.next();
+         long count = rs.getLong(1);
+         return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+      } catch (SQLException e) {
+         log.sqlFailureCountingRows(e);
+         throw new CacheLoaderException("Failed counting the rows of the string based JDBC store", e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   @Override
+   protected boolean supportsMultiThreadedPurge() {
+      return true;
+   }
+
+   /**
+    * Reads the ids of the expired rows one page of {@link #getPurgeBatchSize()} rows at a time, and deletes each page in
+    * its own transaction, in parallel when several purger threads are configured, so that neither all the expired ids
+    * are held in memory nor concurrent writes wait for a single delete of all the expired rows.  Once the time budget of
+    * the purge is used up, the remaining rows are left to the next purge.  The purge listeners are only notified when
+    * the key mapper is a {@link TwoWayKey2StringMapper}, as the keys can't be rebuilt from the ids otherwise.
+    */
+   @Override
+   public void purgeInternal() throws CacheLoaderException {
+      final long now = timeService.wallClockTime();
+      int batchSize = getPurgeBatchSize();
+      String lastId = null;
+      int selected = 0;
+      while (true) {
+         if (isPurgeBudgetExhausted()) {
+            log.debugf("Purge time budget used up after %d expired rows, the rest is left to the next purge", selected);
+            break;
+         }
+         final List<String> batch = selectExpiredIds(now, lastId, batchSize);
+         if (batch.isEmpty()) break;
+         selected += batch.size();
+         // the rows updated meanwhile aren't deleted, so the next page starts after the last id rather than at the start
+         lastId = batch.get(batch.size() - 1);
+         if (multiThreadedPurge) {
+            purgerService.execute(new Runnable() {
+               @Override
+               public void run() {
+                  if (isPurgeBudgetExhausted()) return;
+                  try {
+                     deleteExpiredRows(batch, now);
+                  } catch (CacheLoaderException e) {
+                     log.problemPurgingExpired(e);
+                  }
+               }
+            });
+         } else {
+            deleteExpiredRows(batch, now);
+         }
+         if (batch.size() < batchSize) break;
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("Selected %d expired rows to purge.", selected);
+      }
+   }
+
+   /**
+    * @return the ids of at most {@code limit} rows expired at {@code now}, in order, starting after {@code afterId} if it
+    *         isn't null
+    */
+   private List<String> selectExpiredIds(long now, String afterId, int limit) throws CacheLoaderException {
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
+      try {
+         String sql = afterId == null ? tableManipulation.getSelectExpiredIdsSql() : tableManipulation.getSelectExpiredIdsAfterSql();
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(sql);
+         ps.setLong(1, now);
+         if (afterId != null) ps.setString(2, afterId);
+         ps.setMaxRows(limit);
+         ps.setFetchSize(Math.min(limit, tableManipulation.getFetchSize()));
+         rs = ps.executeQuery();
+         List<String> ids = new ArrayList<String>(Math.min(limit, tableManipulation.getFetchSize()));
+         while (rs.next()) {
+            ids.add(rs.getString(1));
+         }
+         return ids;
+      } catch (SQLException ex) {
+         log.sqlFailurePurgingExpired(ex);
+         throw new CacheLoaderException("Failed selecting the expired rows of the string based JDBC store", ex);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
+      }
+   }
+
+   private void deleteExpiredRows(List<String> ids, long now) throws CacheLoaderException {
+      Connection conn = null;
+      PreparedStatement ps = null;
+      try {
+         String sql = tableManipulation.getDeleteExpiredRowSql();
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(sql);
+         for (String id : ids) {
+            ps.setString(1, id);
+            ps.setLong(2, now);
+            ps.addBatch();
+         }
+         int[] results = ps.executeBatch();
          if (log.isTraceEnabled()) {
-            log.tracef("Successfully purged %d rows.", result);
+            log.tracef("Successfully purged a batch of %d rows.", ids.size());
+         }
+         if (hasPurgeListeners() && key2StringMapper instanceof TwoWayKey2StringMapper) {
+            for (int i = 0; i < results.length; i++) {
+               // rows updated since they were found expired aren't deleted
+               if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO)
+                  notifyEntryPurged(((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(ids.get(i)));
+            }
          }
       } catch (SQLException ex) {
-         log.failedClearingJdbcCacheStore(ex);
-         throw new CacheLoaderException("Failed clearing string based JDBC store", ex);
+         log.sqlFailurePurgingExpired(ex);
+         throw new CacheLoaderException("Failed purging the expired rows of the string based JDBC store", ex);
       } finally {
          JdbcUtil.safeClose(ps);
          connectionFactory.releaseConnection(conn);
@@ -2,6 +2,9 @@
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -138,6 +141,53 @@ public void testTableQuoting() throws Exception {
       assert existsTable(connection, tableManipulation.getTableName());
    }
 
+   public void testUpsertRow() throws Exception {
+      JdbcStringBasedCacheStoreConfigurationBuilder storeBuilder = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .loaders()
+               .addLoader(JdbcStringBasedCacheStoreConfigurationBuilder.class)
+               .purgeSynchronously(true);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table(), false);
+      TableManipulation upsertManipulation = new TableManipulation(storeBuilder.table().create());
+      upsertManipulation.setCacheName("UpsertRow");
+      upsertManipulation.createTable(connection);
+
+      String sql = upsertManipulation.getUpsertRowSql();
+      assert sql != null : "The test databases support upserts";
+      upsertRow(sql, "key", new byte[]{1}, 1);
+      upsertRow(sql, "key", new byte[]{2, 2}, 2);
+      upsertRow(sql, "otherKey", new byte[]{3}, 3);
+
+      Statement st = connection.createStatement();
+      ResultSet rs = null;
+      try {
+         rs = st.executeQuery("SELECT ID_COLUMN, DATA_COLUMN, TIMESTAMP_COLUMN FROM " + upsertManipulation.getTableName() + " ORDER BY ID_COLUMN");
+         assert rs.next();
+         assertEquals(rs.getString(1), "key");
+         assertEquals(rs.getBytes(2), new byte[]{2, 2});
+         assertEquals(rs.getLong(3), 2);
+         assert rs.next();
+         assertEquals(rs.getString(1), "otherKey");
+         assert !rs.next();
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(st);
+      }
+      upsertManipulation.dropTable(connection);
+   }
+
+   private void upsertRow(String sql, String id, byte[] data, long timestamp) throws SQLException {
+      PreparedStatement ps = connection.prepareStatement(sql);
+      try {
+         ps.setBinaryStream(1, new ByteArrayInputStream(data), data.length);
+         ps.setLong(2, timestamp);
+         ps.setString(3, id);
+         ps.executeUpdate();
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+   }
+
    static boolean existsTable(Connection connection, TableName tableName) throws Exception {
       Statement st = connection.createStatement();
       ResultSet rs = null;
@@ -2,7 +2,14 @@
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.loaders.BaseCacheStoreTest;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.jdbc.TableManipulation;
@@ -10,7 +17,10 @@
 import org.infinispan.loaders.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.loaders.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.PurgeListener;
+import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.test.fwk.UnitTestDatabaseManager;
 import org.testng.annotations.Test;
 
@@ -68,6 +78,79 @@ public void testNotCreateConnectionFactory() throws Exception {
       stringBasedCacheStore.stop();
    }
 
+   public void testPurgeReadsExpiredRowsInPages() throws Exception {
+      JdbcStringBasedCacheStore store = createPurgeStore(2, 0);
+      try {
+         final AtomicInteger purged = countPurges(store, 0);
+         for (int i = 0; i < 5; i++) {
+            store.store(TestInternalCacheEntryFactory.create("expired" + i, "v", 1));
+         }
+         store.store(TestInternalCacheEntryFactory.create("live", "v"));
+         Thread.sleep(100);
+
+         // the five expired rows span three pages of two rows
+         store.purgeExpired();
+         assertEquals(5, purged.get());
+         assertEquals(1, store.size());
+         assertTrue(store.containsKey("live"));
+      } finally {
+         store.stop();
+      }
+   }
+
+   public void testPurgeStopsWhenTimeBudgetUsedUp() throws Exception {
+      // each batch of a single row takes longer than half of the time budget
+      JdbcStringBasedCacheStore store = createPurgeStore(1, 50);
+      try {
+         AtomicInteger purged = countPurges(store, 30);
+         for (int i = 0; i < 10; i++) {
+            store.store(TestInternalCacheEntryFactory.create("expired" + i, "v", 1));
+         }
+         Thread.sleep(100);
+
+         store.purgeExpired();
+         int firstPurge = purged.get();
+         assertTrue("Purged " + firstPurge + " rows", firstPurge > 0 && firstPurge < 10);
+
+         // the next purges carry on with the remaining rows
+         for (int i = 0; i < 10 && purged.get() < 10; i++) {
+            store.purgeExpired();
+         }
+         assertEquals(10, purged.get());
+      } finally {
+         store.stop();
+      }
+   }
+
+   private JdbcStringBasedCacheStore createPurgeStore(int batchSize, long timeBudget) throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.loaders().purgeBatchSize(batchSize).purgeTimeBudget(timeBudget);
+      JdbcStringBasedCacheStoreConfigurationBuilder storeBuilder = builder
+            .loaders()
+               .addLoader(JdbcStringBasedCacheStoreConfigurationBuilder.class)
+                  .purgeSynchronously(true);
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table(), false);
+      Cache cache = getCache();
+      when(cache.getCacheConfiguration()).thenReturn(builder.build());
+      JdbcStringBasedCacheStore store = new JdbcStringBasedCacheStore();
+      store.init(storeBuilder.create(), cache, getMarshaller());
+      store.start();
+      return store;
+   }
+
+   private AtomicInteger countPurges(JdbcStringBasedCacheStore store, final long delay) {
+      final AtomicInteger purged = new AtomicInteger();
+      store.addPurgeListener(new PurgeListener() {
+         @Override
+         public void entryPurged(Object key) {
+            purged.incrementAndGet();
+            if (delay > 0) TestingUtil.sleepThread(delay);
+         }
+      });
+      return purged;
+   }
+
    @Override
    @Test(expectedExceptions = UnsupportedKeyTypeException.class)
    public void testLoadAndStoreMarshalledValues() throws CacheLoaderException {
@@ -20,6 +20,7 @@
 import org.infinispan.loaders.remote.logging.Log;
 import org.infinispan.loaders.remote.wrapper.HotRodEntryMarshaller;
 import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.commons.api.BasicCacheContainer;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -30,6 +31,7 @@
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -79,6 +81,22 @@ public InternalCacheEntry load(Object key) throws CacheLoaderException {
       }
    }
 
+   /**
+    * {@inheritDoc} The keys are read with {@link RemoteCache#getAll(Set)}, which pipelines their requests.  Raw values
+    * are loaded one by one, as their metadata has to be read with each of them.
+    */
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      if (configuration.rawValues()) {
+         return super.loadAll(keys);
+      }
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      for (Map.Entry<Object, Object> entry : remoteCache.getAll(keys).entrySet()) {
+         entries.put(entry.getKey(), (InternalCacheEntry) entry.getValue());
+      }
+      return entries;
+   }
+
    @Override
    protected void purgeInternal() throws CacheLoaderException {
       if (log.isTraceEnabled()) {
@@ -91,6 +109,14 @@ public boolean containsKey(Object key) throws CacheLoaderException {
       return remoteCache.containsKey(key);
    }
 
+   /**
+    * {@inheritDoc} The entries are counted from the statistics of the remote server.
+    */
+   @Override
+   public int size() throws CacheLoaderException {
+      return remoteCache.size();
+   }
+
    @Override
    public void store(InternalCacheEntry entry) throws CacheLoaderException {
       if (log.isTraceEnabled()) {
@@ -145,6 +171,18 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return convertToInternalCacheEntries(remoteCache.getBulk(numEntries));
    }
 
+   /**
+    * {@inheritDoc} Only the keys are fetched in bulk from the remote cache, the entries are then fetched one by one.
+    */
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      for (Object key : remoteCache.keySet()) {
+         InternalCacheEntry entry = load(key);
+         if (entry != null && !processEntry(task, entry))
+            return;
+      }
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       log.sharedModeOnlyAllowed();
@@ -271,6 +271,14 @@
     */
    Map<K, V> getBulk(int size);
 
+   /**
+    * Returns the values of a set of keys.  Unlike calling {@link #get(Object)} for each key, the requests are pipelined
+    * on a connection, so the keys are read in a few round trips to the server instead of one per key.
+    *
+    * @return a map of the keys which exist to their values. The returned Map is unmodifiable.
+    */
+   Map<K, V> getAll(Set<? extends K> keys);
+
 
    /**
     * Returns the HotRod protocol version supported by this RemoteCache implementation
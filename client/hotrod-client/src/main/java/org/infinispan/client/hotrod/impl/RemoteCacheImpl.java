@@ -3,9 +3,11 @@
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -27,6 +29,7 @@
 import org.infinispan.client.hotrod.impl.operations.BulkGetOperation;
 import org.infinispan.client.hotrod.impl.operations.ClearOperation;
 import org.infinispan.client.hotrod.impl.operations.ContainsKeyOperation;
+import org.infinispan.client.hotrod.impl.operations.GetAllOperation;
 import org.infinispan.client.hotrod.impl.operations.GetOperation;
 import org.infinispan.client.hotrod.impl.operations.GetWithMetadataOperation;
 import org.infinispan.client.hotrod.impl.operations.GetWithVersionOperation;
@@ -52,6 +55,11 @@
 
    private static final Log log = LogFactory.getLog(RemoteCacheImpl.class, Log.class);
 
+   /**
+    * The maximum number of "get" requests sent to the server before reading their responses.
+    */
+   private static final int GET_ALL_PIPELINE_SIZE = 64;
+
    private Marshaller marshaller;
    private final String name;
    private final RemoteCacheManager remoteCacheManager;
@@ -336,6 +344,32 @@ public V get(Object key) {
       return result;
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      assertRemoteCacheManagerIsStarted();
+      List<K> keyList = new ArrayList<K>(keys);
+      Map<K, V> toReturn = new HashMap<K, V>();
+      for (int from = 0; from < keyList.size(); from += GET_ALL_PIPELINE_SIZE) {
+         List<K> batch = keyList.subList(from, Math.min(from + GET_ALL_PIPELINE_SIZE, keyList.size()));
+         List<byte[]> keyBytes = new ArrayList<byte[]>(batch.size());
+         for (K key : batch) {
+            keyBytes.add(obj2bytes(key, true));
+         }
+         GetAllOperation op = operationsFactory.newGetAllOperation(keyBytes);
+         byte[][] values = op.execute();
+         for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+               toReturn.put(batch.get(i), (V) bytes2obj(values[i]));
+            }
+         }
+      }
+      if (log.isTraceEnabled()) {
+         log.tracef("For keys(%s) returning %s", keys, toReturn);
+      }
+      return Collections.unmodifiableMap(toReturn);
+   }
+
    @Override
    public Map<K, V> getBulk() {
       return getBulk(0);
@@ -0,0 +1,67 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the values of several keys in a single round trip, by pipelining their "get" requests on one connection: all
+ * the requests are written before reading the responses, which the server sends back in order.
+ *
+ * @since 6.0
+ */
+@Immutable
+public class GetAllOperation extends RetryOnFailureOperation<byte[][]> {
+
+   private final List<byte[]> keys;
+
+   public GetAllOperation(Codec codec, TransportFactory transportFactory,
+         List<byte[]> keys, byte[] cacheName, AtomicInteger topologyId, Flag[] flags) {
+      super(codec, transportFactory, cacheName, topologyId, flags);
+      this.keys = keys;
+   }
+
+   @Override
+   protected Transport getTransport(int retryCount) {
+      if (retryCount == 0) {
+         return transportFactory.getTransport(keys.get(0));
+      } else {
+         return transportFactory.getTransport();
+      }
+   }
+
+   /**
+    * @return the values of the keys, in the same order as the keys, with null for the keys which don't exist
+    */
+   @Override
+   protected byte[][] executeOperation(Transport transport) {
+      HeaderParams[] params = new HeaderParams[keys.size()];
+      for (int i = 0; i < params.length; i++) {
+         params[i] = writeHeader(transport, GET_REQUEST);
+         transport.writeArray(keys.get(i));
+      }
+      transport.flush();
+
+      byte[][] values = new byte[params.length][];
+      boolean completed = false;
+      try {
+         for (int i = 0; i < params.length; i++) {
+            short status = readHeaderAndValidate(transport, params[i]);
+            if (status == NO_ERROR_STATUS) {
+               values[i] = transport.readArray();
+            }
+         }
+         completed = true;
+      } finally {
+         // the responses of the remaining requests are still pending, the connection can't be reused
+         if (!completed) transport.invalidate();
+      }
+      return values;
+   }
+}
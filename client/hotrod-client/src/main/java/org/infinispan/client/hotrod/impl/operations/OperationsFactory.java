@@ -114,6 +114,11 @@ public ClearOperation newClearOperation() {
             codec, transportFactory, cacheNameBytes, topologyId, flags());
    }
 
+   public GetAllOperation newGetAllOperation(List<byte[]> keys) {
+      return new GetAllOperation(
+            codec, transportFactory, keys, cacheNameBytes, topologyId, flags());
+   }
+
    public BulkGetOperation newBulkGetOperation(int size) {
       return new BulkGetOperation(
             codec, transportFactory, cacheNameBytes, topologyId, flags(), size);
@@ -21,6 +21,8 @@
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Similar to {@link org.infinispan.AbstractDelegatingCache}, but for {@link AdvancedCache}.
@@ -176,11 +178,21 @@ public CacheEntry getCacheEntry(Object key, EnumSet<Flag> explicitFlags, ClassLo
       return cache.getCacheEntry(key, explicitFlags, explicitClassLoader);
    }
 
+   @Override
+   public <R> R invoke(K key, EntryFunction<K, V, R> function) {
+      return cache.invoke(key, function);
+   }
+
    @Override
    public CacheEntry getCacheEntry(K key) {
       return cache.getCacheEntry(key);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      return cache.getAll(keys);
+   }
+
    @Override
    public V put(K key, V value, Metadata metadata) {
       return cache.put(key, value, metadata);
@@ -21,6 +21,8 @@
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An advanced interface that exposes additional methods not available on {@link Cache}.
@@ -363,6 +365,23 @@
     */
    NotifyingFuture<V> putAsync(K key, V value, Metadata metadata);
 
+   /**
+    * Applies a function to the entry of a key, while the key is locked.  The function may read the value of the
+    * entry, create it, replace its value or remove it.
+    * <p/>
+    * In a distributed or replicated cache which isn't transactional, the function is applied by the primary owner of
+    * the key, so the value isn't transferred to the caller, and only the outcome of the function is replicated to the
+    * other owners.  In a transactional cache, the function is applied by the caller, and its outcome is written by
+    * the transaction like any other write.
+    *
+    * @param key the key of the entry to apply the function to
+    * @param function the function to apply, which must be marshallable in a clustered cache
+    * @return the result of the function
+    *
+    * @since 6.0
+    */
+   <R> R invoke(K key, EntryFunction<K, V, R> function);
+
    // TODO: Even better: add replace/remove calls that apply the changes if a given function is successful
    // That way, you could do comparison not only on the cache value, but also based on version...etc
 
@@ -377,4 +396,16 @@
     */
    CacheEntry getCacheEntry(K key);
 
+   /**
+    * Retrieves the values mapped to several keys with a single operation.  In a distributed cache, the keys not found
+    * locally are retrieved with a single remote call to each of the nodes owning them, sent in parallel.
+    *
+    * @param keys the keys whose associated values are to be returned
+    * @return a map of the keys found in the cache to their values.  The keys which aren't mapped to any value are
+    *         left out of it.
+    *
+    * @since 6.0
+    */
+   Map<K, V> getAll(Set<?> keys);
+
 }
@@ -6,11 +6,13 @@
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
@@ -123,6 +125,10 @@
    private TransactionCoordinator txCoordinator;
    private GlobalConfiguration globalCfg;
    private boolean isClassLoaderInContext;
+   /**
+    * The command of the last get of each thread, which its next get reuses.
+    */
+   private final ThreadLocal<GetKeyValueCommand> idleGetCommand = new ThreadLocal<GetKeyValueCommand>();
 
    public CacheImpl(String name) {
       this.name = name;
@@ -365,11 +371,38 @@ public final V get(Object key) {
    @SuppressWarnings("unchecked")
    final V get(Object key, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
       assertKeyNotNull(key);
+      if (explicitFlags == null && !config.transaction().transactionMode().isTransactional())
+         return getReusingInvocation(key, explicitClassLoader);
       InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, 1);
       GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags, false);
       return (V) invoker.invoke(ctx, command);
    }
 
+   /**
+    * A non-transactional get which, instead of allocating an invocation context and a command, reuses the ones of the
+    * previous get of the calling thread.
+    */
+   @SuppressWarnings("unchecked")
+   private V getReusingInvocation(Object key, ClassLoader explicitClassLoader) {
+      GetKeyValueCommand command = idleGetCommand.get();
+      if (command == null) {
+         // the first get of the thread, or a get nested in another one, e.g. from a listener
+         command = commandsFactory.buildGetKeyValueCommand(key, null, false);
+      } else {
+         idleGetCommand.set(null);
+         command.reset(key, null);
+      }
+      InvocationContext ctx = setInvocationContextClassLoader(icc.createReusableReadInvocationContext(), explicitClassLoader);
+      try {
+         return (V) invoker.invoke(ctx, command);
+      } finally {
+         icc.releaseReadInvocationContext(ctx);
+         // don't keep the key and the remotely fetched value until the next get of the thread
+         command.reset(null, null);
+         idleGetCommand.set(command);
+      }
+   }
+
    @Override
    public final CacheEntry getCacheEntry(Object key, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
       assertKeyNotNull(key);
@@ -384,6 +417,47 @@ public final CacheEntry getCacheEntry(K key) {
       return getCacheEntry(key, null, null);
    }
 
+   @Override
+   public final Map<K, V> getAll(Set<?> keys) {
+      return getAll(keys, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final Map<K, V> getAll(Set<?> keys, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      if (keys == null) {
+         throw new NullPointerException("Expected set cannot be null");
+      }
+      for (Object key : keys) {
+         assertKeyNotNull(key);
+      }
+      InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, keys.size());
+      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, explicitFlags, false);
+      return (Map<K, V>) invoker.invoke(ctx, command);
+   }
+
+   @Override
+   public final <R> R invoke(K key, EntryFunction<K, V, R> function) {
+      return invoke(key, function, defaultMetadata, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   final <R> R invoke(K key, EntryFunction<K, V, R> function, Metadata metadata, EnumSet<Flag> explicitFlags,
+                      ClassLoader explicitClassLoader) {
+      assertKeyNotNull(key);
+      if (function == null) {
+         throw new NullPointerException("Function cannot be null");
+      }
+      if (explicitFlags != null && explicitFlags.contains(Flag.IGNORE_RETURN_VALUES)) {
+         // the function reads the previous value, so it must be loaded anyway
+         explicitFlags = EnumSet.copyOf(explicitFlags);
+         explicitFlags.remove(Flag.IGNORE_RETURN_VALUES);
+      }
+      InvocationContext ctx = getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1);
+      ApplyFunctionCommand command = commandsFactory.buildApplyFunctionCommand(
+            key, (EntryFunction<Object, Object, Object>) function, metadata, explicitFlags);
+      return (R) executeCommandAndCommitIfNeeded(ctx, command);
+   }
+
    @Override
    public final V remove(Object key) {
       return remove(key, null, null);
@@ -989,7 +1063,14 @@ public final NotifyingFuture<V> putAsync(K key, V value, long lifespan, TimeUnit
       return putAsync(key, value, metadata, null, null);
    }
 
+   @SuppressWarnings("unchecked")
    final NotifyingFuture<V> putAsync(final K key, final V value, final Metadata metadata, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
+      if (isAsyncInvocationSupported(key, explicitFlags, true)) {
+         assertKeyValueNotNull(key, value);
+         InvocationContext ctx = getInvocationContextWithImplicitTransaction(false, explicitClassLoader, 1);
+         PutKeyValueCommand command = commandsFactory.buildPutKeyValueCommand(key, value, metadata, explicitFlags);
+         return (NotifyingFuture) invoker.invokeAsync(ctx, command);
+      }
       final LegacyNotifyingFutureAdaptor<V> result = new LegacyNotifyingFutureAdaptor<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
@@ -1200,6 +1281,12 @@ NotifyingFuture<V> getAsync(final K key, final EnumSet<Flag> explicitFlags, fina
       // Optimization to not start a new thread only when the operation is cheap:
       if (asyncSkipsThread(explicitFlags, key)) {
          return wrapInFuture(get(key, explicitFlags, explicitClassLoader));
+      } else if (isAsyncInvocationSupported(key, explicitFlags, false)) {
+         // The interceptors don't block waiting for the remote get, so there's no need for a thread either
+         assertKeyNotNull(key);
+         InvocationContext ctx = getInvocationContextForRead(null, explicitClassLoader, 1);
+         GetKeyValueCommand command = commandsFactory.buildGetKeyValueCommand(key, explicitFlags, false);
+         return (NotifyingFuture) invoker.invokeAsync(ctx, command);
       } else {
          // Make sure the flags are cleared
          final EnumSet<Flag> appliedFlags;
@@ -1226,6 +1313,24 @@ public V call() throws Exception {
       }
    }
 
+   /**
+    * @return {@code true} if the single key operation doesn't need a thread of the async executor, because the
+    *         interceptor chain can invoke it without blocking, see {@link InterceptorChain#invokeAsync}, and this node
+    *         only sends it to a remote owner of the key.  When this node reads the key, or writes it as its primary
+    *         owner, the invocation would acquire the lock and replicate the write to the backup owners in the calling
+    *         thread.
+    */
+   private boolean isAsyncInvocationSupported(Object key, EnumSet<Flag> flags, boolean write) {
+      if (!config.clustering().cacheMode().isDistributed() || config.transaction().transactionMode().isTransactional()
+            || !invoker.isAsyncInvocationSupported())
+         return false;
+      if (flags != null && (flags.contains(Flag.CACHE_MODE_LOCAL) || !write && flags.contains(Flag.SKIP_REMOTE_LOOKUP)))
+         return false;
+      if (write)
+         return !distributionManager.getPrimaryLocation(key).equals(rpcManager.getAddress());
+      return !distributionManager.getLocality(key).isLocal();
+   }
+
    /**
     * Encodes the cases for an asyncGet operation in which it makes sense to actually perform the operation in sync.
     *
@@ -490,9 +490,19 @@ public V replace(K key, V value, Metadata metadata) {
       return cacheImplementation.replace(key, value, metadata, flags, classLoader.get());
    }
 
+   @Override
+   public <R> R invoke(K key, EntryFunction<K, V, R> function) {
+      return cacheImplementation.invoke(key, function, cacheImplementation.defaultMetadata, flags, classLoader.get());
+   }
+
    @Override
    public CacheEntry getCacheEntry(K key) {
       return cacheImplementation.getCacheEntry(key, flags, classLoader.get());
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      return cacheImplementation.getAll(keys, flags, classLoader.get());
+   }
+
 }
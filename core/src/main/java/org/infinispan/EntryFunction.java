@@ -0,0 +1,51 @@
+package org.infinispan;
+
+/**
+ * A function applied to the entry of a key by {@link AdvancedCache#invoke(Object, EntryFunction)}.  In a distributed
+ * or replicated cache which isn't transactional, the function is shipped to the primary owner of the key and applied
+ * there while the key is locked, so it must be marshallable.  The other owners only receive its result: the new
+ * value of the entry, or its removal.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @param <R> the type of the result of the function
+ * @since 6.0
+ */
+public interface EntryFunction<K, V, R> {
+
+   /**
+    * Applies the function to an entry.  Unless {@link MutableEntry#setValue(Object)} or {@link MutableEntry#remove()}
+    * is invoked, the entry is left as it is.
+    *
+    * @param entry a view of the entry, which may not exist
+    * @return the result returned to the caller
+    */
+   R apply(MutableEntry<K, V> entry);
+
+   /**
+    * The view of an entry passed to an {@link EntryFunction}.
+    */
+   interface MutableEntry<K, V> {
+
+      K getKey();
+
+      /**
+       * @return the value of the entry, including the changes made by the function, or null if it doesn't exist
+       */
+      V getValue();
+
+      boolean exists();
+
+      /**
+       * Creates the entry, or replaces its value.
+       *
+       * @throws NullPointerException if the value is null, use {@link #remove()} instead
+       */
+      void setValue(V value);
+
+      /**
+       * Removes the entry.
+       */
+      void remove();
+   }
+}
@@ -8,6 +8,7 @@
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
@@ -98,6 +99,9 @@ public ReplicableCommand fromStream(byte id, Object[] parameters, byte type) {
             case ReplaceCommand.COMMAND_ID:
                command = new ReplaceCommand();
                break;
+            case ApplyFunctionCommand.COMMAND_ID:
+               command = new ApplyFunctionCommand();
+               break;
             case GetKeyValueCommand.COMMAND_ID:
                command = new GetKeyValueCommand();
                break;
@@ -185,6 +189,9 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case ClusteredGetCommand.COMMAND_ID:
                command = new ClusteredGetCommand(cacheName);
                break;
+            case ClusteredGetAllCommand.COMMAND_ID:
+               command = new ClusteredGetAllCommand(cacheName);
+               break;
             case StateRequestCommand.COMMAND_ID:
                command = new StateRequestCommand(cacheName);
                break;
@@ -35,6 +35,16 @@ public GetKeyValueCommand(Object key, Set<Flag> flags, boolean returnEntry) {
    public GetKeyValueCommand() {
    }
 
+   /**
+    * Prepares the command to read another key, so that it can be reused instead of building a new one.
+    */
+   public void reset(Object key, Set<Flag> flags) {
+      this.key = key;
+      this.flags = flags;
+      this.remotelyFetchedValue = null;
+      setTopologyId(-1);
+   }
+
    @Override
    public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
       return visitor.visitGetKeyValueCommand(ctx, this);
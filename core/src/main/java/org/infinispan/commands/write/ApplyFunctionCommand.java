@@ -0,0 +1,307 @@
+package org.infinispan.commands.write;
+
+import org.infinispan.EntryFunction;
+import org.infinispan.commands.MetadataAwareCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.marshall.core.MarshalledValue;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
+
+import java.util.Set;
+
+import static org.infinispan.commons.util.Util.toStr;
+
+/**
+ * Implements {@link org.infinispan.AdvancedCache#invoke(Object, EntryFunction)}, applying a function to the entry of a
+ * key.
+ * <p/>
+ * Once the function has been applied, the command holds its outcome, the new value of the entry or its removal, and
+ * {@link #isIgnorePreviousValue()} returns true.  The owners the command is then replicated to apply that outcome
+ * instead of the function, which isn't even marshalled.
+ * <p/>
+ * The function reads and writes the values the way the application sees them.  The interceptors which convert the
+ * values before they're stored, e.g. with storeAsBinary or in compatibility mode, set a {@link ValueConverter} which
+ * converts the outcome of the function before it's committed and replicated.
+ *
+ * @since 6.0
+ */
+public class ApplyFunctionCommand extends AbstractDataWriteCommand implements MetadataAwareCommand {
+   public static final byte COMMAND_ID = 33;
+
+   private EntryFunction<Object, Object, Object> function;
+   private Object newValue;
+   private boolean removeEntry;
+   private Metadata metadata;
+   private CacheNotifier notifier;
+   private boolean successful = true;
+   private boolean ignorePreviousValue;
+   // only known where the function is applied, not marshalled
+   private transient Object previousValue;
+   private transient ValueConverter valueConverter;
+
+   public ApplyFunctionCommand() {
+   }
+
+   public ApplyFunctionCommand(Object key, EntryFunction<Object, Object, Object> function, CacheNotifier notifier,
+                               Metadata metadata, Set<Flag> flags) {
+      super(key, flags);
+      this.function = function;
+      this.notifier = notifier;
+      this.metadata = metadata;
+   }
+
+   public void init(CacheNotifier notifier) {
+      this.notifier = notifier;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitApplyFunctionCommand(ctx, this);
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      MVCCEntry e = (MVCCEntry) ctx.lookupEntry(key);
+      //possible as in certain situations (e.g. when locking delegation is used) we don't wrap
+      if (e == null) return null;
+
+      previousValue = e.isNull() || e.isRemoved() ? null : e.getValue();
+      Object result = null;
+      if (!ignorePreviousValue) {
+         Object functionValue = previousValue != null && valueConverter != null ?
+               valueConverter.unboxValue(previousValue) : previousValue;
+         FunctionEntry entry = new FunctionEntry(key, functionValue);
+         result = function.apply(entry);
+         if (!entry.changed) {
+            // nothing to write, nor to replicate
+            successful = false;
+            return result;
+         }
+         removeEntry = entry.value == null;
+         newValue = !removeEntry && valueConverter != null ? valueConverter.boxValue(entry.value) : entry.value;
+         ignorePreviousValue = true;
+      }
+      successful = true;
+
+      if (removeEntry) {
+         if (previousValue != null) notifier.notifyCacheEntryRemoved(key, previousValue, previousValue, true, ctx, this);
+         e.setRemoved(true);
+         e.setValid(false);
+      } else {
+         notifier.notifyCacheEntryModified(key, previousValue, previousValue == null, true, ctx, this);
+         e.setValue(newValue);
+         if (e.isRemoved()) {
+            e.setRemoved(false);
+            e.setValid(true);
+         }
+      }
+      e.setChanged(true);
+      return result;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{key, ignorePreviousValue ? null : function, newValue, removeEntry, metadata,
+                          ignorePreviousValue, Flag.copyWithoutRemotableFlags(flags)};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) throw new IllegalArgumentException("Invalid method name");
+      key = parameters[0];
+      function = (EntryFunction<Object, Object, Object>) parameters[1];
+      newValue = parameters[2];
+      removeEntry = (Boolean) parameters[3];
+      metadata = (Metadata) parameters[4];
+      ignorePreviousValue = (Boolean) parameters[5];
+      flags = (Set<Flag>) parameters[6];
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      if (!super.equals(o)) return false;
+
+      ApplyFunctionCommand that = (ApplyFunctionCommand) o;
+
+      if (removeEntry != that.removeEntry) return false;
+      if (ignorePreviousValue != that.ignorePreviousValue) return false;
+      if (function != null ? !function.equals(that.function) : that.function != null) return false;
+      if (metadata != null ? !metadata.equals(that.metadata) : that.metadata != null) return false;
+      if (newValue != null ? !newValue.equals(that.newValue) : that.newValue != null) return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = super.hashCode();
+      result = 31 * result + (function != null ? function.hashCode() : 0);
+      result = 31 * result + (newValue != null ? newValue.hashCode() : 0);
+      result = 31 * result + (removeEntry ? 1 : 0);
+      result = 31 * result + (ignorePreviousValue ? 1 : 0);
+      result = 31 * result + (metadata != null ? metadata.hashCode() : 0);
+      return result;
+   }
+
+   @Override
+   public boolean isSuccessful() {
+      return successful;
+   }
+
+   /**
+    * The function reads the previous value of the entry, so it must be retrieved before the command is applied.
+    */
+   @Override
+   public boolean isConditional() {
+      return true;
+   }
+
+   @Override
+   public Metadata getMetadata() {
+      return metadata;
+   }
+
+   @Override
+   public void setMetadata(Metadata metadata) {
+      this.metadata = metadata;
+   }
+
+   public EntryFunction<Object, Object, Object> getFunction() {
+      return function;
+   }
+
+   /**
+    * @return the value the function has set, or null if it removed the entry
+    */
+   public Object getNewValue() {
+      return newValue;
+   }
+
+   public void setNewValue(Object newValue) {
+      this.newValue = newValue;
+   }
+
+   public ValueConverter getValueConverter() {
+      return valueConverter;
+   }
+
+   /**
+    * Sets the converter applied to the values the function reads and writes on this node.  It isn't marshalled, every
+    * node applying the function sets its own.
+    */
+   public void setValueConverter(ValueConverter valueConverter) {
+      this.valueConverter = valueConverter;
+   }
+
+   /**
+    * @return whether the function has removed the entry
+    */
+   public boolean isRemoveEntry() {
+      return removeEntry;
+   }
+
+   /**
+    * @return the value of the entry before the command was applied on this node
+    */
+   public Object getPreviousValue() {
+      return previousValue;
+   }
+
+   @Override
+   public boolean isIgnorePreviousValue() {
+      return ignorePreviousValue;
+   }
+
+   @Override
+   public void setIgnorePreviousValue(boolean ignorePreviousValue) {
+      this.ignorePreviousValue = ignorePreviousValue;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      // the result of the function is returned even with IGNORE_RETURN_VALUES
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "ApplyFunctionCommand{" +
+            "key=" + toStr(key) +
+            ", function=" + function +
+            ", newValue=" + toStr(newValue) +
+            ", removeEntry=" + removeEntry +
+            ", metadata=" + metadata +
+            ", flags=" + flags +
+            ", successful=" + successful +
+            ", ignorePreviousValue=" + ignorePreviousValue +
+            '}';
+   }
+
+   /**
+    * Converts the values between the form they're stored in and the form the function reads and writes.
+    */
+   public interface ValueConverter {
+
+      /**
+       * @param value a non-null value set by the function
+       * @return the value to store
+       */
+      Object boxValue(Object value);
+
+      /**
+       * @param stored a non-null stored value
+       * @return the value the function reads
+       */
+      Object unboxValue(Object stored);
+   }
+
+   private static final class FunctionEntry implements EntryFunction.MutableEntry<Object, Object> {
+      private final Object key;
+      private Object value;
+      private boolean changed;
+
+      FunctionEntry(Object key, Object value) {
+         this.key = key;
+         this.value = value;
+      }
+
+      @Override
+      public Object getKey() {
+         return key instanceof MarshalledValue ? ((MarshalledValue) key).get() : key;
+      }
+
+      @Override
+      public Object getValue() {
+         return value;
+      }
+
+      @Override
+      public boolean exists() {
+         return value != null;
+      }
+
+      @Override
+      public void setValue(Object value) {
+         if (value == null) throw new NullPointerException("Null values are not supported!");
+         this.value = value;
+         changed = true;
+      }
+
+      @Override
+      public void remove() {
+         value = null;
+         changed = true;
+      }
+   }
+}
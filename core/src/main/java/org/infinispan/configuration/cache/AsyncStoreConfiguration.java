@@ -14,14 +14,16 @@ public class AsyncStoreConfiguration {
    private final int modificationQueueSize;
    private long shutdownTimeout;
    private final int threadPoolSize;
+   private final int lanes;
 
    AsyncStoreConfiguration(boolean enabled, long flushLockTimeout, int modificationQueueSize, long shutdownTimeout,
-         int threadPoolSize) {
+         int threadPoolSize, int lanes) {
       this.enabled = enabled;
       this.flushLockTimeout = flushLockTimeout;
       this.modificationQueueSize = modificationQueueSize;
       this.shutdownTimeout = shutdownTimeout;
       this.threadPoolSize = threadPoolSize;
+      this.lanes = lanes;
    }
 
    /**
@@ -81,6 +83,15 @@ public int threadPoolSize() {
       return threadPoolSize;
    }
 
+   /**
+    * The number of lanes the modifications are partitioned into, by the hash of their keys. Each lane buffers up to
+    * {@link #modificationQueueSize()} / lanes modifications and writes them to the cache store independently of the
+    * other lanes, so that a burst of writes doesn't wait for a single coordinator.
+    */
+   public int lanes() {
+      return lanes;
+   }
+
    @Override
    public String toString() {
       return "AsyncLoaderConfiguration{" +
@@ -89,6 +100,7 @@ public String toString() {
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
             ", threadPoolSize=" + threadPoolSize +
+            ", lanes=" + lanes +
             '}';
    }
 
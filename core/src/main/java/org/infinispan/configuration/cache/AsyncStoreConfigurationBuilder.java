@@ -2,6 +2,7 @@
 
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 
 /**
@@ -18,6 +19,7 @@
    private int modificationQueueSize = 1024;
    private long shutdownTimeout = TimeUnit.SECONDS.toMillis(25);
    private int threadPoolSize = 1;
+   private int lanes = 1;
 
    AsyncStoreConfigurationBuilder(AbstractStoreConfigurationBuilder<? extends AbstractStoreConfiguration, ?> builder) {
       super(builder);
@@ -96,15 +98,27 @@ public AsyncStoreConfigurationBuilder<S> threadPoolSize(int i) {
       return this;
    }
 
+   /**
+    * The number of lanes the modifications are partitioned into, by the hash of their keys. Each lane buffers up to
+    * modificationQueueSize / lanes modifications and writes them to the cache store independently of the other lanes,
+    * so that a burst of writes doesn't wait for a single coordinator. Defaults to 1.
+    */
+   public AsyncStoreConfigurationBuilder<S> lanes(int lanes) {
+      this.lanes = lanes;
+      return this;
+   }
+
    @Override
    public
    void validate() {
+      if (lanes < 1)
+         throw new CacheConfigurationException("The number of async store lanes must be greater than zero");
    }
 
    @Override
    public
    AsyncStoreConfiguration create() {
-      return new AsyncStoreConfiguration(enabled, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize);
+      return new AsyncStoreConfiguration(enabled, flushLockTimeout, modificationQueueSize, shutdownTimeout, threadPoolSize, lanes);
    }
 
    @Override
@@ -114,6 +128,7 @@ public AsyncStoreConfigurationBuilder<S> read(AsyncStoreConfiguration template)
       this.modificationQueueSize = template.modificationQueueSize();
       this.shutdownTimeout = template.shutdownTimeout();
       this.threadPoolSize = template.threadPoolSize();
+      this.lanes = template.lanes();
 
       return this;
    }
@@ -126,6 +141,7 @@ public String toString() {
             ", modificationQueueSize=" + modificationQueueSize +
             ", shutdownTimeout=" + shutdownTimeout +
             ", threadPoolSize=" + threadPoolSize +
+            ", lanes=" + lanes +
             '}';
    }
 
@@ -16,14 +16,21 @@ public class DataContainerConfiguration extends AbstractTypedPropertiesConfigura
    private final DataContainer dataContainer;
    private final Equivalence keyEquivalence;
    private final Equivalence valueEquivalence;
+   private final boolean offHeap;
+   private final int addressCount;
+   private final boolean segmented;
 
    DataContainerConfiguration(DataContainer dataContainer,
          TypedProperties properties, Equivalence keyEquivalence,
-         Equivalence valueEquivalence) {
+         Equivalence valueEquivalence, boolean offHeap, int addressCount,
+         boolean segmented) {
       super(properties);
       this.dataContainer = dataContainer;
       this.keyEquivalence = keyEquivalence;
       this.valueEquivalence = valueEquivalence;
+      this.offHeap = offHeap;
+      this.addressCount = addressCount;
+      this.segmented = segmented;
    }
    
    /**
@@ -44,12 +51,36 @@ public <V> Equivalence<V> valueEquivalence() {
       return valueEquivalence;
    }
 
+   /**
+    * Whether entries are stored outside of the Java heap
+    */
+   public boolean offHeap() {
+      return offHeap;
+   }
+
+   /**
+    * Number of buckets of the off-heap hash table
+    */
+   public int addressCount() {
+      return addressCount;
+   }
+
+   /**
+    * Whether entries are partitioned by consistent hash segment
+    */
+   public boolean segmented() {
+      return segmented;
+   }
+
    @Override
    public String toString() {
       return "DataContainerConfiguration{" +
             "dataContainer=" + dataContainer +
             ", keyEquivalence=" + keyEquivalence +
             ", valueEquivalence=" + valueEquivalence +
+            ", offHeap=" + offHeap +
+            ", addressCount=" + addressCount +
+            ", segmented=" + segmented +
             '}';
    }
 
@@ -61,6 +92,9 @@ public boolean equals(Object o) {
 
       DataContainerConfiguration that = (DataContainerConfiguration) o;
 
+      if (offHeap != that.offHeap) return false;
+      if (addressCount != that.addressCount) return false;
+      if (segmented != that.segmented) return false;
       if (dataContainer != null ? !dataContainer.equals(that.dataContainer) : that.dataContainer != null)
          return false;
       if (keyEquivalence != null ? !keyEquivalence.equals(that.keyEquivalence) : that.keyEquivalence != null)
@@ -77,6 +111,9 @@ public int hashCode() {
       result = 31 * result + (dataContainer != null ? dataContainer.hashCode() : 0);
       result = 31 * result + (keyEquivalence != null ? keyEquivalence.hashCode() : 0);
       result = 31 * result + (valueEquivalence != null ? valueEquivalence.hashCode() : 0);
+      result = 31 * result + (offHeap ? 1 : 0);
+      result = 31 * result + addressCount;
+      result = 31 * result + (segmented ? 1 : 0);
       return result;
    }
 
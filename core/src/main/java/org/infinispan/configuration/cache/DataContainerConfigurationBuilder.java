@@ -2,6 +2,7 @@
 
 import java.util.Properties;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.Equivalence;
@@ -20,6 +21,9 @@ public class DataContainerConfigurationBuilder extends AbstractConfigurationChil
    private DataContainer dataContainer;
    private Equivalence keyEquivalence = AnyEquivalence.getInstance();
    private Equivalence valueEquivalence = AnyEquivalence.getInstance();
+   private boolean offHeap = false;
+   private int addressCount = 1 << 20;
+   private boolean segmented = false;
    // TODO: What are properties used for? Is it just legacy?
    private Properties properties = new Properties();
 
@@ -90,15 +94,65 @@ public <V> DataContainerConfigurationBuilder valueEquivalence(Equivalence<V> val
       return this;
    }
 
+   /**
+    * Store entries outside of the Java heap, in their marshalled form. This keeps large data sets from adding to
+    * garbage collection pauses, at the cost of marshalling keys and values on every access. Keys are compared
+    * using their marshalled form, so equal keys must marshall to equal bytes. Eviction, if enabled, always
+    * removes entries in least recently used order.
+    *
+    * @param offHeap whether to store entries off-heap
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder offHeap(boolean offHeap) {
+      this.offHeap = offHeap;
+      return this;
+   }
+
+   /**
+    * Number of buckets of the off-heap hash table, rounded up to the next power of two. The table does not grow,
+    * so this should be close to the expected number of entries. Only used when {@link #offHeap(boolean)} is enabled.
+    *
+    * @param addressCount number of buckets
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder addressCount(int addressCount) {
+      this.addressCount = addressCount;
+      return this;
+   }
+
+   /**
+    * Keep the entries of clustered caches partitioned by consistent hash segment, so that state transfer can send
+    * or discard a segment without scanning the whole data container. Ignored by local caches.
+    *
+    * @param segmented whether to partition entries by segment
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder segmented(boolean segmented) {
+      this.segmented = segmented;
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (segmented) {
+         if (dataContainer != null)
+            throw new CacheConfigurationException("A custom data container cannot be used when segmented is enabled");
+         if (offHeap)
+            throw new CacheConfigurationException("The off-heap data container cannot be segmented");
+      }
+      if (offHeap) {
+         if (dataContainer != null)
+            throw new CacheConfigurationException("A custom data container cannot be used when offHeap is enabled");
+         if (addressCount <= 0)
+            throw new CacheConfigurationException("addressCount must be greater than 0 when offHeap is enabled");
+      }
    }
 
    @Override
    public DataContainerConfiguration create() {
       return new DataContainerConfiguration(dataContainer,
             TypedProperties.toTypedProperties(properties), keyEquivalence,
-            valueEquivalence);
+            valueEquivalence, offHeap, addressCount, segmented);
    }
 
    @Override
@@ -107,6 +161,9 @@ public DataContainerConfigurationBuilder read(DataContainerConfiguration templat
       this.properties = template.properties();
       this.keyEquivalence = template.keyEquivalence();
       this.valueEquivalence = template.valueEquivalence();
+      this.offHeap = template.offHeap();
+      this.addressCount = template.addressCount();
+      this.segmented = template.segmented();
 
       return this;
    }
@@ -118,6 +175,9 @@ public String toString() {
             ", properties=" + properties +
             ", keyEquivalence=" + keyEquivalence +
             ", valueEquivalence=" + valueEquivalence +
+            ", offHeap=" + offHeap +
+            ", addressCount=" + addressCount +
+            ", segmented=" + segmented +
             '}';
    }
 
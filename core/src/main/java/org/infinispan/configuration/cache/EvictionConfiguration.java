@@ -1,7 +1,10 @@
 package org.infinispan.configuration.cache;
 
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EntrySizeCalculator;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
 
 /**
  * Controls the eviction settings for the cache.
@@ -11,16 +14,23 @@ public class EvictionConfiguration {
    private final int maxEntries;
    private final EvictionStrategy strategy;
    private final EvictionThreadPolicy threadPolicy;
+   private final EvictionType type;
+   private final long maxMemory;
+   private final EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator;
    
-   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy) {
+   EvictionConfiguration(int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy threadPolicy,
+         EvictionType type, long maxMemory, EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator) {
       this.maxEntries = maxEntries;
       this.strategy = strategy;
       this.threadPolicy = threadPolicy;
+      this.type = type;
+      this.maxMemory = maxMemory;
+      this.sizeCalculator = sizeCalculator;
    }
    
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
-    * eviction).
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE'
+    * (to disable eviction).
     */
    public EvictionStrategy strategy() {
       return strategy;
@@ -42,12 +52,39 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * Whether the cache is bounded by the number of entries ({@link EvictionType#COUNT}) or by the
+    * estimated memory used by them ({@link EvictionType#MEMORY}).
+    */
+   public EvictionType type() {
+      return type;
+   }
+
+   /**
+    * Maximum amount of memory, in bytes, that the keys and values of a cache instance may use
+    * when eviction type is {@link EvictionType#MEMORY}. The amount of memory used is an estimate
+    * computed by the {@link #sizeCalculator()}.
+    */
+   public long maxMemory() {
+      return maxMemory;
+   }
+
+   /**
+    * Estimates the memory used by each entry when eviction type is {@link EvictionType#MEMORY}.
+    */
+   public EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator() {
+      return sizeCalculator;
+   }
+
    @Override
    public String toString() {
       return "EvictionConfiguration{" +
             "maxEntries=" + maxEntries +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
+            ", type=" + type +
+            ", maxMemory=" + maxMemory +
+            ", sizeCalculator=" + sizeCalculator +
             '}';
    }
 
@@ -61,6 +98,10 @@ public boolean equals(Object o) {
       if (maxEntries != that.maxEntries) return false;
       if (strategy != that.strategy) return false;
       if (threadPolicy != that.threadPolicy) return false;
+      if (type != that.type) return false;
+      if (maxMemory != that.maxMemory) return false;
+      if (sizeCalculator != null ? !sizeCalculator.equals(that.sizeCalculator) : that.sizeCalculator != null)
+         return false;
 
       return true;
    }
@@ -70,6 +111,9 @@ public int hashCode() {
       int result = maxEntries;
       result = 31 * result + (strategy != null ? strategy.hashCode() : 0);
       result = 31 * result + (threadPolicy != null ? threadPolicy.hashCode() : 0);
+      result = 31 * result + (type != null ? type.hashCode() : 0);
+      result = 31 * result + (int) (maxMemory ^ (maxMemory >>> 32));
+      result = 31 * result + (sizeCalculator != null ? sizeCalculator.hashCode() : 0);
       return result;
    }
 
@@ -2,8 +2,12 @@
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.DefaultEntrySizeCalculator;
+import org.infinispan.eviction.EntrySizeCalculator;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -17,6 +21,9 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
    private int maxEntries = -1;
    private EvictionStrategy strategy = EvictionStrategy.NONE;
    private EvictionThreadPolicy threadPolicy = EvictionThreadPolicy.DEFAULT;
+   private EvictionType type = EvictionType.COUNT;
+   private long maxMemory = -1;
+   private EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator = DefaultEntrySizeCalculator.getInstance();
 
    EvictionConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -24,8 +31,8 @@ public class EvictionConfigurationBuilder extends AbstractConfigurationChildBuil
 
 
    /**
-    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS' and 'NONE' (to disable
-    * eviction).
+    * Eviction strategy. Available options are 'UNORDERED', 'LRU', 'LIRS', 'TINY_LFU' and 'NONE'
+    * (to disable eviction).
     *
     * @param evictionStrategy
     */
@@ -60,12 +67,60 @@ public EvictionConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * Whether the cache is bounded by the number of entries ({@link EvictionType#COUNT}, the default)
+    * or by the estimated memory used by them ({@link EvictionType#MEMORY}).
+    *
+    * @param type
+    */
+   public EvictionConfigurationBuilder type(EvictionType type) {
+      this.type = type;
+      return this;
+   }
+
+   /**
+    * Maximum amount of memory, in bytes, that the keys and values of a cache instance may use.
+    * Only used when eviction type is {@link EvictionType#MEMORY}. Cache memory usage is an estimate,
+    * computed by the configured {@link #sizeCalculator(EntrySizeCalculator)}. The budget is split
+    * evenly among the data container's lock segments, so it should be much larger than the
+    * concurrency level times the largest expected entry.
+    *
+    * @param maxMemory
+    */
+   public EvictionConfigurationBuilder maxMemory(long maxMemory) {
+      this.maxMemory = maxMemory;
+      return this;
+   }
+
+   /**
+    * Estimates the memory used by each entry when eviction type is {@link EvictionType#MEMORY}.
+    * Defaults to {@link DefaultEntrySizeCalculator}, which understands <tt>byte[]</tt>, String and
+    * marshalled values.
+    *
+    * @param sizeCalculator
+    */
+   public EvictionConfigurationBuilder sizeCalculator(EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator) {
+      this.sizeCalculator = sizeCalculator;
+      return this;
+   }
+
    @Override
    public void validate() {
       if (!strategy.isEnabled() && getBuilder().loaders().passivation())
          log.passivationWithoutEviction();
       if(strategy == EvictionStrategy.FIFO)
          log.warn("FIFO strategy is deprecated, LRU will be used instead");
+      if (type == EvictionType.MEMORY) {
+         if (maxMemory <= 0)
+            throw new CacheConfigurationException("Eviction maxMemory value must be greater than zero when eviction type is MEMORY");
+         if (sizeCalculator == null)
+            throw new CacheConfigurationException("An entry size calculator is required when eviction type is MEMORY");
+         if (!strategy.isEnabled()) {
+            strategy = EvictionStrategy.LIRS;
+            log.debugf("Max memory configured (%d) without eviction strategy. Eviction strategy overriden to %s", maxMemory, strategy);
+         }
+         return;
+      }
       if (strategy.isEnabled() && maxEntries <= 0)
          throw new CacheConfigurationException("Eviction maxEntries value cannot be less than or equal to zero if eviction is enabled");
       if (maxEntries > 0 && !strategy.isEnabled()) {
@@ -76,7 +131,7 @@ public void validate() {
 
    @Override
    public EvictionConfiguration create() {
-      return new EvictionConfiguration(maxEntries, strategy, threadPolicy);
+      return new EvictionConfiguration(maxEntries, strategy, threadPolicy, type, maxMemory, sizeCalculator);
    }
 
    @Override
@@ -84,6 +139,9 @@ public EvictionConfigurationBuilder read(EvictionConfiguration template) {
       this.maxEntries = template.maxEntries();
       this.strategy = template.strategy();
       this.threadPolicy = template.threadPolicy();
+      this.type = template.type();
+      this.maxMemory = template.maxMemory();
+      this.sizeCalculator = template.sizeCalculator();
 
       return this;
    }
@@ -94,6 +152,9 @@ public String toString() {
             "maxEntries=" + maxEntries +
             ", strategy=" + strategy +
             ", threadPolicy=" + threadPolicy +
+            ", type=" + type +
+            ", maxMemory=" + maxMemory +
+            ", sizeCalculator=" + sizeCalculator +
             '}';
    }
 
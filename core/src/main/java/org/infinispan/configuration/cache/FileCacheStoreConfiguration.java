@@ -18,11 +18,13 @@ public class FileCacheStoreConfiguration extends AbstractLockSupportStoreConfigu
 
    private final String location;
    private final long fsyncInterval;
+   private final long fsyncMaxLatency;
    private final FsyncMode fsyncMode;
+   private final boolean fsyncMetadata;
    private final int streamBufferSize;
 
-   FileCacheStoreConfiguration(String location, long fsyncInterval,
-         FsyncMode fsyncMode, int streamBufferSize, long lockAcquistionTimeout,
+   FileCacheStoreConfiguration(String location, long fsyncInterval, long fsyncMaxLatency,
+         FsyncMode fsyncMode, boolean fsyncMetadata, int streamBufferSize, long lockAcquistionTimeout,
          int lockConcurrencyLevel, boolean purgeOnStartup, boolean purgeSynchronously,
          int purgerThreads, boolean fetchPersistentState, boolean ignoreModifications,
          TypedProperties properties, AsyncStoreConfiguration async,
@@ -32,7 +34,9 @@ public class FileCacheStoreConfiguration extends AbstractLockSupportStoreConfigu
             ignoreModifications, properties, async, singletonStore);
       this.location = location;
       this.fsyncInterval = fsyncInterval;
+      this.fsyncMaxLatency = fsyncMaxLatency;
       this.fsyncMode = fsyncMode;
+      this.fsyncMetadata = fsyncMetadata;
       this.streamBufferSize = streamBufferSize;
    }
 
@@ -40,10 +44,18 @@ public long fsyncInterval() {
       return fsyncInterval;
    }
 
+   public long fsyncMaxLatency() {
+      return fsyncMaxLatency;
+   }
+
    public FsyncMode fsyncMode() {
       return fsyncMode;
    }
 
+   public boolean fsyncMetadata() {
+      return fsyncMetadata;
+   }
+
    public String location() {
       return location;
    }
@@ -56,8 +68,10 @@ public int streamBufferSize() {
    public String toString() {
       return "FileCacheStoreConfiguration{" +
             "fsyncInterval=" + fsyncInterval +
+            ", fsyncMaxLatency=" + fsyncMaxLatency +
             ", location='" + location + '\'' +
             ", fsyncMode=" + fsyncMode +
+            ", fsyncMetadata=" + fsyncMetadata +
             ", streamBufferSize=" + streamBufferSize +
             ", lockAcquistionTimeout=" + lockAcquistionTimeout() +
             ", lockConcurrencyLevel=" + lockConcurrencyLevel() +
@@ -81,6 +95,8 @@ public boolean equals(Object o) {
       FileCacheStoreConfiguration that = (FileCacheStoreConfiguration) o;
 
       if (fsyncInterval != that.fsyncInterval) return false;
+      if (fsyncMaxLatency != that.fsyncMaxLatency) return false;
+      if (fsyncMetadata != that.fsyncMetadata) return false;
       if (streamBufferSize != that.streamBufferSize) return false;
       if (fsyncMode != that.fsyncMode) return false;
       if (location != null ? !location.equals(that.location) : that.location != null)
@@ -94,7 +110,9 @@ public int hashCode() {
       int result = super.hashCode();
       result = 31 * result + (location != null ? location.hashCode() : 0);
       result = 31 * result + (int) (fsyncInterval ^ (fsyncInterval >>> 32));
+      result = 31 * result + (int) (fsyncMaxLatency ^ (fsyncMaxLatency >>> 32));
       result = 31 * result + (fsyncMode != null ? fsyncMode.hashCode() : 0);
+      result = 31 * result + (fsyncMetadata ? 1 : 0);
       result = 31 * result + streamBufferSize;
       return result;
    }
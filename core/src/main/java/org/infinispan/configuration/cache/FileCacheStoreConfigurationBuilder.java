@@ -17,7 +17,9 @@ public class FileCacheStoreConfigurationBuilder extends AbstractLockSupportStore
 
    private String location = "Infinispan-FileCacheStore";
    private long fsyncInterval = TimeUnit.SECONDS.toMillis(1);
+   private long fsyncMaxLatency = 0;
    private FsyncMode fsyncMode = FsyncMode.DEFAULT;
+   private boolean fsyncMetadata = true;
    private int streamBufferSize = 8192;
 
    public FileCacheStoreConfigurationBuilder(LoadersConfigurationBuilder builder) {
@@ -43,11 +45,35 @@ public FileCacheStoreConfigurationBuilder fsyncInterval(long fsyncInterval, Time
       return fsyncInterval(unit.toMillis(fsyncInterval));
    }
 
+   /**
+    * The maximum time, in milliseconds, the {@link FsyncMode#GROUP_COMMIT} mode waits after a write for more writes to
+    * join the same sync. Writes issued while a sync is in progress are always grouped in the next one, so the default
+    * of 0 only relies on that.
+    */
+   public FileCacheStoreConfigurationBuilder fsyncMaxLatency(long fsyncMaxLatency) {
+      this.fsyncMaxLatency = fsyncMaxLatency;
+      return this;
+   }
+
+   public FileCacheStoreConfigurationBuilder fsyncMaxLatency(long fsyncMaxLatency, TimeUnit unit) {
+      return fsyncMaxLatency(unit.toMillis(fsyncMaxLatency));
+   }
+
    public FileCacheStoreConfigurationBuilder fsyncMode(FsyncMode fsyncMode) {
       this.fsyncMode = fsyncMode;
       return this;
    }
 
+   /**
+    * If true, the default, the syncs made by the {@link FsyncMode#PER_WRITE}, {@link FsyncMode#PERIODIC} and {@link
+    * FsyncMode#GROUP_COMMIT} modes also write the metadata of the files to disk, like <tt>fsync</tt>. If false they only
+    * write the data and the metadata needed to read it back, like <tt>fdatasync</tt>, which is usually cheaper.
+    */
+   public FileCacheStoreConfigurationBuilder fsyncMetadata(boolean fsyncMetadata) {
+      this.fsyncMetadata = fsyncMetadata;
+      return this;
+   }
+
    public FileCacheStoreConfigurationBuilder streamBufferSize(int streamBufferSize) {
       this.streamBufferSize = streamBufferSize;
       return this;
@@ -66,13 +92,17 @@ public void validate() {
    }
 
    public static enum FsyncMode {
-      DEFAULT, PER_WRITE, PERIODIC
+      DEFAULT, PER_WRITE, PERIODIC,
+      /**
+       * Writers block until their changes are synced, but the writes of concurrent writers are synced together.
+       */
+      GROUP_COMMIT
    }
 
    @Override
    public FileCacheStoreConfiguration create() {
-      return new FileCacheStoreConfiguration(location, fsyncInterval, fsyncMode,
-            streamBufferSize, lockAcquistionTimeout, lockConcurrencyLevel,
+      return new FileCacheStoreConfiguration(location, fsyncInterval, fsyncMaxLatency, fsyncMode,
+            fsyncMetadata, streamBufferSize, lockAcquistionTimeout, lockConcurrencyLevel,
             purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
             ignoreModifications, TypedProperties.toTypedProperties(properties),
             async.create(), singletonStore.create());
@@ -82,7 +112,9 @@ public FileCacheStoreConfiguration create() {
    public FileCacheStoreConfigurationBuilder read(FileCacheStoreConfiguration template) {
       // FileCacheStore-specific configuration
       fsyncInterval = template.fsyncInterval();
+      fsyncMaxLatency = template.fsyncMaxLatency();
       fsyncMode = template.fsyncMode();
+      fsyncMetadata = template.fsyncMetadata();
       location = template.location();
       streamBufferSize = template.streamBufferSize();
 
@@ -108,7 +140,9 @@ public String toString() {
             "fetchPersistentState=" + fetchPersistentState +
             ", location='" + location + '\'' +
             ", fsyncInterval=" + fsyncInterval +
+            ", fsyncMaxLatency=" + fsyncMaxLatency +
             ", fsyncMode=" + fsyncMode +
+            ", fsyncMetadata=" + fsyncMetadata +
             ", streamBufferSize=" + streamBufferSize +
             ", ignoreModifications=" + ignoreModifications +
             ", purgeOnStartup=" + purgeOnStartup +
@@ -143,6 +177,8 @@ else if (text.equals("perWrite"))
             mode = FsyncMode.PER_WRITE;
          else if (text.equals("periodic"))
             mode = FsyncMode.PERIODIC;
+         else if (text.equals("groupCommit"))
+            mode = FsyncMode.GROUP_COMMIT;
          else
             throw new IllegalArgumentException("Unknown fsyncMode value: " + text);
       }
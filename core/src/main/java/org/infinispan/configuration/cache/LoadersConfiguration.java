@@ -9,13 +9,37 @@
 public class LoadersConfiguration {
 
    private final boolean passivation;
+   private final boolean asyncPassivation;
+   private final int passivationQueueSize;
    private final boolean preload;
+   private final int preloadThreads;
+   private final int preloadBatchSize;
+   private final boolean coalesceLoads;
+   private final long loadCoalescingWindow;
+   private final int purgeBatchSize;
+   private final long purgeTimeBudget;
+   private final boolean compression;
+   private final int compressionThreshold;
+   private final boolean tiered;
    private final boolean shared;
    private final List<CacheLoaderConfiguration> cacheLoaders;
 
-   LoadersConfiguration(boolean passivation, boolean preload, boolean shared, List<CacheLoaderConfiguration> cacheLoaders) {
+   LoadersConfiguration(boolean passivation, boolean asyncPassivation, int passivationQueueSize, boolean preload, int preloadThreads, int preloadBatchSize,
+         boolean coalesceLoads, long loadCoalescingWindow, int purgeBatchSize, long purgeTimeBudget, boolean compression,
+         int compressionThreshold, boolean tiered, boolean shared, List<CacheLoaderConfiguration> cacheLoaders) {
       this.passivation = passivation;
+      this.asyncPassivation = asyncPassivation;
+      this.passivationQueueSize = passivationQueueSize;
       this.preload = preload;
+      this.preloadThreads = preloadThreads;
+      this.preloadBatchSize = preloadBatchSize;
+      this.coalesceLoads = coalesceLoads;
+      this.loadCoalescingWindow = loadCoalescingWindow;
+      this.purgeBatchSize = purgeBatchSize;
+      this.purgeTimeBudget = purgeTimeBudget;
+      this.compression = compression;
+      this.compressionThreshold = compressionThreshold;
+      this.tiered = tiered;
       this.shared = shared;
       this.cacheLoaders = cacheLoaders;
    }
@@ -33,6 +57,23 @@ public boolean passivation() {
       return passivation;
    }
 
+   /**
+    * If true, the entries evicted with passivation are written to the cache store by a background thread, so eviction
+    * doesn't add the latency of the cache store to the operation which triggered it. Until they are written, the
+    * evicted entries are still found by the loads from the cache store.
+    */
+   public boolean asyncPassivation() {
+      return asyncPassivation;
+   }
+
+   /**
+    * With asynchronous passivation, the maximum number of evicted entries waiting to be written to the cache store.
+    * When it is reached, the thread evicting an entry writes it to the cache store itself.
+    */
+   public int passivationQueueSize() {
+      return passivationQueueSize;
+   }
+
    /**
     * If true, when the cache starts, data stored in the cache store will be pre-loaded into memory.
     * This is particularly useful when data in the cache store will be needed immediately after
@@ -44,6 +85,79 @@ public boolean preload() {
       return preload;
    }
 
+   /**
+    * The number of threads writing the entries read from the cache store into the cache during
+    * preload. The entries are read from the cache store by a single thread, which waits while all
+    * the writer threads are busy.
+    */
+   public int preloadThreads() {
+      return preloadThreads;
+   }
+
+   /**
+    * The maximum number of entries written into the cache in a single operation during preload.
+    */
+   public int preloadBatchSize() {
+      return preloadBatchSize;
+   }
+
+   /**
+    * If true, the keys missing from memory which are looked up in the cache loader by concurrent operations are loaded
+    * together with a single bulk load, instead of one at a time.
+    */
+   public boolean coalesceLoads() {
+      return coalesceLoads;
+   }
+
+   /**
+    * When loads are coalesced, the time in milliseconds a bulk load waits for more keys after the first one. With 0, a
+    * bulk load is issued right away and the keys missed while it is in progress are loaded by the next one.
+    */
+   public long loadCoalescingWindow() {
+      return loadCoalescingWindow;
+   }
+
+   /**
+    * The maximum number of expired entries removed by a cache store in a single step of a purge. The locks held and
+    * transactions used by the purge only span one step, so the writes to the cache store don't wait for the whole purge.
+    */
+   public int purgeBatchSize() {
+      return purgeBatchSize;
+   }
+
+   /**
+    * The time in milliseconds after which a purge of the expired entries stops removing them, leaving the remaining ones
+    * to the next purge. With 0, each purge removes all the expired entries.
+    */
+   public long purgeTimeBudget() {
+      return purgeTimeBudget;
+   }
+
+   /**
+    * If true, the entries written to the cache stores are compressed with the Deflate algorithm, and decompressed when
+    * they are loaded. Compression can't be enabled or disabled for a cache store that already holds entries.
+    */
+   public boolean compression() {
+      return compression;
+   }
+
+   /**
+    * With compression, the size in bytes under which the marshalled entries are written to the cache stores
+    * uncompressed, as compressing them would save little space.
+    */
+   public int compressionThreshold() {
+      return compressionThreshold;
+   }
+
+   /**
+    * If true, the first of the two configured cache stores is used as a local tier in front of the second one, usually
+    * shared by the cluster: the entries loaded from the second store are copied to the first one, so that the next loads
+    * don't reach the second store. The local tier is cleared when the topology of the cluster changes.
+    */
+   public boolean tiered() {
+      return tiered;
+   }
+
    /**
     * This setting should be set to true when multiple cache instances share the same cache store
     * (e.g., multiple nodes in a cluster using a JDBC-based CacheStore pointing to the same, shared
@@ -96,7 +210,18 @@ public String toString() {
       return "LoadersConfiguration{" +
             "cacheLoaders=" + cacheLoaders +
             ", passivation=" + passivation +
+            ", asyncPassivation=" + asyncPassivation +
+            ", passivationQueueSize=" + passivationQueueSize +
             ", preload=" + preload +
+            ", preloadThreads=" + preloadThreads +
+            ", preloadBatchSize=" + preloadBatchSize +
+            ", coalesceLoads=" + coalesceLoads +
+            ", loadCoalescingWindow=" + loadCoalescingWindow +
+            ", purgeBatchSize=" + purgeBatchSize +
+            ", purgeTimeBudget=" + purgeTimeBudget +
+            ", compression=" + compression +
+            ", compressionThreshold=" + compressionThreshold +
+            ", tiered=" + tiered +
             ", shared=" + shared +
             '}';
    }
@@ -109,7 +234,18 @@ public boolean equals(Object o) {
       LoadersConfiguration that = (LoadersConfiguration) o;
 
       if (passivation != that.passivation) return false;
+      if (asyncPassivation != that.asyncPassivation) return false;
+      if (passivationQueueSize != that.passivationQueueSize) return false;
       if (preload != that.preload) return false;
+      if (preloadThreads != that.preloadThreads) return false;
+      if (preloadBatchSize != that.preloadBatchSize) return false;
+      if (coalesceLoads != that.coalesceLoads) return false;
+      if (loadCoalescingWindow != that.loadCoalescingWindow) return false;
+      if (purgeBatchSize != that.purgeBatchSize) return false;
+      if (purgeTimeBudget != that.purgeTimeBudget) return false;
+      if (compression != that.compression) return false;
+      if (compressionThreshold != that.compressionThreshold) return false;
+      if (tiered != that.tiered) return false;
       if (shared != that.shared) return false;
       if (cacheLoaders != null ? !cacheLoaders.equals(that.cacheLoaders) : that.cacheLoaders != null)
          return false;
@@ -120,7 +256,18 @@ public boolean equals(Object o) {
    @Override
    public int hashCode() {
       int result = (passivation ? 1 : 0);
+      result = 31 * result + (asyncPassivation ? 1 : 0);
+      result = 31 * result + passivationQueueSize;
       result = 31 * result + (preload ? 1 : 0);
+      result = 31 * result + preloadThreads;
+      result = 31 * result + preloadBatchSize;
+      result = 31 * result + (coalesceLoads ? 1 : 0);
+      result = 31 * result + (int) (loadCoalescingWindow ^ (loadCoalescingWindow >>> 32));
+      result = 31 * result + purgeBatchSize;
+      result = 31 * result + (int) (purgeTimeBudget ^ (purgeTimeBudget >>> 32));
+      result = 31 * result + (compression ? 1 : 0);
+      result = 31 * result + compressionThreshold;
+      result = 31 * result + (tiered ? 1 : 0);
       result = 31 * result + (shared ? 1 : 0);
       result = 31 * result + (cacheLoaders != null ? cacheLoaders.hashCode() : 0);
       return result;
@@ -16,7 +16,18 @@
 public class LoadersConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<LoadersConfiguration> {
 
    private boolean passivation = false;
+   private boolean asyncPassivation = false;
+   private int passivationQueueSize = 1000;
    private boolean preload = false;
+   private int preloadThreads = 1;
+   private int preloadBatchSize = 100;
+   private boolean coalesceLoads = false;
+   private long loadCoalescingWindow = 0;
+   private int purgeBatchSize = 1000;
+   private long purgeTimeBudget = 0;
+   private boolean compression = false;
+   private int compressionThreshold = 512;
+   private boolean tiered = false;
    private boolean shared = false;
    private List<CacheLoaderConfigurationBuilder<?,?>> cacheLoaders = new ArrayList<CacheLoaderConfigurationBuilder<?,?>>(2);
 
@@ -42,6 +53,25 @@ boolean passivation() {
       return passivation;
    }
 
+   /**
+    * If true, the entries evicted with passivation are written to the cache store by a background thread, so eviction
+    * doesn't add the latency of the cache store to the operation which triggered it. Until they are written, the
+    * evicted entries are still found by the loads from the cache store. Defaults to false.
+    */
+   public LoadersConfigurationBuilder asyncPassivation(boolean asyncPassivation) {
+      this.asyncPassivation = asyncPassivation;
+      return this;
+   }
+
+   /**
+    * With asynchronous passivation, the maximum number of evicted entries waiting to be written to the cache store.
+    * When it is reached, the thread evicting an entry writes it to the cache store itself. Defaults to 1000.
+    */
+   public LoadersConfigurationBuilder passivationQueueSize(int passivationQueueSize) {
+      this.passivationQueueSize = passivationQueueSize;
+      return this;
+   }
+
    /**
     * If true, when the cache starts, data stored in the cache store will be pre-loaded into memory.
     * This is particularly useful when data in the cache store will be needed immediately after
@@ -58,6 +88,93 @@ boolean preload() {
       return preload;
    }
 
+   /**
+    * The number of threads writing the entries read from the cache store into the cache during
+    * preload. The entries are read from the cache store by a single thread, which waits while all
+    * the writer threads are busy. Defaults to 1.
+    */
+   public LoadersConfigurationBuilder preloadThreads(int preloadThreads) {
+      this.preloadThreads = preloadThreads;
+      return this;
+   }
+
+   /**
+    * The maximum number of entries written into the cache in a single operation during preload.
+    * Defaults to 100.
+    */
+   public LoadersConfigurationBuilder preloadBatchSize(int preloadBatchSize) {
+      this.preloadBatchSize = preloadBatchSize;
+      return this;
+   }
+
+   /**
+    * If true, the keys missing from memory which are looked up in the cache loader by concurrent operations are loaded
+    * together with a single bulk load, instead of one at a time. Defaults to false.
+    */
+   public LoadersConfigurationBuilder coalesceLoads(boolean coalesceLoads) {
+      this.coalesceLoads = coalesceLoads;
+      return this;
+   }
+
+   /**
+    * When loads are coalesced, the time in milliseconds a bulk load waits for more keys after the first one, if other
+    * bulk loads are in progress. A miss while no bulk load is in progress is loaded right away, and a bulk load never
+    * waits for the ones in progress. With 0, bulk loads only group the keys missed at the same time. Defaults to 0.
+    */
+   public LoadersConfigurationBuilder loadCoalescingWindow(long loadCoalescingWindow) {
+      this.loadCoalescingWindow = loadCoalescingWindow;
+      return this;
+   }
+
+   /**
+    * The maximum number of expired entries removed by a cache store in a single step of a purge. The locks held and
+    * transactions used by the purge only span one step, so the writes to the cache store don't wait for the whole purge.
+    * Defaults to 1000.
+    */
+   public LoadersConfigurationBuilder purgeBatchSize(int purgeBatchSize) {
+      this.purgeBatchSize = purgeBatchSize;
+      return this;
+   }
+
+   /**
+    * The time in milliseconds after which a purge of the expired entries stops removing them, leaving the remaining ones
+    * to the next purge. With 0, each purge removes all the expired entries. Defaults to 0.
+    */
+   public LoadersConfigurationBuilder purgeTimeBudget(long purgeTimeBudget) {
+      this.purgeTimeBudget = purgeTimeBudget;
+      return this;
+   }
+
+   /**
+    * If true, the entries written to the cache stores are compressed with the Deflate algorithm, and decompressed when
+    * they are loaded. Compression can't be enabled or disabled for a cache store that already holds entries.
+    * Defaults to false.
+    */
+   public LoadersConfigurationBuilder compression(boolean compression) {
+      this.compression = compression;
+      return this;
+   }
+
+   /**
+    * With compression, the size in bytes under which the marshalled entries are written to the cache stores
+    * uncompressed, as compressing them would save little space. Defaults to 512.
+    */
+   public LoadersConfigurationBuilder compressionThreshold(int compressionThreshold) {
+      this.compressionThreshold = compressionThreshold;
+      return this;
+   }
+
+   /**
+    * If true, the first of the two configured cache stores is used as a local tier in front of the second one, usually
+    * shared by the cluster: the entries loaded from the second store are copied to the first one, so that the next loads
+    * don't reach the second store. The local tier is cleared when the topology of the cluster changes. Defaults to
+    * false.
+    */
+   public LoadersConfigurationBuilder tiered(boolean tiered) {
+      this.tiered = tiered;
+      return this;
+   }
+
    /**
     * This setting should be set to true when multiple cache instances share the same cache store
     * (e.g., multiple nodes in a cluster using a JDBC-based CacheStore pointing to the same, shared
@@ -193,6 +310,15 @@ public SingleFileCacheStoreConfigurationBuilder addSingleFileCacheStore() {
       return builder;
    }
 
+   /**
+    * Adds a log structured file cache store
+    */
+   public LogFileCacheStoreConfigurationBuilder addLogFileCacheStore() {
+      LogFileCacheStoreConfigurationBuilder builder = new LogFileCacheStoreConfigurationBuilder(this);
+      this.cacheLoaders.add(builder);
+      return builder;
+   }
+
    /**
     * Removes any configured cache loaders and stores from this builder
     */
@@ -212,6 +338,24 @@ public LoadersConfigurationBuilder clearCacheLoaders() {
 
    @Override
    public void validate() {
+      if (passivationQueueSize < 1)
+         throw new CacheConfigurationException("passivationQueueSize must be greater than zero");
+      if (preloadThreads < 1)
+         throw new CacheConfigurationException("preloadThreads must be greater than zero");
+      if (preloadBatchSize < 1)
+         throw new CacheConfigurationException("preloadBatchSize must be greater than zero");
+      if (loadCoalescingWindow < 0)
+         throw new CacheConfigurationException("loadCoalescingWindow can't be negative");
+      if (purgeBatchSize < 1)
+         throw new CacheConfigurationException("purgeBatchSize must be greater than zero");
+      if (purgeTimeBudget < 0)
+         throw new CacheConfigurationException("purgeTimeBudget can't be negative");
+      if (compressionThreshold < 0)
+         throw new CacheConfigurationException("compressionThreshold can't be negative");
+      if (tiered && cacheLoaders.size() != 2)
+         throw new CacheConfigurationException("A tiered cache store needs exactly two cache stores");
+      if (tiered && passivation)
+         throw new CacheConfigurationException("A tiered cache store can't be used with passivation");
       for (CacheLoaderConfigurationBuilder<?, ?> b : cacheLoaders) {
          b.validate();
       }
@@ -222,7 +366,9 @@ public LoadersConfiguration create() {
       List<CacheLoaderConfiguration> loaders = new LinkedList<CacheLoaderConfiguration>();
       for (CacheLoaderConfigurationBuilder<?, ?> loader : cacheLoaders)
          loaders.add(loader.create());
-      return new LoadersConfiguration(passivation, preload, shared, loaders);
+      return new LoadersConfiguration(passivation, asyncPassivation, passivationQueueSize, preload, preloadThreads,
+            preloadBatchSize, coalesceLoads, loadCoalescingWindow, purgeBatchSize, purgeTimeBudget, compression,
+            compressionThreshold, tiered, shared, loaders);
    }
 
    @SuppressWarnings("unchecked")
@@ -235,7 +381,18 @@ public LoadersConfigurationBuilder read(LoadersConfiguration template) {
          builder.read(c);
       }
       this.passivation = template.passivation();
+      this.asyncPassivation = template.asyncPassivation();
+      this.passivationQueueSize = template.passivationQueueSize();
       this.preload = template.preload();
+      this.preloadThreads = template.preloadThreads();
+      this.preloadBatchSize = template.preloadBatchSize();
+      this.coalesceLoads = template.coalesceLoads();
+      this.loadCoalescingWindow = template.loadCoalescingWindow();
+      this.purgeBatchSize = template.purgeBatchSize();
+      this.purgeTimeBudget = template.purgeTimeBudget();
+      this.compression = template.compression();
+      this.compressionThreshold = template.compressionThreshold();
+      this.tiered = template.tiered();
       this.shared = template.shared();
 
       return this;
@@ -246,7 +403,18 @@ public String toString() {
       return "LoadersConfigurationBuilder{" +
             "cacheLoaders=" + cacheLoaders +
             ", passivation=" + passivation +
+            ", asyncPassivation=" + asyncPassivation +
+            ", passivationQueueSize=" + passivationQueueSize +
             ", preload=" + preload +
+            ", preloadThreads=" + preloadThreads +
+            ", preloadBatchSize=" + preloadBatchSize +
+            ", coalesceLoads=" + coalesceLoads +
+            ", loadCoalescingWindow=" + loadCoalescingWindow +
+            ", purgeBatchSize=" + purgeBatchSize +
+            ", purgeTimeBudget=" + purgeTimeBudget +
+            ", compression=" + compression +
+            ", compressionThreshold=" + compressionThreshold +
+            ", tiered=" + tiered +
             ", shared=" + shared +
             '}';
    }
@@ -0,0 +1,133 @@
+package org.infinispan.configuration.cache;
+
+import org.infinispan.commons.configuration.BuiltBy;
+import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
+import org.infinispan.loaders.file.LogFileCacheStore;
+
+/**
+ * Defines the configuration for the log structured file cache store.
+ *
+ * @since 6.0
+ */
+@BuiltBy(LogFileCacheStoreConfigurationBuilder.class)
+@ConfigurationFor(LogFileCacheStore.class)
+public class LogFileCacheStoreConfiguration extends AbstractStoreConfiguration {
+
+   private final String location;
+
+   private final int maxFileSize;
+
+   private final double compactionThreshold;
+
+   private final boolean offHeapIndex;
+
+   private final FsyncMode fsyncMode;
+
+   private final long fsyncInterval;
+
+   private final long fsyncMaxLatency;
+
+   private final boolean fsyncMetadata;
+
+   public LogFileCacheStoreConfiguration(String location, int maxFileSize, double compactionThreshold,
+         boolean offHeapIndex, FsyncMode fsyncMode, long fsyncInterval, long fsyncMaxLatency, boolean fsyncMetadata,
+         boolean purgeOnStartup, boolean purgeSynchronously, int purgerThreads,
+         boolean fetchPersistentState, boolean ignoreModifications, TypedProperties properties,
+         AsyncStoreConfiguration async, SingletonStoreConfiguration singletonStore) {
+      super(purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
+            ignoreModifications, properties, async, singletonStore);
+      this.location = location;
+      this.maxFileSize = maxFileSize;
+      this.compactionThreshold = compactionThreshold;
+      this.offHeapIndex = offHeapIndex;
+      this.fsyncMode = fsyncMode;
+      this.fsyncInterval = fsyncInterval;
+      this.fsyncMaxLatency = fsyncMaxLatency;
+      this.fsyncMetadata = fsyncMetadata;
+   }
+
+   public String location() {
+      return location;
+   }
+
+   public int maxFileSize() {
+      return maxFileSize;
+   }
+
+   public double compactionThreshold() {
+      return compactionThreshold;
+   }
+
+   public boolean offHeapIndex() {
+      return offHeapIndex;
+   }
+
+   public FsyncMode fsyncMode() {
+      return fsyncMode;
+   }
+
+   public long fsyncInterval() {
+      return fsyncInterval;
+   }
+
+   public long fsyncMaxLatency() {
+      return fsyncMaxLatency;
+   }
+
+   public boolean fsyncMetadata() {
+      return fsyncMetadata;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      if (!super.equals(o)) return false;
+
+      LogFileCacheStoreConfiguration that = (LogFileCacheStoreConfiguration) o;
+
+      if (maxFileSize != that.maxFileSize) return false;
+      if (Double.compare(that.compactionThreshold, compactionThreshold) != 0) return false;
+      if (offHeapIndex != that.offHeapIndex) return false;
+      if (fsyncInterval != that.fsyncInterval) return false;
+      if (fsyncMaxLatency != that.fsyncMaxLatency) return false;
+      if (fsyncMetadata != that.fsyncMetadata) return false;
+      if (fsyncMode != that.fsyncMode) return false;
+      if (location != null ? !location.equals(that.location) : that.location != null)
+         return false;
+
+      return true;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = super.hashCode();
+      long temp = Double.doubleToLongBits(compactionThreshold);
+      result = 31 * result + (location != null ? location.hashCode() : 0);
+      result = 31 * result + maxFileSize;
+      result = 31 * result + (int) (temp ^ (temp >>> 32));
+      result = 31 * result + (offHeapIndex ? 1 : 0);
+      result = 31 * result + (fsyncMode != null ? fsyncMode.hashCode() : 0);
+      result = 31 * result + (int) (fsyncInterval ^ (fsyncInterval >>> 32));
+      result = 31 * result + (int) (fsyncMaxLatency ^ (fsyncMaxLatency >>> 32));
+      result = 31 * result + (fsyncMetadata ? 1 : 0);
+      return result;
+   }
+
+   @Override
+   public String toString() {
+      return "LogFileCacheStoreConfiguration{" +
+            "location='" + location + '\'' +
+            ", maxFileSize=" + maxFileSize +
+            ", compactionThreshold=" + compactionThreshold +
+            ", offHeapIndex=" + offHeapIndex +
+            ", fsyncMode=" + fsyncMode +
+            ", fsyncInterval=" + fsyncInterval +
+            ", fsyncMaxLatency=" + fsyncMaxLatency +
+            ", fsyncMetadata=" + fsyncMetadata +
+            '}';
+   }
+
+}
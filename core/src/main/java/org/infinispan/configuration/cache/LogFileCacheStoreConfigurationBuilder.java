@@ -0,0 +1,168 @@
+package org.infinispan.configuration.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
+
+/**
+ * Log structured file cache store configuration builder.
+ *
+ * @since 6.0
+ */
+public class LogFileCacheStoreConfigurationBuilder
+      extends AbstractStoreConfigurationBuilder<LogFileCacheStoreConfiguration, LogFileCacheStoreConfigurationBuilder> {
+
+   private String location = "Infinispan-LogFileCacheStore";
+
+   private int maxFileSize = 16 * 1024 * 1024;
+
+   private double compactionThreshold = 0.5;
+
+   private boolean offHeapIndex = false;
+
+   private FsyncMode fsyncMode = FsyncMode.DEFAULT;
+
+   private long fsyncInterval = TimeUnit.SECONDS.toMillis(1);
+
+   private long fsyncMaxLatency = 0;
+
+   private boolean fsyncMetadata = true;
+
+   public LogFileCacheStoreConfigurationBuilder(LoadersConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   @Override
+   public LogFileCacheStoreConfigurationBuilder self() {
+      return this;
+   }
+
+   /**
+    * Sets a location on disk where the store can write. Each cache writes its log files in a sub directory named after
+    * the cache.
+    */
+   public LogFileCacheStoreConfigurationBuilder location(String location) {
+      this.location = location;
+      return this;
+   }
+
+   /**
+    * The size in bytes after which a log file is closed and writes continue in a new one. Only closed log files are
+    * compacted, so smaller files let the store reclaim space sooner at the cost of more open files. Defaults to 16MB.
+    */
+   public LogFileCacheStoreConfigurationBuilder maxFileSize(int maxFileSize) {
+      this.maxFileSize = maxFileSize;
+      return this;
+   }
+
+   /**
+    * The fraction of a closed log file taken by removed, overwritten or expired entries above which the file is
+    * compacted, i.e. its live entries are copied to the current log file and the file is deleted. Lower values keep
+    * the store smaller at the cost of copying entries more often. Defaults to 0.5.
+    */
+   public LogFileCacheStoreConfigurationBuilder compactionThreshold(double compactionThreshold) {
+      this.compactionThreshold = compactionThreshold;
+      return this;
+   }
+
+   /**
+    * The store keeps an index of the keys and the location of their entries in the log files. If true, the index is
+    * kept in marshalled form in memory allocated outside of the Java heap. Defaults to false.
+    */
+   public LogFileCacheStoreConfigurationBuilder offHeapIndex(boolean offHeapIndex) {
+      this.offHeapIndex = offHeapIndex;
+      return this;
+   }
+
+   /**
+    * Configures how the writes are synced to disk. By default they are left to the operating system, so the writes
+    * acknowledged since the last sync are lost if the machine crashes. {@link FsyncMode#PER_WRITE} syncs after each
+    * write, {@link FsyncMode#PERIODIC} every {@link #fsyncInterval(long)} and {@link FsyncMode#GROUP_COMMIT} blocks
+    * writers until their write is synced, syncing the writes of concurrent writers together.
+    */
+   public LogFileCacheStoreConfigurationBuilder fsyncMode(FsyncMode fsyncMode) {
+      this.fsyncMode = fsyncMode;
+      return this;
+   }
+
+   /**
+    * The interval, in milliseconds, between syncs in {@link FsyncMode#PERIODIC} mode. Defaults to 1 second.
+    */
+   public LogFileCacheStoreConfigurationBuilder fsyncInterval(long fsyncInterval) {
+      this.fsyncInterval = fsyncInterval;
+      return this;
+   }
+
+   public LogFileCacheStoreConfigurationBuilder fsyncInterval(long fsyncInterval, TimeUnit unit) {
+      return fsyncInterval(unit.toMillis(fsyncInterval));
+   }
+
+   /**
+    * The maximum time, in milliseconds, the {@link FsyncMode#GROUP_COMMIT} mode waits after a write for more writes to
+    * join the same sync. Defaults to 0, grouping only the writes issued while the previous sync was in progress.
+    */
+   public LogFileCacheStoreConfigurationBuilder fsyncMaxLatency(long fsyncMaxLatency) {
+      this.fsyncMaxLatency = fsyncMaxLatency;
+      return this;
+   }
+
+   public LogFileCacheStoreConfigurationBuilder fsyncMaxLatency(long fsyncMaxLatency, TimeUnit unit) {
+      return fsyncMaxLatency(unit.toMillis(fsyncMaxLatency));
+   }
+
+   /**
+    * If true, the default, the syncs made by the {@link FsyncMode#PER_WRITE}, {@link FsyncMode#PERIODIC} and {@link
+    * FsyncMode#GROUP_COMMIT} modes also write the metadata of the log files to disk, like <tt>fsync</tt>. If false they
+    * only write the data and the metadata needed to read it back, like <tt>fdatasync</tt>.
+    */
+   public LogFileCacheStoreConfigurationBuilder fsyncMetadata(boolean fsyncMetadata) {
+      this.fsyncMetadata = fsyncMetadata;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      super.validate();
+      if (maxFileSize <= 0)
+         throw new CacheConfigurationException("maxFileSize must be greater than zero");
+      if (compactionThreshold <= 0 || compactionThreshold > 1)
+         throw new CacheConfigurationException("compactionThreshold must be greater than 0 and not greater than 1");
+   }
+
+   @Override
+   public LogFileCacheStoreConfiguration create() {
+      return new LogFileCacheStoreConfiguration(location, maxFileSize, compactionThreshold, offHeapIndex,
+            fsyncMode, fsyncInterval, fsyncMaxLatency, fsyncMetadata, purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
+            ignoreModifications, TypedProperties.toTypedProperties(properties),
+            async.create(), singletonStore.create());
+   }
+
+   @Override
+   public Builder<?> read(LogFileCacheStoreConfiguration template) {
+      // LogFileCacheStore-specific configuration
+      location = template.location();
+      maxFileSize = template.maxFileSize();
+      compactionThreshold = template.compactionThreshold();
+      offHeapIndex = template.offHeapIndex();
+      fsyncMode = template.fsyncMode();
+      fsyncInterval = template.fsyncInterval();
+      fsyncMaxLatency = template.fsyncMaxLatency();
+      fsyncMetadata = template.fsyncMetadata();
+
+      // AbstractStore-specific configuration
+      fetchPersistentState = template.fetchPersistentState();
+      ignoreModifications = template.ignoreModifications();
+      properties = template.properties();
+      purgeOnStartup = template.purgeOnStartup();
+      purgeSynchronously = template.purgeSynchronously();
+      purgerThreads = template.purgerThreads();
+      async.read(template.async());
+      singletonStore.read(template.singletonStore());
+
+      return this;
+   }
+
+}
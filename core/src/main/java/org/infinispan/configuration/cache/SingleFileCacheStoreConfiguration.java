@@ -3,6 +3,7 @@
 import org.infinispan.commons.configuration.BuiltBy;
 import org.infinispan.commons.configuration.ConfigurationFor;
 import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
 import org.infinispan.loaders.file.SingleFileCacheStore;
 
 /**
@@ -19,13 +20,29 @@ public class SingleFileCacheStoreConfiguration extends AbstractStoreConfiguratio
 
    private final int maxEntries;
 
-   public SingleFileCacheStoreConfiguration(String location, int maxKeysInMemory,
+   private final boolean memoryMapped;
+
+   private final FsyncMode fsyncMode;
+
+   private final long fsyncInterval;
+
+   private final long fsyncMaxLatency;
+
+   private final boolean fsyncMetadata;
+
+   public SingleFileCacheStoreConfiguration(String location, int maxKeysInMemory, boolean memoryMapped,
+         FsyncMode fsyncMode, long fsyncInterval, long fsyncMaxLatency, boolean fsyncMetadata,
          boolean purgeOnStartup, boolean purgeSynchronously, int purgerThreads, boolean fetchPersistentState,
          boolean ignoreModifications, TypedProperties properties, AsyncStoreConfiguration async, SingletonStoreConfiguration singletonStore) {
       super(purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
             ignoreModifications, properties, async, singletonStore);
       this.location = location;
       this.maxEntries = maxKeysInMemory;
+      this.memoryMapped = memoryMapped;
+      this.fsyncMode = fsyncMode;
+      this.fsyncInterval = fsyncInterval;
+      this.fsyncMaxLatency = fsyncMaxLatency;
+      this.fsyncMetadata = fsyncMetadata;
    }
 
    public String location() {
@@ -36,6 +53,26 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   public boolean memoryMapped() {
+      return memoryMapped;
+   }
+
+   public FsyncMode fsyncMode() {
+      return fsyncMode;
+   }
+
+   public long fsyncInterval() {
+      return fsyncInterval;
+   }
+
+   public long fsyncMaxLatency() {
+      return fsyncMaxLatency;
+   }
+
+   public boolean fsyncMetadata() {
+      return fsyncMetadata;
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o) return true;
@@ -45,6 +82,11 @@ public boolean equals(Object o) {
       SingleFileCacheStoreConfiguration that = (SingleFileCacheStoreConfiguration) o;
 
       if (maxEntries != that.maxEntries) return false;
+      if (memoryMapped != that.memoryMapped) return false;
+      if (fsyncInterval != that.fsyncInterval) return false;
+      if (fsyncMaxLatency != that.fsyncMaxLatency) return false;
+      if (fsyncMetadata != that.fsyncMetadata) return false;
+      if (fsyncMode != that.fsyncMode) return false;
       if (location != null ? !location.equals(that.location) : that.location != null)
          return false;
 
@@ -56,6 +98,11 @@ public int hashCode() {
       int result = super.hashCode();
       result = 31 * result + (location != null ? location.hashCode() : 0);
       result = 31 * result + maxEntries;
+      result = 31 * result + (memoryMapped ? 1 : 0);
+      result = 31 * result + (fsyncMode != null ? fsyncMode.hashCode() : 0);
+      result = 31 * result + (int) (fsyncInterval ^ (fsyncInterval >>> 32));
+      result = 31 * result + (int) (fsyncMaxLatency ^ (fsyncMaxLatency >>> 32));
+      result = 31 * result + (fsyncMetadata ? 1 : 0);
       return result;
    }
 
@@ -64,6 +111,11 @@ public String toString() {
       return "SingleFileCacheStoreConfiguration{" +
             "location='" + location + '\'' +
             ", maxEntries=" + maxEntries +
+            ", memoryMapped=" + memoryMapped +
+            ", fsyncMode=" + fsyncMode +
+            ", fsyncInterval=" + fsyncInterval +
+            ", fsyncMaxLatency=" + fsyncMaxLatency +
+            ", fsyncMetadata=" + fsyncMetadata +
             '}';
    }
 
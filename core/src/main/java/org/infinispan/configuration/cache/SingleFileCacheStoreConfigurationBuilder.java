@@ -1,7 +1,10 @@
 package org.infinispan.configuration.cache;
 
+import java.util.concurrent.TimeUnit;
+
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -20,6 +23,16 @@
 
    private int maxEntries = -1;
 
+   private boolean memoryMapped = false;
+
+   private FsyncMode fsyncMode = FsyncMode.DEFAULT;
+
+   private long fsyncInterval = TimeUnit.SECONDS.toMillis(1);
+
+   private long fsyncMaxLatency = 0;
+
+   private boolean fsyncMetadata = true;
+
    public SingleFileCacheStoreConfigurationBuilder(LoadersConfigurationBuilder builder) {
       super(builder);
    }
@@ -58,9 +71,66 @@ public SingleFileCacheStoreConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * If true, the data file is memory mapped in regions and read through the mappings rather than with a read system
+    * call per lookup. This speeds up loads and rebuilding the index on startup, especially for large files, at the
+    * expense of virtual address space. Defaults to false.
+    */
+   public SingleFileCacheStoreConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      this.memoryMapped = memoryMapped;
+      return this;
+   }
+
+   /**
+    * Configures how the writes are synced to disk. By default they are left to the operating system, {@link
+    * FsyncMode#PER_WRITE} syncs after each write, {@link FsyncMode#PERIODIC} every {@link #fsyncInterval(long)} and
+    * {@link FsyncMode#GROUP_COMMIT} blocks writers until their write is synced, syncing the writes of concurrent
+    * writers together.
+    */
+   public SingleFileCacheStoreConfigurationBuilder fsyncMode(FsyncMode fsyncMode) {
+      this.fsyncMode = fsyncMode;
+      return this;
+   }
+
+   /**
+    * The interval, in milliseconds, between syncs in {@link FsyncMode#PERIODIC} mode. Defaults to 1 second.
+    */
+   public SingleFileCacheStoreConfigurationBuilder fsyncInterval(long fsyncInterval) {
+      this.fsyncInterval = fsyncInterval;
+      return this;
+   }
+
+   public SingleFileCacheStoreConfigurationBuilder fsyncInterval(long fsyncInterval, TimeUnit unit) {
+      return fsyncInterval(unit.toMillis(fsyncInterval));
+   }
+
+   /**
+    * The maximum time, in milliseconds, the {@link FsyncMode#GROUP_COMMIT} mode waits after a write for more writes to
+    * join the same sync. Defaults to 0, grouping only the writes issued while the previous sync was in progress.
+    */
+   public SingleFileCacheStoreConfigurationBuilder fsyncMaxLatency(long fsyncMaxLatency) {
+      this.fsyncMaxLatency = fsyncMaxLatency;
+      return this;
+   }
+
+   public SingleFileCacheStoreConfigurationBuilder fsyncMaxLatency(long fsyncMaxLatency, TimeUnit unit) {
+      return fsyncMaxLatency(unit.toMillis(fsyncMaxLatency));
+   }
+
+   /**
+    * If true, the default, the syncs made by the {@link FsyncMode#PER_WRITE}, {@link FsyncMode#PERIODIC} and {@link
+    * FsyncMode#GROUP_COMMIT} modes also write the metadata of the file to disk, like <tt>fsync</tt>. If false they only
+    * write the data and the metadata needed to read it back, like <tt>fdatasync</tt>, which is usually cheaper.
+    */
+   public SingleFileCacheStoreConfigurationBuilder fsyncMetadata(boolean fsyncMetadata) {
+      this.fsyncMetadata = fsyncMetadata;
+      return this;
+   }
+
    @Override
    public SingleFileCacheStoreConfiguration create() {
-      return new SingleFileCacheStoreConfiguration(location, maxEntries,
+      return new SingleFileCacheStoreConfiguration(location, maxEntries, memoryMapped,
+            fsyncMode, fsyncInterval, fsyncMaxLatency, fsyncMetadata,
             purgeOnStartup, purgeSynchronously, purgerThreads, fetchPersistentState,
             ignoreModifications, TypedProperties.toTypedProperties(properties),
             async.create(), singletonStore.create());
@@ -71,6 +141,11 @@ public Builder<?> read(SingleFileCacheStoreConfiguration template) {
       // SingleFileCacheStore-specific configuration
       location = template.location();
       maxEntries = template.maxEntries();
+      memoryMapped = template.memoryMapped();
+      fsyncMode = template.fsyncMode();
+      fsyncInterval = template.fsyncInterval();
+      fsyncMaxLatency = template.fsyncMaxLatency();
+      fsyncMetadata = template.fsyncMetadata();
 
       // AbstractStore-specific configuration
       fetchPersistentState = template.fetchPersistentState();
@@ -13,9 +13,11 @@ public enum Attribute {
     UNKNOWN(null),
 
     AFTER("after"),
+    ADDRESS_COUNT("addressCount"),
     ALLOW_DUPLICATE_DOMAINS("allowDuplicateDomains"),
     ALWAYS_PROVIDE_IN_MEMORY_STATE("alwaysProvideInMemoryState"),
     ASYNC_MARSHALLING("asyncMarshalling"),
+    ASYNC_PASSIVATION("asyncPassivation"),
     AUTO_COMMIT("autoCommit"),
     BEFORE("before"),
     CACHE_MANAGER_NAME("cacheManagerName"),
@@ -23,6 +25,10 @@ public enum Attribute {
     CHUNK_SIZE("chunkSize"),
     CLASS("class"),
     CLUSTER_NAME("clusterName"),
+    COALESCE_LOADS("coalesceLoads"),
+    COMPACTION_THRESHOLD("compactionThreshold"),
+    COMPRESSION("compression"),
+    COMPRESSION_THRESHOLD("compressionThreshold"),
     CONCURRENCY_LEVEL("concurrencyLevel"),
     DISTRIBUTED_SYNC_TIMEOUT("distributedSyncTimeout"),
     EAGER_LOCK_SINGLE_NODE("eagerLockSingleNode"),
@@ -34,6 +40,8 @@ public enum Attribute {
     AWAIT_INITIAL_TRANSFER("awaitInitialTransfer"),
     FLUSH_LOCK_TIMEOUT("flushLockTimeout"),
     FSYNC_INTERVAL("fsyncInterval"),
+    FSYNC_MAX_LATENCY("fsyncMaxLatency"),
+    FSYNC_METADATA("fsyncMetadata"),
     FSYNC_MODE("fsyncMode"),
     HASH_FUNCTION_CLASS("hashFunctionClass"),
     HASH_SEED_CLASS("hashSeedClass"),
@@ -46,7 +54,9 @@ public enum Attribute {
     INVALIDATION_THRESHOLD("invalidationThreshold"),
     ISOLATION_LEVEL("isolationLevel"),
     JMX_DOMAIN("jmxDomain"),
+    LANES("lanes"),
     LIFESPAN("lifespan"),
+    LOAD_COALESCING_WINDOW("loadCoalescingWindow"),
     LOCATION("location"),
     INVALIDATION_CLEANUP_TASK_FREQUENCY("cleanupTaskFrequency"),
     LOCK_ACQUISITION_TIMEOUT("lockAcquisitionTimeout"),
@@ -55,9 +65,12 @@ public enum Attribute {
     MACHINE_ID("machineId"),
     MARSHALLER_CLASS("marshallerClass"),
     MAX_ENTRIES("maxEntries"),
+    MAX_FILE_SIZE("maxFileSize"),
+    MAX_MEMORY("maxMemory"),
     MAX_IDLE("maxIdle"),
     MAX_NON_PROGRESSING_LOG_WRITES("maxProgressingLogWrites"),
     MBEAN_SERVER_LOOKUP("mBeanServerLookup"),
+    MEMORY_MAPPED("memoryMapped"),
     MODE("mode"),
     NODE_NAME("nodeName"),
     MODIFICATION_QUEUE_SIZE("modificationQueueSize"),
@@ -66,12 +79,19 @@ public enum Attribute {
     NUM_SEGMENTS("numSegments"),
     NUM_RETRIES("numRetries"),
     NUM_VIRTUAL_NODES("numVirtualNodes"),
+    OFF_HEAP("offHeap"),
+    OFF_HEAP_INDEX("offHeapIndex"),
     ON_REHASH("onRehash"),
     PASSIVATION("passivation"),
+    PASSIVATION_QUEUE_SIZE("passivationQueueSize"),
     POSITION("position"),
     PRELOAD("preload"),
+    PRELOAD_BATCH_SIZE("preloadBatchSize"),
+    PRELOAD_THREADS("preloadThreads"),
+    PURGE_BATCH_SIZE("purgeBatchSize"),
     PURGE_ON_STARTUP("purgeOnStartup"),
     PURGE_SYNCHRONOUSLY("purgeSynchronously"),
+    PURGE_TIME_BUDGET("purgeTimeBudget"),
     PURGER_THREADS("purgerThreads"),
     PUSH_STATE_TIMEOUT("pushStateTimeout"),
     PUSH_STATE_WHEN_COORDINATOR("pushStateWhenCoordinator"),
@@ -87,6 +107,7 @@ public enum Attribute {
     REPL_QUEUE_MAX_ELEMENTS("replQueueMaxElements"),
     REPL_TIMEOUT("replTimeout"),
     RETRY_WAIT_TIME_INCREASE_FACTOR("retryWaitTimeIncreaseFactor"),
+    SEGMENTED("segmented"),
     SHARED("shared"),
     SHUTDOWN_TIMEOUT("shutdownTimeout"),
     SITE_ID("siteId"),
@@ -101,13 +122,16 @@ public enum Attribute {
     STRICT_PEER_TO_PEER("strictPeerToPeer"),
     THREAD_POLICY("threadPolicy"),
     THREAD_POOL_SIZE("threadPoolSize"),
+    TIERED("tiered"),
     TIMEOUT("timeout"),
     TRANSACTION_MANAGER_LOOKUP_CLASS("transactionManagerLookupClass"),
     TRANSACTION_MODE("transactionMode"),
     TRANSPORT_CLASS("transportClass"),
+    TYPE("type"),
     UNRELIABLE_RETURN_VALUES("unreliableReturnValues"),
     USE_EAGER_LOCKING("useEagerLocking"),
     USE_LOCK_STRIPING("useLockStriping"),
+    SIZE_CALCULATOR("sizeCalculator"),
     SUPPORTS_CONCURRENT_UPDATES("supportsConcurrentUpdates"),
     USE_REPL_QUEUE("useReplQueue"),
     USE_SYNCHRONIZAION("useSynchronization"),
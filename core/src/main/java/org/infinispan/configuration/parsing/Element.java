@@ -31,6 +31,7 @@ public enum Element {
     EXPIRATION("expiration"),
     FILE_STORE("fileStore"),
     SINGLE_FILE_STORE("singleFileStore"),
+    LOG_FILE_STORE("logFileStore"),
     GROUPS("groups"),
     GROUPER("grouper"),
     GLOBAL("global"),
@@ -15,10 +15,13 @@
 import org.infinispan.configuration.global.ScheduledExecutorFactoryConfigurationBuilder;
 import org.infinispan.configuration.global.ShutdownHookBehavior;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHashFactory;
 import org.infinispan.distribution.group.Grouper;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.eviction.EntrySizeCalculator;
 import org.infinispan.executors.ScheduledExecutorFactory;
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.jmx.MBeanServerLookup;
@@ -539,9 +542,42 @@ private void parseLoaders(final XMLExtendedStreamReader reader, final Configurat
             case PASSIVATION:
                builder.loaders().passivation(Boolean.parseBoolean(value));
                break;
+            case ASYNC_PASSIVATION:
+               builder.loaders().asyncPassivation(Boolean.parseBoolean(value));
+               break;
+            case PASSIVATION_QUEUE_SIZE:
+               builder.loaders().passivationQueueSize(Integer.parseInt(value));
+               break;
             case PRELOAD:
                builder.loaders().preload(Boolean.parseBoolean(value));
                break;
+            case PRELOAD_BATCH_SIZE:
+               builder.loaders().preloadBatchSize(Integer.parseInt(value));
+               break;
+            case PRELOAD_THREADS:
+               builder.loaders().preloadThreads(Integer.parseInt(value));
+               break;
+            case COALESCE_LOADS:
+               builder.loaders().coalesceLoads(Boolean.parseBoolean(value));
+               break;
+            case LOAD_COALESCING_WINDOW:
+               builder.loaders().loadCoalescingWindow(Long.parseLong(value));
+               break;
+            case PURGE_BATCH_SIZE:
+               builder.loaders().purgeBatchSize(Integer.parseInt(value));
+               break;
+            case PURGE_TIME_BUDGET:
+               builder.loaders().purgeTimeBudget(Long.parseLong(value));
+               break;
+            case COMPRESSION:
+               builder.loaders().compression(Boolean.parseBoolean(value));
+               break;
+            case COMPRESSION_THRESHOLD:
+               builder.loaders().compressionThreshold(Integer.parseInt(value));
+               break;
+            case TIERED:
+               builder.loaders().tiered(Boolean.parseBoolean(value));
+               break;
             case SHARED:
                builder.loaders().shared(Boolean.parseBoolean(value));
                break;
@@ -562,6 +598,9 @@ private void parseLoaders(final XMLExtendedStreamReader reader, final Configurat
             case SINGLE_FILE_STORE:
                parseSingleFileStore(reader, holder);
                break;
+            case LOG_FILE_STORE:
+               parseLogFileStore(reader, holder);
+               break;
             case LOADER:
                parseLoader(reader, holder);
                break;
@@ -588,6 +627,61 @@ private void parseSingleFileStore(XMLExtendedStreamReader reader, ConfigurationB
             case MAX_ENTRIES:
                storeBuilder.maxEntries(Integer.parseInt(value));
                break;
+            case MEMORY_MAPPED:
+               storeBuilder.memoryMapped(Boolean.parseBoolean(value));
+               break;
+            case FSYNC_MODE:
+               storeBuilder.fsyncMode(FsyncMode.valueOf(value));
+               break;
+            case FSYNC_INTERVAL:
+               storeBuilder.fsyncInterval(Long.parseLong(value));
+               break;
+            case FSYNC_MAX_LATENCY:
+               storeBuilder.fsyncMaxLatency(Long.parseLong(value));
+               break;
+            case FSYNC_METADATA:
+               storeBuilder.fsyncMetadata(Boolean.parseBoolean(value));
+               break;
+            default:
+               parseCommonLoaderAttributes(reader, i, storeBuilder);
+               break;
+         }
+      }
+      parseStoreChildren(reader, storeBuilder);
+   }
+
+   private void parseLogFileStore(XMLExtendedStreamReader reader, ConfigurationBuilderHolder holder) throws XMLStreamException {
+      ConfigurationBuilder builder = holder.getCurrentConfigurationBuilder();
+      LogFileCacheStoreConfigurationBuilder storeBuilder = builder.loaders().addLogFileCacheStore();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         ParseUtils.requireNoNamespaceAttribute(reader, i);
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case LOCATION:
+               storeBuilder.location(value);
+               break;
+            case MAX_FILE_SIZE:
+               storeBuilder.maxFileSize(Integer.parseInt(value));
+               break;
+            case COMPACTION_THRESHOLD:
+               storeBuilder.compactionThreshold(Double.parseDouble(value));
+               break;
+            case OFF_HEAP_INDEX:
+               storeBuilder.offHeapIndex(Boolean.parseBoolean(value));
+               break;
+            case FSYNC_MODE:
+               storeBuilder.fsyncMode(FsyncMode.valueOf(value));
+               break;
+            case FSYNC_INTERVAL:
+               storeBuilder.fsyncInterval(Long.parseLong(value));
+               break;
+            case FSYNC_MAX_LATENCY:
+               storeBuilder.fsyncMaxLatency(Long.parseLong(value));
+               break;
+            case FSYNC_METADATA:
+               storeBuilder.fsyncMetadata(Boolean.parseBoolean(value));
+               break;
             default:
                parseCommonLoaderAttributes(reader, i, storeBuilder);
                break;
@@ -629,6 +723,12 @@ private void parseFileStore(XMLExtendedStreamReader reader, ConfigurationBuilder
          case FSYNC_INTERVAL:
             fcscb.fsyncInterval(Long.parseLong(value));
             break;
+         case FSYNC_MAX_LATENCY:
+            fcscb.fsyncMaxLatency(Long.parseLong(value));
+            break;
+         case FSYNC_METADATA:
+            fcscb.fsyncMetadata(Boolean.parseBoolean(value));
+            break;
          case FSYNC_MODE:
             fcscb.fsyncMode(FsyncMode.valueOf(value));
             break;
@@ -945,6 +1045,9 @@ public static void parseAsyncStore(final XMLExtendedStreamReader reader, final C
             case THREAD_POOL_SIZE:
                storeBuilder.async().threadPoolSize(Integer.parseInt(value));
                break;
+            case LANES:
+               storeBuilder.async().lanes(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1087,6 +1190,15 @@ private void parseEviction(final XMLExtendedStreamReader reader, final Configura
             case THREAD_POLICY:
                builder.eviction().threadPolicy(EvictionThreadPolicy.valueOf(value));
                break;
+            case TYPE:
+               builder.eviction().type(EvictionType.valueOf(value));
+               break;
+            case MAX_MEMORY:
+               builder.eviction().maxMemory(Long.parseLong(value));
+               break;
+            case SIZE_CALCULATOR:
+               builder.eviction().sizeCalculator(Util.<EntrySizeCalculator<Object, InternalCacheEntry>>getInstance(value, holder.getClassLoader()));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1138,6 +1250,15 @@ private void parseDataContainer(final XMLExtendedStreamReader reader, final Conf
             case VALUE_EQUIVALENCE:
                builder.dataContainer().valueEquivalence(Util.<Equivalence>getInstance(value, holder.getClassLoader()));
                break;
+            case OFF_HEAP:
+               builder.dataContainer().offHeap(Boolean.parseBoolean(value));
+               break;
+            case ADDRESS_COUNT:
+               builder.dataContainer().addressCount(Integer.parseInt(value));
+               break;
+            case SEGMENTED:
+               builder.dataContainer().segmented(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -8,6 +8,7 @@
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EntrySizeCalculator;
 import org.infinispan.eviction.EvictionManager;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
@@ -48,6 +49,7 @@ public class DefaultDataContainer implements DataContainer {
    final protected ConcurrentMap<Object, InternalCacheEntry> entries;
    protected InternalEntryFactory entryFactory;
    final protected DefaultEvictionListener evictionListener;
+   final ExpirationIndex expirationIndex;
    private EvictionManager evictionManager;
    private PassivationManager passivator;
    private ActivationManager activator;
@@ -58,6 +60,7 @@ public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
       entries = CollectionFactory.makeConcurrentMap(128, concurrencyLevel);
       evictionListener = null;
+      expirationIndex = new ExpirationIndex(null);
    }
 
    public DefaultDataContainer(int concurrencyLevel,
@@ -65,38 +68,54 @@ public DefaultDataContainer(int concurrencyLevel,
       // If at least one comparing implementation give, use ComparingCHMv8
       entries = CollectionFactory.makeConcurrentMap(128, concurrencyLevel, keyEq, valueEq);
       evictionListener = null;
+      expirationIndex = new ExpirationIndex(keyEq);
    }
 
    protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
          EvictionStrategy strategy, EvictionThreadPolicy policy,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
-      // translate eviction policy and strategy
+      evictionListener = createEvictionListener(policy);
+      entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(
+            maxEntries, concurrencyLevel, translateEvictionStrategy(strategy), evictionListener,
+            keyEquivalence, valueEquivalence);
+      expirationIndex = new ExpirationIndex(keyEquivalence);
+   }
+
+   protected DefaultDataContainer(int concurrencyLevel, long maxMemory,
+         EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence,
+         EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator) {
+      evictionListener = createEvictionListener(policy);
+      entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(
+            maxMemory, concurrencyLevel, translateEvictionStrategy(strategy), evictionListener,
+            keyEquivalence, valueEquivalence, sizeCalculator);
+      expirationIndex = new ExpirationIndex(keyEquivalence);
+   }
+
+   private DefaultEvictionListener createEvictionListener(EvictionThreadPolicy policy) {
+      // translate eviction policy
       switch (policy) {
          case PIGGYBACK:
          case DEFAULT:
-            evictionListener = new DefaultEvictionListener();
-            break;
+            return new DefaultEvictionListener();
          default:
-            throw new IllegalArgumentException("No such eviction thread policy " + strategy);
+            throw new IllegalArgumentException("No such eviction thread policy " + policy);
       }
+   }
 
-      Eviction eviction;
+   private static Eviction translateEvictionStrategy(EvictionStrategy strategy) {
       switch (strategy) {
          case FIFO:
          case UNORDERED:
          case LRU:
-            eviction = Eviction.LRU;
-            break;
+            return Eviction.LRU;
          case LIRS:
-            eviction = Eviction.LIRS;
-            break;
+            return Eviction.LIRS;
+         case TINY_LFU:
+            return Eviction.TINY_LFU;
          default:
             throw new IllegalArgumentException("No such eviction strategy " + strategy);
       }
-
-      entries = new BoundedConcurrentHashMap<Object, InternalCacheEntry>(
-            maxEntries, concurrencyLevel, eviction, evictionListener,
-            keyEquivalence, valueEquivalence);
    }
 
    @Inject
@@ -117,6 +136,14 @@ public static DataContainer boundedDataContainer(int concurrencyLevel, int maxEn
             policy, keyEquivalence, valueEquivalence);
    }
 
+   public static DataContainer memoryBoundedDataContainer(int concurrencyLevel, long maxMemory,
+            EvictionStrategy strategy, EvictionThreadPolicy policy,
+            Equivalence keyEquivalence, Equivalence valueEquivalence,
+            EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator) {
+      return new DefaultDataContainer(concurrencyLevel, maxMemory, strategy,
+            policy, keyEquivalence, valueEquivalence, sizeCalculator);
+   }
+
    public static DataContainer unBoundedDataContainer(int concurrencyLevel,
          Equivalence keyEquivalence, Equivalence valueEquivalence) {
       return new DefaultDataContainer(concurrencyLevel, keyEquivalence, valueEquivalence);
@@ -138,6 +165,7 @@ public InternalCacheEntry get(Object k) {
          long currentTimeMillis = timeService.wallClockTime();
          if (e.isExpired(currentTimeMillis)) {
             entries.remove(k);
+            expirationIndex.remove(e);
             e = null;
          } else {
             e.touch(currentTimeMillis);
@@ -150,6 +178,8 @@ public InternalCacheEntry get(Object k) {
    public void put(Object k, Object v, Metadata metadata) {
       InternalCacheEntry e = entries.get(k);
       if (e != null) {
+         // the expiry time of the entry may change if it is updated in place
+         expirationIndex.remove(e, e.canExpire() ? e.getExpiryTime() : -1);
          e.setValue(v);
          InternalCacheEntry original = e;
          e = entryFactory.update(e, metadata);
@@ -162,6 +192,7 @@ public void put(Object k, Object v, Metadata metadata) {
          e = entryFactory.create(k, v, metadata);
       }
       entries.put(k, e);
+      expirationIndex.add(e);
    }
 
    @Override
@@ -169,6 +200,7 @@ public boolean containsKey(Object k) {
       InternalCacheEntry ice = peek(k);
       if (ice != null && ice.canExpire() && ice.isExpired(timeService.wallClockTime())) {
          entries.remove(k);
+         expirationIndex.remove(ice);
          ice = null;
       }
       return ice != null;
@@ -177,6 +209,7 @@ public boolean containsKey(Object k) {
    @Override
    public InternalCacheEntry remove(Object k) {
       InternalCacheEntry e = entries.remove(k);
+      if (e != null) expirationIndex.remove(e);
       return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
    }
 
@@ -185,9 +218,44 @@ public int size() {
       return entries.size();
    }
 
+   /**
+    * Returns the estimated number of bytes used by the entries in this container.
+    *
+    * @return estimated memory used, or -1 if this container is not bounded by memory
+    */
+   public long memoryUsed() {
+      if (entries instanceof BoundedConcurrentHashMap) {
+         return ((BoundedConcurrentHashMap<Object, InternalCacheEntry>) entries).memoryUsed();
+      }
+      return -1;
+   }
+
+   /**
+    * @return the number of entries admitted by the {@link EvictionStrategy#TINY_LFU} eviction
+    *         policy in place of a less frequently used entry, or -1 if the policy is not used
+    */
+   public long evictionAdmissions() {
+      if (entries instanceof BoundedConcurrentHashMap) {
+         return ((BoundedConcurrentHashMap<Object, InternalCacheEntry>) entries).evictionAdmissions();
+      }
+      return -1;
+   }
+
+   /**
+    * @return the number of entries rejected by the {@link EvictionStrategy#TINY_LFU} eviction
+    *         policy in favour of a more frequently used entry, or -1 if the policy is not used
+    */
+   public long evictionRejections() {
+      if (entries instanceof BoundedConcurrentHashMap) {
+         return ((BoundedConcurrentHashMap<Object, InternalCacheEntry>) entries).evictionRejections();
+      }
+      return -1;
+   }
+
    @Override
    public void clear() {
       entries.clear();
+      expirationIndex.clear();
    }
 
    @Override
@@ -207,12 +275,9 @@ public Set<InternalCacheEntry> entrySet() {
 
    @Override
    public void purgeExpired() {
-      long currentTimeMillis = timeService.wallClockTime();
-      for (Iterator<InternalCacheEntry> purgeCandidates = entries.values().iterator(); purgeCandidates.hasNext();) {
-         InternalCacheEntry e = purgeCandidates.next();
-         if (e.isExpired(currentTimeMillis)) {
-            purgeCandidates.remove();
-         }
+      int purged = expirationIndex.purge(entries, timeService.wallClockTime());
+      if (purged > 0) {
+         evictionManager.onExpiredEntriesPurged(purged);
       }
    }
 
@@ -225,6 +290,9 @@ private final class DefaultEvictionListener implements EvictionListener<Object,
 
       @Override
       public void onEntryEviction(Map<Object, InternalCacheEntry> evicted) {
+         for (InternalCacheEntry e : evicted.values()) {
+            expirationIndex.remove(e);
+         }
          evictionManager.onEntryEviction(evicted);
       }
 
@@ -16,6 +16,7 @@
 import org.infinispan.container.entries.StateChangingEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.context.SingleKeyNonTxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.metadata.Metadatas;
@@ -62,8 +63,8 @@ public final CacheEntry wrapEntryForReading(InvocationContext ctx, Object key) t
       if (cacheEntry == null) {
          cacheEntry = getFromContainer(key);
 
-         // do not bother wrapping though if this is not in a tx.  repeatable read etc are all meaningless unless there is a tx.
-         if (useRepeatableRead) {
+         // do not bother wrapping though if this is a reused non-transactional get, which only reads the entry once
+         if (useRepeatableRead && !isReusedReadContext(ctx)) {
             MVCCEntry mvccEntry;
             if (cacheEntry == null) {
                mvccEntry = createWrappedEntry(key, null, ctx, null, false, false, false);
@@ -79,7 +80,7 @@ public final CacheEntry wrapEntryForReading(InvocationContext ctx, Object key) t
                log.tracef("Wrap %s for read. Entry=%s", key, mvccEntry);
             }
             return mvccEntry;
-         } else if (cacheEntry != null) { // if not in transaction and repeatable read, or simply read committed (regardless of whether in TX or not), do not wrap
+         } else if (cacheEntry != null) { // if a reused get, or simply read committed (regardless of whether in TX or not), do not wrap
             ctx.putLookedUpEntry(key, cacheEntry);
          }
          if (trace) {
@@ -256,6 +257,10 @@ private InternalCacheEntry getFromContainer(Object key) {
       return ice;
    }
 
+   private static boolean isReusedReadContext(InvocationContext ctx) {
+      return ctx instanceof SingleKeyNonTxInvocationContext && ((SingleKeyNonTxInvocationContext) ctx).isReusable();
+   }
+
    private MVCCEntry newMvccEntryForPut(
          InvocationContext ctx, Object key, FlagAffectedCommand cmd, Metadata providedMetadata, boolean skipRead) {
       MVCCEntry mvccEntry;
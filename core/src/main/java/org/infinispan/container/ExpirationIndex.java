@@ -0,0 +1,163 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps track of the entries of a {@link DefaultDataContainer} that can expire, ordered by expiry time, so that
+ * purging expired entries only visits the entries that are about to expire instead of the whole container.
+ * <p/>
+ * Entries are grouped in buckets, each covering {@link #BUCKET_RESOLUTION} milliseconds of expiry time.  An entry is
+ * added to the index when it is written to the container and removed from the index when it is removed from the
+ * container.  Reading a transient entry extends its expiry time, but the index is not updated on reads: when the
+ * bucket of a transient entry is purged, the entries that were read since they were indexed are moved to the bucket
+ * of their new expiry time.
+ * <p/>
+ * The index may hold stale entries, e.g. entries that were replaced in the container by a concurrent write.  Those
+ * are discarded when their bucket is purged.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+final class ExpirationIndex {
+
+   /**
+    * The span of expiry times covered by a bucket, in milliseconds.
+    */
+   static final long BUCKET_RESOLUTION = 1000;
+
+   private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<Long, Bucket>();
+   private final Equivalence<Object> keyEquivalence;
+
+   ExpirationIndex(Equivalence<Object> keyEquivalence) {
+      this.keyEquivalence = keyEquivalence == null ? AnyEquivalence.getInstance() : keyEquivalence;
+   }
+
+   /**
+    * Indexes an entry written to the container.  Entries that can't expire are ignored.
+    */
+   void add(InternalCacheEntry e) {
+      if (e.canExpire()) {
+         add(e, e.getExpiryTime() / BUCKET_RESOLUTION);
+      }
+   }
+
+   private void add(InternalCacheEntry e, long tick) {
+      Long key = tick;
+      while (true) {
+         Bucket bucket = buckets.get(key);
+         if (bucket == null) {
+            Bucket newBucket = new Bucket(keyEquivalence);
+            bucket = buckets.putIfAbsent(key, newBucket);
+            if (bucket == null) bucket = newBucket;
+         }
+         bucket.entries.put(e.getKey(), e);
+         // if the bucket is being purged, the entry may have been added too late to be seen: add it to a new bucket
+         if (!bucket.purged) return;
+      }
+   }
+
+   /**
+    * Removes an entry removed from the container from the index.
+    *
+    * @param e the entry removed from the container
+    * @param expiryTime the expiry time of the entry when it was written to the container
+    */
+   void remove(InternalCacheEntry e, long expiryTime) {
+      if (expiryTime < 0) return;
+
+      Bucket bucket = buckets.get(expiryTime / BUCKET_RESOLUTION);
+      if (bucket != null && bucket.entries.get(e.getKey()) == e) {
+         bucket.entries.remove(e.getKey(), e);
+      }
+   }
+
+   /**
+    * Removes an entry removed from the container from the index.
+    */
+   void remove(InternalCacheEntry e) {
+      if (e.canExpire()) {
+         remove(e, e.getExpiryTime());
+      }
+   }
+
+   void clear() {
+      buckets.clear();
+   }
+
+   /**
+    * @return the number of entries in the index, including stale ones
+    */
+   int size() {
+      int size = 0;
+      for (Bucket bucket : buckets.values()) {
+         size += bucket.entries.size();
+      }
+      return size;
+   }
+
+   /**
+    * Removes the expired entries from the container.
+    *
+    * @param entries the entries of the container
+    * @param now the current time, in milliseconds
+    * @return the number of entries removed from the container
+    */
+   int purge(ConcurrentMap<Object, InternalCacheEntry> entries, long now) {
+      long currentTick = now / BUCKET_RESOLUTION;
+      int purged = 0;
+
+      // all the entries of the past buckets have expired, unless they were read since they were indexed
+      Map.Entry<Long, Bucket> first;
+      while ((first = buckets.firstEntry()) != null && first.getKey() < currentTick) {
+         Bucket bucket = first.getValue();
+         if (!buckets.remove(first.getKey(), bucket)) continue;
+
+         bucket.purged = true;
+         for (InternalCacheEntry e : bucket.entries.values()) {
+            if (entries.get(e.getKey()) != e) {
+               // stale entry, the current one was indexed when it was written
+               continue;
+            }
+            if (e.isExpired(now)) {
+               // a put may have replaced the entry since it was read
+               if (entries.remove(e.getKey(), e)) purged++;
+            } else if (e.canExpire()) {
+               add(e, Math.max(currentTick, e.getExpiryTime() / BUCKET_RESOLUTION));
+            }
+         }
+      }
+
+      // only some of the entries of the current bucket have expired
+      Bucket current = buckets.get(currentTick);
+      if (current != null) {
+         for (Iterator<InternalCacheEntry> it = current.entries.values().iterator(); it.hasNext(); ) {
+            InternalCacheEntry e = it.next();
+            if (e.isExpired(now)) {
+               it.remove();
+               if (entries.remove(e.getKey(), e)) purged++;
+            }
+         }
+      }
+      return purged;
+   }
+
+   private static final class Bucket {
+      final ConcurrentMap<Object, InternalCacheEntry> entries;
+      volatile boolean purged;
+
+      Bucket(Equivalence<Object> keyEquivalence) {
+         entries = CollectionFactory.makeConcurrentMap(16, 4, keyEquivalence, AnyEquivalence.<InternalCacheEntry>getInstance());
+      }
+   }
+}
@@ -0,0 +1,388 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.group.GroupingConsistentHash;
+import org.infinispan.eviction.EntrySizeCalculator;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.metadata.Metadata;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link DataContainer} which keeps its entries partitioned by consistent hash segment, with one
+ * {@link DefaultDataContainer} per segment.  This allows state transfer to iterate, count and discard the entries of
+ * individual segments without scanning the whole container.
+ * <p/>
+ * The partitioning is based on a template {@link ConsistentHash} created when the cache starts.  Since a key's segment
+ * only depends on the hash function and the number of segments, not on the membership, it stays valid for every
+ * topology installed afterwards; callers should check {@link #isSegmentedBy(ConsistentHash)} before relying on the
+ * per-segment operations.
+ * <p/>
+ * When bounded, the maximum number of entries (or memory) is divided evenly among the segments.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class SegmentedDataContainer implements DataContainer {
+
+   private final ConsistentHash segmentMapping;
+   private final DefaultDataContainer[] segments;
+
+   public SegmentedDataContainer(ConsistentHash segmentMapping, int concurrencyLevel,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      this.segmentMapping = segmentMapping;
+      this.segments = new DefaultDataContainer[segmentMapping.getNumSegments()];
+      for (int i = 0; i < segments.length; i++) {
+         segments[i] = new DefaultDataContainer(segmentConcurrencyLevel(concurrencyLevel), keyEquivalence, valueEquivalence);
+      }
+   }
+
+   protected SegmentedDataContainer(ConsistentHash segmentMapping, int concurrencyLevel, int maxEntries,
+         EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      this.segmentMapping = segmentMapping;
+      this.segments = new DefaultDataContainer[segmentMapping.getNumSegments()];
+      int segmentMaxEntries = Math.max(1, (maxEntries + segments.length - 1) / segments.length);
+      for (int i = 0; i < segments.length; i++) {
+         segments[i] = new DefaultDataContainer(segmentConcurrencyLevel(concurrencyLevel), segmentMaxEntries,
+               strategy, policy, keyEquivalence, valueEquivalence);
+      }
+   }
+
+   protected SegmentedDataContainer(ConsistentHash segmentMapping, int concurrencyLevel, long maxMemory,
+         EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence,
+         EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator) {
+      this.segmentMapping = segmentMapping;
+      this.segments = new DefaultDataContainer[segmentMapping.getNumSegments()];
+      long segmentMaxMemory = Math.max(1, maxMemory / segments.length);
+      for (int i = 0; i < segments.length; i++) {
+         segments[i] = new DefaultDataContainer(segmentConcurrencyLevel(concurrencyLevel), segmentMaxMemory,
+               strategy, policy, keyEquivalence, valueEquivalence, sizeCalculator);
+      }
+   }
+
+   public static DataContainer unBoundedDataContainer(ConsistentHash segmentMapping, int concurrencyLevel,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      return new SegmentedDataContainer(segmentMapping, concurrencyLevel, keyEquivalence, valueEquivalence);
+   }
+
+   public static DataContainer boundedDataContainer(ConsistentHash segmentMapping, int concurrencyLevel,
+         int maxEntries, EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence) {
+      return new SegmentedDataContainer(segmentMapping, concurrencyLevel, maxEntries, strategy, policy,
+            keyEquivalence, valueEquivalence);
+   }
+
+   public static DataContainer memoryBoundedDataContainer(ConsistentHash segmentMapping, int concurrencyLevel,
+         long maxMemory, EvictionStrategy strategy, EvictionThreadPolicy policy,
+         Equivalence keyEquivalence, Equivalence valueEquivalence,
+         EntrySizeCalculator<Object, InternalCacheEntry> sizeCalculator) {
+      return new SegmentedDataContainer(segmentMapping, concurrencyLevel, maxMemory, strategy, policy,
+            keyEquivalence, valueEquivalence, sizeCalculator);
+   }
+
+   private int segmentConcurrencyLevel(int concurrencyLevel) {
+      return Math.max(1, concurrencyLevel / segments.length);
+   }
+
+   /**
+    * Registers the container of each segment with the component registry, which wires it and runs its lifecycle
+    * methods along with the other components of the cache.
+    */
+   @Inject
+   public void registerSegments(ComponentRegistry componentRegistry) {
+      for (int i = 0; i < segments.length; i++) {
+         componentRegistry.registerComponent(segments[i], segmentComponentName(i), false);
+      }
+   }
+
+   /**
+    * @return the name under which the container of the given segment is registered with the component registry
+    */
+   public static String segmentComponentName(int segment) {
+      return SegmentedDataContainer.class.getName() + ".segment" + segment;
+   }
+
+   DefaultDataContainer segmentContainer(int segment) {
+      return segments[segment];
+   }
+
+   /**
+    * Checks whether the entries of this container are partitioned the same way as the given consistent hash assigns
+    * keys to segments.
+    *
+    * @param ch the consistent hash to check
+    * @return true if the per-segment operations of this container can be used with the segments of <tt>ch</tt>
+    */
+   public boolean isSegmentedBy(ConsistentHash ch) {
+      return ch != null && sameSegmentMapping(segmentMapping, ch);
+   }
+
+   private static boolean sameSegmentMapping(ConsistentHash ch1, ConsistentHash ch2) {
+      if (ch1 instanceof GroupingConsistentHash || ch2 instanceof GroupingConsistentHash) {
+         return ch1 instanceof GroupingConsistentHash && ch2 instanceof GroupingConsistentHash
+               && sameSegmentMapping(((GroupingConsistentHash) ch1).getConsistentHash(),
+                                     ((GroupingConsistentHash) ch2).getConsistentHash());
+      }
+      return ch1.getClass() == ch2.getClass()
+            && ch1.getNumSegments() == ch2.getNumSegments()
+            && ch1.getHashFunction() != null && ch1.getHashFunction().equals(ch2.getHashFunction());
+   }
+
+   /**
+    * @return the segment in which the given key is stored
+    */
+   public int getSegment(Object key) {
+      return segmentMapping.getSegment(key);
+   }
+
+   /**
+    * @return the number of segments the entries are partitioned in
+    */
+   public int getNumSegments() {
+      return segments.length;
+   }
+
+   /**
+    * Iterates over the entries of a single segment.  The iterator does not support removal.
+    *
+    * @param segment the segment id
+    * @return an iterator over the segment's entries
+    */
+   public Iterator<InternalCacheEntry> segmentIterator(int segment) {
+      return segments[segment].iterator();
+   }
+
+   /**
+    * @param segment the segment id
+    * @return the number of entries stored in the segment, including expired entries not yet purged
+    */
+   public int segmentSize(int segment) {
+      return segments[segment].size();
+   }
+
+   /**
+    * Removes all the entries of the given segment from memory.  As with {@link #clear()}, cache stores, listeners and
+    * other nodes are not notified.
+    *
+    * @param segment the segment id
+    */
+   public void removeSegment(int segment) {
+      segments[segment].clear();
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      return segments[getSegment(k)].get(k);
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object k) {
+      return segments[getSegment(k)].peek(k);
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      segments[getSegment(k)].put(k, v, metadata);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      return segments[getSegment(k)].containsKey(k);
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      return segments[getSegment(k)].remove(k);
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (DefaultDataContainer segment : segments) {
+         size += segment.size();
+      }
+      return size;
+   }
+
+   /**
+    * Returns the estimated number of bytes used by the entries in this container.
+    *
+    * @return estimated memory used, or -1 if this container is not bounded by memory
+    */
+   public long memoryUsed() {
+      long memoryUsed = 0;
+      for (DefaultDataContainer segment : segments) {
+         long segmentMemory = segment.memoryUsed();
+         if (segmentMemory < 0) return -1;
+         memoryUsed += segmentMemory;
+      }
+      return memoryUsed;
+   }
+
+   /**
+    * @return the number of entries admitted by the {@link EvictionStrategy#TINY_LFU} eviction
+    *         policy in place of a less frequently used entry, or -1 if the policy is not used
+    */
+   public long evictionAdmissions() {
+      long admissions = 0;
+      for (DefaultDataContainer segment : segments) {
+         long segmentAdmissions = segment.evictionAdmissions();
+         if (segmentAdmissions < 0) return -1;
+         admissions += segmentAdmissions;
+      }
+      return admissions;
+   }
+
+   /**
+    * @return the number of entries rejected by the {@link EvictionStrategy#TINY_LFU} eviction
+    *         policy in favour of a more frequently used entry, or -1 if the policy is not used
+    */
+   public long evictionRejections() {
+      long rejections = 0;
+      for (DefaultDataContainer segment : segments) {
+         long segmentRejections = segment.evictionRejections();
+         if (segmentRejections < 0) return -1;
+         rejections += segmentRejections;
+      }
+      return rejections;
+   }
+
+   @Override
+   public void clear() {
+      for (DefaultDataContainer segment : segments) {
+         segment.clear();
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      for (DefaultDataContainer segment : segments) {
+         segment.purgeExpired();
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new SegmentsIterator<InternalCacheEntry>() {
+         @Override
+         Iterator<InternalCacheEntry> segmentIterator(DefaultDataContainer segment) {
+            return segment.iterator();
+         }
+      };
+   }
+
+   /**
+    * Chains the iterators of all the segments.
+    */
+   private abstract class SegmentsIterator<T> implements Iterator<T> {
+      private int nextSegment;
+      private Iterator<T> current = Collections.<T>emptyList().iterator();
+
+      abstract Iterator<T> segmentIterator(DefaultDataContainer segment);
+
+      @Override
+      public boolean hasNext() {
+         while (!current.hasNext() && nextSegment < segments.length) {
+            current = segmentIterator(segments[nextSegment++]);
+         }
+         return current.hasNext();
+      }
+
+      @Override
+      public T next() {
+         if (!hasNext()) throw new NoSuchElementException();
+         return current.next();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   private class KeySet extends AbstractSet<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         return new SegmentsIterator<Object>() {
+            @Override
+            Iterator<Object> segmentIterator(DefaultDataContainer segment) {
+               return segment.keySet().iterator();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return segments[getSegment(o)].keySet().contains(o);
+      }
+
+      @Override
+      public int size() {
+         return SegmentedDataContainer.this.size();
+      }
+   }
+
+   private class EntrySet extends AbstractSet<InternalCacheEntry> {
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         return new SegmentsIterator<InternalCacheEntry>() {
+            @Override
+            Iterator<InternalCacheEntry> segmentIterator(DefaultDataContainer segment) {
+               return segment.entrySet().iterator();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return SegmentedDataContainer.this.size();
+      }
+   }
+
+   private class Values extends AbstractCollection<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         return new SegmentsIterator<Object>() {
+            @Override
+            Iterator<Object> segmentIterator(DefaultDataContainer segment) {
+               return segment.values().iterator();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return SegmentedDataContainer.this.size();
+      }
+   }
+}
@@ -0,0 +1,848 @@
+package org.infinispan.container.offheap;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+/**
+ * A {@link DataContainer} which keeps keys, values and metadata in memory allocated outside of the Java heap, so that
+ * large data sets do not add to the garbage collector's workload.
+ * <p/>
+ * Entries are stored in their marshalled form, using the cache marshaller, in a fixed size off-heap hash table whose
+ * buckets are guarded by a set of read/write lock stripes.  Lifespan, max idle and the creation and last access
+ * timestamps live in the entry header so expiration never needs to unmarshall an entry; metadata is only stored when
+ * it carries more than those settings, e.g. a version.
+ * <p/>
+ * Keys are compared using their marshalled form rather than {@link Object#equals(Object)} or the configured key
+ * {@link org.infinispan.commons.equivalence.Equivalence}.  This matches {@link
+ * org.infinispan.commons.equivalence.ByteArrayEquivalence} for <tt>byte[]</tt> keys and the binary comparison made by
+ * {@link org.infinispan.marshall.core.MarshalledValue} keys when storing as binary, but it requires every key type to
+ * marshall deterministically, i.e. equal keys must produce equal bytes.
+ * <p/>
+ * Every read returns a new {@link InternalCacheEntry} instance, so changes made to a returned entry are only visible
+ * once it is written back with {@link #put(Object, Object, Metadata)}.  When bounded, either by number of entries or
+ * by the off-heap memory they use, entries are evicted in least recently used order regardless of the configured
+ * eviction strategy.
+ *
+ * @since 6.0
+ */
+@ThreadSafe
+public class OffHeapDataContainer implements DataContainer {
+
+   // Entry layout: bucket chain and LRU links, followed by the entry header and the marshalled key, value and metadata
+   private static final int NEXT_OFFSET = 0;
+   private static final int LRU_PREVIOUS_OFFSET = 8;
+   private static final int LRU_NEXT_OFFSET = 16;
+   private static final int HASH_OFFSET = 24;
+   private static final int KEY_LENGTH_OFFSET = 28;
+   private static final int VALUE_LENGTH_OFFSET = 32;
+   private static final int METADATA_LENGTH_OFFSET = 36;
+   private static final int CREATED_OFFSET = 40;
+   private static final int LAST_USED_OFFSET = 48;
+   private static final int LIFESPAN_OFFSET = 56;
+   private static final int MAX_IDLE_OFFSET = 64;
+   private static final int HEADER_SIZE = 72;
+
+   private static final byte[] NO_METADATA = new byte[0];
+   private static final Hash HASH = new MurmurHash3();
+
+   private final int addressCount;
+   private final ReentrantReadWriteLock[] locks;
+   private final long maxEntries;
+   private final long maxMemory;
+   private final boolean bounded;
+
+   private final AtomicInteger count = new AtomicInteger();
+   private final AtomicLong memoryUsed = new AtomicLong();
+
+   // LRU list, most recently used entry at the head; only maintained when bounded
+   private final Object lruLock = new Object();
+   private long lruHead;
+   private long lruTail;
+
+   private volatile long buckets;
+
+   private InternalEntryFactory entryFactory;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+   private CacheLoaderManager clm;
+   private TimeService timeService;
+   private StreamingMarshaller marshaller;
+
+   public OffHeapDataContainer(int concurrencyLevel, int addressCount) {
+      this(concurrencyLevel, addressCount, -1, -1);
+   }
+
+   protected OffHeapDataContainer(int concurrencyLevel, int addressCount, long maxEntries, long maxMemory) {
+      if (addressCount <= 0)
+         throw new IllegalArgumentException("Address count must be positive");
+      this.addressCount = nextPowerOfTwo(addressCount);
+      this.locks = new ReentrantReadWriteLock[Math.min(nextPowerOfTwo(Math.max(1, concurrencyLevel)), this.addressCount)];
+      for (int i = 0; i < locks.length; i++) {
+         locks[i] = new ReentrantReadWriteLock();
+      }
+      this.maxEntries = maxEntries;
+      this.maxMemory = maxMemory;
+      this.bounded = maxEntries > 0 || maxMemory > 0;
+   }
+
+   public static DataContainer unBoundedDataContainer(int concurrencyLevel, int addressCount) {
+      return new OffHeapDataContainer(concurrencyLevel, addressCount);
+   }
+
+   public static DataContainer boundedDataContainer(int concurrencyLevel, int addressCount, int maxEntries) {
+      return new OffHeapDataContainer(concurrencyLevel, addressCount, maxEntries, -1);
+   }
+
+   public static DataContainer memoryBoundedDataContainer(int concurrencyLevel, int addressCount, long maxMemory) {
+      return new OffHeapDataContainer(concurrencyLevel, addressCount, -1, maxMemory);
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+         InternalEntryFactory entryFactory, ActivationManager activator, CacheLoaderManager clm,
+         TimeService timeService, @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.entryFactory = entryFactory;
+      this.activator = activator;
+      this.clm = clm;
+      this.timeService = timeService;
+      this.marshaller = marshaller;
+   }
+
+   @Start
+   public void allocate() {
+      if (buckets == 0) {
+         long address = OffHeapMemory.allocate(addressCount * 8L);
+         OffHeapMemory.setMemory(address, addressCount * 8L, (byte) 0);
+         buckets = address;
+      }
+   }
+
+   @Stop(priority = 1000)
+   public void deallocate() {
+      if (buckets != 0) {
+         clear();
+         OffHeapMemory.free(buckets);
+         buckets = 0;
+      }
+   }
+
+   @Override
+   public InternalCacheEntry get(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(keyBytes);
+      int bucket = bucket(hash);
+      SerializedEntry entry = null;
+      boolean expired = false;
+      Lock lock = locks[bucket & (locks.length - 1)].readLock();
+      lock.lock();
+      try {
+         long address = find(bucket, hash, keyBytes);
+         if (address != 0) {
+            long now = timeService.wallClockTime();
+            if (isExpired(address, now)) {
+               expired = true;
+            } else {
+               // concurrent readers hold the same read lock, so the access is recorded under the LRU lock
+               synchronized (lruLock) {
+                  OffHeapMemory.putLong(address + LAST_USED_OFFSET, now);
+                  if (bounded) {
+                     lruRemove(address);
+                     lruAddFirst(address);
+                  }
+               }
+               entry = readEntry(address, false);
+            }
+         }
+      } finally {
+         lock.unlock();
+      }
+      if (expired) {
+         removeExpired(bucket, hash, keyBytes);
+         return null;
+      }
+      return entry == null ? null : entry.toInternalCacheEntry(k);
+   }
+
+   @Override
+   public InternalCacheEntry peek(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(keyBytes);
+      int bucket = bucket(hash);
+      SerializedEntry entry = null;
+      Lock lock = locks[bucket & (locks.length - 1)].readLock();
+      lock.lock();
+      try {
+         long address = find(bucket, hash, keyBytes);
+         if (address != 0) {
+            entry = readEntry(address, false);
+         }
+      } finally {
+         lock.unlock();
+      }
+      return entry == null ? null : entry.toInternalCacheEntry(k);
+   }
+
+   @Override
+   public void put(Object k, Object v, Metadata metadata) {
+      byte[] keyBytes = marshall(k);
+      byte[] valueBytes = marshall(v);
+      byte[] metadataBytes = isStoreMetadata(metadata) ? marshall(metadata) : NO_METADATA;
+      int hash = hash(keyBytes);
+      int bucket = bucket(hash);
+      long newAddress = allocateEntry(hash, keyBytes, valueBytes, metadataBytes, timeService.wallClockTime(),
+            metadata == null ? -1 : metadata.lifespan(), metadata == null ? -1 : metadata.maxIdle());
+      long oldAddress;
+      Lock lock = locks[bucket & (locks.length - 1)].writeLock();
+      lock.lock();
+      try {
+         oldAddress = find(bucket, hash, keyBytes);
+         if (oldAddress != 0) {
+            replaceInBucket(bucket, oldAddress, newAddress);
+            if (bounded) {
+               synchronized (lruLock) {
+                  lruRemove(oldAddress);
+                  lruAddFirst(newAddress);
+               }
+            }
+            freeEntry(oldAddress);
+         } else {
+            long bucketAddress = bucketAddress(bucket);
+            OffHeapMemory.putLong(newAddress + NEXT_OFFSET, OffHeapMemory.getLong(bucketAddress));
+            OffHeapMemory.putLong(bucketAddress, newAddress);
+            count.incrementAndGet();
+            if (bounded) {
+               synchronized (lruLock) {
+                  lruAddFirst(newAddress);
+               }
+            }
+         }
+      } finally {
+         lock.unlock();
+      }
+      if (bounded) {
+         // When entry not present, attempt to activate if necessary
+         if (oldAddress == 0) activator.activate(k);
+         evictIfNeeded();
+      }
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(keyBytes);
+      int bucket = bucket(hash);
+      boolean found = false;
+      boolean expired = false;
+      Lock lock = locks[bucket & (locks.length - 1)].readLock();
+      lock.lock();
+      try {
+         long address = find(bucket, hash, keyBytes);
+         if (address != 0) {
+            expired = isExpired(address, timeService.wallClockTime());
+            found = !expired;
+         }
+      } finally {
+         lock.unlock();
+      }
+      if (expired) {
+         removeExpired(bucket, hash, keyBytes);
+      }
+      return found;
+   }
+
+   @Override
+   public InternalCacheEntry remove(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(keyBytes);
+      int bucket = bucket(hash);
+      SerializedEntry entry = null;
+      boolean found = false;
+      Lock lock = locks[bucket & (locks.length - 1)].writeLock();
+      lock.lock();
+      try {
+         long address = find(bucket, hash, keyBytes);
+         if (address != 0) {
+            found = true;
+            if (!isExpired(address, timeService.wallClockTime())) {
+               entry = readEntry(address, false);
+            }
+            unlinkFromBucket(bucket, address);
+            releaseEntry(address);
+         }
+      } finally {
+         lock.unlock();
+      }
+      if (found && bounded) {
+         // If removing (and not evicting), remove from cache store too
+         removeFromCacheStore(k);
+      }
+      return entry == null ? null : entry.toInternalCacheEntry(k);
+   }
+
+   @Override
+   public int size() {
+      return count.get();
+   }
+
+   /**
+    * Returns the number of bytes of off-heap memory used by the entries in this container, excluding the fixed size
+    * bucket table.
+    *
+    * @return off-heap memory used by the entries
+    */
+   public long memoryUsed() {
+      return memoryUsed.get();
+   }
+
+   @Override
+   public void clear() {
+      for (ReentrantReadWriteLock l : locks) l.writeLock().lock();
+      try {
+         if (buckets == 0) return;
+         // unlink the LRU list first, evictIfNeeded() reads its tail holding the LRU lock only
+         synchronized (lruLock) {
+            lruHead = 0;
+            lruTail = 0;
+         }
+         for (int bucket = 0; bucket < addressCount; bucket++) {
+            long bucketAddress = bucketAddress(bucket);
+            long address = OffHeapMemory.getLong(bucketAddress);
+            while (address != 0) {
+               long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+               freeEntry(address);
+               address = next;
+            }
+            OffHeapMemory.putLong(bucketAddress, 0);
+         }
+         count.set(0);
+      } finally {
+         for (int i = locks.length - 1; i >= 0; i--) locks[i].writeLock().unlock();
+      }
+   }
+
+   @Override
+   public Set<Object> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<Object> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long now = timeService.wallClockTime();
+      int purged = 0;
+      for (int stripe = 0; stripe < locks.length; stripe++) {
+         Lock lock = locks[stripe].writeLock();
+         lock.lock();
+         try {
+            for (int bucket = stripe; bucket < addressCount; bucket += locks.length) {
+               long previous = 0;
+               long address = OffHeapMemory.getLong(bucketAddress(bucket));
+               while (address != 0) {
+                  long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+                  if (isExpired(address, now)) {
+                     OffHeapMemory.putLong(previous == 0 ? bucketAddress(bucket) : previous + NEXT_OFFSET, next);
+                     releaseEntry(address);
+                     purged++;
+                  } else {
+                     previous = address;
+                  }
+                  address = next;
+               }
+            }
+         } finally {
+            lock.unlock();
+         }
+      }
+      if (purged > 0) {
+         evictionManager.onExpiredEntriesPurged(purged);
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry> iterator() {
+      return new EntryIterator();
+   }
+
+   private void evictIfNeeded() {
+      Map<Object, InternalCacheEntry> evicted = null;
+      while ((maxEntries > 0 && count.get() > maxEntries) || (maxMemory > 0 && memoryUsed.get() > maxMemory)) {
+         long candidate;
+         int hash;
+         synchronized (lruLock) {
+            candidate = lruTail;
+            if (candidate == 0) break;
+            // entries are unlinked from the LRU list before being freed, so the candidate is still readable here
+            hash = OffHeapMemory.getInt(candidate + HASH_OFFSET);
+         }
+         int bucket = bucket(hash);
+         InternalCacheEntry entry = null;
+         Lock lock = locks[bucket & (locks.length - 1)].writeLock();
+         lock.lock();
+         try {
+            // the candidate may have been removed or replaced while no lock was held
+            if (isLinked(bucket, candidate)) {
+               entry = readEntry(candidate, true).toInternalCacheEntry(null);
+               passivator.passivate(entry);
+               unlinkFromBucket(bucket, candidate);
+               releaseEntry(candidate);
+            }
+         } finally {
+            lock.unlock();
+         }
+         if (entry != null) {
+            if (evicted == null) evicted = new HashMap<Object, InternalCacheEntry>();
+            evicted.put(entry.getKey(), entry);
+         }
+      }
+      if (evicted != null) {
+         evictionManager.onEntryEviction(evicted);
+      }
+   }
+
+   private void removeExpired(int bucket, int hash, byte[] keyBytes) {
+      Lock lock = locks[bucket & (locks.length - 1)].writeLock();
+      lock.lock();
+      try {
+         long address = find(bucket, hash, keyBytes);
+         if (address != 0 && isExpired(address, timeService.wallClockTime())) {
+            unlinkFromBucket(bucket, address);
+            releaseEntry(address);
+         }
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private void removeFromCacheStore(Object key) {
+      try {
+         CacheStore cacheStore = clm.getCacheStore();
+         if (cacheStore != null)
+            cacheStore.remove(key);
+      } catch (CacheLoaderException e) {
+         throw new CacheException(e);
+      }
+   }
+
+   private long find(int bucket, int hash, byte[] keyBytes) {
+      long address = OffHeapMemory.getLong(bucketAddress(bucket));
+      while (address != 0) {
+         if (OffHeapMemory.getInt(address + HASH_OFFSET) == hash && keyEquals(address, keyBytes))
+            return address;
+         address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+      }
+      return 0;
+   }
+
+   private static boolean keyEquals(long address, byte[] keyBytes) {
+      if (OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET) != keyBytes.length)
+         return false;
+      long keyAddress = address + HEADER_SIZE;
+      for (int i = 0; i < keyBytes.length; i++) {
+         if (OffHeapMemory.getByte(keyAddress + i) != keyBytes[i])
+            return false;
+      }
+      return true;
+   }
+
+   private void replaceInBucket(int bucket, long oldAddress, long newAddress) {
+      OffHeapMemory.putLong(newAddress + NEXT_OFFSET, OffHeapMemory.getLong(oldAddress + NEXT_OFFSET));
+      long previous = 0;
+      long address = OffHeapMemory.getLong(bucketAddress(bucket));
+      while (address != oldAddress) {
+         previous = address;
+         address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+      }
+      OffHeapMemory.putLong(previous == 0 ? bucketAddress(bucket) : previous + NEXT_OFFSET, newAddress);
+   }
+
+   /**
+    * Checks whether the entry at the given address is still linked from its bucket, comparing addresses only so that
+    * a stale address is never dereferenced.
+    */
+   private boolean isLinked(int bucket, long target) {
+      long address = OffHeapMemory.getLong(bucketAddress(bucket));
+      while (address != 0) {
+         if (address == target) return true;
+         address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+      }
+      return false;
+   }
+
+   /**
+    * Unlinks the entry at the given address from its bucket chain, comparing addresses only so that a stale address
+    * is never dereferenced.
+    */
+   private boolean unlinkFromBucket(int bucket, long target) {
+      long previous = 0;
+      long address = OffHeapMemory.getLong(bucketAddress(bucket));
+      while (address != 0) {
+         if (address == target) {
+            long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+            OffHeapMemory.putLong(previous == 0 ? bucketAddress(bucket) : previous + NEXT_OFFSET, next);
+            return true;
+         }
+         previous = address;
+         address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+      }
+      return false;
+   }
+
+   /**
+    * Releases an entry already unlinked from its bucket.  Must be called holding the bucket's write lock.
+    */
+   private void releaseEntry(long address) {
+      if (bounded) {
+         synchronized (lruLock) {
+            lruRemove(address);
+         }
+      }
+      count.decrementAndGet();
+      freeEntry(address);
+   }
+
+   private long allocateEntry(int hash, byte[] keyBytes, byte[] valueBytes, byte[] metadataBytes, long now,
+         long lifespan, long maxIdle) {
+      long size = (long) HEADER_SIZE + keyBytes.length + valueBytes.length + metadataBytes.length;
+      long address = OffHeapMemory.allocate(size);
+      OffHeapMemory.putLong(address + NEXT_OFFSET, 0);
+      OffHeapMemory.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+      OffHeapMemory.putLong(address + LRU_NEXT_OFFSET, 0);
+      OffHeapMemory.putInt(address + HASH_OFFSET, hash);
+      OffHeapMemory.putInt(address + KEY_LENGTH_OFFSET, keyBytes.length);
+      OffHeapMemory.putInt(address + VALUE_LENGTH_OFFSET, valueBytes.length);
+      OffHeapMemory.putInt(address + METADATA_LENGTH_OFFSET, metadataBytes.length);
+      OffHeapMemory.putLong(address + CREATED_OFFSET, now);
+      OffHeapMemory.putLong(address + LAST_USED_OFFSET, now);
+      OffHeapMemory.putLong(address + LIFESPAN_OFFSET, lifespan);
+      OffHeapMemory.putLong(address + MAX_IDLE_OFFSET, maxIdle);
+      long dataAddress = address + HEADER_SIZE;
+      OffHeapMemory.putBytes(dataAddress, keyBytes);
+      dataAddress += keyBytes.length;
+      OffHeapMemory.putBytes(dataAddress, valueBytes);
+      dataAddress += valueBytes.length;
+      OffHeapMemory.putBytes(dataAddress, metadataBytes);
+      memoryUsed.addAndGet(size);
+      return address;
+   }
+
+   private void freeEntry(long address) {
+      memoryUsed.addAndGet(-entrySize(address));
+      OffHeapMemory.free(address);
+   }
+
+   private static long entrySize(long address) {
+      return (long) HEADER_SIZE + OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET)
+            + OffHeapMemory.getInt(address + VALUE_LENGTH_OFFSET)
+            + OffHeapMemory.getInt(address + METADATA_LENGTH_OFFSET);
+   }
+
+   private static boolean isExpired(long address, long now) {
+      return ExpiryHelper.isExpiredTransientMortal(
+            OffHeapMemory.getLong(address + MAX_IDLE_OFFSET), OffHeapMemory.getLong(address + LAST_USED_OFFSET),
+            OffHeapMemory.getLong(address + LIFESPAN_OFFSET), OffHeapMemory.getLong(address + CREATED_OFFSET), now);
+   }
+
+   /**
+    * Copies an entry out of off-heap memory.  Must be called holding the bucket's lock; unmarshalling the copy can
+    * then happen once the lock has been released.
+    */
+   private SerializedEntry readEntry(long address, boolean includeKey) {
+      int keyLength = OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET);
+      int valueLength = OffHeapMemory.getInt(address + VALUE_LENGTH_OFFSET);
+      int metadataLength = OffHeapMemory.getInt(address + METADATA_LENGTH_OFFSET);
+      long dataAddress = address + HEADER_SIZE;
+      byte[] key = includeKey ? OffHeapMemory.getBytes(dataAddress, keyLength) : null;
+      dataAddress += keyLength;
+      byte[] value = OffHeapMemory.getBytes(dataAddress, valueLength);
+      dataAddress += valueLength;
+      byte[] metadata = metadataLength == 0 ? null : OffHeapMemory.getBytes(dataAddress, metadataLength);
+      return new SerializedEntry(key, value, metadata,
+            OffHeapMemory.getLong(address + CREATED_OFFSET), OffHeapMemory.getLong(address + LAST_USED_OFFSET),
+            OffHeapMemory.getLong(address + LIFESPAN_OFFSET), OffHeapMemory.getLong(address + MAX_IDLE_OFFSET));
+   }
+
+   private List<SerializedEntry> readStripe(int stripe, boolean keysOnly) {
+      List<SerializedEntry> entries = new ArrayList<SerializedEntry>();
+      Lock lock = locks[stripe].readLock();
+      lock.lock();
+      try {
+         if (buckets == 0) return entries;
+         for (int bucket = stripe; bucket < addressCount; bucket += locks.length) {
+            long address = OffHeapMemory.getLong(bucketAddress(bucket));
+            while (address != 0) {
+               if (keysOnly) {
+                  entries.add(new SerializedEntry(OffHeapMemory.getBytes(address + HEADER_SIZE,
+                        OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET)), null, null, -1, -1, -1, -1));
+               } else {
+                  entries.add(readEntry(address, true));
+               }
+               address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+            }
+         }
+      } finally {
+         lock.unlock();
+      }
+      return entries;
+   }
+
+   // LRU list operations, must be called holding lruLock
+
+   private void lruAddFirst(long address) {
+      OffHeapMemory.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+      OffHeapMemory.putLong(address + LRU_NEXT_OFFSET, lruHead);
+      if (lruHead != 0) {
+         OffHeapMemory.putLong(lruHead + LRU_PREVIOUS_OFFSET, address);
+      } else {
+         lruTail = address;
+      }
+      lruHead = address;
+   }
+
+   private void lruRemove(long address) {
+      long previous = OffHeapMemory.getLong(address + LRU_PREVIOUS_OFFSET);
+      long next = OffHeapMemory.getLong(address + LRU_NEXT_OFFSET);
+      if (previous != 0) {
+         OffHeapMemory.putLong(previous + LRU_NEXT_OFFSET, next);
+      } else {
+         lruHead = next;
+      }
+      if (next != 0) {
+         OffHeapMemory.putLong(next + LRU_PREVIOUS_OFFSET, previous);
+      } else {
+         lruTail = previous;
+      }
+   }
+
+   private long bucketAddress(int bucket) {
+      long address = buckets;
+      if (address == 0)
+         throw new IllegalStateException("Off-heap data container has not been started");
+      return address + bucket * 8L;
+   }
+
+   private int bucket(int hash) {
+      return hash & (addressCount - 1);
+   }
+
+   private static int hash(byte[] keyBytes) {
+      return HASH.hash(keyBytes);
+   }
+
+   private static int nextPowerOfTwo(int value) {
+      int result = 1;
+      while (result < value && result < (1 << 30)) result <<= 1;
+      return result;
+   }
+
+   private static boolean isStoreMetadata(Metadata metadata) {
+      return metadata != null && (metadata.version() != null || !(metadata instanceof EmbeddedMetadata));
+   }
+
+   private byte[] marshall(Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o);
+      } catch (IOException e) {
+         throw new CacheException("Unable to marshall " + o + " for off-heap storage", e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Interrupted while marshalling " + o + " for off-heap storage", e);
+      }
+   }
+
+   private Object unmarshall(byte[] bytes) {
+      try {
+         return marshaller.objectFromByteBuffer(bytes);
+      } catch (IOException e) {
+         throw new CacheException("Unable to unmarshall entry from off-heap storage", e);
+      } catch (ClassNotFoundException e) {
+         throw new CacheException("Unable to unmarshall entry from off-heap storage", e);
+      }
+   }
+
+   /**
+    * On-heap copy of an off-heap entry, not yet unmarshalled.
+    */
+   private final class SerializedEntry {
+      final byte[] key;
+      final byte[] value;
+      final byte[] metadata;
+      final long created;
+      final long lastUsed;
+      final long lifespan;
+      final long maxIdle;
+
+      SerializedEntry(byte[] key, byte[] value, byte[] metadata, long created, long lastUsed, long lifespan, long maxIdle) {
+         this.key = key;
+         this.value = value;
+         this.metadata = metadata;
+         this.created = created;
+         this.lastUsed = lastUsed;
+         this.lifespan = lifespan;
+         this.maxIdle = maxIdle;
+      }
+
+      Object key() {
+         return unmarshall(key);
+      }
+
+      InternalCacheEntry toInternalCacheEntry(Object knownKey) {
+         Object k = knownKey != null ? knownKey : unmarshall(key);
+         Metadata m = metadata == null ? null : (Metadata) unmarshall(metadata);
+         return entryFactory.create(k, unmarshall(value), m, created, lifespan, lastUsed, maxIdle);
+      }
+   }
+
+   /**
+    * Iterates over the container one lock stripe at a time, copying the stripe's entries while holding its read lock.
+    */
+   private abstract class StripeIterator<T> implements Iterator<T> {
+      private final boolean keysOnly;
+      private int stripe;
+      private Iterator<SerializedEntry> current = Collections.<SerializedEntry>emptyList().iterator();
+
+      StripeIterator(boolean keysOnly) {
+         this.keysOnly = keysOnly;
+      }
+
+      abstract T convert(SerializedEntry entry);
+
+      @Override
+      public boolean hasNext() {
+         while (!current.hasNext() && stripe < locks.length) {
+            current = readStripe(stripe++, keysOnly).iterator();
+         }
+         return current.hasNext();
+      }
+
+      @Override
+      public T next() {
+         if (!hasNext()) throw new NoSuchElementException();
+         return convert(current.next());
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   private final class EntryIterator extends StripeIterator<InternalCacheEntry> {
+      EntryIterator() {
+         super(false);
+      }
+
+      @Override
+      InternalCacheEntry convert(SerializedEntry entry) {
+         return entry.toInternalCacheEntry(null);
+      }
+   }
+
+   private final class KeySet extends AbstractSet<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         return new StripeIterator<Object>(true) {
+            @Override
+            Object convert(SerializedEntry entry) {
+               return entry.key();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return containsKey(o);
+      }
+
+      @Override
+      public int size() {
+         return count.get();
+      }
+   }
+
+   private final class EntrySet extends AbstractSet<InternalCacheEntry> {
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         return new StripeIterator<InternalCacheEntry>(false) {
+            @Override
+            InternalCacheEntry convert(SerializedEntry entry) {
+               return CoreImmutables.immutableInternalCacheEntry(entry.toInternalCacheEntry(null));
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return count.get();
+      }
+   }
+
+   private final class Values extends AbstractCollection<Object> {
+      @Override
+      public Iterator<Object> iterator() {
+         return new StripeIterator<Object>(false) {
+            @Override
+            Object convert(SerializedEntry entry) {
+               return unmarshall(entry.value);
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return count.get();
+      }
+   }
+}
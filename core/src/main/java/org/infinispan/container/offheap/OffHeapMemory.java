@@ -0,0 +1,96 @@
+package org.infinispan.container.offheap;
+
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+
+import org.infinispan.commons.CacheException;
+
+import sun.misc.Unsafe;
+
+/**
+ * Thin wrapper around {@link Unsafe} giving access to memory allocated outside of the Java heap.  Addresses handed
+ * out by {@link #allocate(long)} must be released with {@link #free(long)} exactly once.
+ *
+ * @since 6.0
+ */
+public final class OffHeapMemory {
+
+   private static final Unsafe UNSAFE = getUnsafe();
+
+   private static final long BYTE_ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+
+   private OffHeapMemory() {
+   }
+
+   public static long allocate(long size) {
+      return UNSAFE.allocateMemory(size);
+   }
+
+   public static void free(long address) {
+      UNSAFE.freeMemory(address);
+   }
+
+   public static void setMemory(long address, long size, byte value) {
+      UNSAFE.setMemory(address, size, value);
+   }
+
+   public static long getLong(long address) {
+      return UNSAFE.getLong(address);
+   }
+
+   public static void putLong(long address, long value) {
+      UNSAFE.putLong(address, value);
+   }
+
+   public static int getInt(long address) {
+      return UNSAFE.getInt(address);
+   }
+
+   public static void putInt(long address, int value) {
+      UNSAFE.putInt(address, value);
+   }
+
+   public static byte getByte(long address) {
+      return UNSAFE.getByte(address);
+   }
+
+   public static void putBytes(long address, byte[] src) {
+      // word-at-a-time copy, Unsafe.copyMemory between heap and native memory is not available on Java 6
+      int i = 0;
+      for (; i + 8 <= src.length; i += 8) {
+         UNSAFE.putLong(address + i, UNSAFE.getLong(src, BYTE_ARRAY_BASE_OFFSET + i));
+      }
+      for (; i < src.length; i++) {
+         UNSAFE.putByte(address + i, src[i]);
+      }
+   }
+
+   public static byte[] getBytes(long address, int length) {
+      byte[] dst = new byte[length];
+      int i = 0;
+      for (; i + 8 <= length; i += 8) {
+         UNSAFE.putLong(dst, BYTE_ARRAY_BASE_OFFSET + i, UNSAFE.getLong(address + i));
+      }
+      for (; i < length; i++) {
+         dst[i] = UNSAFE.getByte(address + i);
+      }
+      return dst;
+   }
+
+   private static Unsafe getUnsafe() {
+      try {
+         return AccessController.doPrivileged(new PrivilegedExceptionAction<Unsafe>() {
+            @Override
+            public Unsafe run() throws Exception {
+               Field f = Unsafe.class.getDeclaredField("theUnsafe");
+               f.setAccessible(true);
+               return (Unsafe) f.get(null);
+            }
+         });
+      } catch (PrivilegedActionException e) {
+         throw new CacheException("Off-heap storage requires access to sun.misc.Unsafe", e.getCause());
+      }
+   }
+}
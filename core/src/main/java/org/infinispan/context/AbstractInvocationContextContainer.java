@@ -59,6 +59,7 @@ public InvocationContext getInvocationContext(boolean quiet) {
 
    @Override
    public void clearThreadLocal() {
-      ctxHolder.remove();
+      // unlike remove(), doesn't allocate a new thread local map entry for each invocation
+      ctxHolder.set(null);
    }
 }
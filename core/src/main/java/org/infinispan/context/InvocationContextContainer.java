@@ -72,6 +72,20 @@ public interface InvocationContextContainer {
     */
    InvocationContext createSingleKeyNonTxInvocationContext();
 
+   /**
+    * As {@link #createSingleKeyNonTxInvocationContext()}, for a local read outside of a transaction, but the context
+    * may be the one of a previous read of the calling thread instead of a new one.  The caller must pass it to {@link
+    * #releaseReadInvocationContext(InvocationContext)} once the read completed, and neither the caller nor the
+    * interceptors may keep a reference to it afterwards.
+    */
+   InvocationContext createReusableReadInvocationContext();
+
+   /**
+    * Makes a context created by {@link #createReusableReadInvocationContext()} available to the next read of the
+    * calling thread.
+    */
+   void releaseReadInvocationContext(InvocationContext ctx);
+
    /**
     * Returns a {@link org.infinispan.context.impl.LocalTxInvocationContext}.
     */
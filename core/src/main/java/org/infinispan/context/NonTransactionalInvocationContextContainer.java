@@ -19,6 +19,11 @@
  */
 public class NonTransactionalInvocationContextContainer extends AbstractInvocationContextContainer {
 
+   /**
+    * The context of the last read of each thread, which its next read reuses.
+    */
+   private final ThreadLocal<SingleKeyNonTxInvocationContext> idleReadContext = new ThreadLocal<SingleKeyNonTxInvocationContext>();
+
    @Inject
    public void init(Configuration config) {
       super.init(config);
@@ -64,6 +69,27 @@ public InvocationContext createSingleKeyNonTxInvocationContext() {
       return result;
    }
 
+   @Override
+   public InvocationContext createReusableReadInvocationContext() {
+      SingleKeyNonTxInvocationContext result = idleReadContext.get();
+      if (result == null) {
+         // the first read of the thread, or a read nested in another one, e.g. from a listener
+         result = new SingleKeyNonTxInvocationContext(true, keyEq, true);
+      } else {
+         idleReadContext.set(null);
+      }
+      ctxHolder.set(result);
+      return result;
+   }
+
+   @Override
+   public void releaseReadInvocationContext(InvocationContext ctx) {
+      SingleKeyNonTxInvocationContext singleKeyCtx = (SingleKeyNonTxInvocationContext) ctx;
+      // don't keep the key and the entry until the next read of the thread
+      singleKeyCtx.reset();
+      idleReadContext.set(singleKeyCtx);
+   }
+
    @Override
    public NonTxInvocationContext createRemoteInvocationContext(Address origin) {
       NonTxInvocationContext ctx = new NonTxInvocationContext(keyEq);
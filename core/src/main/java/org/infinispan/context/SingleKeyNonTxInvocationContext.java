@@ -28,10 +28,20 @@ public class SingleKeyNonTxInvocationContext extends AbstractInvocationContext {
 
    private final Equivalence keyEquivalence;
 
+   /**
+    * Whether the context is reused by the non-transactional gets of a thread.
+    */
+   private final boolean reusable;
+
    public SingleKeyNonTxInvocationContext(
          boolean originLocal, Equivalence keyEquivalence) {
+      this(originLocal, keyEquivalence, false);
+   }
+
+   public SingleKeyNonTxInvocationContext(boolean originLocal, Equivalence keyEquivalence, boolean reusable) {
       isOriginLocal = originLocal;
       this.keyEquivalence = keyEquivalence;
+      this.reusable = reusable;
    }
 
    @Override
@@ -111,6 +121,20 @@ public void clearLookedUpEntries() {
       clearLockedKeys();
    }
 
+   /**
+    * Clears the state of the previous invocation, so that the context can be reused.
+    */
+   public void reset() {
+      key = null;
+      cacheEntry = null;
+      isLocked = false;
+      setUseFutureReturnType(false);
+   }
+
+   public boolean isReusable() {
+      return reusable;
+   }
+
    public Object getKey() {
       return key;
    }
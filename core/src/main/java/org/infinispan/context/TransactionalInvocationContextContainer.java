@@ -81,6 +81,17 @@ public InvocationContext createSingleKeyNonTxInvocationContext() {
       return ctx;
    }
 
+   @Override
+   public InvocationContext createReusableReadInvocationContext() {
+      // the reads of transactional caches don't reuse their contexts
+      return createSingleKeyNonTxInvocationContext();
+   }
+
+   @Override
+   public void releaseReadInvocationContext(InvocationContext ctx) {
+      // nothing to do
+   }
+
    @Override
    public InvocationContext createInvocationContext(
          boolean isWrite, int keyCount) {
@@ -119,7 +119,9 @@ public ClassLoader getClassLoader() {
 
    @Override
    public void setClassLoader(ClassLoader classLoader) {
-      this.classLoader = new WeakReference<ClassLoader>(classLoader);
+      // reused contexts are usually associated with the same class loader
+      if (this.classLoader == null || this.classLoader.get() != classLoader)
+         this.classLoader = new WeakReference<ClassLoader>(classLoader);
    }
 
    @Override
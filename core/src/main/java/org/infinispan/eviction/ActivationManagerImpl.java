@@ -31,6 +31,7 @@ public class ActivationManagerImpl implements ActivationManager {
 
    private final AtomicLong activations = new AtomicLong(0);
    private CacheLoaderManager clm;
+   private PassivationManager passivator;
    private CacheStore store;
    private Configuration cfg;
    private boolean enabled;
@@ -39,9 +40,10 @@ public class ActivationManagerImpl implements ActivationManager {
    private boolean statisticsEnabled = false;
 
    @Inject
-   public void inject(CacheLoaderManager clm, Configuration cfg) {
+   public void inject(CacheLoaderManager clm, Configuration cfg, PassivationManager passivator) {
       this.clm = clm;
       this.cfg = cfg;
+      this.passivator = passivator;
    }
 
    @Start(priority = 11) // After the cache loader manager, before the passivation manager
@@ -59,6 +61,8 @@ public void start() {
 
    @Override
    public void activate(Object key) {
+      // an older value of the key mustn't be written to the cache store by an asynchronous passivation
+      passivator.cancelPassivation(key);
       if (enabled) {
          try {
             if (trace)
@@ -0,0 +1,97 @@
+package org.infinispan.eviction;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataAware;
+import org.infinispan.marshall.core.MarshalledValue;
+
+/**
+ * Default {@link EntrySizeCalculator} for the data container. It estimates the shallow size of the objects found in
+ * the container on a 64-bit JVM with compressed references: <tt>byte[]</tt>, {@link String}, boxed primitives,
+ * {@link MarshalledValue} and the {@link InternalCacheEntry} wrapping each value, plus the container's own per-entry
+ * overhead. Objects of any other type are accounted for with a fixed guess, so custom calculators should be
+ * configured when keys or values are arbitrary object graphs.
+ *
+ * @since 6.0
+ */
+public class DefaultEntrySizeCalculator implements EntrySizeCalculator<Object, InternalCacheEntry> {
+
+   static final int OBJECT_HEADER = 12;
+   static final int ARRAY_HEADER = 16;
+   static final int REFERENCE = 4;
+   static final int LONG = 8;
+
+   /**
+    * Hash table entry holding the mapping (header, key, hash, value, next, size) plus the table slot pointing at it.
+    */
+   static final int CONTAINER_ENTRY_OVERHEAD = 32 + REFERENCE;
+
+   /**
+    * Estimate used for objects whose size cannot be determined cheaply.
+    */
+   static final int UNKNOWN_OBJECT_SIZE = 64;
+
+   private static final DefaultEntrySizeCalculator INSTANCE = new DefaultEntrySizeCalculator();
+
+   public static DefaultEntrySizeCalculator getInstance() {
+      return INSTANCE;
+   }
+
+   @Override
+   public long calculateSize(Object key, InternalCacheEntry entry) {
+      long size = CONTAINER_ENTRY_OVERHEAD + objectSize(key);
+      if (entry != null) {
+         size += internalCacheEntrySize(entry) + objectSize(entry.getValue());
+      }
+      return size;
+   }
+
+   /**
+    * Shallow size of the entry wrapper itself, excluding its key and value.
+    */
+   protected long internalCacheEntrySize(InternalCacheEntry entry) {
+      // header plus key and value references
+      long size = OBJECT_HEADER + 2 * REFERENCE;
+      if (entry.getLifespan() > -1) {
+         // created timestamp and lifespan
+         size += 2 * LONG;
+      }
+      if (entry.getMaxIdle() > -1) {
+         // last used timestamp and max idle
+         size += 2 * LONG;
+      }
+      if (entry.getClass().getPackage() == MetadataAware.class.getPackage()) {
+         // metadata reference and the metadata instance, which usually holds a version
+         size += REFERENCE + OBJECT_HEADER + 2 * REFERENCE + 2 * LONG;
+      }
+      return align(size);
+   }
+
+   /**
+    * Estimates the size of a key or value.
+    */
+   protected long objectSize(Object o) {
+      if (o == null) {
+         return 0;
+      } else if (o instanceof byte[]) {
+         return align(ARRAY_HEADER + ((byte[]) o).length);
+      } else if (o instanceof String) {
+         // String instance plus its backing char[]
+         return align(OBJECT_HEADER + REFERENCE + 3 * 4) + align(ARRAY_HEADER + 2L * ((String) o).length());
+      } else if (o instanceof MarshalledValue) {
+         // the serialized form dominates, whether or not the instance is currently held as well
+         MarshalledValue mv = (MarshalledValue) o;
+         return align(OBJECT_HEADER + 3 * REFERENCE + 2 * 4) + align(ARRAY_HEADER + mv.getSerializedSize());
+      } else if (o instanceof Long || o instanceof Double) {
+         return align(OBJECT_HEADER + LONG);
+      } else if (o instanceof Integer || o instanceof Float || o instanceof Short || o instanceof Byte
+            || o instanceof Character || o instanceof Boolean) {
+         return align(OBJECT_HEADER + 4);
+      } else {
+         return UNKNOWN_OBJECT_SIZE;
+      }
+   }
+
+   static long align(long size) {
+      return (size + 7) & ~7L;
+   }
+}
@@ -0,0 +1,24 @@
+package org.infinispan.eviction;
+
+/**
+ * Estimates the amount of memory taken by a mapping, so that the data container can be bounded by
+ * the memory used by its entries rather than by their number.
+ * <p/>
+ * Implementations are invoked on every write to a memory bounded container, hence they should be
+ * cheap and must be thread safe. Exact figures are not required, but estimates should be
+ * consistent: the same key and value should always yield the same size.
+ *
+ * @since 6.0
+ * @see EvictionType#MEMORY
+ */
+public interface EntrySizeCalculator<K, V> {
+
+   /**
+    * Estimates the memory used by a mapping.
+    *
+    * @param key   key of the mapping
+    * @param value value of the mapping
+    * @return estimated number of bytes taken by the key, the value and any overhead of storing them
+    */
+   long calculateSize(K key, V value);
+}
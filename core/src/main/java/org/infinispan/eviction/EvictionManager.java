@@ -37,4 +37,12 @@ public interface EvictionManager {
    boolean isEnabled();
 
    void onEntryEviction(Map<Object, InternalCacheEntry> evicted);
+
+   /**
+    * Called by the data container when {@link org.infinispan.container.DataContainer#purgeExpired()} removes
+    * expired entries.
+    *
+    * @param count the number of expired entries purged
+    */
+   void onExpiredEntriesPurged(int count);
 }
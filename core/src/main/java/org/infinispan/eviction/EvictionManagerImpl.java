@@ -14,6 +14,12 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.loaders.manager.CacheLoaderManager;
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
@@ -25,8 +31,10 @@
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ThreadSafe
+@MBean(objectName = "Expiration", description = "Component that periodically purges expired entries from the data container and the cache store")
 public class EvictionManagerImpl implements EvictionManager {
    private static final Log log = LogFactory.getLog(EvictionManagerImpl.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -43,6 +51,15 @@ public class EvictionManagerImpl implements EvictionManager {
    private boolean enabled;
    private String cacheName;
 
+   private final AtomicLong expiredEntries = new AtomicLong(0);
+   private final AtomicLong purges = new AtomicLong(0);
+   private final AtomicLong purgeTime = new AtomicLong(0);
+   private volatile long lastPurgeTime;
+   private volatile long resetNanoseconds;
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled", writable = true)
+   private boolean statisticsEnabled = false;
+
    @Inject
    public void initialize(@ComponentName(KnownComponentNames.EVICTION_SCHEDULED_EXECUTOR)
          ScheduledExecutorService executor, Cache cache, Configuration cfg, DataContainer dataContainer,
@@ -69,6 +86,8 @@ void initialize(ScheduledExecutorService executor,
    public void start() {
       // first check if eviction is enabled!
       enabled = configuration.expiration().reaperEnabled();
+      statisticsEnabled = configuration.jmxStatistics().enabled();
+      resetNanoseconds = timeService.time();
       if (enabled) {
          if (cacheLoaderManager != null && cacheLoaderManager.isEnabled()) {
             cacheStore = cacheLoaderManager.getCacheStore();
@@ -91,12 +110,21 @@ public void processEviction() {
          try {
             if (trace) {
                log.trace("Purging data container of expired entries");
+            }
+            if (trace || statisticsEnabled) {
                start = timeService.time();
             }
             dataContainer.purgeExpired();
-            if (trace) {
-               log.tracef("Purging data container completed in %s",
-                          Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
+            if (trace || statisticsEnabled) {
+               long duration = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+               if (trace) {
+                  log.tracef("Purging data container completed in %s", Util.prettyPrintTime(duration));
+               }
+               if (statisticsEnabled) {
+                  purges.incrementAndGet();
+                  purgeTime.addAndGet(duration);
+                  lastPurgeTime = duration;
+               }
             }
          } catch (Exception e) {
             log.exceptionPurgingDataContainer(e);
@@ -127,6 +155,71 @@ public boolean isEnabled() {
       return enabled;
    }
 
+   @ManagedAttribute(
+         description = "Number of expired entries purged from the data container",
+         displayName = "Number of expired entries purged",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getExpiredEntries() {
+      return expiredEntries.get();
+   }
+
+   @ManagedAttribute(
+         description = "Average number of expired entries purged from the data container per second since the statistics were last reset",
+         displayName = "Expired entries purged per second",
+         displayType = DisplayType.SUMMARY
+   )
+   public double getExpiredEntriesPerSecond() {
+      long millis = timeService.timeDuration(resetNanoseconds, TimeUnit.MILLISECONDS);
+      if (millis <= 0)
+         return 0;
+      return expiredEntries.get() * 1000d / millis;
+   }
+
+   @ManagedAttribute(
+         description = "Number of times the data container was purged of expired entries",
+         displayName = "Number of purges",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getPurges() {
+      return purges.get();
+   }
+
+   @ManagedAttribute(
+         description = "Average number of milliseconds spent purging the data container of expired entries",
+         displayName = "Average purge time",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAveragePurgeTime() {
+      long count = purges.get();
+      if (count == 0)
+         return 0;
+      return purgeTime.get() / count;
+   }
+
+   @ManagedAttribute(
+         description = "Number of milliseconds spent by the last purge of the data container",
+         displayName = "Last purge time",
+         units = Units.MILLISECONDS
+   )
+   public long getLastPurgeTime() {
+      return lastPurgeTime;
+   }
+
+   @ManagedOperation(
+         description = "Resets statistics gathered by this component",
+         displayName = "Reset statistics"
+   )
+   public void resetStatistics() {
+      expiredEntries.set(0);
+      purges.set(0);
+      purgeTime.set(0);
+      lastPurgeTime = 0;
+      resetNanoseconds = timeService.time();
+   }
+
    @Stop(priority = 5)
    public void stop() {
       if (evictionTask != null) {
@@ -160,4 +253,11 @@ public void onEntryEviction(Map<Object, InternalCacheEntry> evicted) {
       // call to carry on taking an InvocationContext object.
       cacheNotifier.notifyCacheEntriesEvicted(evicted.values(), ctx, null);
    }
+
+   @Override
+   public void onExpiredEntriesPurged(int count) {
+      if (statisticsEnabled) {
+         expiredEntries.addAndGet(count);
+      }
+   }
 }
@@ -16,7 +16,12 @@ public enum EvictionStrategy {
    @Deprecated
    FIFO, 
    LRU, 
-   LIRS;
+   LIRS,
+   /**
+    * Window TinyLFU: a frequency sketch decides whether new entries are admitted in place of
+    * the least recently used ones, which protects popular entries from scans.
+    */
+   TINY_LFU;
 
    public boolean isEnabled() {
       return this != NONE;
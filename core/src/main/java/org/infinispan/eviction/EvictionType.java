@@ -0,0 +1,17 @@
+package org.infinispan.eviction;
+
+/**
+ * Supported ways of bounding the data container when eviction is enabled
+ *
+ * @since 6.0
+ */
+public enum EvictionType {
+   /**
+    * The container is bounded by the number of entries it holds.
+    */
+   COUNT,
+   /**
+    * The container is bounded by the estimated memory used by its keys and values.
+    */
+   MEMORY
+}
@@ -20,6 +20,38 @@ public interface PassivationManager {
 
    void passivate(InternalCacheEntry entry);
 
+   /**
+    * With asynchronous passivation, returns the evicted entry of the key which hasn't been written to the cache store
+    * yet.
+    *
+    * @return the entry waiting to be passivated, or null if there isn't one
+    */
+   InternalCacheEntry getPendingPassivation(Object key);
+
+   /**
+    * Cancels the asynchronous passivation of the key, as its entry is back in memory.  Never waits for a write: if the
+    * entry is already being written to the cache store, the writer removes it from the cache store once it's written.
+    */
+   void cancelPassivation(Object key);
+
+   /**
+    * @return the number of evicted entries waiting to be written to the cache store
+    */
+   int getPendingPassivationCount();
+
+   /**
+    * Writes the entries waiting for asynchronous passivation to the cache store, and passivates the entries evicted
+    * afterwards synchronously until {@link #resumeAsyncPassivation()} is called.  An evicted entry is then always either
+    * in the data container or in the cache store, as without asynchronous passivation, so a caller reading the data
+    * container and then the cache store doesn't miss it.  The suspensions nest.
+    */
+   void suspendAsyncPassivation();
+
+   /**
+    * Resumes the asynchronous passivation suspended by {@link #suspendAsyncPassivation()}.
+    */
+   void resumeAsyncPassivation();
+
    void passivateAll() throws CacheLoaderException;
 
    long getPassivationCount();
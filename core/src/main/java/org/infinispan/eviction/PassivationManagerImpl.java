@@ -1,5 +1,7 @@
 package org.infinispan.eviction;
 
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.configuration.cache.Configuration;
@@ -17,9 +19,24 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Writes the evicted entries to the cache store, either on the thread evicting them or, with
+ * {@link org.infinispan.configuration.cache.LoadersConfiguration#asyncPassivation()}, on a background thread.
+ * <p/>
+ * The entries waiting to be written asynchronously are kept in memory until they are, so the loads from the cache
+ * store still find them.  When the entry of a key comes back in memory before being written, its passivation is
+ * cancelled, so an older value doesn't overwrite the cache store after the activation.
+ */
 public class PassivationManagerImpl implements PassivationManager {
 
    CacheLoaderManager cacheLoaderManager;
@@ -34,6 +51,10 @@ public class PassivationManagerImpl implements PassivationManager {
    private DataContainer container;
    private TimeService timeService;
    private static final boolean trace = log.isTraceEnabled();
+   private static final AtomicInteger writerCounter = new AtomicInteger();
+   private ConcurrentMap<Object, PendingPassivation> pending;
+   private final AtomicInteger suspensions = new AtomicInteger();
+   private ExecutorService writer;
 
    @Inject
    public void inject(CacheLoaderManager cacheLoaderManager, CacheNotifier notifier, Configuration cfg, DataContainer container,
@@ -43,6 +64,8 @@ public void inject(CacheLoaderManager cacheLoaderManager, CacheNotifier notifier
       this.cfg = cfg;
       this.container = container;
       this.timeService = timeService;
+      this.pending = CollectionFactory.makeConcurrentMap(cfg.dataContainer().<Object>keyEquivalence(),
+            AnyEquivalence.<PendingPassivation>getInstance());
    }
 
    @Start(priority = 12)
@@ -56,9 +79,32 @@ public void start() {
 
          enabled = cacheLoaderManager.isEnabled() && cacheLoaderManager.isUsingPassivation();
          statsEnabled = cfg.jmxStatistics().enabled();
+         if (enabled && cfg.loaders().asyncPassivation()) {
+            startWriter(cfg.loaders().passivationQueueSize());
+         }
       }
    }
 
+   private void startWriter(int queueSize) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "PassivationWriter-" + writerCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+         }
+      }, new RejectedExecutionHandler() {
+         @Override
+         public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            // the queue is full or the writer is stopping: the evicting thread writes the entry itself
+            r.run();
+         }
+      });
+      executor.allowCoreThreadTimeOut(true);
+      writer = executor;
+   }
+
    @Override
    public boolean isEnabled() {
       return enabled;
@@ -71,15 +117,74 @@ public void passivate(InternalCacheEntry entry) {
          // notify listeners that this entry is about to be passivated
          notifier.notifyCacheEntryPassivated(key, entry.getValue(), true,
                ImmutableContext.INSTANCE, null);
-         if (trace) log.tracef("Passivating entry %s", key);
-         try {
-            cacheStore.store(entry);
-            if (statsEnabled) passivations.getAndIncrement();
-         } catch (CacheLoaderException e) {
-            log.unableToPassivateEntry(key, e);
+         if (writer == null || suspensions.get() > 0) {
+            if (writer != null) {
+               // an older entry of the key must reach the cache store first
+               PendingPassivation previous = pending.get(key);
+               if (previous != null) previous.run();
+            }
+            store(entry);
+         } else {
+            PendingPassivation passivation = new PendingPassivation(entry);
+            passivation.previous = pending.put(key, passivation);
+            // if the passivation was suspended meanwhile, the suspending thread may have flushed the pending entries
+            // before this one was added
+            if (suspensions.get() > 0) {
+               passivation.run();
+            } else {
+               writer.execute(passivation);
+            }
          }
-         notifier.notifyCacheEntryPassivated(key, null, false,
-               ImmutableContext.INSTANCE, null);
+      }
+   }
+
+   private void store(InternalCacheEntry entry) {
+      Object key = entry.getKey();
+      if (trace) log.tracef("Passivating entry %s", key);
+      try {
+         cacheStore.store(entry);
+         if (statsEnabled) passivations.getAndIncrement();
+      } catch (CacheLoaderException e) {
+         log.unableToPassivateEntry(key, e);
+      }
+      notifier.notifyCacheEntryPassivated(key, null, false,
+            ImmutableContext.INSTANCE, null);
+   }
+
+   @Override
+   public InternalCacheEntry getPendingPassivation(Object key) {
+      PendingPassivation passivation = pending.get(key);
+      return passivation == null || passivation.state.get() == CANCELLED ? null : passivation.entry;
+   }
+
+   @Override
+   public void cancelPassivation(Object key) {
+      // called with the lock of the data container segment held, so it mustn't wait for the cache store
+      PendingPassivation passivation = pending.get(key);
+      if (passivation != null && passivation.cancel()) {
+         if (trace) log.tracef("Cancelled the passivation of %s", key);
+      }
+   }
+
+   @Override
+   public int getPendingPassivationCount() {
+      return pending.size();
+   }
+
+   @Override
+   public void suspendAsyncPassivation() {
+      if (writer != null) {
+         suspensions.incrementAndGet();
+         for (PendingPassivation passivation : pending.values()) {
+            passivation.run();
+         }
+      }
+   }
+
+   @Override
+   public void resumeAsyncPassivation() {
+      if (writer != null) {
+         suspensions.decrementAndGet();
       }
    }
 
@@ -87,6 +192,13 @@ public void passivate(InternalCacheEntry entry) {
    @Stop(priority = 9)
    public void passivateAll() throws CacheLoaderException {
       if (enabled) {
+         if (writer != null) {
+            // the entries still waiting for the writer are no longer in the data container
+            writer.shutdown();
+            for (PendingPassivation passivation : pending.values()) {
+               passivation.run();
+            }
+         }
          long start = timeService.time();
          log.passivatingAllEntries();
          for (InternalCacheEntry e : container) {
@@ -107,4 +219,58 @@ public long getPassivationCount() {
    public void resetPassivationCount() {
       passivations.set(0L);
    }
+
+   private static final int WAITING = 0;
+   private static final int WRITING = 1;
+   private static final int WRITTEN = 2;
+   private static final int CANCELLED = 3;
+
+   private final class PendingPassivation implements Runnable {
+      final InternalCacheEntry entry;
+      final AtomicInteger state = new AtomicInteger(WAITING);
+      // the passivation of the key this one replaced, which may still be writing
+      volatile PendingPassivation previous;
+
+      PendingPassivation(InternalCacheEntry entry) {
+         this.entry = entry;
+      }
+
+      boolean cancel() {
+         Object key = entry.getKey();
+         if (state.compareAndSet(WAITING, CANCELLED)) {
+            pending.remove(key, this);
+            return true;
+         }
+         // the write has started: it stays pending, so a later passivation of the key waits for it, and removes the
+         // entry from the cache store once written
+         return state.compareAndSet(WRITING, CANCELLED);
+      }
+
+      @Override
+      public synchronized void run() {
+         Object key = entry.getKey();
+         PendingPassivation previous = this.previous;
+         if (previous != null) {
+            // a cancelled write of the key may still be in progress, and would remove this entry afterwards
+            synchronized (previous) {
+               this.previous = null;
+            }
+         }
+         // skip the entry if its key has been activated in the meantime
+         if (pending.get(key) != this || !state.compareAndSet(WAITING, WRITING)) return;
+         store(entry);
+         if (!state.compareAndSet(WRITING, WRITTEN) && !cacheLoaderManager.isShared()) {
+            // the key was activated during the write, and the activation may have removed it from the cache store
+            // before the write
+            if (trace) log.tracef("Removing %s from the cache store, as it was activated while being passivated", key);
+            try {
+               cacheStore.remove(key);
+            } catch (CacheLoaderException e) {
+               log.unableToRemoveEntryAfterActivation(key, e);
+            }
+         }
+         // only stop serving the entry to loads once it is in the cache store
+         pending.remove(key, this);
+      }
+   }
 }
@@ -4,10 +4,24 @@
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.container.DataContainer;
+import org.infinispan.configuration.cache.HashConfiguration;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.offheap.OffHeapDataContainer;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.ConsistentHashFactory;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.distribution.ch.ReplicatedConsistentHashFactory;
+import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.distribution.group.GroupingConsistentHash;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+
+import java.util.Collections;
 
 /**
  * Constructs the data container
@@ -25,6 +39,10 @@ public class DataContainerFactory extends AbstractNamedCacheComponentFactory imp
    public <T> T construct(Class<T> componentType) {
       if (configuration.dataContainer().dataContainer() != null) {
          return (T) configuration.dataContainer().dataContainer();
+      } else if (configuration.dataContainer().offHeap()) {
+         return (T) constructOffHeapDataContainer();
+      } else if (configuration.dataContainer().segmented() && configuration.clustering().cacheMode().isClustered()) {
+         return (T) constructSegmentedDataContainer();
       } else {
          EvictionStrategy st = configuration.eviction().strategy();
          int level = configuration.locking().concurrencyLevel();
@@ -39,6 +57,13 @@ public <T> T construct(Class<T> componentType) {
             case LRU:
             case FIFO:
             case LIRS:
+            case TINY_LFU:
+               if (configuration.eviction().type() == EvictionType.MEMORY) {
+                  return (T) DefaultDataContainer.memoryBoundedDataContainer(
+                        level, configuration.eviction().maxMemory(), st, configuration.eviction().threadPolicy(),
+                        keyEquivalence, valueEquivalence, configuration.eviction().sizeCalculator());
+               }
+
                int maxEntries = configuration.eviction().maxEntries();
                //handle case when < 0 value signifies unbounded container 
                if(maxEntries < 0) {
@@ -56,4 +81,55 @@ public <T> T construct(Class<T> componentType) {
          }
       }
    }
+
+   private DataContainer constructOffHeapDataContainer() {
+      int level = configuration.locking().concurrencyLevel();
+      int addressCount = configuration.dataContainer().addressCount();
+      if (configuration.eviction().strategy() == EvictionStrategy.NONE) {
+         return OffHeapDataContainer.unBoundedDataContainer(level, addressCount);
+      } else if (configuration.eviction().type() == EvictionType.MEMORY) {
+         return OffHeapDataContainer.memoryBoundedDataContainer(level, addressCount, configuration.eviction().maxMemory());
+      } else if (configuration.eviction().maxEntries() < 0) {
+         return OffHeapDataContainer.unBoundedDataContainer(level, addressCount);
+      }
+      return OffHeapDataContainer.boundedDataContainer(level, addressCount, configuration.eviction().maxEntries());
+   }
+
+   private DataContainer constructSegmentedDataContainer() {
+      ConsistentHash segmentMapping = createSegmentMapping();
+      EvictionStrategy st = configuration.eviction().strategy();
+      int level = configuration.locking().concurrencyLevel();
+      Equivalence keyEquivalence = configuration.dataContainer().keyEquivalence();
+      Equivalence valueEquivalence = configuration.dataContainer().valueEquivalence();
+      if (st == EvictionStrategy.NONE) {
+         return SegmentedDataContainer.unBoundedDataContainer(segmentMapping, level, keyEquivalence, valueEquivalence);
+      } else if (configuration.eviction().type() == EvictionType.MEMORY) {
+         return SegmentedDataContainer.memoryBoundedDataContainer(segmentMapping, level,
+               configuration.eviction().maxMemory(), st, configuration.eviction().threadPolicy(),
+               keyEquivalence, valueEquivalence, configuration.eviction().sizeCalculator());
+      } else if (configuration.eviction().maxEntries() < 0) {
+         return SegmentedDataContainer.unBoundedDataContainer(segmentMapping, level, keyEquivalence, valueEquivalence);
+      }
+      return SegmentedDataContainer.boundedDataContainer(segmentMapping, level, configuration.eviction().maxEntries(),
+            st, configuration.eviction().threadPolicy(), keyEquivalence, valueEquivalence);
+   }
+
+   /**
+    * Creates a consistent hash that maps keys to the same segments as the ones installed by state transfer. A key's
+    * segment does not depend on the cache members, so the local node is used as the only member.
+    */
+   @SuppressWarnings("unchecked")
+   private ConsistentHash createSegmentMapping() {
+      HashConfiguration hashConfiguration = configuration.clustering().hash();
+      ConsistentHashFactory chFactory = hashConfiguration.consistentHashFactory();
+      if (chFactory == null) {
+         chFactory = configuration.clustering().cacheMode().isDistributed() ?
+               new DefaultConsistentHashFactory() : new ReplicatedConsistentHashFactory();
+      }
+      Address localAddress = componentRegistry.getComponent(RpcManager.class).getAddress();
+      ConsistentHash ch = chFactory.create(hashConfiguration.hash(), 1, hashConfiguration.numSegments(),
+            Collections.singletonList(localAddress));
+      GroupManager groupManager = componentRegistry.getComponent(GroupManager.class);
+      return groupManager == null ? ch : new GroupingConsistentHash(ch, groupManager);
+   }
 }
@@ -1,7 +1,9 @@
 package org.infinispan.interceptors;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -69,6 +71,13 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return retval;
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      Object retval = super.visitApplyFunctionCommand(ctx, command);
+      removeFromStoreIfNeeded(command.getKey());
+      return retval;
+   }
+
 
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
@@ -86,6 +95,13 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return retval;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      Object retval = super.visitGetAllCommand(ctx, command);
+      removeFromStoreIfNeeded(command.getKeys().toArray());
+      return retval;
+   }
+
    @Override
    protected void sendNotification(Object key, Object value, boolean pre,
          InvocationContext ctx, FlagAffectedCommand cmd) {
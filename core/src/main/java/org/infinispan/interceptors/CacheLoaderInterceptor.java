@@ -3,24 +3,33 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.LocalFlagAffectedCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.configuration.cache.CacheStoreConfiguration;
+import org.infinispan.container.DataContainer;
 import org.infinispan.container.EntryFactory;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
 import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
@@ -28,23 +37,41 @@
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.jmx.annotations.Parameter;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.CompressingMarshaller;
 import org.infinispan.loaders.decorators.ChainingCacheStore;
 import org.infinispan.loaders.manager.CacheLoaderManager;
 import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.Metadatas;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
-import java.util.ArrayList;
+import java.lang.ref.WeakReference;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.loaders.decorators.AbstractDelegatingStore.undelegateCacheLoader;
@@ -53,12 +80,19 @@
 public class CacheLoaderInterceptor extends JmxStatsCommandInterceptor {
    private final AtomicLong cacheLoads = new AtomicLong(0);
    private final AtomicLong cacheMisses = new AtomicLong(0);
+   private final AtomicLong sharedLoads = new AtomicLong(0);
+   private ConcurrentMap<Object, InFlightLoad> inFlightLoads;
 
    protected CacheLoaderManager clm;
    protected CacheNotifier notifier;
    protected CacheLoader loader;
    protected volatile boolean enabled = true;
    private EntryFactory entryFactory;
+   private DataContainer dataContainer;
+   private LoadCoalescer loadCoalescer;
+   private volatile ExecutorService iteratorExecutor;
+   private PassivationManager passivationManager;
+   private TimeService timeService;
 
    private static final Log log = LogFactory.getLog(CacheLoaderInterceptor.class);
 
@@ -68,16 +102,49 @@ protected Log getLog() {
    }
 
    @Inject
-   protected void injectDependencies(CacheLoaderManager clm, EntryFactory entryFactory, CacheNotifier notifier) {
+   protected void injectDependencies(CacheLoaderManager clm, EntryFactory entryFactory, CacheNotifier notifier,
+                                     DataContainer dataContainer, PassivationManager passivationManager,
+                                     TimeService timeService) {
       this.clm = clm;
       this.notifier = notifier;
       this.entryFactory = entryFactory;
+      this.dataContainer = dataContainer;
+      this.passivationManager = passivationManager;
+      this.timeService = timeService;
    }
 
    @Start(priority = 15)
    @SuppressWarnings("unused")
    protected void startInterceptor() {
       loader = clm.getCacheLoader();
+      // concurrent misses of equal byte[] keys must share the same load
+      inFlightLoads = CollectionFactory.makeConcurrentMap(cacheConfiguration.dataContainer().<Object>keyEquivalence(),
+                                                          AnyEquivalence.<InFlightLoad>getInstance());
+      if (loader != null && cacheConfiguration.loaders().coalesceLoads()) {
+         loadCoalescer = new LoadCoalescer(loader, cacheConfiguration.loaders().loadCoalescingWindow(), TimeUnit.MILLISECONDS,
+                                           cacheConfiguration.dataContainer().<Object>keyEquivalence());
+      }
+      if (loader != null) {
+         iteratorExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadCounter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread t = new Thread(r, "CacheLoaderIterator-" + threadCounter.incrementAndGet());
+               t.setDaemon(true);
+               return t;
+            }
+         });
+      }
+   }
+
+   @Stop
+   @SuppressWarnings("unused")
+   protected void stopInterceptor() {
+      if (iteratorExecutor != null) {
+         iteratorExecutor.shutdownNow();
+         iteratorExecutor = null;
+      }
    }
 
    @Override
@@ -114,6 +181,14 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return invokeNextInterceptor(ctx, command);
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (enabled && !shouldSkipCacheLoader(command) && !command.hasFlag(Flag.IGNORE_RETURN_VALUES)) {
+         loadAllIfNeeded(ctx, command);
+      }
+      return invokeNextInterceptor(ctx, command);
+   }
+
    @Override
    public Object visitInvalidateCommand(InvocationContext ctx, InvalidateCommand command) throws Throwable {
       if (enabled) {
@@ -149,19 +224,36 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return invokeNextInterceptor(ctx, command);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      if (enabled) {
+         Object key;
+         if ((key = command.getKey()) != null) {
+            // the function is applied on the primary owner, which must load the entry even if the call is remote
+            loadIfNeededAndUpdateStats(ctx, key, !command.isIgnorePreviousValue(), command);
+         }
+      }
+      return invokeNextInterceptor(ctx, command);
+   }
+
    @Override
    public Object visitSizeCommand(InvocationContext ctx, SizeCommand command) throws Throwable {
       int totalSize = 0;
-      if (enabled && !shouldSkipCacheLoader(command)) {
-         // TODO: maybe we should add a size method to the loader so it can do additional optimizations?  It seems
-         // awfully expensive to resurrect all keys just to count how many there are.
-         totalSize = loader.loadAllKeys(Collections.emptySet()).size();
-      }
-      // Passivation stores evicted entries so we want to add those or if the loader didn't have anything or was skipped
-      // we should at least return the in memory size
-      // This assumes that when passivation is not enabled that the cache store holds a superset of the data container
-      if (cacheConfiguration.loaders().passivation() || totalSize == 0) {
-         totalSize += (Integer)super.visitSizeCommand(ctx, command);
+      boolean useLoader = enabled && !shouldSkipCacheLoader(command);
+      // the entries waiting for asynchronous passivation are neither in memory nor in the cache loader
+      if (useLoader) passivationManager.suspendAsyncPassivation();
+      try {
+         if (useLoader) {
+            totalSize = loader.size();
+         }
+         // Passivation stores evicted entries so we want to add those or if the loader didn't have anything or was skipped
+         // we should at least return the in memory size
+         // This assumes that when passivation is not enabled that the cache store holds a superset of the data container
+         if (cacheConfiguration.loaders().passivation() || totalSize == 0) {
+            totalSize += (Integer)super.visitSizeCommand(ctx, command);
+         }
+      } finally {
+         if (useLoader) passivationManager.resumeAsyncPassivation();
       }
       return totalSize;
    }
@@ -170,10 +262,7 @@ public Object visitSizeCommand(InvocationContext ctx, SizeCommand command) throw
    public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) throws Throwable {
       Object keys = super.visitKeySetCommand(ctx, command);
       if (enabled && !shouldSkipCacheLoader(command)) {
-         Set<Object> union = new HashSet<Object>((Set<Object>)keys);
-         // Exclude the keys in memory as we don't want to deserialize those again
-         union.addAll(loader.loadAllKeys(union));
-         return Collections.unmodifiableSet(union);
+         return new LoaderKeySet((Set<Object>) keys);
       }
       return keys;
    }
@@ -182,10 +271,7 @@ public Object visitKeySetCommand(InvocationContext ctx, KeySetCommand command) t
    public Object visitEntrySetCommand(InvocationContext ctx, EntrySetCommand command) throws Throwable {
       Object entrySet = super.visitEntrySetCommand(ctx, command);
       if (enabled && !shouldSkipCacheLoader(command)) {
-         Set<InternalCacheEntry> set = loader.loadAll();
-         Set<InternalCacheEntry> union = new HashSet<InternalCacheEntry>(set);
-         union.addAll((Set<InternalCacheEntry>)entrySet);
-         return Collections.unmodifiableSet(union);
+         return new LoaderEntrySet((Set<InternalCacheEntry>) entrySet);
       }
       return entrySet;
    }
@@ -194,15 +280,7 @@ public Object visitEntrySetCommand(InvocationContext ctx, EntrySetCommand comman
    public Object visitValuesCommand(InvocationContext ctx, ValuesCommand command) throws Throwable {
       Object values = super.visitValuesCommand(ctx, command);
       if (enabled && !shouldSkipCacheLoader(command)) {
-         Set<InternalCacheEntry> set = loader.loadAll();
-         Collection<Object> valueCollection = (Collection<Object>)values;
-         List<Object> valueList = new ArrayList<Object>(set.size() + valueCollection.size());
-
-         valueList.addAll(valueCollection);
-         for (InternalCacheEntry ice : set) {
-            valueList.add(ice.getValue());
-         }
-         return Collections.unmodifiableList(valueList);
+         return new LoaderValues((Collection<Object>) values);
       }
       return values;
    }
@@ -251,7 +329,7 @@ private Boolean loadIfNeeded(InvocationContext ctx, Object key, boolean isRetrie
       // first check if the container contains the key we need.  Try and load this into the context.
       CacheEntry e = ctx.lookupEntry(key);
       if (e == null || e.isNull() || e.getValue() == null) {
-         InternalCacheEntry loaded = loader.load(key);
+         InternalCacheEntry loaded = loadEntry(key, cmd);
          if (loaded != null) {
             CacheEntry wrappedEntry;
             if (cmd instanceof ApplyDeltaCommand) {
@@ -270,6 +348,51 @@ private Boolean loadIfNeeded(InvocationContext ctx, Object key, boolean isRetrie
       }
    }
 
+   /**
+    * Loads an entry for a read, joining the load of the same key already in progress in another thread if there is one,
+    * so that concurrent misses for a key cost a single cache loader call.  Writes always load the entry themselves, as
+    * a load started before the previous write of the key was stored may return the value it replaced.
+    */
+   private InternalCacheEntry loadEntry(Object key, FlagAffectedCommand cmd) throws CacheLoaderException {
+      if (!(cmd instanceof GetKeyValueCommand)) {
+         return loadFromLoader(key, cmd);
+      }
+      InFlightLoad load = new InFlightLoad();
+      InFlightLoad inFlight = inFlightLoads.putIfAbsent(key, load);
+      if (inFlight != null) {
+         if (getStatisticsEnabled()) {
+            sharedLoads.incrementAndGet();
+         }
+         return inFlight.await(key);
+      }
+      try {
+         InternalCacheEntry loaded = loadFromLoader(key, cmd);
+         load.complete(loaded, null);
+         return loaded;
+      } catch (CacheLoaderException e) {
+         load.complete(null, e);
+         throw e;
+      } finally {
+         inFlightLoads.remove(key, load);
+         // don't leave the other threads waiting if the load failed with an unchecked exception
+         load.complete(null, new CacheLoaderException("Unexpected error while loading the entry"));
+      }
+   }
+
+   private InternalCacheEntry loadFromLoader(Object key, FlagAffectedCommand cmd) throws CacheLoaderException {
+      // an entry evicted with asynchronous passivation may not have been written to the cache store yet
+      InternalCacheEntry passivated = passivationManager.getPendingPassivation(key);
+      if (passivated != null) {
+         return passivated.isExpired(timeService.wallClockTime()) ? null : passivated;
+      }
+      // the entries loaded for delta writes are put in the context as they are, so they can't be shared with other
+      // threads
+      if (loadCoalescer != null && !(cmd instanceof ApplyDeltaCommand)) {
+         return loadCoalescer.load(key);
+      }
+      return loader.load(key);
+   }
+
    /**
     * This method records a loaded entry, performing the following steps: <ol> <li>Increments counters for reporting via
     * JMX</li> <li>updates the 'entry' reference (an entry in the current thread's InvocationContext) with the contents
@@ -324,6 +447,76 @@ protected void sendNotification(Object key, Object value, boolean pre,
       notifier.notifyCacheEntryLoaded(key, value, pre, ctx, cmd);
    }
 
+   /**
+    * Loads the entries missing from the context with a single call to the cache loader, rather than one per key.  Like
+    * the misses of single keys, the keys are registered as loads in progress first, so that the concurrent misses of
+    * the same keys wait for this load, and the keys already being loaded by another thread are not loaded twice.
+    */
+   private void loadAllIfNeeded(InvocationContext ctx, GetAllCommand cmd) throws Throwable {
+      Equivalence<Object> keyEquivalence = cacheConfiguration.dataContainer().keyEquivalence();
+      Map<Object, InFlightLoad> started = CollectionFactory.makeMap(keyEquivalence, AnyEquivalence.<InFlightLoad>getInstance());
+      Map<Object, InFlightLoad> joined = CollectionFactory.makeMap(keyEquivalence, AnyEquivalence.<InFlightLoad>getInstance());
+      for (Object key : cmd.getKeys()) {
+         CacheEntry e = ctx.lookupEntry(key);
+         if ((e == null || e.isNull() || e.getValue() == null) && canLoad(key)
+               && !started.containsKey(key) && !joined.containsKey(key)) {
+            // an entry evicted with asynchronous passivation may not have been written to the cache store yet
+            InternalCacheEntry passivated = passivationManager.getPendingPassivation(key);
+            if (passivated == null) {
+               InFlightLoad load = new InFlightLoad();
+               InFlightLoad inFlight = inFlightLoads.putIfAbsent(key, load);
+               if (inFlight == null) {
+                  started.put(key, load);
+               } else {
+                  joined.put(key, inFlight);
+               }
+            } else if (!passivated.isExpired(timeService.wallClockTime())) {
+               recordLoadedEntry(ctx, key, entryFactory.wrapEntryForPut(ctx, key, passivated, false, cmd, false), passivated, cmd);
+            } else if (getStatisticsEnabled()) {
+               cacheMisses.incrementAndGet();
+            }
+         }
+      }
+
+      if (!started.isEmpty()) {
+         try {
+            Map<Object, InternalCacheEntry> loaded = loader.loadAll(started.keySet());
+            for (Map.Entry<Object, InFlightLoad> load : started.entrySet()) {
+               load.getValue().complete(loaded.get(load.getKey()), null);
+            }
+         } catch (CacheLoaderException e) {
+            for (InFlightLoad load : started.values()) {
+               load.complete(null, e);
+            }
+            throw e;
+         } finally {
+            for (Map.Entry<Object, InFlightLoad> load : started.entrySet()) {
+               inFlightLoads.remove(load.getKey(), load.getValue());
+               // don't leave the other threads waiting if the load failed with an unchecked exception
+               load.getValue().complete(null, new CacheLoaderException("Unexpected error while loading the entries"));
+            }
+         }
+         for (Map.Entry<Object, InFlightLoad> load : started.entrySet()) {
+            recordBulkLoadedEntry(ctx, load.getKey(), load.getValue().await(load.getKey()), cmd);
+         }
+      }
+      // the loads of the other threads are awaited last, ours may be the ones they are waiting for
+      for (Map.Entry<Object, InFlightLoad> load : joined.entrySet()) {
+         if (getStatisticsEnabled()) {
+            sharedLoads.incrementAndGet();
+         }
+         recordBulkLoadedEntry(ctx, load.getKey(), load.getValue().await(load.getKey()), cmd);
+      }
+   }
+
+   private void recordBulkLoadedEntry(InvocationContext ctx, Object key, InternalCacheEntry entry, GetAllCommand cmd) throws Exception {
+      if (entry != null) {
+         recordLoadedEntry(ctx, key, entryFactory.wrapEntryForPut(ctx, key, entry, false, cmd, false), entry, cmd);
+      } else if (getStatisticsEnabled()) {
+         cacheMisses.incrementAndGet();
+      }
+   }
+
    private void loadIfNeededAndUpdateStats(InvocationContext ctx, Object key, boolean isRetrieval, FlagAffectedCommand cmd) throws Throwable {
       Boolean found = loadIfNeeded(ctx, key, isRetrieval, cmd);
       if (found == Boolean.FALSE && getStatisticsEnabled()) {
@@ -351,6 +544,16 @@ public long getCacheLoaderMisses() {
       return cacheMisses.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of reads which got their entry from a load of the same key by a concurrent read",
+         displayName = "Number of shared cache store loads",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   @SuppressWarnings("unused")
+   public long getCacheLoaderSharedLoads() {
+      return sharedLoads.get();
+   }
+
    @Override
    @ManagedOperation(
          description = "Resets statistics gathered by this component",
@@ -359,6 +562,45 @@ public long getCacheLoaderMisses() {
    public void resetStatistics() {
       cacheLoads.set(0);
       cacheMisses.set(0);
+      sharedLoads.set(0);
+      CompressingMarshaller compressingMarshaller = clm.getCompressingMarshaller();
+      if (compressingMarshaller != null) {
+         compressingMarshaller.resetStatistics();
+      }
+   }
+
+   @ManagedAttribute(
+         description = "Size of the entries written to the cache stores divided by the size they take once compressed",
+         displayName = "Cache store compression ratio",
+         displayType = DisplayType.SUMMARY
+   )
+   public double getCompressionRatio() {
+      CompressingMarshaller compressingMarshaller = clm.getCompressingMarshaller();
+      return compressingMarshaller == null ? 1 : compressingMarshaller.getCompressionRatio();
+   }
+
+   @ManagedAttribute(
+         description = "Number of milliseconds spent compressing the entries written to the cache stores",
+         displayName = "Cache store compression time",
+         units = Units.MILLISECONDS,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompressionTime() {
+      CompressingMarshaller compressingMarshaller = clm.getCompressingMarshaller();
+      return compressingMarshaller == null ? 0 :
+            TimeUnit.NANOSECONDS.toMillis(compressingMarshaller.getCompressionNanos());
+   }
+
+   @ManagedAttribute(
+         description = "Number of milliseconds spent decompressing the entries loaded from the cache stores",
+         displayName = "Cache store decompression time",
+         units = Units.MILLISECONDS,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getDecompressionTime() {
+      CompressingMarshaller compressingMarshaller = clm.getCompressingMarshaller();
+      return compressingMarshaller == null ? 0 :
+            TimeUnit.NANOSECONDS.toMillis(compressingMarshaller.getDecompressionNanos());
    }
 
    @ManagedAttribute(
@@ -405,4 +647,327 @@ public void disableInterceptor() {
       enabled = false;
    }
 
+   /**
+    * A load in progress, whose outcome is shared by all the threads which missed the same key meanwhile.
+    */
+   private static final class InFlightLoad {
+      private final CountDownLatch loaded = new CountDownLatch(1);
+      private volatile InternalCacheEntry entry;
+      private volatile CacheLoaderException failure;
+
+      void complete(InternalCacheEntry entry, CacheLoaderException failure) {
+         if (loaded.getCount() > 0) {
+            this.entry = entry;
+            this.failure = failure;
+            loaded.countDown();
+         }
+      }
+
+      InternalCacheEntry await(Object key) throws CacheLoaderException {
+         boolean interrupted = false;
+         while (loaded.getCount() > 0) {
+            try {
+               loaded.await();
+            } catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+         if (interrupted)
+            Thread.currentThread().interrupt();
+         if (failure != null)
+            throw new CacheLoaderException("Unable to load the entry of " + key, failure);
+         return entry;
+      }
+   }
+
+   /**
+    * Writes the entries waiting for asynchronous passivation, so that they are read from the cache loader too.
+    */
+   private void flushPendingPassivations() {
+      passivationManager.suspendAsyncPassivation();
+      passivationManager.resumeAsyncPassivation();
+   }
+
+   /**
+    * Counts the elements like {@link #visitSizeCommand(InvocationContext, SizeCommand)}: unless passivation is enabled,
+    * the cache loader is assumed to hold a superset of the entries in memory.
+    */
+   private int size(Collection<?> inMemory) {
+      int size;
+      passivationManager.suspendAsyncPassivation();
+      try {
+         size = loader.size();
+      } catch (CacheLoaderException e) {
+         throw new CacheException(e);
+      } finally {
+         passivationManager.resumeAsyncPassivation();
+      }
+      if (cacheConfiguration.loaders().passivation() || size == 0) {
+         size += inMemory.size();
+         if (size < 0) size = Integer.MAX_VALUE;
+      }
+      return size;
+   }
+
+   /**
+    * Stops reading the cache loader at the first entry which isn't in memory.
+    */
+   private boolean isEmpty(Collection<?> inMemory, final Set<?> keysInMemory) {
+      if (!inMemory.isEmpty()) return false;
+      flushPendingPassivations();
+      final boolean[] empty = {true};
+      try {
+         loader.process(new CacheLoaderTask() {
+            @Override
+            public boolean processEntry(InternalCacheEntry entry) {
+               if (keysInMemory.contains(entry.getKey())) return true;
+               empty[0] = false;
+               return false;
+            }
+         });
+      } catch (CacheLoaderException e) {
+         throw new CacheException(e);
+      }
+      return empty[0];
+   }
+
+   /**
+    * Iterates over the elements in memory, then over the entries of the cache loader that aren't in memory.  The entries
+    * of the cache loader are read when the elements in memory are exhausted, by a pooled thread streaming them through a
+    * bounded queue, so that the iteration doesn't hold all the keys or entries of the cache loader in memory.
+    */
+   private abstract class LoaderBackedIterator<E> implements Iterator<E> {
+      private final Iterator<E> fromMemory;
+      private LoaderStream loaderStream;
+      private E next;
+      private boolean hasNext;
+
+      LoaderBackedIterator(Collection<E> inMemory) {
+         this.fromMemory = inMemory.iterator();
+      }
+
+      abstract boolean isInMemory(Object key);
+
+      abstract E fromLoader(InternalCacheEntry entry);
+
+      @Override
+      public boolean hasNext() {
+         if (hasNext) return true;
+         if (fromMemory.hasNext()) {
+            next = fromMemory.next();
+            return hasNext = true;
+         }
+         if (loaderStream == null) {
+            flushPendingPassivations();
+            ExecutorService executor = iteratorExecutor;
+            if (executor == null) throw new IllegalStateException("The cache is stopped");
+            loaderStream = new LoaderStream(loader, this);
+            executor.execute(loaderStream);
+         }
+         InternalCacheEntry entry;
+         while ((entry = loaderStream.take()) != null) {
+            if (!isInMemory(entry.getKey())) {
+               next = fromLoader(entry);
+               return hasNext = true;
+            }
+         }
+         return false;
+      }
+
+      @Override
+      public E next() {
+         if (!hasNext()) throw new NoSuchElementException();
+         E e = next;
+         next = null;
+         hasNext = false;
+         return e;
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * Passes the entries of {@link CacheLoader#process(CacheLoaderTask)} to an iterator through a bounded queue.  The
+    * iteration of the cache loader, and the locks it may hold, end as soon as the iterator is no longer referenced, or
+    * when the cache stops.
+    */
+   private static final class LoaderStream implements CacheLoaderTask, Runnable {
+      private static final Object END = new Object();
+      private static final int CAPACITY = 128;
+      private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(CAPACITY);
+      private final CacheLoader loader;
+      private final WeakReference<Object> iterator;
+      private volatile Throwable failure;
+      private boolean ended;
+
+      LoaderStream(CacheLoader loader, Object iterator) {
+         this.loader = loader;
+         this.iterator = new WeakReference<Object>(iterator);
+      }
+
+      @Override
+      public void run() {
+         try {
+            loader.process(this);
+         } catch (Throwable t) {
+            failure = t;
+         } finally {
+            try {
+               offer(END);
+            } catch (InterruptedException e) {
+               // the cache is stopping, make room for the end of the iteration
+               if (failure == null) failure = e;
+               queue.clear();
+               queue.offer(END);
+            }
+         }
+      }
+
+      @Override
+      public boolean processEntry(InternalCacheEntry entry) throws InterruptedException {
+         return offer(entry);
+      }
+
+      /**
+       * @return false if the iterator is no longer referenced
+       */
+      private boolean offer(Object element) throws InterruptedException {
+         while (!queue.offer(element, 100, TimeUnit.MILLISECONDS)) {
+            if (iterator.get() == null) return false;
+         }
+         return true;
+      }
+
+      /**
+       * @return the next entry of the cache loader, or {@code null} if there are no more entries
+       */
+      InternalCacheEntry take() {
+         if (ended) return null;
+         Object element;
+         try {
+            element = queue.take();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Interrupted while iterating over the cache loader", e);
+         }
+         if (element == END) {
+            ended = true;
+            if (failure != null) throw new CacheException(failure);
+            return null;
+         }
+         return (InternalCacheEntry) element;
+      }
+   }
+
+   private class LoaderKeySet extends AbstractSet<Object> {
+      private final Set<Object> inMemory;
+
+      LoaderKeySet(Set<Object> inMemory) {
+         this.inMemory = inMemory;
+      }
+
+      @Override
+      public Iterator<Object> iterator() {
+         return new LoaderBackedIterator<Object>(inMemory) {
+            @Override
+            boolean isInMemory(Object key) {
+               return inMemory.contains(key);
+            }
+
+            @Override
+            Object fromLoader(InternalCacheEntry entry) {
+               return entry.getKey();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         if (inMemory.contains(o) || passivationManager.getPendingPassivation(o) != null) return true;
+         try {
+            return loader.containsKey(o);
+         } catch (CacheLoaderException e) {
+            throw new CacheException(e);
+         }
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return CacheLoaderInterceptor.this.isEmpty(inMemory, inMemory);
+      }
+
+      @Override
+      public int size() {
+         return CacheLoaderInterceptor.this.size(inMemory);
+      }
+   }
+
+   private class LoaderEntrySet extends AbstractSet<InternalCacheEntry> {
+      private final Set<InternalCacheEntry> inMemory;
+
+      LoaderEntrySet(Set<InternalCacheEntry> inMemory) {
+         this.inMemory = inMemory;
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry> iterator() {
+         return new LoaderBackedIterator<InternalCacheEntry>(inMemory) {
+            @Override
+            boolean isInMemory(Object key) {
+               return dataContainer.containsKey(key);
+            }
+
+            @Override
+            InternalCacheEntry fromLoader(InternalCacheEntry entry) {
+               return entry;
+            }
+         };
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return CacheLoaderInterceptor.this.isEmpty(inMemory, dataContainer.keySet());
+      }
+
+      @Override
+      public int size() {
+         return CacheLoaderInterceptor.this.size(inMemory);
+      }
+   }
+
+   private class LoaderValues extends AbstractCollection<Object> {
+      private final Collection<Object> inMemory;
+
+      LoaderValues(Collection<Object> inMemory) {
+         this.inMemory = inMemory;
+      }
+
+      @Override
+      public Iterator<Object> iterator() {
+         return new LoaderBackedIterator<Object>(inMemory) {
+            @Override
+            boolean isInMemory(Object key) {
+               return dataContainer.containsKey(key);
+            }
+
+            @Override
+            Object fromLoader(InternalCacheEntry entry) {
+               return entry.getValue();
+            }
+         };
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return CacheLoaderInterceptor.this.isEmpty(inMemory, dataContainer.keySet());
+      }
+
+      @Override
+      public int size() {
+         return CacheLoaderInterceptor.this.size(inMemory);
+      }
+   }
 }
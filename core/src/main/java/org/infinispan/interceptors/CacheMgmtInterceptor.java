@@ -1,7 +1,10 @@
 package org.infinispan.interceptors;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.EvictCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -10,11 +13,16 @@
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.offheap.OffHeapDataContainer;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.interceptors.base.InvocationCallback;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
@@ -22,6 +30,7 @@
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.jmx.annotations.Units;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -36,6 +45,7 @@
  * @since 4.0
  */
 @MBean(objectName = "Statistics", description = "General statistics such as timings, hit/miss ratio, etc.")
+@SupportsAsyncInvocation
 public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
    private final AtomicLong hitTimes = new AtomicLong(0);
    private final AtomicLong missTimes = new AtomicLong(0);
@@ -92,15 +102,46 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       Object retval = invokeNextInterceptor(ctx, command);
 
       if (statisticsEnabled) {
-         long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
-         if (ctx.isOriginLocal()) {
-            if (retval == null) {
-               missTimes.getAndAdd(intervalMilliseconds);
-               misses.incrementAndGet();
-            } else {
-               hitTimes.getAndAdd(intervalMilliseconds);
-               hits.incrementAndGet();
-            }
+         if (retval instanceof CompletableNotifyingFuture)
+            return thenApply(ctx, command, retval, new StatisticsCallback(start));
+         recordGet(ctx, retval, start);
+      }
+
+      return retval;
+   }
+
+   private void recordGet(InvocationContext ctx, Object retval, long start) {
+      long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+      if (ctx.isOriginLocal()) {
+         if (retval == null) {
+            missTimes.getAndAdd(intervalMilliseconds);
+            misses.incrementAndGet();
+         } else {
+            hitTimes.getAndAdd(intervalMilliseconds);
+            hits.incrementAndGet();
+         }
+      }
+   }
+
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      long start = 0;
+      boolean statisticsEnabled = getStatisticsEnabled(command);
+      if (statisticsEnabled)
+         start = timeService.time();
+
+      Map<?, ?> retval = (Map<?, ?>) invokeNextInterceptor(ctx, command);
+
+      if (statisticsEnabled && ctx.isOriginLocal()) {
+         int requests = command.getKeys().size();
+         if (requests > 0) {
+            // the time of the whole read is shared by its keys
+            long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+            int found = retval.size();
+            hitTimes.getAndAdd(intervalMilliseconds * found / requests);
+            hits.getAndAdd(found);
+            missTimes.getAndAdd(intervalMilliseconds * (requests - found) / requests);
+            misses.getAndAdd(requests - found);
          }
       }
 
@@ -139,6 +180,11 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return updateStoreStatistics(ctx, command);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      return updateStoreStatistics(ctx, command);
+   }
+
    private Object updateStoreStatistics(InvocationContext ctx, WriteCommand command) throws Throwable {
       long start = 0;
       boolean statisticsEnabled = getStatisticsEnabled(command);
@@ -147,13 +193,21 @@ private Object updateStoreStatistics(InvocationContext ctx, WriteCommand command
 
       Object retval = invokeNextInterceptor(ctx, command);
 
-      if (statisticsEnabled && ctx.isOriginLocal() && command.isSuccessful()) {
+      if (statisticsEnabled) {
+         if (retval instanceof CompletableNotifyingFuture)
+            return thenApply(ctx, command, retval, new StatisticsCallback(start));
+         recordStore(ctx, command, start);
+      }
+
+      return retval;
+   }
+
+   private void recordStore(InvocationContext ctx, WriteCommand command, long start) {
+      if (ctx.isOriginLocal() && command.isSuccessful()) {
          long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
          storeTimes.getAndAdd(intervalMilliseconds);
          stores.incrementAndGet();
       }
-
-      return retval;
    }
 
    @Override
@@ -165,7 +219,17 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
 
       Object retval = invokeNextInterceptor(ctx, command);
 
-      if (statisticsEnabled && ctx.isOriginLocal()) {
+      if (statisticsEnabled) {
+         if (retval instanceof CompletableNotifyingFuture)
+            return thenApply(ctx, command, retval, new StatisticsCallback(start));
+         recordRemove(ctx, retval, start);
+      }
+
+      return retval;
+   }
+
+   private void recordRemove(InvocationContext ctx, Object retval, long start) {
+      if (ctx.isOriginLocal()) {
          if (retval == null) {
             removeMisses.incrementAndGet();
          } else {
@@ -174,8 +238,31 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
             removeHits.incrementAndGet();
          }
       }
+   }
 
-      return retval;
+   /**
+    * Records the statistics of an asynchronous invocation once it completes.
+    */
+   private final class StatisticsCallback implements InvocationCallback {
+      private final long start;
+
+      StatisticsCallback(long start) {
+         this.start = start;
+      }
+
+      @Override
+      public Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue,
+                                   Throwable throwable) throws Throwable {
+         if (throwable != null) throw throwable;
+         if (command instanceof GetKeyValueCommand) {
+            recordGet(ctx, returnValue, start);
+         } else if (command instanceof RemoveCommand) {
+            recordRemove(ctx, returnValue, start);
+         } else {
+            recordStore(ctx, (WriteCommand) command, start);
+         }
+         return returnValue;
+      }
    }
 
    @ManagedAttribute(
@@ -317,6 +404,52 @@ public int getNumberOfEntries() {
       return dataContainer.size();
    }
 
+   @ManagedAttribute(
+         description = "Estimated number of bytes used by the entries currently in the cache, or -1 if the data container does not track memory usage",
+         displayName = "Estimated memory used by cache entries",
+         displayType = DisplayType.SUMMARY
+   )
+   public long getDataMemoryUsed() {
+      if (dataContainer instanceof DefaultDataContainer) {
+         return ((DefaultDataContainer) dataContainer).memoryUsed();
+      } else if (dataContainer instanceof SegmentedDataContainer) {
+         return ((SegmentedDataContainer) dataContainer).memoryUsed();
+      } else if (dataContainer instanceof OffHeapDataContainer) {
+         return ((OffHeapDataContainer) dataContainer).memoryUsed();
+      }
+      return -1;
+   }
+
+   @ManagedAttribute(
+         description = "Number of entries admitted by the TINY_LFU eviction strategy in place of less frequently used ones, or -1 if the strategy is not in use",
+         displayName = "Number of eviction admissions",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getEvictionAdmissions() {
+      if (dataContainer instanceof DefaultDataContainer) {
+         return ((DefaultDataContainer) dataContainer).evictionAdmissions();
+      } else if (dataContainer instanceof SegmentedDataContainer) {
+         return ((SegmentedDataContainer) dataContainer).evictionAdmissions();
+      }
+      return -1;
+   }
+
+   @ManagedAttribute(
+         description = "Number of entries rejected by the TINY_LFU eviction strategy in favour of more frequently used ones, or -1 if the strategy is not in use",
+         displayName = "Number of eviction rejections",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getEvictionRejections() {
+      if (dataContainer instanceof DefaultDataContainer) {
+         return ((DefaultDataContainer) dataContainer).evictionRejections();
+      } else if (dataContainer instanceof SegmentedDataContainer) {
+         return ((SegmentedDataContainer) dataContainer).evictionRejections();
+      }
+      return -1;
+   }
+
    @ManagedAttribute(
          description = "Number of seconds since cache started",
          displayName = "Seconds since cache started",
@@ -21,16 +21,23 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
+import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.decorators.TieredCacheStore;
+import org.infinispan.loaders.decorators.AbstractDelegatingStore;
+import org.infinispan.loaders.decorators.AsyncStore;
+import org.infinispan.loaders.decorators.ChainingCacheStore;
 import org.infinispan.loaders.manager.CacheLoaderManager;
 import org.infinispan.loaders.modifications.Clear;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.loaders.modifications.Remove;
 import org.infinispan.loaders.modifications.Store;
+import org.infinispan.loaders.spi.CacheLoader;
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
@@ -42,6 +49,7 @@
 import javax.transaction.TransactionManager;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -179,8 +187,12 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
 
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
-      if (isStoreEnabled(command) && !ctx.isInTxScope() && isProperWriterForClear(ctx))
-         clearCacheStore();
+      if (isStoreEnabled(command) && !ctx.isInTxScope()) {
+         if (isProperWriterForClear(ctx))
+            clearCacheStore();
+         else
+            skipClearCacheStore();
+      }
 
       return invokeNextInterceptor(ctx, command);
    }
@@ -190,6 +202,17 @@ protected void clearCacheStore() throws CacheLoaderException {
       if (getLog().isTraceEnabled()) getLog().trace("Cleared cache store");
    }
 
+   /**
+    * Called instead of {@link #clearCacheStore()} on the nodes which leave the clear of a shared store to another node.
+    * A tiered store still drops the copies of the shared entries held by its local tier.
+    */
+   protected void skipClearCacheStore() throws CacheLoaderException {
+      if (store instanceof TieredCacheStore) {
+         ((TieredCacheStore) store).invalidateLocalTier();
+         if (getLog().isTraceEnabled()) getLog().trace("Invalidated the local tier of the cache store");
+      }
+   }
+
    @Override
    public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
@@ -220,19 +243,41 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return returnValue;
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      Object returnValue = invokeNextInterceptor(ctx, command);
+      if (!isStoreEnabled(command) || ctx.isInTxScope() || !command.isSuccessful()) return returnValue;
+      if (!isProperWriter(ctx, command, command.getKey())) return returnValue;
+
+      Object key = command.getKey();
+      if (command.isRemoveEntry()) {
+         boolean resp = store.remove(key);
+         if (getLog().isTraceEnabled()) getLog().tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+      } else {
+         InternalCacheEntry se = getStoredEntry(key, ctx);
+         store.store(se);
+         if (getLog().isTraceEnabled()) getLog().tracef("Stored entry %s under key %s", se, key);
+         if (getStatisticsEnabled()) cacheStores.incrementAndGet();
+      }
+      return returnValue;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       Object returnValue = invokeNextInterceptor(ctx, command);
       if (!isStoreEnabled(command) || ctx.isInTxScope()) return returnValue;
 
       Map<Object, Object> map = command.getMap();
+      List<InternalCacheEntry> entries = new ArrayList<InternalCacheEntry>(map.size());
       for (Object key : map.keySet()) {
          if (isProperWriter(ctx, command, key)) {
-            InternalCacheEntry se = getStoredEntry(key, ctx);
-            store.store(se);
-            if (getLog().isTraceEnabled()) getLog().tracef("Stored entry %s under key %s", se, key);
+            entries.add(getStoredEntry(key, ctx));
          }
       }
+      if (!entries.isEmpty()) {
+         store.storeAll(entries);
+         if (getLog().isTraceEnabled()) getLog().tracef("Stored entries %s", entries);
+      }
       if (getStatisticsEnabled()) cacheStores.getAndAdd(map.size());
       return returnValue;
    }
@@ -372,10 +417,23 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
          return null;
       }
 
+      @Override
+      public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+         Object key = command.getKey();
+         if (!command.isRemoveEntry()) return visitSingleStore(ctx, command, key);
+         if (isProperWriter(ctx, command, key)) {
+            modifications.add(new Remove(key));
+            affectedKeys.add(key);
+         }
+         return null;
+      }
+
       @Override
       public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
          if (isProperWriterForClear(ctx)) {
             modifications.add(new Clear());
+         } else {
+            skipClearCacheStore();
          }
          return null;
       }
@@ -397,6 +455,8 @@ private Object visitSingleStore(InvocationContext ctx, FlagAffectedCommand comma
    )
    public void resetStatistics() {
       cacheStores.set(0);
+      for (AsyncStore asyncStore : getAsyncStores())
+         asyncStore.resetStatistics();
    }
 
    @ManagedAttribute(
@@ -408,6 +468,84 @@ public long getCacheLoaderStores() {
       return cacheStores.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of modifications waiting to be written by the async stores",
+         displayName = "Async store pending modifications",
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAsyncStorePendingModifications() {
+      long pending = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         for (int lanePending : asyncStore.getPendingModifications())
+            pending += lanePending;
+      }
+      return pending;
+   }
+
+   @ManagedAttribute(
+         description = "Highest number of modifications waiting to be written by a single lane of the async stores",
+         displayName = "Async store maximum pending modifications per lane",
+         displayType = DisplayType.SUMMARY
+   )
+   public int getAsyncStoreMaxLanePendingModifications() {
+      int max = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         for (int lanePending : asyncStore.getPendingModifications())
+            max = Math.max(max, lanePending);
+      }
+      return max;
+   }
+
+   @ManagedAttribute(
+         description = "Average time taken to write a batch of modifications by the slowest lane of the async stores",
+         displayName = "Async store maximum average flush time per lane",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAsyncStoreMaxLaneAverageFlushTime() {
+      long max = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         for (long laneTime : asyncStore.getAverageFlushTimes())
+            max = Math.max(max, laneTime);
+      }
+      return max;
+   }
+
+   @ManagedAttribute(
+         description = "Number of writes which waited for room in the modification queue of the async stores",
+         displayName = "Async store blocked writes",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAsyncStoreBlockedWrites() {
+      long blocked = 0;
+      for (AsyncStore asyncStore : getAsyncStores()) {
+         for (long laneBlocked : asyncStore.getBlockedWrites())
+            blocked += laneBlocked;
+      }
+      return blocked;
+   }
+
+   private List<AsyncStore> getAsyncStores() {
+      CacheLoader loader = loaderManager.getCacheLoader();
+      if (loader == null)
+         return Collections.emptyList();
+      Collection<? extends CacheLoader> loaders = loader instanceof ChainingCacheStore ?
+            ((ChainingCacheStore) loader).getStores().keySet() : Collections.singleton(loader);
+      List<AsyncStore> asyncStores = new ArrayList<AsyncStore>();
+      for (CacheLoader l : loaders) {
+         // the async store may be wrapped by other decorators
+         while (l instanceof AbstractDelegatingStore) {
+            if (l instanceof AsyncStore) {
+               asyncStores.add((AsyncStore) l);
+               break;
+            }
+            l = ((AbstractDelegatingStore) l).getDelegate();
+         }
+      }
+      return asyncStores;
+   }
+
    InternalCacheEntry getStoredEntry(Object key, InvocationContext ctx) {
       CacheEntry entry = ctx.lookupEntry(key);
       if (entry instanceof InternalCacheEntry) {
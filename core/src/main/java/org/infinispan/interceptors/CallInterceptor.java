@@ -3,6 +3,7 @@
 
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.control.LockControlCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
@@ -12,10 +13,13 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.Map;
+
 /**
  * Always at the end of the chain, directly in front of the cache. Simply calls into the cache using reflection. If the
  * call resulted in a modification, add the Modification to the end of the modification list keyed by the current
@@ -25,6 +29,7 @@
  * @author Mircea.Markus@jboss.com
  * @since 4.0
  */
+@SupportsAsyncInvocation
 public class CallInterceptor extends CommandInterceptor {
 
    private static final Log log = LogFactory.getLog(CallInterceptor.class);
@@ -79,6 +84,18 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return ret;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (trace) log.trace("Executing command: " + command + ".");
+      Map<?, ?> ret = (Map<?, ?>) command.perform(ctx);
+      for (Map.Entry<?, ?> e : ret.entrySet()) {
+         Object value = command.isReturnEntries() ? ((CacheEntry) e.getValue()).getValue() : e.getValue();
+         notifier.notifyCacheEntryVisited(e.getKey(), value, true, ctx, command);
+         notifier.notifyCacheEntryVisited(e.getKey(), value, false, ctx, command);
+      }
+      return ret;
+   }
+
    private void notifyCacheEntryVisit(InvocationContext ctx, GetKeyValueCommand command, Object value) {
       Object key = command.getKey();
       notifier.notifyCacheEntryVisited(key, value, true, ctx, command);
@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -20,6 +21,8 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -88,7 +91,7 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       if (!isStoreEnabled(command) || ctx.isInTxScope()) return returnValue;
 
       Map<Object, Object> map = command.getMap();
-      int count = 0;
+      List<InternalCacheEntry> entries = new ArrayList<InternalCacheEntry>(map.size());
       for (Object key : map.keySet()) {
          // In non-tx mode, a node may receive the same forwarded PutMapCommand many times - but each time
          // it must write only the keys locked on the primary owner that forwarded the command
@@ -96,13 +99,14 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
             continue;
 
          if (isProperWriter(ctx, command, key)) {
-            InternalCacheEntry se = getStoredEntry(key, ctx);
-            store.store(se);
-            log.tracef("Stored entry %s under key %s", se, key);
-            count++;
+            entries.add(getStoredEntry(key, ctx));
          }
       }
-      if (getStatisticsEnabled()) cacheStores.getAndAdd(count);
+      if (!entries.isEmpty()) {
+         store.storeAll(entries);
+         log.tracef("Stored entries %s", entries);
+      }
+      if (getStatisticsEnabled()) cacheStores.getAndAdd(entries.size());
       return returnValue;
    }
 
@@ -134,6 +138,25 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return returnValue;
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      Object returnValue = invokeNextInterceptor(ctx, command);
+      Object key = command.getKey();
+      if (!isStoreEnabled(command) || ctx.isInTxScope() || !command.isSuccessful()) return returnValue;
+      if (!isProperWriter(ctx, command, key)) return returnValue;
+
+      if (command.isRemoveEntry()) {
+         boolean resp = store.remove(key);
+         log.tracef("Removed entry under key %s and got response %s from CacheStore", key, resp);
+      } else {
+         InternalCacheEntry se = getStoredEntry(key, ctx);
+         store.store(se);
+         log.tracef("Stored entry %s under key %s", se, key);
+         if (getStatisticsEnabled()) cacheStores.incrementAndGet();
+      }
+      return returnValue;
+   }
+
    @Override
    public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand command) throws Throwable {
       if (isStoreEnabled()) {
@@ -145,8 +168,11 @@ public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand comman
 
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
-      if (isStoreEnabled(command) && !ctx.isInTxScope() && isProperWriterForClear(ctx)) {
-         clearCacheStore();
+      if (isStoreEnabled(command) && !ctx.isInTxScope()) {
+         if (isProperWriterForClear(ctx))
+            clearCacheStore();
+         else
+            skipClearCacheStore();
       }
 
       return invokeNextInterceptor(ctx, command);
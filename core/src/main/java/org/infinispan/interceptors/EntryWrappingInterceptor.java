@@ -3,10 +3,13 @@
 import org.infinispan.commands.AbstractVisitor;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.EvictCommand;
@@ -28,12 +31,15 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationCallback;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.statetransfer.StateConsumer;
 import org.infinispan.statetransfer.StateTransferLock;
 import org.infinispan.transaction.LocalTransaction;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -51,6 +57,7 @@
  * @author Pedro Ruivo
  * @since 5.1
  */
+@SupportsAsyncInvocation
 public class EntryWrappingInterceptor extends CommandInterceptor {
 
    private EntryFactory entryFactory;
@@ -65,6 +72,25 @@ public class EntryWrappingInterceptor extends CommandInterceptor {
    private static final Log log = LogFactory.getLog(EntryWrappingInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
 
+   private final InvocationCallback afterRead = new InvocationCallback() {
+      @Override
+      public Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue,
+                                   Throwable throwable) throws Throwable {
+         GetKeyValueCommand getCommand = (GetKeyValueCommand) command;
+         //needed because entries might be added in L1
+         if (!ctx.isInTxScope())
+            commitContextEntries(ctx, getCommand, null);
+         else {
+            CacheEntry entry = ctx.lookupEntry(getCommand.getKey());
+            if (entry != null) {
+               entry.setSkipRemoteGet(true);
+            }
+         }
+         if (throwable != null) throw throwable;
+         return returnValue;
+      }
+   };
+
    @Override
    protected Log getLog() {
       return log;
@@ -110,15 +136,29 @@ public Object visitCommitCommand(TxInvocationContext ctx, CommitCommand command)
    public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
       try {
          entryFactory.wrapEntryForReading(ctx, command.getKey());
+      } catch (Throwable t) {
+         return afterRead.invocationDone(ctx, command, null, t);
+      }
+      return invokeNextInterceptorAndThen(ctx, command, afterRead);
+   }
+
+   @Override
+   public final Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         for (Object key : command.getKeys()) {
+            entryFactory.wrapEntryForReading(ctx, key);
+         }
          return invokeNextInterceptor(ctx, command);
       } finally {
          //needed because entries might be added in L1
          if (!ctx.isInTxScope())
             commitContextEntries(ctx, command, null);
          else {
-            CacheEntry entry = ctx.lookupEntry(command.getKey());
-            if (entry != null) {
-               entry.setSkipRemoteGet(true);
+            for (Object key : command.getKeys()) {
+               CacheEntry entry = ctx.lookupEntry(key);
+               if (entry != null) {
+                  entry.setSkipRemoteGet(true);
+               }
             }
          }
       }
@@ -211,6 +251,15 @@ public final Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand co
       return setSkipRemoteGetsAndInvokeNextForDataCommand(ctx, command, command.getMetadata());
    }
 
+   @Override
+   public final Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      if (shouldWrap(command.getKey(), ctx, command)) {
+         // the function may create the entry, but must see it as removed if it was removed in the context
+         entryFactory.wrapEntryForPut(ctx, command.getKey(), null, false, command, false);
+      }
+      return setSkipRemoteGetsAndInvokeNextForDataCommand(ctx, command, command.getMetadata());
+   }
+
    private void wrapEntryForReplaceIfNeeded(InvocationContext ctx, ReplaceCommand command) throws InterruptedException {
       if (shouldWrap(command.getKey(), ctx, command)) {
          entryFactory.wrapEntryForReplace(ctx, command);
@@ -290,7 +339,13 @@ protected void commitContextEntry(CacheEntry entry, InvocationContext ctx,
 
    private Object invokeNextAndApplyChanges(InvocationContext ctx, FlagAffectedCommand command, Metadata metadata) throws Throwable {
       final Object result = invokeNextInterceptor(ctx, command);
+      if (result instanceof CompletableNotifyingFuture) {
+         return thenApply(ctx, command, result, new ApplyChangesCallback(metadata));
+      }
+      return applyChanges(ctx, command, metadata, result);
+   }
 
+   private Object applyChanges(InvocationContext ctx, FlagAffectedCommand command, Metadata metadata, Object result) {
       if (!ctx.isInTxScope()) {
          stateTransferLock.acquireSharedTopologyLock();
          try {
@@ -327,6 +382,24 @@ private Object invokeNextAndApplyChanges(InvocationContext ctx, FlagAffectedComm
       return result;
    }
 
+   /**
+    * Applies the changes of an asynchronous invocation once it completes.
+    */
+   private final class ApplyChangesCallback implements InvocationCallback {
+      private final Metadata metadata;
+
+      ApplyChangesCallback(Metadata metadata) {
+         this.metadata = metadata;
+      }
+
+      @Override
+      public Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue,
+                                   Throwable throwable) throws Throwable {
+         if (throwable != null) throw throwable;
+         return applyChanges(ctx, (FlagAffectedCommand) command, metadata, returnValue);
+      }
+   }
+
    /**
     * Locks the value for the keys accessed by the command to avoid being override from a remote get.
     */
@@ -449,6 +522,15 @@ public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand
          return null;
       }
 
+      @Override
+      public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+         if (cdl.localNodeIsOwner(command.getKey())) {
+            entryFactory.wrapEntryForPut(ctx, command.getKey(), null, false, command, false);
+            invokeNextInterceptor(ctx, command);
+         }
+         return null;
+      }
+
       @Override
       public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand command) throws Throwable {
          if (cdl.localNodeIsOwner(command.getKey())) {
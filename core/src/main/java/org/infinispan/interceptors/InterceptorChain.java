@@ -1,6 +1,10 @@
 package org.infinispan.interceptors;
 
+import org.infinispan.commands.AbstractVisitor;
 import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.ReflectionUtil;
@@ -13,13 +17,22 @@
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -34,11 +47,34 @@ public class InterceptorChain {
 
    private static final Log log = LogFactory.getLog(InterceptorChain.class);
 
+   private static final Map<Class<? extends VisitableCommand>, List<Method>> VISIT_METHODS = findVisitMethods();
+
    /**
     * reference to the first interceptor in the chain
     */
    private volatile CommandInterceptor firstInChain;
 
+   /**
+    * whether all the interceptors support asynchronous invocations, computed lazily after each change of the chain
+    */
+   private volatile Boolean asyncInvocationSupported;
+
+   /**
+    * the first interceptor handling each type of command, see {@link #asList(Class)}
+    */
+   private volatile Map<Class<? extends VisitableCommand>, CommandInterceptor> firstByCommand;
+
+   /**
+    * whether the commands skip the interceptors which don't handle them, see {@link #setPipelinesEnabled(boolean)}
+    */
+   private volatile boolean pipelinesEnabled = true;
+
+   /**
+    * the command types handled by each type of interceptor
+    */
+   private final ConcurrentMap<Class<? extends CommandInterceptor>, Set<Class<? extends VisitableCommand>>> handledCommands =
+         new ConcurrentHashMap<Class<? extends CommandInterceptor>, Set<Class<? extends VisitableCommand>>>();
+
    final ReentrantLock lock = new ReentrantLock();
    final ComponentMetadataRepo componentMetadataRepo;
 
@@ -107,6 +143,7 @@ public void addInterceptor(CommandInterceptor interceptor, int position) {
          }
          throw new IllegalArgumentException("Invalid index: " + index + " !");
       } finally {
+         chainChanged();
          lock.unlock();
       }
    }
@@ -138,6 +175,7 @@ public void removeInterceptor(int position) {
          }
          throw new IllegalArgumentException("Invalid position: " + position + " !");
       } finally {
+         chainChanged();
          lock.unlock();
       }
    }
@@ -194,6 +232,7 @@ public void removeInterceptor(Class<? extends CommandInterceptor> clazz) {
             it = it.getNext();
          }
       } finally {
+         chainChanged();
          lock.unlock();
       }
    }
@@ -225,6 +264,7 @@ public boolean addInterceptorAfter(CommandInterceptor toAdd, Class<? extends Com
          }
          return false;
       } finally {
+         chainChanged();
          lock.unlock();
       }
    }
@@ -258,6 +298,7 @@ public boolean addInterceptorBefore(CommandInterceptor toAdd, Class<? extends Co
          }
          return false;
       } finally {
+         chainChanged();
          lock.unlock();
       }
    }
@@ -296,6 +337,7 @@ public boolean replaceInterceptor(CommandInterceptor replacingInterceptor, Class
          }
          return false;
       } finally {
+         chainChanged();
          lock.unlock();
       }
    }
@@ -311,6 +353,7 @@ public void appendInterceptor(CommandInterceptor ci, boolean isCustom) {
       it.setNext(ci);
       // make sure we nullify the "next" pointer in the last interceptors.
       ci.setNext(null);
+      chainChanged();
    }
 
    /**
@@ -318,7 +361,7 @@ public void appendInterceptor(CommandInterceptor ci, boolean isCustom) {
     */
    public Object invoke(InvocationContext ctx, VisitableCommand command) {
       try {
-         return command.acceptVisitor(ctx, firstInChain);
+         return command.acceptVisitor(ctx, getFirstInChain(command.getClass()));
       } catch (CacheException e) {
          if (e.getCause() instanceof InterruptedException)
             Thread.currentThread().interrupt();
@@ -330,6 +373,180 @@ public Object invoke(InvocationContext ctx, VisitableCommand command) {
       }
    }
 
+   /**
+    * Walks the command through the interceptor chain without waiting for the remote invocations it needs.  The
+    * interceptors that would block the calling thread waiting for a response return a future instead, and the rest of
+    * the chain completes when the response is received.  See {@link SupportsAsyncInvocation} for the contract of the
+    * interceptors.
+    * <p/>
+    * Only the non-transactional invocations of single key commands, i.e. {@link GetKeyValueCommand}s and {@link
+    * DataWriteCommand}s, are asynchronous, and only if {@link #isAsyncInvocationSupported()}.  Otherwise the command is
+    * invoked synchronously and the returned future is already completed.
+    *
+    * @return a future of the return value of the invocation
+    */
+   @SuppressWarnings("unchecked")
+   public CompletableNotifyingFuture<Object> invokeAsync(InvocationContext ctx, VisitableCommand command) {
+      Object retval;
+      try {
+         boolean singleKey = command instanceof GetKeyValueCommand || command instanceof DataWriteCommand;
+         ctx.setUseFutureReturnType(singleKey && !ctx.isInTxScope() && isAsyncInvocationSupported());
+         retval = command.acceptVisitor(ctx, getFirstInChain(command.getClass()));
+      } catch (Throwable t) {
+         CompletableNotifyingFuture<Object> future = new CompletableNotifyingFuture<Object>();
+         future.completeExceptionally(t instanceof RuntimeException || t instanceof Error ? t : new CacheException(t));
+         return future;
+      }
+      if (retval instanceof CompletableNotifyingFuture) {
+         return (CompletableNotifyingFuture<Object>) retval;
+      }
+      CompletableNotifyingFuture<Object> future = new CompletableNotifyingFuture<Object>();
+      future.complete(retval);
+      return future;
+   }
+
+   private void chainChanged() {
+      asyncInvocationSupported = null;
+      buildPipelines();
+   }
+
+   /**
+    * Computes, for each interceptor and each type of command, the next interceptor that handles the command.  The
+    * interceptors which would only pass a command to the next interceptor are skipped, saving a virtual call per
+    * interceptor on every invocation.  Command types that aren't visited by a specific {@link
+    * org.infinispan.commands.Visitor} method go through the whole chain.
+    */
+   private void buildPipelines() {
+      List<CommandInterceptor> interceptors = new ArrayList<CommandInterceptor>(asList());
+      if (!pipelinesEnabled) {
+         for (CommandInterceptor interceptor : interceptors) {
+            interceptor.setNextByCommand(null);
+         }
+         firstByCommand = null;
+         return;
+      }
+      int size = interceptors.size();
+      List<Map<Class<? extends VisitableCommand>, CommandInterceptor>> nextByCommand =
+            new ArrayList<Map<Class<? extends VisitableCommand>, CommandInterceptor>>(size);
+      for (int i = 0; i < size; i++) {
+         nextByCommand.add(new HashMap<Class<? extends VisitableCommand>, CommandInterceptor>());
+      }
+      Map<Class<? extends VisitableCommand>, CommandInterceptor> first =
+            new HashMap<Class<? extends VisitableCommand>, CommandInterceptor>();
+      for (Class<? extends VisitableCommand> commandType : VISIT_METHODS.keySet()) {
+         // walk the chain backwards, the last interceptor is always invoked
+         CommandInterceptor following = null;
+         for (int i = size - 1; i >= 0; i--) {
+            CommandInterceptor interceptor = interceptors.get(i);
+            if (following != null) nextByCommand.get(i).put(commandType, following);
+            if (following == null || getHandledCommands(interceptor.getClass()).contains(commandType))
+               following = interceptor;
+         }
+         if (following != null) first.put(commandType, following);
+      }
+      for (int i = 0; i < size; i++) {
+         interceptors.get(i).setNextByCommand(nextByCommand.get(i));
+      }
+      firstByCommand = first;
+   }
+
+   private Set<Class<? extends VisitableCommand>> getHandledCommands(Class<? extends CommandInterceptor> interceptorType) {
+      Set<Class<? extends VisitableCommand>> handled = handledCommands.get(interceptorType);
+      if (handled == null) {
+         handled = findHandledCommands(interceptorType);
+         handledCommands.put(interceptorType, handled);
+         if (log.isTraceEnabled()) log.tracef("Interceptor %s handles %s", interceptorType.getName(), handled);
+      }
+      return handled;
+   }
+
+   private static Set<Class<? extends VisitableCommand>> findHandledCommands(Class<? extends CommandInterceptor> interceptorType) {
+      boolean overridesDefault = isOverridden(findHandleDefault(interceptorType));
+      Set<Class<? extends VisitableCommand>> handled = new HashSet<Class<? extends VisitableCommand>>();
+      for (Map.Entry<Class<? extends VisitableCommand>, List<Method>> e : VISIT_METHODS.entrySet()) {
+         if (overridesDefault) {
+            handled.add(e.getKey());
+            continue;
+         }
+         for (Method visitMethod : e.getValue()) {
+            try {
+               if (isOverridden(interceptorType.getMethod(visitMethod.getName(), visitMethod.getParameterTypes()))) {
+                  handled.add(e.getKey());
+                  break;
+               }
+            } catch (NoSuchMethodException nsme) {
+               throw new IllegalStateException(nsme);
+            }
+         }
+      }
+      return handled;
+   }
+
+   private static Method findHandleDefault(Class<?> interceptorType) {
+      for (Class<?> c = interceptorType; c != null; c = c.getSuperclass()) {
+         try {
+            return c.getDeclaredMethod("handleDefault", InvocationContext.class, VisitableCommand.class);
+         } catch (NoSuchMethodException e) {
+            // look in the superclass
+         }
+      }
+      throw new IllegalStateException("No handleDefault method in " + interceptorType);
+   }
+
+   /**
+    * The base classes only pass the command to the next interceptor.
+    */
+   private static boolean isOverridden(Method method) {
+      Class<?> declaringClass = method.getDeclaringClass();
+      return declaringClass != CommandInterceptor.class && declaringClass != AbstractVisitor.class;
+   }
+
+   /**
+    * Maps each command type to the {@link Visitor} methods which may be invoked when visiting it, e.g. {@link
+    * org.infinispan.commands.write.InvalidateL1Command} to both {@link Visitor#visitInvalidateL1Command} and {@link
+    * Visitor#visitInvalidateCommand} because the former defaults to the latter.
+    */
+   @SuppressWarnings("unchecked")
+   private static Map<Class<? extends VisitableCommand>, List<Method>> findVisitMethods() {
+      List<Class<? extends VisitableCommand>> commandTypes = new ArrayList<Class<? extends VisitableCommand>>();
+      for (Method m : Visitor.class.getMethods()) {
+         Class<?> commandType = m.getParameterTypes()[1];
+         if (commandType != VisitableCommand.class) commandTypes.add((Class<? extends VisitableCommand>) commandType);
+      }
+      Map<Class<? extends VisitableCommand>, List<Method>> visitMethods = new HashMap<Class<? extends VisitableCommand>, List<Method>>();
+      for (Class<? extends VisitableCommand> commandType : commandTypes) {
+         List<Method> methods = new ArrayList<Method>(2);
+         for (Method m : Visitor.class.getMethods()) {
+            if (m.getParameterTypes()[1] != VisitableCommand.class && m.getParameterTypes()[1].isAssignableFrom(commandType))
+               methods.add(m);
+         }
+         visitMethods.put(commandType, methods);
+      }
+      return visitMethods;
+   }
+
+   /**
+    * @return {@code true} if all the interceptors in the chain are annotated with {@link SupportsAsyncInvocation}, so
+    *         that {@link #invokeAsync(InvocationContext, VisitableCommand)} doesn't block the calling thread.
+    */
+   public boolean isAsyncInvocationSupported() {
+      Boolean supported = asyncInvocationSupported;
+      if (supported == null) {
+         supported = true;
+         CommandInterceptor it = firstInChain;
+         while (it != null) {
+            if (!it.getClass().isAnnotationPresent(SupportsAsyncInvocation.class)) {
+               if (log.isTraceEnabled()) log.tracef("Interceptor %s doesn't support asynchronous invocations", it);
+               supported = false;
+               break;
+            }
+            it = it.getNext();
+         }
+         asyncInvocationSupported = supported;
+      }
+      return supported;
+   }
+
    /**
     * @return the first interceptor in the chain.
     */
@@ -338,6 +555,33 @@ public CommandInterceptor getFirstInChain() {
       return firstInChain;
    }
 
+   /**
+    * @return the first interceptor in the chain that handles commands of the given type.
+    */
+   public CommandInterceptor getFirstInChain(Class<? extends VisitableCommand> commandType) {
+      Map<Class<? extends VisitableCommand>, CommandInterceptor> pipelines = firstByCommand;
+      if (pipelines != null) {
+         CommandInterceptor first = pipelines.get(commandType);
+         if (first != null) return first;
+      }
+      return firstInChain;
+   }
+
+   /**
+    * Returns an unmodifiable list with the interceptors that a command of the given type goes through, i.e. the ones
+    * overriding either its visit method or {@link CommandInterceptor#handleDefault(InvocationContext,
+    * VisitableCommand)}, and the last interceptor of the chain.
+    */
+   public List<CommandInterceptor> asList(Class<? extends VisitableCommand> commandType) {
+      List<CommandInterceptor> retval = new LinkedList<CommandInterceptor>();
+      CommandInterceptor it = getFirstInChain(commandType);
+      while (it != null) {
+         retval.add(it);
+         it = it.getNext(commandType);
+      }
+      return Collections.unmodifiableList(retval);
+   }
+
    /**
     * Mainly used by unit tests to replace the interceptor chain with the starting point passed in.
     *
@@ -345,6 +589,24 @@ public CommandInterceptor getFirstInChain() {
     */
    public void setFirstInChain(CommandInterceptor interceptor) {
       this.firstInChain = interceptor;
+      chainChanged();
+   }
+
+   /**
+    * Only used by tests, to compare the pipelines with the whole chain.  When disabled, every command goes through every
+    * interceptor of the chain, as if no interceptor could be skipped.
+    *
+    * @param enabled whether the commands skip the interceptors which don't handle them, the default
+    */
+   void setPipelinesEnabled(boolean enabled) {
+      final ReentrantLock lock = this.lock;
+      lock.lock();
+      try {
+         pipelinesEnabled = enabled;
+         buildPipelines();
+      } finally {
+         lock.unlock();
+      }
    }
 
    /**
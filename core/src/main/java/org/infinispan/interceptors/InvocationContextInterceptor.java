@@ -15,6 +15,8 @@
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationCallback;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.manager.CacheContainer;
 import org.infinispan.transaction.TransactionTable;
@@ -31,6 +33,7 @@
  * @author Mircea.Markus@jboss.com
  * @author Galder Zamarreño
  */
+@SupportsAsyncInvocation
 public class InvocationContextInterceptor extends CommandInterceptor {
 
    private TransactionManager tm;
@@ -42,6 +45,18 @@ public class InvocationContextInterceptor extends CommandInterceptor {
    private static final boolean trace = log.isTraceEnabled();
    private volatile boolean shuttingDown = false;
 
+   /**
+    * Handles the exceptions of both synchronous and asynchronous invocations.
+    */
+   private final InvocationCallback exceptionHandler = new InvocationCallback() {
+      @Override
+      public Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue,
+                                   Throwable throwable) throws Throwable {
+         if (throwable == null) return returnValue;
+         return handleException(ctx, command, throwable);
+      }
+   };
+
    @Override
    protected Log getLog() {
       return log;
@@ -102,37 +117,7 @@ private Object handleAll(InvocationContext ctx, VisitableCommand command) throws
             if (trace) log.tracef("Invoked with command %s and InvocationContext [%s]", command, ctx);
             if (ctx == null) throw new IllegalStateException("Null context not allowed!!");
 
-            try {
-               return invokeNextInterceptor(ctx, command);
-            } catch (InvalidCacheUsageException ex) {
-               throw ex; // Propagate back client usage errors regardless of flag
-            } catch (Throwable th) {
-               // Only check for fail silently if there's a failure :)
-               boolean suppressExceptions = (command instanceof FlagAffectedCommand)
-                     && ((FlagAffectedCommand) command).hasFlag(Flag.FAIL_SILENTLY);
-               // If we are shutting down there is every possibility that the invocation fails.
-               suppressExceptions = suppressExceptions || shuttingDown;
-               if (suppressExceptions) {
-                  if (shuttingDown)
-                     log.trace("Exception while executing code, but we're shutting down so failing silently.");
-                  else
-                     log.trace("Exception while executing code, failing silently...", th);
-                  return null;
-               } else {
-                  if (th instanceof WriteSkewException) {
-                     // We log this as DEBUG rather than ERROR - see ISPN-2076
-                     log.debug("Exception executing call", th);
-                  } else {
-                     log.executionError(th);
-                  }
-                  if (ctx.isInTxScope() && ctx.isOriginLocal()) {
-                     if (trace) log.trace("Transaction marked for rollback as exception was received.");
-                     markTxForRollbackAndRethrow(ctx, th);
-                     throw new IllegalStateException("This should not be reached");
-                  }
-                  throw th;
-               }
-            }
+            return invokeNextInterceptorAndThen(ctx, command, exceptionHandler);
          } finally {
             LogFactory.popNDC(trace);
          }
@@ -141,6 +126,37 @@ private Object handleAll(InvocationContext ctx, VisitableCommand command) throws
       }
    }
 
+   private Object handleException(InvocationContext ctx, VisitableCommand command, Throwable th) throws Throwable {
+      if (th instanceof InvalidCacheUsageException) {
+         throw th; // Propagate back client usage errors regardless of flag
+      }
+      // Only check for fail silently if there's a failure :)
+      boolean suppressExceptions = (command instanceof FlagAffectedCommand)
+            && ((FlagAffectedCommand) command).hasFlag(Flag.FAIL_SILENTLY);
+      // If we are shutting down there is every possibility that the invocation fails.
+      suppressExceptions = suppressExceptions || shuttingDown;
+      if (suppressExceptions) {
+         if (shuttingDown)
+            log.trace("Exception while executing code, but we're shutting down so failing silently.");
+         else
+            log.trace("Exception while executing code, failing silently...", th);
+         return null;
+      } else {
+         if (th instanceof WriteSkewException) {
+            // We log this as DEBUG rather than ERROR - see ISPN-2076
+            log.debug("Exception executing call", th);
+         } else {
+            log.executionError(th);
+         }
+         if (ctx.isInTxScope() && ctx.isOriginLocal()) {
+            if (trace) log.trace("Transaction marked for rollback as exception was received.");
+            markTxForRollbackAndRethrow(ctx, th);
+            throw new IllegalStateException("This should not be reached");
+         }
+         throw th;
+      }
+   }
+
    private String getCacheNamePrefix() {
       String cacheName = componentRegistry.getCacheName();
       String prefix = "Cache '" + cacheName + "'";
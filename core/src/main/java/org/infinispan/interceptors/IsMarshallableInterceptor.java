@@ -2,7 +2,9 @@
 
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.control.LockControlCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
@@ -74,6 +76,15 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return super.visitGetKeyValueCommand(ctx, command);
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      for (Object key : command.getKeys()) {
+         if (isStoreAsBinary() || getMightGoRemote(ctx, key, command))
+            checkMarshallable(key);
+      }
+      return super.visitGetAllCommand(ctx, command);
+   }
+
    @Override
    public Object visitLockControlCommand(TxInvocationContext ctx, LockControlCommand command) throws Throwable {
       if (isStoreAsBinary() || isClusterInvocation(ctx, command))
@@ -109,6 +120,13 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return super.visitReplaceCommand(ctx, command);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      if (isStoreAsBinary() || isClusterInvocation(ctx, command) || isStoreInvocation(command))
+         checkMarshallable(command.getKey(), command.getFunction());
+      return super.visitApplyFunctionCommand(ctx, command);
+   }
+
    private boolean isClusterInvocation(InvocationContext ctx, FlagAffectedCommand command) {
       // If the cache is local, the interceptor should only be enabled in case
       // of lazy deserialization or when an async store is in place. So, if
@@ -0,0 +1,139 @@
+package org.infinispan.interceptors;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the keys requested by concurrent threads from a cache loader with bulk loads, so that a burst of misses costs a
+ * few round trips to the store instead of one per key.
+ * <p/>
+ * A miss while no bulk load is in progress is loaded right away.  Otherwise the first thread requesting a key becomes
+ * the leader of the next bulk load: it waits up to the coalescing window for more keys, and loads all the keys
+ * requested meanwhile with a single {@link CacheLoader#loadAll(Set)}, without waiting for the bulk loads already in
+ * progress.  The other threads wait for the bulk load including their key.
+ *
+ * @since 6.0
+ */
+final class LoadCoalescer {
+
+   private static final Log log = LogFactory.getLog(LoadCoalescer.class);
+
+   private final CacheLoader loader;
+   private final long windowNanos;
+   private final Equivalence<Object> keyEquivalence;
+
+   // guarded by this
+   private Batch pending;
+   private int loading;
+
+   LoadCoalescer(CacheLoader loader, long window, TimeUnit unit, Equivalence<Object> keyEquivalence) {
+      this.loader = loader;
+      this.windowNanos = unit.toNanos(window);
+      this.keyEquivalence = keyEquivalence;
+   }
+
+   /**
+    * Loads a key as part of a bulk load.
+    *
+    * @return the entry of the key, or null if it isn't found by the loader
+    */
+   InternalCacheEntry load(Object key) throws CacheLoaderException {
+      Batch batch;
+      boolean leader;
+      boolean alone = false;
+      synchronized (this) {
+         leader = pending == null;
+         if (leader) {
+            pending = new Batch(keyEquivalence);
+            alone = loading == 0;
+         }
+         batch = pending;
+         batch.keys.add(key);
+      }
+      if (leader) {
+         loadBatch(batch, alone);
+      }
+      return batch.await(key);
+   }
+
+   private void loadBatch(Batch batch, boolean alone) {
+      boolean interrupted = false;
+      if (!alone) {
+         // the batch has to be loaded even if interrupted, the other threads are waiting for it
+         long deadline = System.nanoTime() + windowNanos;
+         long remaining;
+         while ((remaining = deadline - System.nanoTime()) > 0) {
+            try {
+               TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+      }
+      synchronized (this) {
+         pending = null;
+         loading++;
+      }
+      try {
+         if (log.isTraceEnabled())
+            log.tracef("Loading %d keys with a single bulk load", batch.keys.size());
+         Map<Object, InternalCacheEntry> entries = CollectionFactory.makeMap(
+               loader.loadAll(batch.keys), keyEquivalence, AnyEquivalence.<InternalCacheEntry>getInstance());
+         batch.complete(entries, null);
+      } catch (CacheLoaderException e) {
+         batch.complete(null, e);
+      } catch (Throwable t) {
+         batch.complete(null, new CacheLoaderException(t));
+      } finally {
+         synchronized (this) {
+            loading--;
+         }
+         if (interrupted)
+            Thread.currentThread().interrupt();
+      }
+   }
+
+   private static final class Batch {
+      final Set<Object> keys;
+      final CountDownLatch loaded = new CountDownLatch(1);
+      volatile Map<Object, InternalCacheEntry> entries;
+      volatile CacheLoaderException failure;
+
+      Batch(Equivalence<Object> keyEquivalence) {
+         keys = CollectionFactory.makeSet(keyEquivalence);
+      }
+
+      void complete(Map<Object, InternalCacheEntry> entries, CacheLoaderException failure) {
+         this.entries = entries;
+         this.failure = failure;
+         loaded.countDown();
+      }
+
+      InternalCacheEntry await(Object key) throws CacheLoaderException {
+         boolean interrupted = false;
+         while (loaded.getCount() > 0) {
+            try {
+               loaded.await();
+            } catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+         if (interrupted)
+            Thread.currentThread().interrupt();
+         if (failure != null)
+            throw new CacheLoaderException("Unable to load the entries of " + keys.size() + " keys", failure);
+         return entries.get(key);
+      }
+   }
+}
@@ -2,9 +2,11 @@
 
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -169,6 +171,44 @@ public Object visitEvictCommand(InvocationContext ctx, org.infinispan.commands.w
       return processRetVal(retVal, ctx);
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (!wrapKeys) return processRetVals((Map<Object, Object>) invokeNextInterceptor(ctx, command), ctx);
+
+      Map<Object, Object> marshalledKeys = new HashMap<Object, Object>(command.getKeys().size());
+      for (Object key : command.getKeys()) {
+         if (isTypeExcluded(key.getClass())) {
+            marshalledKeys.put(key, key);
+         } else {
+            MarshalledValue mv = createMarshalledValue(key, ctx);
+            compact(mv);
+            marshalledKeys.put(mv, key);
+         }
+      }
+      command.setKeys(marshalledKeys.keySet());
+      Map<Object, Object> retVal = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      for (Object key : marshalledKeys.keySet()) {
+         if (key instanceof MarshalledValue) compact((MarshalledValue) key);
+      }
+      // the node which asked for the entries unwraps them
+      if (!ctx.isOriginLocal()) return retVal;
+
+      Map<Object, Object> unwrapped = new HashMap<Object, Object>(retVal.size());
+      for (Map.Entry<Object, Object> entry : retVal.entrySet()) {
+         unwrapped.put(marshalledKeys.get(entry.getKey()), processRetVal(entry.getValue(), ctx));
+      }
+      return unwrapped;
+   }
+
+   private Map<Object, Object> processRetVals(Map<Object, Object> retVal, InvocationContext ctx) {
+      if (!ctx.isOriginLocal()) return retVal;
+      for (Map.Entry<Object, Object> entry : retVal.entrySet()) {
+         entry.setValue(processRetVal(entry.getValue(), ctx));
+      }
+      return retVal;
+   }
+
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
       MarshalledValue mv = null;
@@ -262,6 +302,27 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return processRetVal(retVal, ctx);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      MarshalledValue key = null;
+      if (wrapKeys && !isTypeExcluded(command.getKey().getClass())) {
+         key = createMarshalledValue(command.getKey(), ctx);
+         command.setKey(key);
+      }
+      // the new value is only known once the function has been applied, on the primary owner
+      ApplyFunctionCommand.ValueConverter previousConverter = command.getValueConverter();
+      if (wrapValues) command.setValueConverter(new FunctionValueConverter(previousConverter, ctx));
+      Object retVal;
+      try {
+         retVal = invokeNextInterceptor(ctx, command);
+      } finally {
+         command.setValueConverter(previousConverter);
+      }
+      compact(key);
+      if (command.getNewValue() instanceof MarshalledValue) compact((MarshalledValue) command.getNewValue());
+      return processRetVal(retVal, ctx);
+   }
+
    @Override
    public Object visitInvalidateCommand(InvocationContext ctx, InvalidateCommand command) throws Throwable {
       // If origin is remote, set equality preference for raw so that deserialization is avoided
@@ -331,4 +392,34 @@ protected Map<Object, Object> wrapMap(Map<Object, Object> m, Set<MarshalledValue
    protected MarshalledValue createMarshalledValue(Object toWrap, InvocationContext ctx) {
       return new MarshalledValue(toWrap, ctx.isOriginLocal(), marshaller);
    }
+
+   /**
+    * Wraps the value set by the function of an {@link ApplyFunctionCommand}, and unwraps the value it reads.
+    */
+   private final class FunctionValueConverter implements ApplyFunctionCommand.ValueConverter {
+      private final ApplyFunctionCommand.ValueConverter outerConverter;
+      private final InvocationContext ctx;
+
+      FunctionValueConverter(ApplyFunctionCommand.ValueConverter outerConverter, InvocationContext ctx) {
+         this.outerConverter = outerConverter;
+         this.ctx = ctx;
+      }
+
+      @Override
+      public Object boxValue(Object value) {
+         Object boxed = outerConverter != null ? outerConverter.boxValue(value) : value;
+         return isTypeExcluded(boxed.getClass()) ? boxed : createMarshalledValue(boxed, ctx);
+      }
+
+      @Override
+      public Object unboxValue(Object stored) {
+         Object value = stored;
+         if (stored instanceof MarshalledValue) {
+            value = ((MarshalledValue) stored).get();
+            // with defensive copies, the stored value drops the instance given to the function
+            compact((MarshalledValue) stored);
+         }
+         return outerConverter != null ? outerConverter.unboxValue(value) : value;
+      }
+   }
 }
@@ -7,6 +7,7 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -16,6 +17,7 @@
  * @author <a href="mailto:manik@jboss.org">Manik Surtani</a>
  * @since 4.0
  */
+@SupportsAsyncInvocation
 public class NotificationInterceptor extends CommandInterceptor {
    private CacheNotifier notifier;
 
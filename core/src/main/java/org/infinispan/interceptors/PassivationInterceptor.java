@@ -60,4 +60,12 @@ public String getPassivations() {
       if (!getStatisticsEnabled()) return "N/A";
       return String.valueOf(passivator.getPassivationCount());
    }
+
+   @ManagedAttribute(
+         description = "Number of evicted entries waiting to be passivated",
+         displayName = "Number of pending passivations"
+   )
+   public int getPendingPassivations() {
+      return passivator.getPendingPassivationCount();
+   }
 }
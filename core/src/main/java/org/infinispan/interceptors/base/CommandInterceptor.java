@@ -15,9 +15,15 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.InterceptorChain;
 import org.infinispan.remoting.InboundInvocationHandler;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 /**
  * This is the base class for all interceptors to extend, and implements the {@link Visitor} interface allowing it to
  * intercept invocations on {@link VisitableCommand}s.
@@ -47,6 +53,11 @@ public abstract class CommandInterceptor extends AbstractVisitor {
 
    private CommandInterceptor next;
 
+   /**
+    * the next interceptor which handles each type of command, as computed by the {@link InterceptorChain}
+    */
+   private volatile Map<Class<? extends VisitableCommand>, CommandInterceptor> nextByCommand;
+
    protected Configuration cacheConfiguration;
 
    private static final Log log = LogFactory.getLog(CommandInterceptor.class);
@@ -69,6 +80,21 @@ public final CommandInterceptor getNext() {
       return next;
    }
 
+   /**
+    * Retrieves the next interceptor in the chain that handles commands of the given type, skipping the interceptors
+    * which would only pass them up the chain.
+    *
+    * @return the next interceptor handling the command type, or {@link #getNext()} if the type isn't known
+    */
+   public final CommandInterceptor getNext(Class<? extends VisitableCommand> commandType) {
+      Map<Class<? extends VisitableCommand>, CommandInterceptor> pipeline = nextByCommand;
+      if (pipeline != null) {
+         CommandInterceptor nextForCommand = pipeline.get(commandType);
+         if (nextForCommand != null) return nextForCommand;
+      }
+      return next;
+   }
+
    /**
     * @return true if there is another interceptor in the chain after this; false otherwise.
     */
@@ -83,11 +109,23 @@ public final boolean hasNext() {
     */
    public final void setNext(CommandInterceptor next) {
       this.next = next;
+      this.nextByCommand = null;
+   }
+
+   /**
+    * Sets the next interceptor in the chain for each type of command.  Called by the {@link InterceptorChain} each time
+    * the chain changes, after {@link #setNext(CommandInterceptor)}.
+    *
+    * @param nextByCommand the next interceptor handling each type of command
+    */
+   public final void setNextByCommand(Map<Class<? extends VisitableCommand>, CommandInterceptor> nextByCommand) {
+      this.nextByCommand = nextByCommand;
    }
 
    /**
     * Invokes the next interceptor in the chain.  This is how interceptor implementations should pass a call up the
-    * chain to the next interceptor.
+    * chain to the next interceptor.  The interceptors which override neither the visit method of the command nor
+    * {@link #handleDefault(InvocationContext, VisitableCommand)} are skipped.
     *
     * @param ctx     invocation context
     * @param command command to pass up the chain.
@@ -95,7 +133,90 @@ public final void setNext(CommandInterceptor next) {
     * @throws Throwable in the event of problems
     */
    public final Object invokeNextInterceptor(InvocationContext ctx, VisitableCommand command) throws Throwable {
-      return command.acceptVisitor(ctx, next);
+      return command.acceptVisitor(ctx, getNext(command.getClass()));
+   }
+
+   /**
+    * Invokes the next interceptor in the chain and passes its return value, or the exception it threw, to the given
+    * callback.  If the next interceptor returned a {@link CompletableNotifyingFuture}, which only happens in an
+    * asynchronous invocation, the callback runs when the future completes, and a future completed with the outcome of
+    * the callback is returned instead.
+    *
+    * @param ctx      invocation context
+    * @param command  command to pass up the chain.
+    * @param callback handles the outcome of the rest of the chain
+    * @return the return value of the callback, or a future of it
+    * @throws Throwable in the event of problems
+    */
+   public final Object invokeNextInterceptorAndThen(InvocationContext ctx, VisitableCommand command,
+                                                    InvocationCallback callback) throws Throwable {
+      Object retval;
+      try {
+         retval = invokeNextInterceptor(ctx, command);
+      } catch (Throwable t) {
+         return callback.invocationDone(ctx, command, null, t);
+      }
+      return thenApply(ctx, command, retval, callback);
+   }
+
+   /**
+    * Passes a return value to the given callback, right away if it is an actual value or when it completes if it is a
+    * {@link CompletableNotifyingFuture}.
+    *
+    * @return the return value of the callback, or a future of it
+    */
+   @SuppressWarnings("unchecked")
+   protected static Object thenApply(final InvocationContext ctx, final VisitableCommand command, Object retval,
+                                     final InvocationCallback callback) throws Throwable {
+      if (!(retval instanceof CompletableNotifyingFuture)) {
+         return callback.invocationDone(ctx, command, retval, null);
+      }
+      final CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+      ((CompletableNotifyingFuture<Object>) retval).attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> future) {
+            Object value = null;
+            Throwable throwable = null;
+            try {
+               value = future.get();
+            } catch (ExecutionException e) {
+               throwable = e.getCause();
+            } catch (Throwable t) {
+               throwable = t;
+            }
+            try {
+               completeWith(result, callback.invocationDone(ctx, command, value, throwable));
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      });
+      return result;
+   }
+
+   /**
+    * Completes a future with a return value, right away if it is an actual value or when it completes if it is a
+    * {@link CompletableNotifyingFuture}.
+    */
+   @SuppressWarnings("unchecked")
+   protected static void completeWith(final CompletableNotifyingFuture<Object> result, Object retval) {
+      if (!(retval instanceof CompletableNotifyingFuture)) {
+         result.complete(retval);
+         return;
+      }
+      // the callback invoked the chain again, e.g. to retry the command
+      ((CompletableNotifyingFuture<Object>) retval).attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> future) {
+            try {
+               result.complete(future.get());
+            } catch (ExecutionException e) {
+               result.completeExceptionally(e.getCause());
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      });
    }
 
    /**
@@ -0,0 +1,28 @@
+package org.infinispan.interceptors.base;
+
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.context.InvocationContext;
+
+/**
+ * Receives the outcome of the invocation of the rest of the interceptor chain, see {@link
+ * CommandInterceptor#invokeNextInterceptorAndThen(InvocationContext, VisitableCommand, InvocationCallback)}.
+ * <p/>
+ * In an asynchronous invocation the callback may run after the interceptor method returned, in the thread which
+ * completed the invocation (e.g. a thread of the asynchronous transport executor once the response of an RPC has
+ * arrived), so it must not rely on thread locals.  Callbacks don't keep any state of their own, so interceptors can
+ * share a single instance between all the invocations.
+ *
+ * @since 6.0
+ */
+public interface InvocationCallback {
+
+   /**
+    * @param ctx         invocation context
+    * @param command     the command that was invoked
+    * @param returnValue the return value of the next interceptor, if it succeeded
+    * @param throwable   the exception thrown by the next interceptor, or {@code null} if it succeeded
+    * @return the return value of the invocation, which can be a future in an asynchronous invocation
+    * @throws Throwable the exception of the invocation, usually {@code throwable} unless the callback handled it
+    */
+   Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue, Throwable throwable) throws Throwable;
+}
@@ -0,0 +1,27 @@
+package org.infinispan.interceptors.base;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the interceptors which can be part of an asynchronous invocation of the interceptor chain, see {@link
+ * org.infinispan.interceptors.InterceptorChain#invokeAsync(org.infinispan.context.InvocationContext,
+ * org.infinispan.commands.VisitableCommand)}.
+ * <p/>
+ * In an asynchronous invocation the next interceptor may return a {@link
+ * org.infinispan.util.concurrent.CompletableNotifyingFuture} instead of the actual return value.  An annotated
+ * interceptor must not inspect such a return value directly and must not release any resources before the future
+ * completes: it handles the outcome of the invocation in an {@link InvocationCallback} instead.  Interceptors that only
+ * pass the return value along qualify without any change.
+ * <p/>
+ * Only non-transactional invocations of single key reads and writes are asynchronous.  The annotation is not
+ * inherited: a subclass of an annotated interceptor has to be annotated itself.
+ *
+ * @since 6.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SupportsAsyncInvocation {
+}
@@ -1,7 +1,9 @@
 package org.infinispan.interceptors.compat;
 
 import org.infinispan.commands.MetadataAwareCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
@@ -17,6 +19,8 @@
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.metadata.Metadata;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 
@@ -108,6 +112,26 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       return null;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      TypeConverter<Object, Object, Object, Object> converter =
+            determineTypeConverter(command.getFlags());
+      Map<Object, Object> boxedKeys = new HashMap<Object, Object>(command.getKeys().size());
+      for (Object key : command.getKeys()) {
+         boxedKeys.put(converter.boxKey(key), key);
+      }
+      command.setKeys(boxedKeys.keySet());
+      Map<?, ?> ret = (Map<?, ?>) invokeNextInterceptor(ctx, command);
+      // the entries are unboxed by the node which asked for them
+      if (command.isReturnEntries()) return ret;
+
+      Map<Object, Object> unboxed = new HashMap<Object, Object>(ret.size());
+      for (Map.Entry<?, ?> entry : ret.entrySet()) {
+         unboxed.put(boxedKeys.get(entry.getKey()), converter.unboxValue(entry.getValue()));
+      }
+      return unboxed;
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       Object key = command.getKey();
@@ -129,6 +153,23 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return converter.unboxValue(ret);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      TypeConverter<Object, Object, Object, Object> converter =
+            determineTypeConverter(command.getFlags());
+      command.setKey(converter.boxKey(command.getKey()));
+      addVersionIfNeeded(command);
+      // the new value is only known once the function has been applied, on the primary owner
+      ApplyFunctionCommand.ValueConverter previousConverter = command.getValueConverter();
+      command.setValueConverter(new FunctionValueConverter(previousConverter, converter));
+      try {
+         // the result of the function isn't a value of the cache, so it's returned as it is
+         return invokeNextInterceptor(ctx, command);
+      } finally {
+         command.setValueConverter(previousConverter);
+      }
+   }
+
    private void addVersionIfNeeded(MetadataAwareCommand cmd) {
       Metadata metadata = cmd.getMetadata();
       if (metadata.version() == null) {
@@ -158,6 +199,31 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
       return converter.unboxValue(ret);
    }
 
+   /**
+    * Boxes the value set by the function of an {@link ApplyFunctionCommand}, and unboxes the value it reads.
+    */
+   private static final class FunctionValueConverter implements ApplyFunctionCommand.ValueConverter {
+      private final ApplyFunctionCommand.ValueConverter outerConverter;
+      private final TypeConverter<Object, Object, Object, Object> converter;
+
+      FunctionValueConverter(ApplyFunctionCommand.ValueConverter outerConverter,
+                             TypeConverter<Object, Object, Object, Object> converter) {
+         this.outerConverter = outerConverter;
+         this.converter = converter;
+      }
+
+      @Override
+      public Object boxValue(Object value) {
+         return converter.boxValue(outerConverter != null ? outerConverter.boxValue(value) : value);
+      }
+
+      @Override
+      public Object unboxValue(Object stored) {
+         Object value = converter.unboxValue(stored);
+         return outerConverter != null ? outerConverter.unboxValue(value) : value;
+      }
+   }
+
    private static class EmbeddedTypeConverter
          implements TypeConverter<Object, Object, Object, Object> {
 
@@ -1,15 +1,19 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.ClusteringInterceptor;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
@@ -25,15 +29,19 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Base class for distribution of entries across a cluster.
@@ -69,14 +77,51 @@ protected final InternalCacheEntry retrieveFromRemoteSource(Object key, Invocati
       ClusteredGetCommand get = cf.buildClusteredGetCommand(key, command.getFlags(), acquireRemoteLock, gtx);
       get.setWrite(isWrite);
 
+      List<Address> targets = getRemoteGetTargets(key);
+      Map<Address, Response> responses = rpcManager.invokeRemotely(targets, get, getRemoteGetOptions(targets));
+      return getRemoteEntry(key, responses);
+   }
+
+   /**
+    * The same as {@link #retrieveFromRemoteSource}, for the non-transactional reads, except that it doesn't block the
+    * calling thread waiting for the response.
+    *
+    * @return a future of the remote entry, completed once the response has arrived
+    */
+   protected final CompletableNotifyingFuture<InternalCacheEntry> retrieveFromRemoteSourceAsync(final Object key, FlagAffectedCommand command) {
+      ClusteredGetCommand get = cf.buildClusteredGetCommand(key, command.getFlags(), false, null);
+      List<Address> targets = getRemoteGetTargets(key);
+      final CompletableNotifyingFuture<InternalCacheEntry> result = new CompletableNotifyingFuture<InternalCacheEntry>();
+      rpcManager.invokeRemotelyAsync(targets, get, getRemoteGetOptions(targets)).attachListener(
+            new FutureListener<Map<Address, Response>>() {
+               @Override
+               public void futureDone(Future<Map<Address, Response>> responses) {
+                  try {
+                     result.complete(getRemoteEntry(key, responses.get()));
+                  } catch (ExecutionException e) {
+                     result.completeExceptionally(e.getCause());
+                  } catch (Throwable t) {
+                     result.completeExceptionally(t);
+                  }
+               }
+            });
+      return result;
+   }
+
+   private List<Address> getRemoteGetTargets(Object key) {
       List<Address> targets = new ArrayList<Address>(stateTransferManager.getCacheTopology().getReadConsistentHash().locateOwners(key));
       // if any of the recipients has left the cluster since the command was issued, just don't wait for its response
       targets.retainAll(rpcManager.getTransport().getMembers());
+      return targets;
+   }
+
+   private RpcOptions getRemoteGetOptions(List<Address> targets) {
       ResponseFilter filter = new ClusteredGetResponseValidityFilter(targets, rpcManager.getAddress());
-      RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE, false)
+      return rpcManager.getRpcOptionsBuilder(ResponseMode.WAIT_FOR_VALID_RESPONSE, false)
             .responseFilter(filter).build();
-      Map<Address, Response> responses = rpcManager.invokeRemotely(targets, get, options);
+   }
 
+   private InternalCacheEntry getRemoteEntry(Object key, Map<Address, Response> responses) {
       if (!responses.isEmpty()) {
          for (Response r : responses.values()) {
             if (r instanceof SuccessfulResponse) {
@@ -98,6 +143,122 @@ protected final InternalCacheEntry retrieveFromRemoteSource(Object key, Invocati
       return null;
    }
 
+   /**
+    * Retrieves the entries of several keys from their owners, sending a single {@link ClusteredGetAllCommand} to each
+    * owner and waiting for all of them in parallel.  The keys an owner couldn't answer, e.g. because it's affected by
+    * a state transfer, are retrieved one by one with {@link #retrieveFromRemoteSource}.
+    *
+    * @return the entries found, by key
+    */
+   protected final Map<Object, InternalCacheEntry> retrieveAllFromRemoteSources(Collection<Object> keys, InvocationContext ctx, FlagAffectedCommand command) throws Exception {
+      ConsistentHash ch = stateTransferManager.getCacheTopology().getReadConsistentHash();
+      List<Address> members = rpcManager.getTransport().getMembers();
+      Map<Address, List<Object>> keysByOwner = new HashMap<Address, List<Object>>();
+      List<Object> remainingKeys = new ArrayList<Object>();
+      for (Object key : keys) {
+         Address target = null;
+         for (Address owner : ch.locateOwners(key)) {
+            // if the owner has left the cluster since the command was issued, ask the next one
+            if (members.contains(owner) && !owner.equals(rpcManager.getAddress())) {
+               target = owner;
+               break;
+            }
+         }
+         if (target == null) {
+            remainingKeys.add(key);
+            continue;
+         }
+         List<Object> ownerKeys = keysByOwner.get(target);
+         if (ownerKeys == null) {
+            ownerKeys = new ArrayList<Object>();
+            keysByOwner.put(target, ownerKeys);
+         }
+         ownerKeys.add(key);
+      }
+
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>(keys.size());
+      Map<Address, ResponseFuture> futures = new HashMap<Address, ResponseFuture>(keysByOwner.size());
+      RpcOptions options = rpcManager.getDefaultRpcOptions(true);
+      Address lastOwner = null;
+      for (Map.Entry<Address, List<Object>> e : keysByOwner.entrySet()) {
+         if (lastOwner == null) {
+            // the calling thread asks the last owner itself
+            lastOwner = e.getKey();
+            continue;
+         }
+         ResponseFuture future = new ResponseFuture();
+         rpcManager.invokeRemotelyInFuture(Collections.singleton(e.getKey()),
+               cf.buildClusteredGetAllCommand(e.getValue(), command.getFlags()), options, future);
+         futures.put(e.getKey(), future);
+      }
+      if (lastOwner != null) {
+         List<Object> ownerKeys = keysByOwner.get(lastOwner);
+         try {
+            Map<Address, Response> responses = rpcManager.invokeRemotely(Collections.singleton(lastOwner),
+                  cf.buildClusteredGetAllCommand(ownerKeys, command.getFlags()), options);
+            addRemoteEntries(ownerKeys, responses.get(lastOwner), entries, remainingKeys);
+         } catch (Exception e) {
+            if (log.isTraceEnabled()) log.tracef(e, "Unable to get keys %s from %s", ownerKeys, lastOwner);
+            remainingKeys.addAll(ownerKeys);
+         }
+      }
+      for (Map.Entry<Address, ResponseFuture> e : futures.entrySet()) {
+         List<Object> ownerKeys = keysByOwner.get(e.getKey());
+         try {
+            addRemoteEntries(ownerKeys, e.getValue().getResponse(e.getKey()), entries, remainingKeys);
+         } catch (Exception ex) {
+            if (log.isTraceEnabled()) log.tracef(ex, "Unable to get keys %s from %s", ownerKeys, e.getKey());
+            remainingKeys.addAll(ownerKeys);
+         }
+      }
+
+      for (Object key : remainingKeys) {
+         InternalCacheEntry entry = retrieveFromRemoteSource(key, ctx, false, command, false);
+         if (entry != null) entries.put(key, entry);
+      }
+      return entries;
+   }
+
+   private void addRemoteEntries(List<Object> keys, Response response, Map<Object, InternalCacheEntry> entries,
+                                 List<Object> remainingKeys) {
+      if (!(response instanceof SuccessfulResponse)) {
+         remainingKeys.addAll(keys);
+         return;
+      }
+      Map<?, ?> values = (Map<?, ?>) ((SuccessfulResponse) response).getResponseValue();
+      for (Object key : keys) {
+         if (!values.containsKey(key)) {
+            // the owner is affected by a state transfer
+            remainingKeys.add(key);
+         } else {
+            InternalCacheValue value = (InternalCacheValue) values.get(key);
+            if (value != null) entries.put(key, value.toInternalCacheEntry(key));
+         }
+      }
+   }
+
+   /**
+    * Keeps the future of the RPC, so that its responses can be read.
+    */
+   private static class ResponseFuture extends NotifyingFutureImpl<Object> {
+      private volatile Future<Object> networkFuture;
+
+      ResponseFuture() {
+         super(null);
+      }
+
+      @Override
+      public void setNetworkFuture(Future<Object> future) {
+         networkFuture = future;
+         super.setNetworkFuture(future);
+      }
+
+      @SuppressWarnings("unchecked")
+      Response getResponse(Address target) throws InterruptedException, ExecutionException {
+         return ((Map<Address, Response>) networkFuture.get()).get(target);
+      }
+   }
+
    protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable {
       if (ctx.isInTxScope()) {
          throw new CacheException("Attempted execution of non-transactional write command in a transactional invocation context");
@@ -159,6 +320,9 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
             log.tracef("I'm not the primary owner, so sending the command to the primary owner(%s) in order to be forwarded", primaryOwner);
             Object localResult = invokeNextInterceptor(ctx, command);
             boolean isSyncForwarding = isSync || isNeedReliableReturnValues(command);
+            if (isSyncForwarding && ctx.isUseFutureReturnType()) {
+               return forwardToPrimaryOwnerAsync(primaryOwner, command);
+            }
             Map<Address, Response> addressResponseMap = rpcManager.invokeRemotely(Collections.singletonList(primaryOwner), command,
                   rpcManager.getDefaultRpcOptions(isSyncForwarding));
             if (!isSyncForwarding) return localResult;
@@ -166,22 +330,55 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
             try {
                return getResponseFromPrimaryOwner(primaryOwner, addressResponseMap);
             } catch (RemoteException e) {
-               Throwable ce = e;
-               while (ce instanceof RemoteException) {
-                  ce = ce.getCause();
-               }
-               if (ce instanceof OutdatedTopologyException) {
-                  // TODO Set another flag that will make the new primary owner only ignore the final value of the command
-                  // If the primary owner throws an OutdatedTopologyException, it must be because the command succeeded there
-                  command.setIgnorePreviousValue(true);
-               }
+               handlePrimaryOwnerFailure(command, e);
                throw e;
             }
          }
       }
    }
 
-   private Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Response> addressResponseMap) {
+   /**
+    * Sends the command to the primary owner without waiting for its response.  The locks are held by the primary
+    * owner, so the originator has nothing to release when the response arrives on another thread.
+    *
+    * @return a future of the return value sent back by the primary owner
+    */
+   private Object forwardToPrimaryOwnerAsync(final Address primaryOwner, final DataWriteCommand command) {
+      final CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+      rpcManager.invokeRemotelyAsync(Collections.singletonList(primaryOwner), command, rpcManager.getDefaultRpcOptions(true))
+            .attachListener(new FutureListener<Map<Address, Response>>() {
+               @Override
+               public void futureDone(Future<Map<Address, Response>> responses) {
+                  Throwable failure;
+                  try {
+                     result.complete(getResponseFromPrimaryOwner(primaryOwner, responses.get()));
+                     return;
+                  } catch (ExecutionException e) {
+                     failure = e.getCause();
+                  } catch (Throwable t) {
+                     failure = t;
+                  }
+                  handlePrimaryOwnerFailure(command, failure);
+                  result.completeExceptionally(failure);
+               }
+            });
+      return result;
+   }
+
+   private void handlePrimaryOwnerFailure(DataWriteCommand command, Throwable failure) {
+      if (!(failure instanceof RemoteException)) return;
+      Throwable ce = failure;
+      while (ce instanceof RemoteException) {
+         ce = ce.getCause();
+      }
+      if (ce instanceof OutdatedTopologyException) {
+         // TODO Set another flag that will make the new primary owner only ignore the final value of the command
+         // If the primary owner throws an OutdatedTopologyException, it must be because the command succeeded there
+         command.setIgnorePreviousValue(true);
+      }
+   }
+
+   protected final Object getResponseFromPrimaryOwner(Address primaryOwner, Map<Address, Response> addressResponseMap) {
       Response fromPrimaryOwner = addressResponseMap.get(primaryOwner);
       if (fromPrimaryOwner == null) {
          log.tracef("Primary owner %s returned null", primaryOwner);
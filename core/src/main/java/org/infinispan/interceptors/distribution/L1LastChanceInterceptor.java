@@ -1,5 +1,6 @@
 package org.infinispan.interceptors.distribution;
 
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -64,6 +65,11 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return visitDataWriteCommand(ctx, command, true);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      return visitDataWriteCommand(ctx, command, true);
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       return visitDataWriteCommand(ctx, command, false);
@@ -1,7 +1,10 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -11,6 +14,9 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.base.InvocationCallback;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
+import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.logging.Log;
@@ -33,6 +39,7 @@
  * @author Mircea Markus
  * @since 5.2
  */
+@SupportsAsyncInvocation
 public class NonTxDistributionInterceptor extends BaseDistributionInterceptor {
 
    private static Log log = LogFactory.getLog(NonTxDistributionInterceptor.class);
@@ -45,6 +52,10 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
          if (returnValue == null) {
             Object key = command.getKey();
             if (needsRemoteGet(ctx, command)) {
+               if (ctx.isUseFutureReturnType()) {
+                  if (trace) log.tracef("Doing an asynchronous remote get for key %s", key);
+                  return thenApply(ctx, command, retrieveFromRemoteSourceAsync(key, command), afterRemoteGet);
+               }
                InternalCacheEntry remoteEntry = remoteGetCacheEntry(ctx, key, command);
                returnValue = computeGetReturn(remoteEntry, command);
             }
@@ -60,6 +71,63 @@ public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand
       }
    }
 
+   /**
+    * Computes the return value of an asynchronous get from the remote entry, like the synchronous get does.
+    */
+   private final InvocationCallback afterRemoteGet = new InvocationCallback() {
+      @Override
+      public Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue,
+                                   Throwable throwable) throws Throwable {
+         GetKeyValueCommand getCommand = (GetKeyValueCommand) command;
+         if (throwable instanceof SuspectException) {
+            // retry
+            return visitGetKeyValueCommand(ctx, getCommand);
+         } else if (throwable != null) {
+            throw throwable;
+         }
+         InternalCacheEntry remoteEntry = (InternalCacheEntry) returnValue;
+         getCommand.setRemotelyFetchedValue(remoteEntry);
+         Object getReturn = computeGetReturn(remoteEntry, getCommand);
+         if (getReturn == null) {
+            InternalCacheEntry localEntry = localGetCacheEntry(ctx, getCommand.getKey(), false, getCommand);
+            getReturn = computeGetReturn(localEntry, getCommand);
+         }
+         return getReturn;
+      }
+   };
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      Map<Object, Object> returnValues = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      List<Object> remoteKeys = new ArrayList<Object>();
+      for (Object key : command.getKeys()) {
+         if (returnValues.containsKey(key)) continue;
+         if (needsRemoteGet(ctx, command, key)) {
+            remoteKeys.add(key);
+         } else {
+            InternalCacheEntry localEntry = localGetCacheEntry(ctx, key, false, command);
+            if (localEntry != null) returnValues.put(key, computeGetAllReturn(localEntry, command));
+         }
+      }
+      if (!remoteKeys.isEmpty()) {
+         if (trace) log.tracef("Doing a remote get for keys %s", remoteKeys);
+         Map<Object, InternalCacheEntry> remoteEntries = retrieveAllFromRemoteSources(remoteKeys, ctx, command);
+         for (Object key : remoteKeys) {
+            InternalCacheEntry entry = remoteEntries.get(key);
+            if (entry == null) {
+               entry = localGetCacheEntry(ctx, key, false, command);
+            }
+            if (entry != null) returnValues.put(key, computeGetAllReturn(entry, command));
+         }
+      }
+      return returnValues;
+   }
+
+   private Object computeGetAllReturn(InternalCacheEntry entry, GetAllCommand command) {
+      return command.isReturnEntries() ? entry : entry.getValue();
+   }
+
    private Object computeGetReturn(InternalCacheEntry entry, GetKeyValueCommand command) {
       if (!command.isReturnEntry() && entry != null)
          return entry.getValue();
@@ -115,6 +183,23 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return handleNonTxWriteCommand(ctx, command);
    }
 
+   /**
+    * The function is applied only on the primary owner, so when the originator isn't the primary owner the command is
+    * just forwarded to it.  The other owners, including the originator, receive the outcome of the function from there.
+    */
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      Object key = command.getKey();
+      if (ctx.isOriginLocal() && !isLocalModeForced(command) && !cdl.localNodeIsPrimaryOwner(key)) {
+         Address primaryOwner = cdl.getPrimaryOwner(key);
+         log.tracef("I'm not the primary owner, so sending the command to the primary owner(%s) in order to be applied", primaryOwner);
+         Map<Address, Response> addressResponseMap = rpcManager.invokeRemotely(Collections.singletonList(primaryOwner),
+               command, rpcManager.getDefaultRpcOptions(true));
+         return getResponseFromPrimaryOwner(primaryOwner, addressResponseMap);
+      }
+      return handleNonTxWriteCommand(ctx, command);
+   }
+
    /**
     * Don't forward in the case of clear commands, just acquire local locks and broadcast.
     */
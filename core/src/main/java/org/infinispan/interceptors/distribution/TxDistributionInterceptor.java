@@ -3,10 +3,12 @@
 import org.infinispan.atomic.DeltaCompositeKey;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.control.LockControlCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -36,6 +38,7 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
@@ -83,6 +86,15 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       }
    }
 
+   /**
+    * In a transaction the function is applied on the originator, and the owners only receive its outcome with the
+    * prepare.
+    */
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      return handleTxWriteCommand(ctx, command, new SingleKeyRecipientGenerator(command.getKey()), false);
+   }
+
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       try {
@@ -168,6 +180,53 @@ private Object visitGetCommand(InvocationContext ctx, GetKeyValueCommand command
       }
    }
 
+   @Override
+   @SuppressWarnings("unchecked")
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      Map<Object, Object> returnValues = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      if (!ctx.isOriginLocal()) return returnValues;
+
+      List<Object> remoteKeys = new ArrayList<Object>();
+      for (Object key : command.getKeys()) {
+         //if the cache entry has the value lock flag set, skip the remote get.
+         CacheEntry entry = ctx.lookupEntry(key);
+         if (returnValues.containsKey(key) || entry != null && entry.skipRemoteGet()) continue;
+         if (needsRemoteGet(ctx, command, key)) {
+            remoteKeys.add(key);
+         } else if (!ctx.isEntryRemovedInContext(key)) {
+            Object localValue = localGet(ctx, key, false, command, command.isReturnEntries());
+            if (localValue != null) returnValues.put(key, localValue);
+         }
+      }
+      if (remoteKeys.isEmpty()) return returnValues;
+
+      // the remotely retrieved entries aren't stored in L1, as the owners would have to register this node as a
+      // requestor of each key
+      if (trace) log.tracef("Doing a remote get for keys %s", remoteKeys);
+      Map<Object, InternalCacheEntry> remoteEntries = retrieveAllFromRemoteSources(remoteKeys, ctx, command);
+      for (Object key : remoteKeys) {
+         InternalCacheEntry ice = remoteEntries.get(key);
+         if (ice == null) {
+            if (!ctx.isEntryRemovedInContext(key)) {
+               Object localValue = localGet(ctx, key, false, command, command.isReturnEntries());
+               if (localValue != null) returnValues.put(key, localValue);
+            }
+            continue;
+         }
+         if (useClusteredWriteSkewCheck && ctx.isInTxScope()) {
+            ((TxInvocationContext)ctx).getCacheTransaction().putLookedUpRemoteVersion(key, ice.getMetadata().version());
+         }
+         if (!ctx.replaceValue(key, ice)) {
+            ctx.putLookedUpEntry(key, ice);
+            if (ctx.isInTxScope()) {
+               ((TxInvocationContext) ctx).getCacheTransaction().replaceVersionRead(key, ice.getMetadata().version());
+            }
+         }
+         returnValues.put(key, command.isReturnEntries() ? ice : ice.getValue());
+      }
+      return returnValues;
+   }
+
    protected void lockAndWrap(InvocationContext ctx, Object key, InternalCacheEntry ice, FlagAffectedCommand command) throws InterruptedException {
       boolean skipLocking = hasSkipLocking(command);
       long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
@@ -1,14 +1,21 @@
 package org.infinispan.interceptors.locking;
 
 import org.infinispan.InvalidCacheUsageException;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.EvictCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.base.InvocationCallback;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -18,10 +25,21 @@
  * @author Mircea Markus
  * @since 5.1
  */
+@SupportsAsyncInvocation
 public class NonTransactionalLockingInterceptor extends AbstractLockingInterceptor {
 
    private static final Log log = LogFactory.getLog(NonTransactionalLockingInterceptor.class);
 
+   private final InvocationCallback unlockAll = new InvocationCallback() {
+      @Override
+      public Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue,
+                                   Throwable throwable) throws Throwable {
+         lockManager.unlockAll(ctx);
+         if (throwable != null) throw throwable;
+         return returnValue;
+      }
+   };
+
    @Override
    protected Log getLog() {
       return log;
@@ -29,6 +47,18 @@ protected Log getLog() {
 
    @Override
    public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
+      assertNonTransactional(ctx);
+      //possibly needed because of L1 locks being acquired
+      return invokeNextInterceptorAndThen(ctx, command, unlockAll);
+   }
+
+   @Override
+   public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
+      return lockAndInvokeNext(ctx, command);
+   }
+
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
       assertNonTransactional(ctx);
       try {
          return invokeNextInterceptor(ctx, command);
@@ -78,32 +108,19 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
    @Override
    public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
       assertNonTransactional(ctx);
-      try {
-         if (!shouldLock(command.getKey(), command))
-            return invokeNextInterceptor(ctx, command);
-         lockKey(ctx, command);
-         return invokeNextInterceptor(ctx, command);
-      } catch (Throwable te) {
-         throw cleanLocksAndRethrow(ctx, te);
-      } finally {
-         lockManager.unlockAll(ctx);
-      }
+      return lockAndInvokeNext(ctx, command);
+   }
+
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      assertNonTransactional(ctx);
+      return lockAndInvokeNext(ctx, command);
    }
 
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       assertNonTransactional(ctx);
-      try {
-         if (!shouldLock(command.getKey(), command))
-            return invokeNextInterceptor(ctx, command);
-         lockKey(ctx, command);
-         return invokeNextInterceptor(ctx, command);
-      } catch (Throwable te) {
-         throw cleanLocksAndRethrow(ctx, te);
-      }
-      finally {
-         lockManager.unlockAll(ctx);
-      }
+      return lockAndInvokeNext(ctx, command);
    }
 
    @Override
@@ -113,6 +130,20 @@ public final Object visitEvictCommand(InvocationContext ctx, EvictCommand comman
       return visitRemoveCommand(ctx, command);
    }
 
+   /**
+    * Acquires the lock of the key if this node is its primary owner, and releases it after the invocation of the rest of
+    * the chain completes.
+    */
+   private Object lockAndInvokeNext(InvocationContext ctx, DataWriteCommand command) throws Throwable {
+      try {
+         if (shouldLock(command.getKey(), command))
+            lockKey(ctx, command);
+      } catch (Throwable te) {
+         throw cleanLocksAndRethrow(ctx, te);
+      }
+      return invokeNextInterceptorAndThen(ctx, command, unlockAll);
+   }
+
    private void assertNonTransactional(InvocationContext ctx) {
       //this only happens if the cache is used in a transaction's scope
       if (ctx.isInTxScope()) {
@@ -4,10 +4,12 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -75,6 +77,29 @@ public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCo
       }
    }
 
+   @Override
+   public final Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         // lock the keys on their primary owners like a putAll: unlike a single remote get, the ClusteredGetAllCommand
+         // doesn't lock them
+         if (command.hasFlag(Flag.FORCE_WRITE_LOCK) && ctx.isInTxScope()) {
+            acquireRemoteIfNeeded(ctx, new HashSet<Object>(command.getKeys()), command);
+            final TxInvocationContext txContext = (TxInvocationContext) ctx;
+            boolean skipLocking = hasSkipLocking(command);
+            long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
+            for (Object key : command.getKeys()) {
+               lockAndRegisterBackupLock(txContext, key, lockTimeout, skipLocking);
+            }
+         }
+         return invokeNextInterceptor(ctx, command);
+      } catch (Throwable t) {
+         releaseLocksOnFailureBeforePrepare(ctx);
+         throw t;
+      } finally {
+         if (!ctx.isInTxScope()) lockManager.unlockAll(ctx);
+      }
+   }
+
    @Override
    public Object visitPrepareCommand(TxInvocationContext ctx, PrepareCommand command) throws Throwable {
       return invokeNextAndCommitIf1Pc(ctx, command);
@@ -165,6 +190,23 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
       }
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      try {
+         final boolean localNodeOwnsLock = cdl.localNodeIsPrimaryOwner(command.getKey());
+         acquireRemoteIfNeeded(ctx, command, localNodeOwnsLock);
+         final TxInvocationContext txContext = (TxInvocationContext) ctx;
+         boolean skipLocking = hasSkipLocking(command);
+         long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
+         lockAndRegisterBackupLock(txContext, command.getKey(),
+               localNodeOwnsLock, lockTimeout, skipLocking);
+         return invokeNextInterceptor(ctx, command);
+      } catch (Throwable te) {
+         releaseLocksOnFailureBeforePrepare(ctx);
+         throw te;
+      }
+   }
+
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
       try {
@@ -1,5 +1,6 @@
 package org.infinispan.interceptors.xsite;
 
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -33,6 +34,11 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return handleWrite(ctx, command);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      return handleWrite(ctx, command);
+   }
+
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
       return handleWrite(ctx, command);
@@ -0,0 +1,200 @@
+package org.infinispan.loaders;
+
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.marshall.AbstractDelegatingMarshaller;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses the objects the cache stores marshall to byte arrays with the Deflate algorithm, and decompresses them
+ * when they are unmarshalled.
+ * <p/>
+ * Each array starts with a byte telling whether the rest of it is compressed, as the arrays smaller than the threshold,
+ * or which don't get smaller when compressed, are kept as they are.  The object streams, used by the cache stores to
+ * transfer their contents, aren't compressed.
+ *
+ * @since 6.0
+ */
+public class CompressingMarshaller extends AbstractDelegatingMarshaller {
+
+   private static final byte RAW = 0;
+   private static final byte DEFLATED = 1;
+   // the flag, followed by the uncompressed length
+   private static final int DEFLATED_HEADER_SIZE = 5;
+
+   private final int threshold;
+   private final AtomicLong marshalledBytes = new AtomicLong();
+   private final AtomicLong storedBytes = new AtomicLong();
+   private final AtomicLong compressionNanos = new AtomicLong();
+   private final AtomicLong decompressionNanos = new AtomicLong();
+
+   public CompressingMarshaller(StreamingMarshaller marshaller, int threshold) {
+      this.marshaller = marshaller;
+      this.threshold = threshold;
+   }
+
+   @Override
+   public void start() {
+      // the lifecycle of the wrapped marshaller is managed by the cache
+   }
+
+   @Override
+   public void stop() {
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
+      byte[] bytes = marshaller.objectToByteBuffer(obj, estimatedSize);
+      return compress(bytes, 0, bytes.length);
+   }
+
+   @Override
+   public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
+      byte[] bytes = marshaller.objectToByteBuffer(obj);
+      return compress(bytes, 0, bytes.length);
+   }
+
+   @Override
+   public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedException {
+      ByteBuffer buffer = marshaller.objectToBuffer(o);
+      byte[] bytes = compress(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+      return new ByteBuffer(bytes, 0, bytes.length);
+   }
+
+   @Override
+   public Object objectFromByteBuffer(byte[] buf) throws IOException, ClassNotFoundException {
+      return objectFromByteBuffer(buf, 0, buf.length);
+   }
+
+   @Override
+   public Object objectFromByteBuffer(byte[] buf, int offset, int length) throws IOException, ClassNotFoundException {
+      if (length == 0) throw new IOException("Missing compression flag");
+      switch (buf[offset]) {
+         case RAW:
+            return marshaller.objectFromByteBuffer(buf, offset + 1, length - 1);
+         case DEFLATED:
+            byte[] bytes = decompress(buf, offset, length);
+            return marshaller.objectFromByteBuffer(bytes, 0, bytes.length);
+         default:
+            throw new IOException("Unknown compression flag " + buf[offset]);
+      }
+   }
+
+   @Override
+   public Object objectFromInputStream(InputStream is) throws IOException, ClassNotFoundException {
+      ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream(Math.max(is.available(), 1024));
+      byte[] buf = new byte[1024];
+      int bytesRead;
+      while ((bytesRead = is.read(buf, 0, buf.length)) != -1) {
+         bytes.write(buf, 0, bytesRead);
+      }
+      return objectFromByteBuffer(bytes.getRawBuffer(), 0, bytes.size());
+   }
+
+   private byte[] compress(byte[] buf, int offset, int length) {
+      byte[] bytes = null;
+      if (length >= threshold) {
+         long start = System.nanoTime();
+         Deflater deflater = new Deflater();
+         try {
+            deflater.setInput(buf, offset, length);
+            deflater.finish();
+            // give up as soon as the compressed form isn't smaller
+            byte[] deflated = new byte[length];
+            int size = DEFLATED_HEADER_SIZE;
+            while (!deflater.finished() && size < deflated.length) {
+               size += deflater.deflate(deflated, size, deflated.length - size);
+            }
+            if (deflater.finished() && size < deflated.length) {
+               deflated[0] = DEFLATED;
+               writeInt(deflated, 1, length);
+               bytes = Arrays.copyOf(deflated, size);
+            }
+         } finally {
+            deflater.end();
+            compressionNanos.addAndGet(System.nanoTime() - start);
+         }
+      }
+      if (bytes == null) {
+         bytes = new byte[length + 1];
+         bytes[0] = RAW;
+         System.arraycopy(buf, offset, bytes, 1, length);
+      }
+      marshalledBytes.addAndGet(length);
+      storedBytes.addAndGet(bytes.length);
+      return bytes;
+   }
+
+   private byte[] decompress(byte[] buf, int offset, int length) throws IOException {
+      if (length < DEFLATED_HEADER_SIZE) throw new IOException("Truncated compressed object");
+      long start = System.nanoTime();
+      Inflater inflater = new Inflater();
+      try {
+         byte[] bytes = new byte[readInt(buf, offset + 1)];
+         inflater.setInput(buf, offset + DEFLATED_HEADER_SIZE, length - DEFLATED_HEADER_SIZE);
+         int size = 0;
+         while (size < bytes.length) {
+            int inflated = inflater.inflate(bytes, size, bytes.length - size);
+            if (inflated == 0 && (inflater.finished() || inflater.needsInput()))
+               throw new IOException("Truncated compressed object");
+            size += inflated;
+         }
+         return bytes;
+      } catch (DataFormatException e) {
+         throw new IOException("Corrupted compressed object", e);
+      } finally {
+         inflater.end();
+         decompressionNanos.addAndGet(System.nanoTime() - start);
+      }
+   }
+
+   private static void writeInt(byte[] buf, int offset, int value) {
+      buf[offset] = (byte) (value >>> 24);
+      buf[offset + 1] = (byte) (value >>> 16);
+      buf[offset + 2] = (byte) (value >>> 8);
+      buf[offset + 3] = (byte) value;
+   }
+
+   private static int readInt(byte[] buf, int offset) {
+      return (buf[offset] & 0xFF) << 24 | (buf[offset + 1] & 0xFF) << 16 | (buf[offset + 2] & 0xFF) << 8
+            | buf[offset + 3] & 0xFF;
+   }
+
+   /**
+    * @return the size of the marshalled objects divided by the size they take in the cache stores, or 1 if nothing
+    *         has been marshalled yet
+    */
+   public double getCompressionRatio() {
+      long stored = storedBytes.get();
+      return stored == 0 ? 1 : (double) marshalledBytes.get() / stored;
+   }
+
+   /**
+    * @return the total time in nanoseconds spent compressing the marshalled objects
+    */
+   public long getCompressionNanos() {
+      return compressionNanos.get();
+   }
+
+   /**
+    * @return the total time in nanoseconds spent decompressing the objects before unmarshalling them
+    */
+   public long getDecompressionNanos() {
+      return decompressionNanos.get();
+   }
+
+   public void resetStatistics() {
+      marshalledBytes.set(0);
+      storedBytes.set(0);
+      compressionNanos.set(0);
+      decompressionNanos.set(0);
+   }
+}
@@ -69,6 +69,15 @@ public String getBucketIdAsString() {
    }
 
    public boolean removeExpiredEntries() {
+      return removeExpiredEntries(null);
+   }
+
+   /**
+    * Removes the expired entries, adding their keys to the given collection unless it's null.
+    *
+    * @return true if any entry was removed
+    */
+   public boolean removeExpiredEntries(Collection<Object> removedKeys) {
       boolean result = false;
       long currentTimeMillis = 0;
       Iterator<Map.Entry<Object, InternalCacheEntry>> entryIterator = entries.entrySet().iterator();
@@ -80,6 +89,8 @@ public boolean removeExpiredEntries() {
                currentTimeMillis = timeService.wallClockTime();
             if (entry.getValue().isExpired(currentTimeMillis)) {
                entryIterator.remove();
+               if (removedKeys != null)
+                  removedKeys.add(entry.getKey());
                result = true;
             }
          }
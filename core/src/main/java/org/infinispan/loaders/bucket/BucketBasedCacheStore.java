@@ -3,11 +3,16 @@
 import org.infinispan.configuration.cache.LockSupportStoreConfiguration;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.LockSupportCacheStore;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -94,6 +99,74 @@ protected boolean removeLockSafe(Object key, Integer lockingKey) throws CacheLoa
       }
    }
 
+   /**
+    * Loads entries from their Buckets, loading all the Buckets through {@link #loadBuckets(Collection)}.
+    *
+    * @param keysByLock the keys of the entries to load, grouped by their hash
+    */
+   @Override
+   protected Map<Object, InternalCacheEntry> loadAllLockSafe(Map<Integer, List<Object>> keysByLock) throws CacheLoaderException {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      Map<Integer, Bucket> buckets = loadBuckets(keysByLock.keySet());
+      long now = timeService.wallClockTime();
+      for (Map.Entry<Integer, List<Object>> e : keysByLock.entrySet()) {
+         Bucket bucket = buckets.get(e.getKey());
+         if (bucket == null) continue;
+         for (Object key : e.getValue()) {
+            InternalCacheEntry se = bucket.getEntry(key);
+            if (se != null && !(se.canExpire() && se.isExpired(now))) entries.put(key, se);
+         }
+      }
+      return entries;
+   }
+
+   /**
+    * Stores entries in their Buckets, loading each Bucket once and writing all of them through {@link
+    * #updateBuckets(Collection)} and {@link #insertBuckets(Collection)}.
+    *
+    * @param entriesByLock the entries to store, grouped by the hash of their keys
+    */
+   @Override
+   protected void storeAllLockSafe(Map<Integer, List<InternalCacheEntry>> entriesByLock) throws CacheLoaderException {
+      List<Bucket> updated = new ArrayList<Bucket>(entriesByLock.size());
+      List<Bucket> inserted = new ArrayList<Bucket>();
+      Map<Integer, Bucket> buckets = loadBuckets(entriesByLock.keySet());
+      for (Map.Entry<Integer, List<InternalCacheEntry>> e : entriesByLock.entrySet()) {
+         Bucket bucket = buckets.get(e.getKey());
+         if (bucket != null) {
+            updated.add(bucket);
+         } else {
+            bucket = new Bucket(timeService);
+            bucket.setBucketId(e.getKey());
+            inserted.add(bucket);
+         }
+         for (InternalCacheEntry entry : e.getValue()) bucket.addEntry(entry);
+      }
+      if (!updated.isEmpty()) updateBuckets(updated);
+      if (!inserted.isEmpty()) insertBuckets(inserted);
+   }
+
+   /**
+    * Removes entries from their Buckets, loading each Bucket once and writing the modified ones through {@link
+    * #updateBuckets(Collection)}.
+    *
+    * @param keysByLock the keys of the entries to remove, grouped by their hash
+    */
+   @Override
+   protected void removeAllLockSafe(Map<Integer, List<Object>> keysByLock) throws CacheLoaderException {
+      List<Bucket> updated = new ArrayList<Bucket>(keysByLock.size());
+      Map<Integer, Bucket> buckets = loadBuckets(keysByLock.keySet());
+      for (Map.Entry<Integer, List<Object>> e : keysByLock.entrySet()) {
+         Bucket bucket = buckets.get(e.getKey());
+         if (bucket != null) {
+            boolean removed = false;
+            for (Object key : e.getValue()) removed |= bucket.removeEntry(key);
+            if (removed) updated.add(bucket);
+         }
+      }
+      if (!updated.isEmpty()) updateBuckets(updated);
+   }
+
    /**
     * For {@link BucketBasedCacheStore}s the lock should be acquired at bucket level. So we're locking based on the
     * hash code of the key, as all keys having same hash code will be mapped to same bucket.
@@ -116,6 +189,28 @@ protected void insertBucket(Bucket bucket) throws CacheLoaderException {
       updateBucket(bucket);
    }
 
+   /**
+    * Inserts new Buckets in the storage system.  This implementation inserts them one by one through {@link
+    * #insertBucket(Bucket)}, implementations should override it to write them in bulk.
+    *
+    * @param buckets buckets to insert
+    * @throws CacheLoaderException in case of problems with the store.
+    */
+   protected void insertBuckets(Collection<Bucket> buckets) throws CacheLoaderException {
+      for (Bucket bucket : buckets) insertBucket(bucket);
+   }
+
+   /**
+    * Updates Buckets in the storage system.  This implementation updates them one by one through {@link
+    * #updateBucket(Bucket)}, implementations should override it to write them in bulk.
+    *
+    * @param buckets buckets to update
+    * @throws CacheLoaderException in case of problems with the store.
+    */
+   protected void updateBuckets(Collection<Bucket> buckets) throws CacheLoaderException {
+      for (Bucket bucket : buckets) updateBucket(bucket);
+   }
+
    protected static interface BucketHandler {
       /**
        * Handles a bucket that is passed in.
@@ -128,7 +223,7 @@ protected static interface BucketHandler {
    // ah for closures in Java ...
    protected abstract class CollectionGeneratingBucketHandler<T> implements BucketHandler{
       Set<T> generated = new HashSet<T>();
-      public abstract boolean consider(Collection<? extends InternalCacheEntry> entries);
+      public abstract boolean consider(Collection<? extends InternalCacheEntry> entries) throws CacheLoaderException;
       public Set<T> generate() { return generated; }
 
       @Override
@@ -181,6 +276,21 @@ public boolean consider(Collection<? extends InternalCacheEntry> entries) {
       return g.generate();
    }
 
+   @Override
+   protected void processLockSafe(final CacheLoaderTask task) throws CacheLoaderException {
+      CollectionGeneratingBucketHandler<Void> g = new CollectionGeneratingBucketHandler<Void>() {
+         @Override
+         public boolean consider(Collection<? extends InternalCacheEntry> entries) throws CacheLoaderException {
+            for (InternalCacheEntry entry : entries) {
+               if (!processEntry(task, entry)) return true;
+            }
+            return false;
+         }
+      };
+
+      loopOverBuckets(g);
+   }
+
    @Override
    protected Set<Object> loadAllKeysLockSafe(final Set<Object> keysToExclude) throws CacheLoaderException {
       CollectionGeneratingBucketHandler<Object> g = new CollectionGeneratingBucketHandler<Object>() {
@@ -232,4 +342,21 @@ public boolean consider(Collection<? extends InternalCacheEntry> entries) {
     * @throws CacheLoaderException in case of problems with the store.
     */
    protected abstract Bucket loadBucket(Integer hash) throws CacheLoaderException;
+
+   /**
+    * Loads several Buckets from the store.  This implementation loads them one by one, implementations should override
+    * it to read them in bulk.
+    *
+    * @param hashes the hashes of the Buckets
+    * @return the Buckets which exist, mapped to their hash
+    * @throws CacheLoaderException in case of problems with the store.
+    */
+   protected Map<Integer, Bucket> loadBuckets(Collection<Integer> hashes) throws CacheLoaderException {
+      Map<Integer, Bucket> buckets = new HashMap<Integer, Bucket>();
+      for (Integer hash : hashes) {
+         Bucket bucket = loadBucket(hash);
+         if (bucket != null) buckets.put(hash, bucket);
+      }
+      return buckets;
+   }
 }
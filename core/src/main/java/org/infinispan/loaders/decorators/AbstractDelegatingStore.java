@@ -8,11 +8,14 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -48,6 +51,11 @@ public void store(InternalCacheEntry ed) throws CacheLoaderException {
       delegate.store(ed);
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      delegate.storeAll(entries);
+   }
+
    @Override
    public void fromStream(ObjectInput inputStream) throws CacheLoaderException {
       delegate.fromStream(inputStream);
@@ -104,16 +112,31 @@ public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
       return delegate.loadAll();
    }
 
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      return delegate.loadAll(keys);
+   }
+
    @Override
    public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
       return delegate.load(numEntries);
    }
 
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      delegate.process(task);
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       return delegate.loadAllKeys(keysToExclude);
    }
 
+   @Override
+   public int size() throws CacheLoaderException {
+      return delegate.size();
+   }
+
    @Override
    public boolean containsKey(Object key) throws CacheLoaderException {
       return delegate.containsKey(key);
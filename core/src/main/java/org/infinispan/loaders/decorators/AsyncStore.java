@@ -14,6 +14,8 @@
 import org.infinispan.loaders.modifications.ModificationsList;
 import org.infinispan.loaders.modifications.Remove;
 import org.infinispan.loaders.modifications.Store;
+import org.infinispan.loaders.spi.AbstractCacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -25,6 +27,8 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +41,7 @@
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 
 /**
@@ -57,6 +62,13 @@
  * <p/>
  * Write operations affecting same key are now coalesced so that only the final state is actually stored.
  * <p/>
+ * With more than one {@link AsyncStoreConfiguration#lanes() lane}, the modifications are partitioned by the hash of
+ * their keys, and each lane buffers and writes its modifications with its own coordinator thread, so a slow or busy
+ * lane doesn't hold back the writes of the others.  A clear is applied by all the lanes together: the back-end store
+ * is cleared once all of them have written the modifications preceding it, and before any of them writes the
+ * following ones.  Like the other writes, a clear doesn't wait for the back-end store to be cleared, unless the previous
+ * clear is still in progress.
+ * <p/>
  *
  * @author Manik Surtani
  * @author Galder Zamarreño
@@ -73,15 +85,15 @@ public class AsyncStore extends AbstractDelegatingStore {
    private Map<GlobalTransaction, List<? extends Modification>> transactions;
 
    private ExecutorService executor;
-   private Thread coordinator;
    private int concurrencyLevel;
    private long shutdownTimeout;
    private String cacheName;
    private TimeService timeService;
 
-   private BufferLock stateLock;
-   @GuardedBy("stateLock")
-   private volatile State state;
+   private Lane[] lanes;
+   private final Object clearLock = new Object();
+   // guarded by clearLock
+   private ClearBarrier lastClearBarrier;
 
    protected AsyncStoreConfiguration asyncConfiguration;
 
@@ -118,25 +130,78 @@ public void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, Stre
    }
 
    private State newState(boolean clear, State next) {
+      return newState(clear, next, null);
+   }
+
+   private State newState(boolean clear, State next, ClearBarrier clearBarrier) {
       ConcurrentMap<Object, Modification> map = CollectionFactory.makeConcurrentMap(64, concurrencyLevel);
-      return new State(clear, map, next);
+      return new State(clear, map, next, clearBarrier);
    }
 
-   private void put(Modification mod, int count) {
-      stateLock.writeLock(count);
+   private Lane lane(Object key) {
+      if (lanes.length == 1)
+         return lanes[0];
+      int h = key.hashCode();
+      h ^= (h >>> 16);
+      return lanes[(h & Integer.MAX_VALUE) % lanes.length];
+   }
+
+   private void put(Lane lane, Modification mod, int count) {
+      if (lane.stateLock.writeLock(count))
+         lane.blockedWrites.incrementAndGet();
       try {
          if (log.isTraceEnabled())
             log.tracef("Queue modification: %s", mod);
 
-         state.put(mod);
+         lane.state.put(mod);
       } finally {
-         stateLock.writeUnlock();
+         lane.stateLock.writeUnlock();
+      }
+   }
+
+   /**
+    * Queues a list of modifications, split by lane.
+    */
+   private void put(List<? extends Modification> mods) {
+      if (lanes.length == 1) {
+         put(lanes[0], new ModificationsList(mods), mods.size());
+         return;
+      }
+      Map<Lane, List<Modification>> modsByLane = new HashMap<Lane, List<Modification>>();
+      splitByLane(mods, modsByLane);
+      for (Map.Entry<Lane, List<Modification>> e : modsByLane.entrySet())
+         put(e.getKey(), new ModificationsList(e.getValue()), e.getValue().size());
+   }
+
+   private void splitByLane(List<? extends Modification> mods, Map<Lane, List<Modification>> modsByLane) {
+      for (Modification mod : mods) {
+         Object key;
+         switch (mod.getType()) {
+            case STORE:
+               key = ((Store) mod).getStoredEntry().getKey();
+               break;
+            case REMOVE:
+               key = ((Remove) mod).getKey();
+               break;
+            case LIST:
+               splitByLane(((ModificationsList) mod).getList(), modsByLane);
+               continue;
+            default:
+               throw new IllegalArgumentException("Unknown modification type " + mod.getType());
+         }
+         Lane lane = lane(key);
+         List<Modification> laneMods = modsByLane.get(lane);
+         if (laneMods == null) {
+            laneMods = new ArrayList<Modification>();
+            modsByLane.put(lane, laneMods);
+         }
+         laneMods.add(mod);
       }
    }
 
    @Override
    public InternalCacheEntry load(Object key) throws CacheLoaderException {
-      Modification mod = state.get(key);
+      Modification mod = lane(key).state.get(key);
       if (mod != null) {
          switch (mod.getType()) {
             case REMOVE:
@@ -153,9 +218,29 @@ public InternalCacheEntry load(Object key) throws CacheLoaderException {
       return super.load(key);
    }
 
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      Set<Object> unmodified = new HashSet<Object>();
+      long now = timeService.wallClockTime();
+      for (Object key : keys) {
+         Modification mod = lane(key).state.get(key);
+         if (mod == null) {
+            unmodified.add(key);
+         } else if (mod.getType() == Modification.Type.STORE) {
+            InternalCacheEntry ice = ((Store) mod).getStoredEntry();
+            if (!ice.isExpired(now))
+               entries.put(key, ice);
+         }
+      }
+      if (!unmodified.isEmpty())
+         entries.putAll(super.loadAll(unmodified));
+      return entries;
+   }
+
    @Override
    public boolean containsKey(Object key) throws CacheLoaderException {
-      Modification mod = state.get(key);
+      Modification mod = lane(key).state.get(key);
       if (mod != null)
          return mod.getType() == Modification.Type.STORE;
 
@@ -163,13 +248,11 @@ public boolean containsKey(Object key) throws CacheLoaderException {
    }
 
    private void loadKeys(State s, Set<Object> exclude, Set<Object> result) throws CacheLoaderException {
-      // if not cleared, get keys from next State or the back-end store
+      // if not cleared, get keys from next State (the keys of the back-end store have already been added)
       if (!s.clear) {
          State next = s.next;
          if (next != null)
             loadKeys(next, exclude, result);
-         else
-            result.addAll(super.loadAllKeys(exclude));
       }
 
       // merge keys of the current State
@@ -189,11 +272,53 @@ private void loadKeys(State s, Set<Object> exclude, Set<Object> result) throws C
 
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
+      State[] states = new State[lanes.length];
+      boolean allCleared = true;
+      for (int i = 0; i < lanes.length; i++) {
+         states[i] = lanes[i].state;
+         allCleared &= states[i].isCleared();
+      }
+
       Set<Object> result = new HashSet<Object>();
-      loadKeys(state, keysToExclude, result);
+      if (!allCleared) {
+         // the keys of the back-end store only count for the lanes which haven't been cleared
+         for (Object key : super.loadAllKeys(keysToExclude)) {
+            if (lanes.length == 1 || !lane(key).state.isCleared())
+               result.add(key);
+         }
+      }
+      for (State s : states)
+         loadKeys(s, keysToExclude, result);
       return result;
    }
 
+   /**
+    * {@inheritDoc} The count of the back-end store is adjusted by checking the keys of the pending modifications one by
+    * one.
+    */
+   @Override
+   public int size() throws CacheLoaderException {
+      Set<Object> pendingKeys = new HashSet<Object>();
+      boolean cleared = false;
+      for (Lane lane : lanes) {
+         boolean laneCleared = false;
+         for (State s = lane.state; s != null && !laneCleared; s = s.next) {
+            pendingKeys.addAll(s.modifications.keySet());
+            laneCleared = s.clear;
+         }
+         // all the lanes are cleared together, if some of them are still being cleared the count is approximate
+         cleared |= laneCleared;
+      }
+      long count = cleared ? 0 : super.size();
+      for (Object key : pendingKeys) {
+         if (!cleared && super.containsKey(key))
+            count--;
+         if (containsKey(key))
+            count++;
+      }
+      return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+   }
+
    @Override
    public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
       return load(Integer.MAX_VALUE);
@@ -213,35 +338,77 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return result;
    }
 
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      // the pending modifications are applied by loading the entries one by one
+      for (Object key : loadAllKeys(null)) {
+         InternalCacheEntry entry = load(key);
+         if (entry != null && !AbstractCacheLoader.processEntry(task, entry))
+            return;
+      }
+   }
+
    @Override
    public void store(InternalCacheEntry entry) {
-      put(new Store(entry), 1);
+      put(lane(entry.getKey()), new Store(entry), 1);
    }
 
    @Override
    public void clear() {
-      stateLock.writeLock(1);
+      if (lanes.length == 1) {
+         clear(lanes[0], null);
+         return;
+      }
+      // clears are serialized, so that each lane applies them in the same order.  A lane only holds one pending clear,
+      // so a clear waits for the previous one to be applied by all the lanes, but not for itself
+      synchronized (clearLock) {
+         if (lastClearBarrier != null && !lastClearBarrier.awaitCleared()) {
+            // a lane hasn't reached the previous clear in time: this clear supersedes it, so the lanes waiting for it
+            // can carry on, and it mustn't hold back the next clears either
+            log.debugf("Timed out waiting for the previous clear of the async store, breaking it");
+            lastClearBarrier.breakBarrier();
+         }
+         lastClearBarrier = null;
+         ClearBarrier barrier = new ClearBarrier(lanes.length);
+         for (Lane lane : lanes)
+            clear(lane, barrier);
+         lastClearBarrier = barrier;
+      }
+   }
+
+   private void clear(Lane lane, ClearBarrier barrier) {
+      lane.stateLock.writeLock(1);
       try {
-         state = newState(true, state.next);
+         lane.state = newState(true, lane.state.next, barrier);
       } finally {
-         stateLock.reset(1);
-         stateLock.writeUnlock();
+         lane.stateLock.reset(1);
+         lane.stateLock.writeUnlock();
       }
    }
 
    @Override
    public boolean remove(Object key) {
-      put(new Remove(key), 1);
+      put(lane(key), new Remove(key), 1);
       return true;
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      if (entries != null && !entries.isEmpty()) {
+         List<Modification> mods = new ArrayList<Modification>(entries.size());
+         for (InternalCacheEntry entry : entries)
+            mods.add(new Store(entry));
+         put(mods);
+      }
+   }
+
    @Override
    public void removeAll(Set<Object> keys) throws CacheLoaderException {
       if (keys != null && !keys.isEmpty()) {
          List<Modification> mods = new ArrayList<Modification>(keys.size());
          for (Object key : keys)
             mods.add(new Remove(key));
-         put(new ModificationsList(mods), mods.size());
+         put(mods);
       }
    }
 
@@ -281,49 +448,141 @@ private void enqueueModificationsList(List<? extends Modification> mods) {
       }
       // put the rest
       if (!mods.isEmpty())
-         put(new ModificationsList(mods), mods.size());
+         put(mods);
    }
 
    @Override
    public void start() throws CacheLoaderException {
       log.debugf("Async cache loader starting %s", this);
-      state = newState(false, null);
-      stateLock = new BufferLock(asyncConfiguration.modificationQueueSize());
+      int laneCount = asyncConfiguration.lanes();
+      int queueSize = asyncConfiguration.modificationQueueSize();
+      // the modification queue is shared out between the lanes
+      int laneQueueSize = queueSize > 0 ? Math.max(1, (queueSize + laneCount - 1) / laneCount) : queueSize;
+      lanes = new Lane[laneCount];
+      for (int i = 0; i < laneCount; i++)
+         lanes[i] = new Lane(i, laneQueueSize, newState(false, null));
+      synchronized (clearLock) {
+         lastClearBarrier = null;
+      }
 
       super.start();
 
       int poolSize = asyncConfiguration.threadPoolSize();
-      executor = new ThreadPoolExecutor(0, poolSize, 120L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
-            new ThreadFactory() {
-               @Override
-               public Thread newThread(Runnable r) {
-                  Thread t = new Thread(r, "AsyncStoreProcessor-" + cacheName + "-" + threadId.getAndIncrement());
-                  t.setDaemon(true);
-                  return t;
-               }
-            });
-      coordinator = new Thread(new AsyncStoreCoordinator(), "AsyncStoreCoordinator-" + cacheName);
-      coordinator.setDaemon(true);
-      coordinator.start();
+      ThreadFactory threadFactory = new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "AsyncStoreProcessor-" + cacheName + "-" + threadId.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+         }
+      };
+      if (laneCount == 1) {
+         executor = new ThreadPoolExecutor(0, poolSize, 120L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+               threadFactory);
+      } else {
+         // each lane writes with up to poolSize threads, independently of the other lanes
+         ThreadPoolExecutor laneExecutor = new ThreadPoolExecutor(poolSize * laneCount, poolSize * laneCount, 120L,
+               TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+         laneExecutor.allowCoreThreadTimeOut(true);
+         executor = laneExecutor;
+      }
+      for (Lane lane : lanes) {
+         String name = laneCount == 1 ? "AsyncStoreCoordinator-" + cacheName : "AsyncStoreCoordinator-" + cacheName + "-" + lane.index;
+         lane.coordinator = new Thread(new AsyncStoreCoordinator(lane), name);
+         lane.coordinator.setDaemon(true);
+         lane.coordinator.start();
+      }
    }
 
    @Override
    public void stop() throws CacheLoaderException {
       if (trace) log.tracef("Stop async store %s", this);
-      stateLock.writeLock(1);
-      state.stopped = true;
-      stateLock.writeUnlock();
+      for (Lane lane : lanes) {
+         lane.stateLock.writeLock(1);
+         lane.state.stopped = true;
+         lane.stateLock.writeUnlock();
+      }
+      long deadline = timeService.expectedEndTime(shutdownTimeout, TimeUnit.MILLISECONDS);
       try {
-         coordinator.join(shutdownTimeout);
-         if (coordinator.isAlive())
-            log.error("Async store executor did not stop properly");
+         for (Lane lane : lanes) {
+            lane.coordinator.join(Math.max(1, timeService.remainingTime(deadline, TimeUnit.MILLISECONDS)));
+            if (lane.coordinator.isAlive())
+               log.error("Async store executor did not stop properly");
+         }
       } catch (InterruptedException e) {
          log.interruptedWaitingAsyncStorePush(e);
          Thread.currentThread().interrupt();
+      } finally {
+         shutdownExecutor(deadline);
       }
       super.stop();
    }
 
+   private void shutdownExecutor(long deadline) {
+      // Wait for existing workers to finish
+      boolean workersTerminated = false;
+      try {
+         executor.shutdown();
+         workersTerminated = executor.awaitTermination(Math.max(1, timeService.remainingTime(deadline, TimeUnit.MILLISECONDS)),
+               TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      if (!workersTerminated) {
+         // if the worker threads did not finish cleanly in the allotted time then we try to interrupt them to shut down
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * @return the number of lanes the modifications are partitioned into
+    */
+   public int getLaneCount() {
+      return lanes.length;
+   }
+
+   /**
+    * @return the number of modifications waiting to be written to the back-end store, by lane
+    */
+   public int[] getPendingModifications() {
+      int[] pending = new int[lanes.length];
+      for (int i = 0; i < lanes.length; i++) {
+         for (State s = lanes[i].state; s != null; s = s.next)
+            pending[i] += s.modifications.size();
+      }
+      return pending;
+   }
+
+   /**
+    * @return the average time in milliseconds taken to write a batch of modifications to the back-end store, by lane
+    */
+   public long[] getAverageFlushTimes() {
+      long[] times = new long[lanes.length];
+      for (int i = 0; i < lanes.length; i++) {
+         long flushes = lanes[i].flushes.get();
+         times[i] = flushes == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(lanes[i].flushNanos.get() / flushes);
+      }
+      return times;
+   }
+
+   /**
+    * @return the number of writes which had to wait for room in the modification queue, by lane
+    */
+   public long[] getBlockedWrites() {
+      long[] blocked = new long[lanes.length];
+      for (int i = 0; i < lanes.length; i++)
+         blocked[i] = lanes[i].blockedWrites.get();
+      return blocked;
+   }
+
+   public void resetStatistics() {
+      for (Lane lane : lanes) {
+         lane.flushes.set(0);
+         lane.flushNanos.set(0);
+         lane.blockedWrites.set(0);
+      }
+   }
+
    protected void applyModificationsSync(List<Modification> mods) throws CacheLoaderException {
       getDelegate().prepare(mods, txFactory.newGlobalTransaction(null, false), true);
    }
@@ -353,18 +612,35 @@ private static class State {
       private volatile boolean stopped = false;
 
       /**
-       * Number of worker threads that currently work with this instance.
+       * Number of worker threads that currently work with this instance, null until they are started.
+       */
+      private volatile CountDownLatch workerThreads;
+
+      /**
+       * If the state has been cleared in all the lanes, synchronizes the lanes to clear the back-end CacheStore.
        */
-      private CountDownLatch workerThreads;
+      private final ClearBarrier clearBarrier;
 
-      private State(boolean clear, ConcurrentMap<Object, Modification> modMap, State next) {
+      private State(boolean clear, ConcurrentMap<Object, Modification> modMap, State next, ClearBarrier clearBarrier) {
          this.clear = clear;
          this.modifications = modMap;
          this.next = next;
+         this.clearBarrier = clearBarrier;
          if (next != null)
             stopped = next.stopped;
       }
 
+      /**
+       * @return true if this State or a chained State has been cleared
+       */
+      boolean isCleared() {
+         for (State state = this; state != null; state = state.next) {
+            if (state.clear)
+               return true;
+         }
+         return false;
+      }
+
       /**
        * Gets the Modification for the specified key from this State object or chained (
        * <code>next</code>) State objects.
@@ -546,11 +822,16 @@ protected boolean tryReleaseShared(int unused) {
        *
        * @param count
        *           number of items the caller intends to write
+       * @return true if the caller had to wait for buffer space
        */
-      void writeLock(int count) {
-         if (counter != null)
+      boolean writeLock(int count) {
+         boolean blocked = false;
+         if (counter != null && counter.tryAcquireShared(count) < 0) {
+            blocked = true;
             counter.acquireShared(count);
+         }
          sync.acquireShared(1);
+         return blocked;
       }
 
       /**
@@ -602,7 +883,106 @@ void add(int count) {
       }
    }
 
+   /**
+    * A partition of the modifications, by the hash of their keys, with its own buffer and coordinator thread.
+    */
+   private static class Lane {
+      final int index;
+      final BufferLock stateLock;
+      @GuardedBy("stateLock")
+      volatile State state;
+      Thread coordinator;
+
+      final AtomicLong flushes = new AtomicLong();
+      final AtomicLong flushNanos = new AtomicLong();
+      final AtomicLong blockedWrites = new AtomicLong();
+
+      Lane(int index, int queueSize, State state) {
+         this.index = index;
+         this.stateLock = new BufferLock(queueSize);
+         this.state = state;
+      }
+   }
+
+   /**
+    * Clears the back-end store once all the lanes have written the modifications preceding the clear.  The lanes don't
+    * write the modifications following the clear until it's done, or until the barrier is broken by a later clear.
+    */
+   private class ClearBarrier {
+      private final AtomicInteger remainingLanes;
+      private final CountDownLatch cleared = new CountDownLatch(1);
+      private volatile boolean broken;
+
+      ClearBarrier(int lanes) {
+         remainingLanes = new AtomicInteger(lanes);
+      }
+
+      /**
+       * Called by each lane once it has written the modifications preceding the clear.  The last lane clears the store,
+       * the others wait for it, keeping their following modifications queued, unless the store is stopping.
+       */
+      void arrive(Lane lane) throws InterruptedException {
+         if (remainingLanes.decrementAndGet() == 0) {
+            try {
+               clearDelegate();
+            } finally {
+               cleared.countDown();
+            }
+            return;
+         }
+         while (!cleared.await(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+            if (lane.state.stopped) {
+               log.debugf("Async store stopping, no longer waiting for the other lanes to clear the store");
+               breakBarrier();
+            } else {
+               log.debugf("Still waiting for the other lanes to clear the async store");
+            }
+         }
+         if (broken && trace)
+            log.tracef("Clear barrier broken, carrying on without waiting for the other lanes");
+      }
+
+      /**
+       * Releases the lanes waiting for the other lanes, without clearing the store.
+       */
+      void breakBarrier() {
+         broken = true;
+         cleared.countDown();
+      }
+
+      /**
+       * @return false if the store hasn't been cleared in time, nor the barrier broken
+       */
+      boolean awaitCleared() {
+         try {
+            return cleared.await(shutdownTimeout, TimeUnit.MILLISECONDS);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+         }
+      }
+   }
+
+   private void clearDelegate() {
+      // like the other modifications, try 3 times to clear the store
+      for (int attempt = 0; attempt < 3; attempt++) {
+         try {
+            getDelegate().clear();
+            return;
+         } catch (Exception e) {
+            if (log.isDebugEnabled())
+               log.debug("Failed to clear the async store", e);
+         }
+      }
+      log.unableToProcessAsyncModifications(3);
+   }
+
    private class AsyncStoreCoordinator implements Runnable {
+      private final Lane lane;
+
+      AsyncStoreCoordinator(Lane lane) {
+         this.lane = lane;
+      }
 
       @Override
       public void run() {
@@ -610,28 +990,31 @@ public void run() {
          try {
             for (;;) {
                State s, head, tail;
-               s = state;
+               s = lane.state;
                if (shouldStop(s)) {
                   return;
                }
 
-               stateLock.readLock();
+               lane.stateLock.readLock();
                try {
-                  s = state;
+                  s = lane.state;
                   tail = s.next;
                   assert tail == null || tail.next == null : "State chain longer than 3 entries!";
-                  state = head = newState(false, s);
+                  lane.state = head = newState(false, s);
                } finally {
-                  stateLock.reset(0);
-                  stateLock.readUnlock();
+                  lane.stateLock.reset(0);
+                  lane.stateLock.readUnlock();
                }
 
                try {
                   if (s.clear) {
                      // clear() must be called synchronously, wait until background threads are done
                      if (tail != null)
-                        workerThreadsAwait(tail.workerThreads);
-                     getDelegate().clear();
+                        awaitPreviousRound(tail.workerThreads);
+                     if (s.clearBarrier != null)
+                        s.clearBarrier.arrive(lane);
+                     else
+                        clearDelegate();
                   }
 
                   List<Modification> mods;
@@ -643,7 +1026,7 @@ public void run() {
                            mods.add(e.getValue());
                         else {
                            if (!head.clear && head.modifications.putIfAbsent(e.getKey(), e.getValue()) == null)
-                              stateLock.add(1);
+                              lane.stateLock.add(1);
                            s.modifications.remove(e.getKey());
                         }
                      }
@@ -661,7 +1044,7 @@ public void run() {
                      int remainder = mods.size() % threads;
                      for (int i = 0; i < threads; i++) {
                         int end = start + quotient + (i < remainder ? 1 : 0);
-                        executor.execute(new AsyncStoreProcessor(mods.subList(start, end), s));
+                        executor.execute(new AsyncStoreProcessor(mods.subList(start, end), s, lane));
                         start = end;
                      }
                      assert start == mods.size() : "Thread distribution is broken!";
@@ -669,7 +1052,7 @@ public void run() {
 
                   // wait until background threads of previous round are done
                   if (tail != null) {
-                     workerThreadsAwait(tail.workerThreads);
+                     awaitPreviousRound(tail.workerThreads);
                      s.next = null;
                   }
 
@@ -681,27 +1064,48 @@ public void run() {
                } catch (InterruptedException e) {
                   log.asyncStoreCoordinatorInterrupted(e);
                   Thread.currentThread().interrupt();
+                  requeue(s, head, tail);
                } catch (Exception e) {
                   log.unexpectedErrorInAsyncStoreCoordinator(e);
+                  requeue(s, head, tail);
                }
             }
          } finally {
-            try {
-               // Wait for existing workers to finish
-               boolean workersTerminated = false;
-               try {
-                  executor.shutdown();
-                  workersTerminated = executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS);
-               } catch (InterruptedException e) {
-                  Thread.currentThread().interrupt();
-               }
-               if (!workersTerminated) {
-                  // if the worker threads did not finish cleanly in the allotted time then we try to interrupt them to shut down
-                  executor.shutdownNow();
-               }
-            } finally {
-               LogFactory.popNDC(trace);
-            }
+            // the workers are shut down by stop(), once all the lanes are done
+            LogFactory.popNDC(trace);
+         }
+      }
+
+      /**
+       * Moves the modifications of a state which failed before handing them to the workers to the head state, so they
+       * are written in the next round instead of being lost.
+       */
+      private void requeue(State s, State head, State tail) {
+         if (s.workerThreads != null)
+            return;
+         // the next round waits for the workers of the previous round through this state
+         s.workerThreads = tail != null && tail.workerThreads != null ? tail.workerThreads : new CountDownLatch(0);
+         s.next = null;
+         for (Map.Entry<Object, Modification> e : s.modifications.entrySet()) {
+            // the modifications queued since then are more recent, or cleared
+            if (!head.clear && head.modifications.putIfAbsent(e.getKey(), e.getValue()) == null)
+               lane.stateLock.add(1);
+            s.modifications.remove(e.getKey());
+         }
+      }
+
+      /**
+       * Waits for the workers of the previous round.  The store can't be cleared, nor the keys they're writing written
+       * again, until they're done, so this keeps waiting for them unless the store is stopping.
+       */
+      private void awaitPreviousRound(CountDownLatch latch) throws InterruptedException {
+         // no worker threads were started if the state failed before its modifications were scheduled
+         if (latch == null)
+            return;
+         while (!latch.await(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+            if (lane.state.stopped)
+               throw log.waitingForWorkerThreadsFailed(latch);
+            log.debugf("Still waiting for the async store workers of the previous round");
          }
       }
 
@@ -719,21 +1123,26 @@ private void workerThreadsAwait(CountDownLatch latch) throws InterruptedExceptio
    private class AsyncStoreProcessor implements Runnable {
       private final List<Modification> modifications;
       private final State myState;
+      private final Lane lane;
 
-      AsyncStoreProcessor(List<Modification> modifications, State myState) {
+      AsyncStoreProcessor(List<Modification> modifications, State myState, Lane lane) {
          this.modifications = modifications;
          this.myState = myState;
+         this.lane = lane;
       }
 
       @Override
       public void run() {
          // try 3 times to store the modifications
+         long start = timeService.time();
          retryWork(3);
+         lane.flushNanos.addAndGet(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
+         lane.flushes.incrementAndGet();
 
          // decrement active worker threads and disconnect myState if this was the last one
          myState.workerThreads.countDown();
          if (myState.workerThreads.getCount() == 0)
-            for (State s = state; s != null; s = s.next)
+            for (State s = lane.state; s != null; s = s.next)
                if (s.next == myState)
                   s.next = null;
       }
@@ -9,6 +9,7 @@
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -18,6 +19,8 @@
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -60,6 +63,16 @@ public void store(InternalCacheEntry ed) throws CacheLoaderException {
       }
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      loadersAndStoresMutex.readLock().lock();
+      try {
+         for (CacheStore s : stores.keySet()) s.storeAll(entries);
+      } finally {
+         loadersAndStoresMutex.readLock().unlock();
+      }
+   }
+
    @Override
    public void fromStream(ObjectInput inputStream) throws CacheLoaderException {
       loadersAndStoresMutex.readLock().lock();
@@ -195,6 +208,28 @@ public InternalCacheEntry load(Object key) throws CacheLoaderException {
       return se;
    }
 
+   /**
+    * Looks up the keys in the loaders in order, each loader being queried in bulk for the keys the previous ones
+    * didn't find.
+    */
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      Set<Object> missing = new HashSet<Object>(keys);
+      loadersAndStoresMutex.readLock().lock();
+      try {
+         for (CacheLoader l : loaders.keySet()) {
+            if (missing.isEmpty()) break;
+            Map<Object, InternalCacheEntry> loaded = l.loadAll(missing);
+            entries.putAll(loaded);
+            missing.removeAll(loaded.keySet());
+         }
+      } finally {
+         loadersAndStoresMutex.readLock().unlock();
+      }
+      return entries;
+   }
+
    @Override
    public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
       Set<InternalCacheEntry> set = new HashSet<InternalCacheEntry>();
@@ -225,6 +260,29 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return set;
    }
 
+   @Override
+   public void process(final CacheLoaderTask task) throws CacheLoaderException {
+      // only keep the keys in memory, to skip the entries already processed
+      final Set<Object> processedKeys = new HashSet<Object>();
+      final boolean[] stopped = new boolean[1];
+      loadersAndStoresMutex.readLock().lock();
+      try {
+         for (CacheStore s : stores.keySet()) {
+            s.process(new CacheLoaderTask() {
+               @Override
+               public boolean processEntry(InternalCacheEntry entry) throws InterruptedException {
+                  if (!processedKeys.add(entry.getKey())) return true;
+                  stopped[0] = !task.processEntry(entry);
+                  return !stopped[0];
+               }
+            });
+            if (stopped[0]) break;
+         }
+      } finally {
+         loadersAndStoresMutex.readLock().unlock();
+      }
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       Set<Object> set = new HashSet<Object>();
@@ -237,6 +295,21 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return set;
    }
 
+   /**
+    * {@inheritDoc} The loaders may hold the same entries, so this returns the largest of their counts.
+    */
+   @Override
+   public int size() throws CacheLoaderException {
+      int size = 0;
+      loadersAndStoresMutex.readLock().lock();
+      try {
+         for (CacheLoader l : loaders.keySet()) size = Math.max(size, l.size());
+      } finally {
+         loadersAndStoresMutex.readLock().unlock();
+      }
+      return size;
+   }
+
    @Override
    public boolean containsKey(Object key) throws CacheLoaderException {
       loadersAndStoresMutex.readLock().lock();
@@ -8,7 +8,9 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.io.ObjectInput;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A decorator that makes the underlying store a {@link org.infinispan.loaders.spi.CacheLoader}, i.e., suppressing all write
@@ -29,6 +31,11 @@ public void store(InternalCacheEntry ed) {
       log.trace("Ignoring store invocation"); 
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) {
+      log.trace("Ignoring bulk store invocation");
+   }
+
    @Override
    public void fromStream(ObjectInput inputStream) {
       log.trace("Ignoring writing contents of stream to store");
@@ -45,6 +52,11 @@ public boolean remove(Object key) {
       return false;  // no-op
    }
 
+   @Override
+   public void removeAll(Set<Object> keys) {
+      log.trace("Ignoring bulk removal of keys");
+   }
+
    @Override
    public void purgeExpired() {
       log.trace("Ignoring purge expired invocation");
@@ -0,0 +1,335 @@
+package org.infinispan.loaders.decorators;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.modifications.Modification;
+import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A cache store made of two tiers: a fast local store, usually on disk, in front of a slower store shared by the
+ * cluster, usually a database.  The first configured store is the local tier, the second one the shared tier.
+ * <p/>
+ * READ operations look up the local tier first, then the shared tier, and copy the entries found in the shared tier to
+ * the local one.  Operations over all the entries only use the shared tier, which holds all of them.
+ * <p/>
+ * WRITE operations are applied to the shared tier first, then to the local tier.  To write behind to the shared tier,
+ * configure it as asynchronous.
+ * <p/>
+ * The local tier is cleared when the topology of the cluster changes, and with a shared cache store the keys written
+ * by other nodes are removed from it, as only one node writes each entry to a shared store: the primary owner of the
+ * key with a distributed cache, the node the write originates from otherwise.  Likewise, the nodes which don't clear
+ * a shared store themselves clear their local tier.
+ *
+ * @since 6.0
+ */
+public class TieredCacheStore extends ChainingCacheStore {
+   private static final Log log = LogFactory.getLog(TieredCacheStore.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final int WRITE_STRIPES = 64;
+
+   private volatile CacheStore localTier;
+   private volatile CacheStore sharedTier;
+   /**
+    * Counts the writes of the keys in each stripe, so that an entry copied from the shared tier to the local one while
+    * the key was written can be removed again.  Writers increment the count after writing to the shared tier and before
+    * writing to the local one.
+    */
+   private final AtomicLongArray writes = new AtomicLongArray(WRITE_STRIPES);
+   private final Cache<?, ?> cache;
+   private TierInvalidator invalidator;
+
+   public TieredCacheStore(Cache<?, ?> cache) {
+      this.cache = cache;
+   }
+
+   @Override
+   public void addCacheLoader(CacheLoader loader) {
+      super.addCacheLoader(loader);
+      updateTiers();
+   }
+
+   @Override
+   public void removeCacheLoader(String loaderType) {
+      super.removeCacheLoader(loaderType);
+      updateTiers();
+   }
+
+   private void updateTiers() {
+      List<CacheStore> stores = new ArrayList<CacheStore>(getStores().keySet());
+      localTier = stores.isEmpty() ? null : stores.get(0);
+      sharedTier = stores.isEmpty() ? null : stores.get(stores.size() - 1);
+   }
+
+   @Override
+   public void start() throws CacheLoaderException {
+      super.start();
+      invalidator = new TierInvalidator(this, cache.getCacheConfiguration().loaders().shared());
+      cache.addListener(invalidator);
+   }
+
+   @Override
+   public void stop() throws CacheLoaderException {
+      if (invalidator != null) {
+         cache.removeListener(invalidator);
+         invalidator = null;
+      }
+      super.stop();
+   }
+
+   @Override
+   public InternalCacheEntry load(Object key) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return null;
+      InternalCacheEntry entry = local.load(key);
+      if (entry == null && shared != local) {
+         long writeCount = writes.get(stripe(key));
+         entry = shared.load(key);
+         if (entry != null) copyToLocalTier(local, entry, writeCount);
+      }
+      return entry;
+   }
+
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return new HashMap<Object, InternalCacheEntry>();
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>(local.loadAll(keys));
+      if (entries.size() < keys.size() && shared != local) {
+         Map<Object, Long> writeCounts = new HashMap<Object, Long>();
+         for (Object key : keys) {
+            if (!entries.containsKey(key)) writeCounts.put(key, writes.get(stripe(key)));
+         }
+         Map<Object, InternalCacheEntry> loaded = shared.loadAll(writeCounts.keySet());
+         for (InternalCacheEntry entry : loaded.values()) {
+            copyToLocalTier(local, entry, writeCounts.get(entry.getKey()));
+         }
+         entries.putAll(loaded);
+      }
+      return entries;
+   }
+
+   private void copyToLocalTier(CacheStore local, InternalCacheEntry entry, long writeCount) {
+      Object key = entry.getKey();
+      try {
+         local.store(entry);
+         // the key was written while it was loaded, so the copy may be older than the local tier's entry
+         if (writes.get(stripe(key)) != writeCount) {
+            if (trace) log.tracef("Key %s was written while it was loaded from the shared tier", key);
+            local.remove(key);
+         }
+      } catch (CacheLoaderException e) {
+         log.debugf(e, "Unable to copy key %s to the local tier", key);
+      }
+   }
+
+   @Override
+   public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
+      CacheStore shared = sharedTier;
+      return shared == null ? new HashSet<InternalCacheEntry>() : shared.loadAll();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
+      CacheStore shared = sharedTier;
+      return shared == null ? new HashSet<InternalCacheEntry>() : shared.load(numEntries);
+   }
+
+   @Override
+   public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
+      CacheStore shared = sharedTier;
+      return shared == null ? new HashSet<Object>() : shared.loadAllKeys(keysToExclude);
+   }
+
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      CacheStore shared = sharedTier;
+      if (shared != null) shared.process(task);
+   }
+
+   @Override
+   public int size() throws CacheLoaderException {
+      CacheStore shared = sharedTier;
+      return shared == null ? 0 : shared.size();
+   }
+
+   @Override
+   public boolean containsKey(Object key) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      return local != null && (local.containsKey(key) || shared != local && shared.containsKey(key));
+   }
+
+   @Override
+   public void store(InternalCacheEntry entry) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return;
+      if (shared != local) shared.store(entry);
+      writes.incrementAndGet(stripe(entry.getKey()));
+      local.store(entry);
+   }
+
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return;
+      if (shared != local) shared.storeAll(entries);
+      for (InternalCacheEntry entry : entries) writes.incrementAndGet(stripe(entry.getKey()));
+      local.storeAll(entries);
+   }
+
+   @Override
+   public boolean remove(Object key) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return false;
+      boolean removed = shared != local && shared.remove(key);
+      writes.incrementAndGet(stripe(key));
+      return local.remove(key) || removed;
+   }
+
+   @Override
+   public void removeAll(Set<Object> keys) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return;
+      if (shared != local) shared.removeAll(keys);
+      for (Object key : keys) writes.incrementAndGet(stripe(key));
+      local.removeAll(keys);
+   }
+
+   @Override
+   public void clear() throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return;
+      if (shared != local) shared.clear();
+      incrementAllStripes();
+      local.clear();
+   }
+
+   @Override
+   public void prepare(List<? extends Modification> list, GlobalTransaction tx, boolean isOnePhase) throws
+         CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return;
+      if (shared != local) shared.prepare(list, tx, isOnePhase);
+      // the keys of the transaction aren't known when it commits, so all the stripes are counted as written
+      if (isOnePhase) incrementAllStripes();
+      local.prepare(list, tx, isOnePhase);
+   }
+
+   @Override
+   public void commit(GlobalTransaction tx) throws CacheLoaderException {
+      CacheStore local = localTier;
+      CacheStore shared = sharedTier;
+      if (local == null) return;
+      if (shared != local) shared.commit(tx);
+      incrementAllStripes();
+      local.commit(tx);
+   }
+
+   /**
+    * Removes all the entries from the local tier, e.g. because the topology of the cluster changed and other nodes may
+    * have written the keys it holds.
+    */
+   public void invalidateLocalTier() throws CacheLoaderException {
+      CacheStore local = localTier;
+      if (local != null && local != sharedTier) {
+         incrementAllStripes();
+         local.clear();
+      }
+   }
+
+   /**
+    * Removes the entry of the key from the local tier, e.g. because it has been written by another node.
+    */
+   public void invalidateLocalTier(Object key) throws CacheLoaderException {
+      CacheStore local = localTier;
+      if (local != null && local != sharedTier) {
+         writes.incrementAndGet(stripe(key));
+         local.remove(key);
+      }
+   }
+
+   private void incrementAllStripes() {
+      for (int i = 0; i < WRITE_STRIPES; i++) writes.incrementAndGet(i);
+   }
+
+   private static int stripe(Object key) {
+      int h = key.hashCode();
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      return h & (WRITE_STRIPES - 1);
+   }
+
+   @Listener
+   public static class TierInvalidator {
+      private final TieredCacheStore store;
+      private final boolean shared;
+
+      TierInvalidator(TieredCacheStore store, boolean shared) {
+         this.store = store;
+         this.shared = shared;
+      }
+
+      @TopologyChanged
+      public void topologyChanged(TopologyChangedEvent<?, ?> event) throws CacheLoaderException {
+         if (!event.isPre()) {
+            log.debugf("Topology changed, invalidating the local tier of %s", event.getCache().getName());
+            store.invalidateLocalTier();
+         }
+      }
+
+      @CacheEntryModified
+      @CacheEntryRemoved
+      @CacheEntryInvalidated
+      public void entryWritten(CacheEntryEvent<?, ?> event) throws CacheLoaderException {
+         // the node which writes the entry to a shared store writes it to both tiers
+         if (shared && !event.isPre() && !writesSharedStore(event)) {
+            store.invalidateLocalTier(event.getKey());
+         }
+      }
+
+      /**
+       * Whether this node writes the entry to a shared store, as decided by the cache store interceptors.
+       */
+      private boolean writesSharedStore(CacheEntryEvent<?, ?> event) {
+         AdvancedCache<?, ?> cache = event.getCache().getAdvancedCache();
+         DistributionManager dm = cache.getDistributionManager();
+         if (dm != null) {
+            // the events of a distributed cache are raised by all the owners, only the primary owner writes the store
+            return dm.getPrimaryLocation(event.getKey()).equals(cache.getRpcManager().getAddress());
+         }
+         return event.isOriginLocal();
+      }
+   }
+}
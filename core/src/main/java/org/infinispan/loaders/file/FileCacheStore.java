@@ -17,7 +17,6 @@
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -30,11 +29,14 @@
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A filesystem-based implementation of a {@link org.infinispan.loaders.bucket.BucketBasedCacheStore}.  This file store
@@ -58,6 +60,9 @@ public class FileCacheStore extends BucketBasedCacheStore {
    File root;
    FileSync fileSync;
 
+   // the number of buckets purged so far, each purge starts with the bucket following the last one purged
+   private final AtomicInteger purgeCursor = new AtomicInteger();
+
    /**
     * @return root directory where all files for this {@link org.infinispan.loaders.spi.CacheStore CacheStore} are written.
     */
@@ -196,17 +201,26 @@ protected void purgeInternal() throws CacheLoaderException {
       if (trace) log.trace("purgeInternal()");
 
       File[] files = listFilesStrict(root, NUMERIC_NAMED_FILES_FILTER);
+      if (files.length == 0) return;
 
-      for (final File bucketFile : files) {
+      // start where the previous purge stopped, in case it used up its time budget
+      int first = (purgeCursor.get() & Integer.MAX_VALUE) % files.length;
+      for (int i = 0; i < files.length; i++) {
+         final File bucketFile = files[(first + i) % files.length];
          if (multiThreadedPurge) {
             purgerService.execute(new Runnable() {
                @Override
                public void run() {
+                  if (isPurgeBudgetExhausted()) return;
                   boolean interrupted = !doPurge(bucketFile);
                   if (interrupted) log.debug("Interrupted, so finish work.");
                }
             });
          } else {
+            if (isPurgeBudgetExhausted()) {
+               log.debugf("Purge time budget used up, %d buckets left to the next purge", files.length - i);
+               break;
+            }
             boolean interrupted = !doPurge(bucketFile);
             if (interrupted) {
                log.debug("Interrupted, so stop loading and finish with purging.");
@@ -225,13 +239,14 @@ public void run() {
     */
    private boolean doPurge(File bucketFile) {
       Integer bucketKey = Integer.valueOf(bucketFile.getName());
+      List<Object> purgedKeys = hasPurgeListeners() ? new ArrayList<Object>() : null;
       boolean interrupted = false;
       try {
          lockForReading(bucketKey);
          Bucket bucket = loadBucket(bucketFile);
 
          if (bucket != null) {
-            if (bucket.removeExpiredEntries()) {
+            if (bucket.removeExpiredEntries(purgedKeys)) {
                upgradeLock(bucketKey);
                updateBucket(bucket);
             }
@@ -244,13 +259,19 @@ private boolean doPurge(File bucketFile) {
                   log.info("Unable to remove empty file " + bucketFile + " - will try again later.");
             }
          }
+         purgeCursor.incrementAndGet();
       } catch (InterruptedException ie) {
          interrupted = true;
+         purgedKeys = null;
       } catch (CacheLoaderException e) {
          log.problemsPurgingFile(bucketFile, e);
+         purgedKeys = null;
       } finally {
          unlock(bucketKey);
       }
+      if (purgedKeys != null) {
+         for (Object key : purgedKeys) notifyEntryPurged(key);
+      }
       return !interrupted;
    }
 
@@ -351,10 +372,14 @@ public void start() throws CacheLoaderException {
             fileSync = new BufferedFileSync();
             break;
          case PER_WRITE:
-            fileSync = new PerWriteFileSync();
+            fileSync = new PerWriteFileSync(configuration.fsyncMetadata());
             break;
          case PERIODIC:
-            fileSync = new PeriodicFileSync(configuration.fsyncInterval());
+            fileSync = new PeriodicFileSync(configuration.fsyncInterval(), configuration.fsyncMetadata());
+            break;
+         case GROUP_COMMIT:
+            fileSync = new GroupCommitFileSync(new GroupCommitter("FileCacheStore-GroupCommitter-" + cache.getName(),
+                  configuration.fsyncMaxLatency(), TimeUnit.MILLISECONDS, configuration.fsyncMetadata()));
             break;
       }
 
@@ -402,13 +427,8 @@ private Object objectFromInputStreamInReentrantMode(InputStream is) throws IOExc
          while ((bytesRead = is.read(buf, 0, buf.length)) != -1) {
             bytes.write(buf, 0, bytesRead);
          }
-         is = new ByteArrayInputStream(bytes.getRawBuffer(), 0, bytes.size());
-         ObjectInput unmarshaller = marshaller.startObjectInput(is, false);
-         try {
-            o = marshaller.objectFromObjectStream(unmarshaller);
-         } finally {
-            marshaller.finishObjectInput(unmarshaller);
-         }
+         // the buckets are written with objectToByteBuffer, read them back with the matching method
+         o = marshaller.objectFromByteBuffer(bytes.getRawBuffer(), 0, bytes.size());
       }
       return o;
    }
@@ -514,6 +534,14 @@ public void write(byte[] bytes, File f) throws IOException {
             }
          }
          channel.write(ByteBuffer.wrap(bytes));
+         written(channel);
+      }
+
+      /**
+       * Invoked after the bytes have been written to the channel.
+       */
+      protected void written(FileChannel channel) throws IOException {
+         // the changes are synced when the channel is flushed or closed
       }
 
       @Override
@@ -579,7 +607,7 @@ private class PeriodicFileSync extends BufferedFileSync {
             Executors.newSingleThreadScheduledExecutor();
       protected final ConcurrentMap<String, IOException> flushErrors = CollectionFactory.makeConcurrentMap();
 
-      private PeriodicFileSync(long interval) {
+      private PeriodicFileSync(long interval, final boolean metadata) {
          executor.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
@@ -588,7 +616,7 @@ public void run() {
                      log.tracef("Flushing channel in %s", entry.getKey());
                   FileChannel channel = entry.getValue();
                   try {
-                     channel.force(true);
+                     channel.force(metadata);
                   } catch (IOException e) {
                      if (trace)
                         log.tracef(e, "Error flushing output stream for %s", entry.getKey());
@@ -620,7 +648,35 @@ public void stop() {
       }
    }
 
+   /**
+    * Syncs the channels written by concurrent writers together, blocking each writer until its write is synced.
+    */
+   private static class GroupCommitFileSync extends BufferedFileSync {
+      private final GroupCommitter committer;
+
+      private GroupCommitFileSync(GroupCommitter committer) {
+         this.committer = committer;
+      }
+
+      @Override
+      protected void written(FileChannel channel) throws IOException {
+         committer.commit(channel);
+      }
+
+      @Override
+      public void stop() {
+         committer.stop();
+         super.stop();
+      }
+   }
+
    private static class PerWriteFileSync implements FileSync {
+      private final boolean metadata;
+
+      private PerWriteFileSync(boolean metadata) {
+         this.metadata = metadata;
+      }
+
       @Override
       public void write(byte[] bytes, File f) throws IOException {
          FileOutputStream fos = null;
@@ -629,7 +685,7 @@ public void write(byte[] bytes, File f) throws IOException {
                fos = new FileOutputStream(f);
                fos.write(bytes);
                fos.flush();
-               fos.getChannel().force(true);
+               fos.getChannel().force(metadata);
             } else {
                deleteFile(f);
             }
@@ -0,0 +1,165 @@
+package org.infinispan.loaders.file;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Syncs file channels to disk on behalf of concurrent writers, so that a single sync makes the writes of all of them
+ * durable.
+ * <p/>
+ * Writers write to a channel and then call {@link #commit(FileChannel)}, which blocks until a sync of the channel
+ * started after the call has completed. A committer thread syncs the channels of all the waiting writers at once, and
+ * the writes issued while a sync is in progress are grouped in the next one. The committer can also wait up to a
+ * maximum latency after the first write of a batch for more writes to join it, trading commit latency for fewer syncs.
+ * <p/>
+ * Channels are synced with {@link FileChannel#force(boolean)}, which also writes the file metadata to disk when
+ * configured to.
+ *
+ * @since 6.0
+ */
+final class GroupCommitter {
+
+   private final long maxLatencyNanos;
+   private final boolean metadata;
+   private final Thread committer;
+
+   // guarded by this
+   private Batch batch = new Batch();
+   private boolean stopped;
+
+   /**
+    * @param metadata whether the syncs also write the file metadata to disk, see {@link FileChannel#force(boolean)}
+    */
+   GroupCommitter(String name, long maxLatency, TimeUnit unit, boolean metadata) {
+      this.maxLatencyNanos = unit.toNanos(maxLatency);
+      this.metadata = metadata;
+      this.committer = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            commitBatches();
+         }
+      }, name);
+      committer.setDaemon(true);
+      committer.start();
+   }
+
+   /**
+    * Blocks until the writes issued to the channel before the call are durable.
+    *
+    * @throws IOException if the channel couldn't be synced
+    */
+   void commit(FileChannel channel) throws IOException {
+      Batch current;
+      synchronized (this) {
+         if (stopped) {
+            channel.force(metadata);
+            return;
+         }
+         current = batch;
+         current.channels.add(channel);
+         if (current.channels.size() == 1)
+            notifyAll();
+      }
+      current.await();
+   }
+
+   /**
+    * Commits the pending writes and stops the committer thread. Writes committed afterwards are synced by the writers
+    * themselves.
+    */
+   void stop() {
+      synchronized (this) {
+         stopped = true;
+         notifyAll();
+      }
+      boolean interrupted = false;
+      while (committer.isAlive()) {
+         try {
+            committer.join();
+         } catch (InterruptedException e) {
+            interrupted = true;
+         }
+      }
+      if (interrupted)
+         Thread.currentThread().interrupt();
+   }
+
+   private void commitBatches() {
+      try {
+         for (;;) {
+            Batch toCommit;
+            synchronized (this) {
+               while (batch.channels.isEmpty() && !stopped)
+                  wait();
+               if (batch.channels.isEmpty())
+                  return;
+
+               // give concurrent writers a chance to join the batch
+               long deadline = System.nanoTime() + maxLatencyNanos;
+               long remaining;
+               while (!stopped && (remaining = deadline - System.nanoTime()) > 0)
+                  TimeUnit.NANOSECONDS.timedWait(this, remaining);
+
+               toCommit = batch;
+               batch = new Batch();
+            }
+            toCommit.commit();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } finally {
+         // don't leave writers waiting if the thread exits
+         Batch remaining;
+         synchronized (this) {
+            stopped = true;
+            remaining = batch;
+            batch = new Batch();
+         }
+         remaining.commit();
+      }
+   }
+
+   private final class Batch {
+      final Set<FileChannel> channels = new LinkedHashSet<FileChannel>();
+      final CountDownLatch committed = new CountDownLatch(1);
+      volatile IOException failure;
+
+      void commit() {
+         try {
+            for (FileChannel channel : channels) {
+               try {
+                  channel.force(metadata);
+               } catch (ClosedChannelException e) {
+                  // the file was closed because it was deleted or replaced, there's nothing left to sync
+               } catch (IOException e) {
+                  if (failure == null)
+                     failure = e;
+               }
+            }
+         } finally {
+            committed.countDown();
+         }
+      }
+
+      void await() throws IOException {
+         boolean interrupted = false;
+         // the write isn't durable until the batch is committed, so the wait can't be interrupted
+         while (committed.getCount() > 0) {
+            try {
+               committed.await();
+            } catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+         if (interrupted)
+            Thread.currentThread().interrupt();
+         if (failure != null)
+            throw new IOException("Unable to sync the written data to disk", failure);
+      }
+   }
+}
@@ -0,0 +1,69 @@
+package org.infinispan.loaders.file;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.infinispan.commons.marshall.StreamingMarshaller;
+
+/**
+ * A {@link LogFileIndex} keeping the key objects in a map on the Java heap.
+ *
+ * @since 6.0
+ */
+final class HeapLogFileIndex implements LogFileIndex {
+
+   private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+   private final StreamingMarshaller marshaller;
+
+   HeapLogFileIndex(StreamingMarshaller marshaller) {
+      this.marshaller = marshaller;
+   }
+
+   private Object key(Object key, byte[] keyBytes) throws Exception {
+      return key != null ? key : marshaller.objectFromByteBuffer(keyBytes);
+   }
+
+   @Override
+   public Entry get(Object key, byte[] keyBytes) throws Exception {
+      return entries.get(key(key, keyBytes));
+   }
+
+   @Override
+   public Entry put(Object key, byte[] keyBytes, Entry entry) throws Exception {
+      return entries.put(key(key, keyBytes), entry);
+   }
+
+   @Override
+   public Entry remove(Object key, byte[] keyBytes) throws Exception {
+      return entries.remove(key(key, keyBytes));
+   }
+
+   @Override
+   public boolean remove(Object key, byte[] keyBytes, Entry expected) throws Exception {
+      return entries.remove(key(key, keyBytes), expected);
+   }
+
+   @Override
+   public int size() {
+      return entries.size();
+   }
+
+   @Override
+   public void clear() {
+      entries.clear();
+   }
+
+   @Override
+   public void forEach(Visitor visitor) throws Exception {
+      for (Map.Entry<Object, Entry> e : entries.entrySet()) {
+         if (!visitor.visit(e.getKey(), null, e.getValue()))
+            return;
+      }
+   }
+
+   @Override
+   public void destroy() {
+      entries.clear();
+   }
+}
@@ -0,0 +1,1224 @@
+package org.infinispan.loaders.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.CacheLoaderConfiguration;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
+import org.infinispan.configuration.cache.LogFileCacheStoreConfiguration;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.CacheLoaderTask;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * A log structured, filesystem-based implementation of a {@link CacheStore}. Every write appends a record to the
+ * current log file in <tt>&lt;location&gt;/&lt;cache name&gt;/</tt>, and a removal appends a record marking the key as
+ * removed, so writes never seek nor rewrite existing data. Once the current log file reaches the configured maximum
+ * size, it is closed and writes continue in a new one.
+ * <p/>
+ * An index maps every key to the location of its most recent record. It can be kept either on the Java heap or, in
+ * marshalled form, in off-heap memory. On a clean shutdown the index is saved to a snapshot file, so that a restart
+ * only has to read the snapshot and the records appended after it rather than all the log files.
+ * <p/>
+ * Bulk stores and removals append all their records with a single write per log file they span.
+ * <p/>
+ * Writes are synced to disk as configured by the fsync mode. By default syncing is left to the operating system and
+ * the store is not durable: the writes acknowledged since the last sync of the operating system are lost if the
+ * machine crashes. With group commit, stores and removals block until a sync issued after their write completes, and
+ * a single sync covers the writes of all the concurrent writers. A log file is synced when writes move on to the next
+ * one, so only the current log file is synced after a write.
+ * <p/>
+ * Records overwritten, removed or expired leave dead space in the log files. A background thread compacts the closed
+ * log files in which the dead space exceeds the configured threshold: their live records are copied to the current log
+ * file and the files are deleted.
+ * <p/>
+ * The format of a record is as follows:
+ * <ul>
+ * <li>4 bytes: length of the serialized key</li>
+ * <li>4 bytes: length of the serialized data, -1 if the record marks the key as removed</li>
+ * <li>8 bytes: expiry time</li>
+ * <li>4 bytes: CRC32 checksum of the other header fields, the key and the data</li>
+ * <li>serialized key</li>
+ * <li>serialized data</li>
+ * </ul>
+ * A record whose checksum doesn't match, e.g. because it was partially written when the process died, ends the log
+ * file: it is truncated when the store starts.
+ *
+ * @since 6.0
+ */
+public class LogFileCacheStore extends AbstractCacheStore {
+
+   private static final Log log = LogFactory.getLog(LogFileCacheStore.class);
+
+   private static final String LOG_FILE_SUFFIX = ".log";
+   private static final String SNAPSHOT_FILE_NAME = "index.snapshot";
+   private static final byte[] SNAPSHOT_MAGIC = new byte[] { 'L', 'F', 'I', '1' };
+
+   private static final int DATA_LENGTH_POS = 4;
+   private static final int EXPIRY_TIME_POS = 8;
+   private static final int CHECKSUM_POS = 16;
+   private static final int HEADER_SIZE = 20;
+   private static final int REMOVED = -1;
+
+   private LogFileCacheStoreConfiguration configuration;
+
+   private File directory;
+   private LogFileIndex index;
+   private final ConcurrentNavigableMap<Integer, LogFile> files = new ConcurrentSkipListMap<Integer, LogFile>();
+   private ExecutorService compactor;
+   private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+   private volatile boolean stopping;
+
+   private volatile GroupCommitter committer;
+   private ScheduledExecutorService periodicSync;
+   private volatile IOException syncFailure;
+
+   /**
+    * Serializes the modifications of the log files, of the index and of the log file statistics.
+    */
+   private final Object writeLock = new Object();
+   private LogFile current;
+   private int nextFileId;
+
+   /** {@inheritDoc} */
+   @Override
+   public void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, StreamingMarshaller m) throws
+         CacheLoaderException {
+      this.configuration = validateConfigurationClass(configuration, LogFileCacheStoreConfiguration.class);
+      super.init(configuration, cache, m);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void start() throws CacheLoaderException {
+      super.start();
+      try {
+         String location = configuration.location();
+         if (location == null || location.trim().length() == 0)
+            location = "Infinispan-LogFileCacheStore";
+
+         directory = new File(location, cache.getName());
+         if (!directory.exists() && !directory.mkdirs())
+            throw log.directoryCannotBeCreated(directory.getAbsolutePath());
+
+         index = configuration.offHeapIndex() ? new OffHeapLogFileIndex(getMarshaller())
+               : new HeapLogFileIndex(getMarshaller());
+         stopping = false;
+
+         // open the existing log files and rebuild the index from the snapshot and the records appended after it
+         File[] logFiles = directory.listFiles();
+         if (logFiles != null) {
+            for (File f : logFiles) {
+               String name = f.getName();
+               if (name.endsWith(LOG_FILE_SUFFIX)) {
+                  int id = Integer.parseInt(name.substring(0, name.length() - LOG_FILE_SUFFIX.length()));
+                  files.put(id, new LogFile(id, f));
+               }
+            }
+         }
+         Map<Integer, Long> snapshotPositions = new HashMap<Integer, Long>();
+         if (!loadSnapshot(snapshotPositions)) {
+            index.clear();
+            snapshotPositions.clear();
+         }
+         long now = System.currentTimeMillis();
+         for (LogFile f : files.values()) {
+            Long position = snapshotPositions.get(f.id);
+            replay(f, position == null ? 0 : position, now);
+         }
+         computeLiveBytes();
+
+         nextFileId = files.isEmpty() ? 0 : files.lastKey() + 1;
+         current = files.isEmpty() ? newLogFile() : files.lastEntry().getValue();
+         startSync();
+
+         final String threadName = "LogFileCacheStore-Compactor-" + cache.getName();
+         compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread t = new Thread(r, threadName);
+               t.setDaemon(true);
+               return t;
+            }
+         });
+         scheduleCompaction();
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   private void startSync() {
+      syncFailure = null;
+      switch (configuration.fsyncMode()) {
+         case GROUP_COMMIT:
+            committer = new GroupCommitter("LogFileCacheStore-GroupCommitter-" + cache.getName(),
+                  configuration.fsyncMaxLatency(), TimeUnit.MILLISECONDS, configuration.fsyncMetadata());
+            break;
+         case PERIODIC:
+            final String threadName = "LogFileCacheStore-Sync-" + cache.getName();
+            periodicSync = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+               @Override
+               public Thread newThread(Runnable r) {
+                  Thread t = new Thread(r, threadName);
+                  t.setDaemon(true);
+                  return t;
+               }
+            });
+            final boolean metadata = configuration.fsyncMetadata();
+            periodicSync.scheduleWithFixedDelay(new Runnable() {
+               @Override
+               public void run() {
+                  LogFile f;
+                  synchronized (writeLock) {
+                     f = current;
+                  }
+                  try {
+                     // the previous log files were synced when writes moved on to the next one
+                     f.channel.force(metadata);
+                     // the writes that preceded the failure are durable now
+                     syncFailure = null;
+                  } catch (ClosedChannelException e) {
+                     // the store was cleared
+                  } catch (IOException e) {
+                     // reported to the next writer
+                     log.tracef(e, "Error syncing %s", f.file);
+                     syncFailure = e;
+                  }
+               }
+            }, configuration.fsyncInterval(), configuration.fsyncInterval(), TimeUnit.MILLISECONDS);
+            break;
+         default:
+            break;
+      }
+   }
+
+   /**
+    * Makes the preceding writes to a log file durable as required by the fsync mode.
+    */
+   private void sync(LogFile f) throws IOException {
+      try {
+         switch (configuration.fsyncMode()) {
+            case PER_WRITE:
+               f.channel.force(configuration.fsyncMetadata());
+               break;
+            case GROUP_COMMIT:
+               GroupCommitter committer = this.committer;
+               // after a concurrent stop() the writers sync the file themselves, like a stopped committer does
+               if (committer != null)
+                  committer.commit(f.channel);
+               else
+                  f.channel.force(configuration.fsyncMetadata());
+               break;
+            case PERIODIC:
+               IOException failure = syncFailure;
+               if (failure != null)
+                  throw new IOException("Periodic sync of log file " + f.file + " failed", failure);
+               break;
+            default:
+               break;
+         }
+      } catch (ClosedChannelException e) {
+         // the store was cleared along with the written records
+         if (files.get(f.id) == f)
+            throw e;
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void stop() throws CacheLoaderException {
+      try {
+         stopping = true;
+         GroupCommitter committer = this.committer;
+         if (committer != null) {
+            this.committer = null;
+            committer.stop();
+         }
+         if (periodicSync != null) {
+            // interrupting a sync would close the file channel
+            periodicSync.shutdown();
+            while (!periodicSync.awaitTermination(1, TimeUnit.SECONDS))
+               log.tracef("Waiting for the periodic sync of %s to complete", directory);
+            periodicSync = null;
+         }
+         if (compactor != null) {
+            compactor.shutdown();
+            while (!compactor.awaitTermination(1, TimeUnit.SECONDS))
+               log.tracef("Waiting for the compaction of %s to complete", directory);
+            compactor = null;
+         }
+         if (index != null) {
+            for (LogFile f : files.values())
+               f.channel.force(false);
+            writeSnapshot();
+            for (LogFile f : files.values())
+               f.channel.close();
+            files.clear();
+            index.destroy();
+            index = null;
+            current = null;
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException(e);
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+      super.stop();
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void store(InternalCacheEntry entry) throws CacheLoaderException {
+      try {
+         byte[] key = getMarshaller().objectToByteBuffer(entry.getKey());
+         byte[] data = getMarshaller().objectToByteBuffer(entry.toInternalCacheValue());
+         ByteBuffer record = createRecord(key, data, entry.getExpiryTime());
+         LogFile written;
+         synchronized (writeLock) {
+            LogFileIndex.Entry location = append(record, entry.getExpiryTime());
+            LogFileIndex.Entry previous = index.put(entry.getKey(), key, location);
+            written = files.get(location.file);
+            written.liveBytes += location.size;
+            released(previous);
+         }
+         sync(written);
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      if (entries == null || entries.isEmpty())
+         return;
+      try {
+         List<byte[]> keys = new ArrayList<byte[]>(entries.size());
+         List<ByteBuffer> records = new ArrayList<ByteBuffer>(entries.size());
+         long[] expiryTimes = new long[entries.size()];
+         for (InternalCacheEntry entry : entries) {
+            byte[] key = getMarshaller().objectToByteBuffer(entry.getKey());
+            byte[] data = getMarshaller().objectToByteBuffer(entry.toInternalCacheValue());
+            expiryTimes[records.size()] = entry.getExpiryTime();
+            keys.add(key);
+            records.add(createRecord(key, data, entry.getExpiryTime()));
+         }
+         LogFile written;
+         synchronized (writeLock) {
+            List<LogFileIndex.Entry> locations = append(records, expiryTimes);
+            int i = 0;
+            for (InternalCacheEntry entry : entries) {
+               LogFileIndex.Entry location = locations.get(i);
+               LogFileIndex.Entry previous = index.put(entry.getKey(), keys.get(i), location);
+               files.get(location.file).liveBytes += location.size;
+               released(previous);
+               i++;
+            }
+            written = current;
+         }
+         sync(written);
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void removeAll(Set<Object> keys) throws CacheLoaderException {
+      if (keys == null || keys.isEmpty())
+         return;
+      try {
+         List<Object> removed = new ArrayList<Object>(keys.size());
+         List<byte[]> removedBytes = new ArrayList<byte[]>(keys.size());
+         for (Object key : keys) {
+            // don't record the removal of keys that aren't stored
+            if (index.get(key, null) != null) {
+               removed.add(key);
+               removedBytes.add(getMarshaller().objectToByteBuffer(key));
+            }
+         }
+         LogFile written;
+         synchronized (writeLock) {
+            List<ByteBuffer> records = new ArrayList<ByteBuffer>(removed.size());
+            for (int i = 0; i < removed.size(); i++) {
+               LogFileIndex.Entry previous = index.remove(removed.get(i), removedBytes.get(i));
+               if (previous != null) {
+                  records.add(createRecord(removedBytes.get(i), null, -1));
+                  released(previous);
+               }
+            }
+            if (records.isEmpty())
+               return;
+            long[] expiryTimes = new long[records.size()];
+            Arrays.fill(expiryTimes, -1);
+            for (LogFileIndex.Entry location : append(records, expiryTimes))
+               files.get(location.file).removedBytes += location.size;
+            written = current;
+         }
+         sync(written);
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public boolean remove(Object key) throws CacheLoaderException {
+      try {
+         // don't record the removal of keys that aren't stored
+         if (index.get(key, null) == null)
+            return false;
+
+         byte[] keyBytes = getMarshaller().objectToByteBuffer(key);
+         LogFile written;
+         synchronized (writeLock) {
+            LogFileIndex.Entry previous = index.remove(key, keyBytes);
+            if (previous == null)
+               return false;
+            written = files.get(appendRemoval(keyBytes).file);
+            released(previous);
+         }
+         sync(written);
+         return true;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void clear() throws CacheLoaderException {
+      try {
+         synchronized (writeLock) {
+            index.clear();
+            deleteSnapshot();
+            for (LogFile f : files.values()) {
+               f.channel.close();
+               if (!f.file.delete())
+                  log.debugf("Unable to delete %s", f.file);
+            }
+            files.clear();
+            current = newLogFile();
+         }
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public InternalCacheEntry load(Object key) throws CacheLoaderException {
+      try {
+         long now = System.currentTimeMillis();
+         for (;;) {
+            LogFileIndex.Entry location = index.get(key, null);
+            if (location == null)
+               return null;
+            if (location.isExpired(now)) {
+               removeExpired(key, null, location);
+               return null;
+            }
+
+            byte[] record = read(location);
+            if (record == null) {
+               // the log file was deleted after compaction, the record was copied to another log file
+               if (location.equals(index.get(key, null)))
+                  throw new CacheLoaderException("Log file " + location.file + " of " + key + " is missing");
+               continue;
+            }
+            int keyLength = ByteBuffer.wrap(record).getInt(0);
+            int dataOffset = HEADER_SIZE + keyLength;
+            InternalCacheValue icv = (InternalCacheValue) getMarshaller().objectFromByteBuffer(record, dataOffset,
+                  record.length - dataOffset);
+            return icv.toInternalCacheEntry(key);
+         }
+      } catch (CacheLoaderException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The base class implementation calls {@link #load(Object)} for this, we can do better because
+    * we keep all keys in memory.
+    */
+   @Override
+   public boolean containsKey(Object key) throws CacheLoaderException {
+      try {
+         LogFileIndex.Entry location = index.get(key, null);
+         if (location != null && location.isExpired(System.currentTimeMillis())) {
+            removeExpired(key, null, location);
+            return false;
+         }
+         return location != null;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
+      return load(Integer.MAX_VALUE);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
+      Set<Object> keys = loadAllKeys(null);
+      Set<InternalCacheEntry> result = new HashSet<InternalCacheEntry>();
+      for (Object key : keys) {
+         InternalCacheEntry ice = load(key);
+         if (ice != null) {
+            result.add(ice);
+            if (result.size() >= numEntries)
+               return result;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * {@inheritDoc} The entries are read in the order they are stored in the log files.
+    */
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      final List<Object> keys = new ArrayList<Object>(index.size());
+      final List<LogFileIndex.Entry> locations = new ArrayList<LogFileIndex.Entry>(index.size());
+      try {
+         index.forEach(new LogFileIndex.Visitor() {
+            @Override
+            public boolean visit(Object key, byte[] keyBytes, LogFileIndex.Entry entry) throws Exception {
+               keys.add(key != null ? key : getMarshaller().objectFromByteBuffer(keyBytes));
+               locations.add(entry);
+               return true;
+            }
+         });
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+
+      Integer[] order = new Integer[keys.size()];
+      for (int i = 0; i < order.length; i++)
+         order[i] = i;
+      Arrays.sort(order, new Comparator<Integer>() {
+         @Override
+         public int compare(Integer i1, Integer i2) {
+            LogFileIndex.Entry e1 = locations.get(i1);
+            LogFileIndex.Entry e2 = locations.get(i2);
+            if (e1.file != e2.file)
+               return e1.file < e2.file ? -1 : 1;
+            return e1.offset < e2.offset ? -1 : e1.offset == e2.offset ? 0 : 1;
+         }
+      });
+      for (Integer i : order) {
+         InternalCacheEntry ice = load(keys.get(i));
+         if (ice != null && !processEntry(task, ice))
+            return;
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public Set<Object> loadAllKeys(final Set<Object> keysToExclude) throws CacheLoaderException {
+      final Set<Object> result = new HashSet<Object>();
+      final long now = System.currentTimeMillis();
+      try {
+         index.forEach(new LogFileIndex.Visitor() {
+            @Override
+            public boolean visit(Object key, byte[] keyBytes, LogFileIndex.Entry entry) throws Exception {
+               if (!entry.isExpired(now)) {
+                  Object k = key != null ? key : getMarshaller().objectFromByteBuffer(keyBytes);
+                  if (keysToExclude == null || !keysToExclude.contains(k))
+                     result.add(k);
+               }
+               return true;
+            }
+         });
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+      return result;
+   }
+
+   /**
+    * {@inheritDoc} The entries are counted from the index, without reading the log files or unmarshalling the keys.
+    */
+   @Override
+   public int size() throws CacheLoaderException {
+      final int[] count = new int[1];
+      final long now = System.currentTimeMillis();
+      try {
+         index.forEach(new LogFileIndex.Visitor() {
+            @Override
+            public boolean visit(Object key, byte[] keyBytes, LogFileIndex.Entry entry) {
+               if (!entry.isExpired(now))
+                  count[0]++;
+               return true;
+            }
+         });
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+      return count[0];
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   protected void purgeInternal() throws CacheLoaderException {
+      final long now = System.currentTimeMillis();
+      try {
+         index.forEach(new LogFileIndex.Visitor() {
+            @Override
+            public boolean visit(Object key, byte[] keyBytes, LogFileIndex.Entry entry) throws Exception {
+               if (entry.isExpired(now) && removeExpired(key, keyBytes, entry) && hasPurgeListeners())
+                  notifyEntryPurged(key != null ? key : getMarshaller().objectFromByteBuffer(keyBytes));
+               return !isPurgeBudgetExhausted();
+            }
+         });
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+      scheduleCompaction();
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void fromStream(ObjectInput inputStream) throws CacheLoaderException {
+      // seems that this is never called by Infinispan (except by decorators)
+      throw new UnsupportedOperationException();
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void toStream(ObjectOutput outputStream) throws CacheLoaderException {
+      // seems that this is never called by Infinispan (except by decorators)
+      throw new UnsupportedOperationException();
+   }
+
+   /**
+    * Waits until the closed log files holding more dead space than the compaction threshold have been compacted.
+    */
+   void compactNow() throws Exception {
+      compactor.submit(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               compact();
+            } catch (Exception e) {
+               throw new RuntimeException(e);
+            }
+         }
+      }).get();
+   }
+
+   int getLogFileCount() {
+      return files.size();
+   }
+
+   private boolean removeExpired(Object key, byte[] keyBytes, LogFileIndex.Entry location) throws Exception {
+      synchronized (writeLock) {
+         // the expired record is kept in the log file, where it acts as a removal until the file is compacted
+         if (!index.remove(key, keyBytes, location))
+            return false;
+         released(location);
+         return true;
+      }
+   }
+
+   /**
+    * Updates the statistics of the log file holding a record which is no longer referenced by the index. Must be
+    * called while holding the write lock.
+    */
+   private void released(LogFileIndex.Entry location) {
+      if (location != null) {
+         LogFile f = files.get(location.file);
+         if (f != null)
+            f.liveBytes -= location.size;
+      }
+   }
+
+   private static ByteBuffer createRecord(byte[] key, byte[] data, long expiryTime) {
+      int dataLength = data == null ? 0 : data.length;
+      ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + key.length + dataLength);
+      buf.putInt(key.length);
+      buf.putInt(data == null ? REMOVED : data.length);
+      buf.putLong(expiryTime);
+      buf.putInt(0);
+      buf.put(key);
+      if (data != null)
+         buf.put(data);
+      buf.putInt(CHECKSUM_POS, checksum(buf.array()));
+      buf.flip();
+      return buf;
+   }
+
+   private static int checksum(byte[] record) {
+      CRC32 crc = new CRC32();
+      crc.update(record, 0, CHECKSUM_POS);
+      crc.update(record, HEADER_SIZE, record.length - HEADER_SIZE);
+      return (int) crc.getValue();
+   }
+
+   /**
+    * Appends a record to the current log file. Must be called while holding the write lock.
+    *
+    * @return the location of the record
+    */
+   private LogFileIndex.Entry append(ByteBuffer record, long expiryTime) throws IOException {
+      int size = record.remaining();
+      if (current.size > 0 && current.size + size > configuration.maxFileSize())
+         rollOver();
+      long position = current.size;
+      while (record.hasRemaining())
+         current.channel.write(record, position + record.position());
+      current.size += size;
+      return new LogFileIndex.Entry(current.id, (int) position, size, expiryTime);
+   }
+
+   /**
+    * Appends records to the log files, with a single write per log file. Must be called while holding the write lock.
+    *
+    * @return the locations of the records
+    */
+   private List<LogFileIndex.Entry> append(List<ByteBuffer> records, long[] expiryTimes) throws IOException {
+      List<LogFileIndex.Entry> locations = new ArrayList<LogFileIndex.Entry>(records.size());
+      int start = 0;
+      while (start < records.size()) {
+         int size = records.get(start).remaining();
+         if (current.size > 0 && current.size + size > configuration.maxFileSize())
+            rollOver();
+         // group the following records which fit in the current log file
+         int end = start + 1;
+         while (end < records.size() && current.size + size + records.get(end).remaining() <= configuration.maxFileSize())
+            size += records.get(end++).remaining();
+
+         long position = current.size;
+         ByteBuffer batch = ByteBuffer.allocate(size);
+         for (int i = start; i < end; i++) {
+            ByteBuffer record = records.get(i);
+            locations.add(new LogFileIndex.Entry(current.id, (int) (position + batch.position()), record.remaining(),
+                                                 expiryTimes[i]));
+            batch.put(record);
+         }
+         batch.flip();
+         while (batch.hasRemaining())
+            current.channel.write(batch, position + batch.position());
+         current.size += size;
+         start = end;
+      }
+      return locations;
+   }
+
+   /**
+    * Closes the current log file for writes and continues in a new one. Must be called while holding the write lock.
+    */
+   private void rollOver() throws IOException {
+      // the writers only sync the current log file, so the previous one must be on disk before it changes
+      if (configuration.fsyncMode() != FsyncMode.DEFAULT)
+         current.channel.force(configuration.fsyncMetadata());
+      current = newLogFile();
+      scheduleCompaction();
+   }
+
+   /**
+    * Appends a record marking the key as removed. Must be called while holding the write lock.
+    *
+    * @return the location of the record
+    */
+   private LogFileIndex.Entry appendRemoval(byte[] keyBytes) throws IOException {
+      LogFileIndex.Entry location = append(createRecord(keyBytes, null, -1), -1);
+      files.get(location.file).removedBytes += location.size;
+      return location;
+   }
+
+   /**
+    * @return the record at the given location, or null if its log file has been deleted
+    */
+   private byte[] read(LogFileIndex.Entry location) throws IOException {
+      LogFile f = files.get(location.file);
+      if (f == null)
+         return null;
+      ByteBuffer buf = ByteBuffer.allocate(location.size);
+      try {
+         while (buf.hasRemaining()) {
+            if (f.channel.read(buf, location.offset + buf.position()) < 0)
+               throw new EOFException("Unexpected end of " + f.file);
+         }
+      } catch (ClosedChannelException e) {
+         if (files.get(location.file) == f)
+            throw e;
+         return null;
+      }
+      return buf.array();
+   }
+
+   private LogFile newLogFile() throws IOException {
+      int id = nextFileId++;
+      LogFile f = new LogFile(id, new File(directory, id + LOG_FILE_SUFFIX));
+      files.put(id, f);
+      return f;
+   }
+
+   /**
+    * Updates the index with the records of a log file, starting at the given position, and truncates the file after
+    * the last valid record.
+    */
+   private void replay(LogFile f, long position, long now) throws Exception {
+      long length = f.channel.size();
+      RecordReader reader = new RecordReader(f.file, position);
+      try {
+         Record r;
+         while ((r = reader.next(length)) != null) {
+            byte[] keyBytes = r.keyBytes();
+            if (r.dataLength == REMOVED) {
+               index.remove(null, keyBytes);
+               f.removedBytes += r.bytes.length;
+            } else if (r.isExpired(now)) {
+               index.remove(null, keyBytes);
+            } else {
+               index.put(null, keyBytes, new LogFileIndex.Entry(f.id, r.offset, r.bytes.length, r.expiryTime));
+            }
+         }
+      } finally {
+         reader.close();
+      }
+      if (reader.position < length) {
+         log.truncatingLogFile(f.file.getPath(), reader.position);
+         f.channel.truncate(reader.position);
+      }
+      f.size = reader.position;
+   }
+
+   private void computeLiveBytes() throws Exception {
+      index.forEach(new LogFileIndex.Visitor() {
+         @Override
+         public boolean visit(Object key, byte[] keyBytes, LogFileIndex.Entry entry) {
+            files.get(entry.file).liveBytes += entry.size;
+            return true;
+         }
+      });
+   }
+
+   private void scheduleCompaction() {
+      ExecutorService executor = compactor;
+      if (executor != null && compactionScheduled.compareAndSet(false, true)) {
+         try {
+            executor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  compactionScheduled.set(false);
+                  try {
+                     compact();
+                  } catch (Exception e) {
+                     log.logFileCompactionFailed(directory.getPath(), e);
+                  }
+               }
+            });
+         } catch (RejectedExecutionException e) {
+            compactionScheduled.set(false);
+         }
+      }
+   }
+
+   /**
+    * Compacts the closed log files holding more dead space than the compaction threshold, then saves a snapshot of
+    * the index so that a restart doesn't need to read the log files written by the compaction.
+    */
+   private void compact() throws Exception {
+      List<LogFile> candidates = new ArrayList<LogFile>();
+      synchronized (writeLock) {
+         if (files.isEmpty())
+            return;
+         int oldest = files.firstKey();
+         for (LogFile f : files.values()) {
+            if (f != current && f.deadRatio(f.id == oldest) >= configuration.compactionThreshold())
+               candidates.add(f);
+         }
+      }
+      if (candidates.isEmpty())
+         return;
+
+      List<LogFile> compacted = new ArrayList<LogFile>(candidates.size());
+      for (LogFile f : candidates) {
+         if (!compact(f))
+            break;
+         compacted.add(f);
+      }
+      if (compacted.isEmpty())
+         return;
+
+      // the copied records must be on disk before the files they were copied from are deleted
+      int lastCompacted = compacted.get(compacted.size() - 1).id;
+      for (LogFile f : files.tailMap(lastCompacted, false).values()) {
+         try {
+            f.channel.force(false);
+         } catch (ClosedChannelException e) {
+            // the store was cleared
+            return;
+         }
+      }
+
+      synchronized (writeLock) {
+         // the snapshot may refer to the records of the deleted files
+         deleteSnapshot();
+         for (LogFile f : compacted) {
+            if (files.remove(f.id, f)) {
+               f.channel.close();
+               if (!f.file.delete())
+                  log.debugf("Unable to delete %s", f.file);
+            }
+         }
+      }
+      log.debugf("Compacted log files %s of %s", compacted, directory);
+      writeSnapshot();
+   }
+
+   /**
+    * Copies the live records of a log file to the current log file, along with the removals that may still hide
+    * records of older log files.
+    *
+    * @return false if the compaction was interrupted because the store is stopping or was cleared
+    */
+   private boolean compact(LogFile f) throws Exception {
+      long now = System.currentTimeMillis();
+      RecordReader reader = new RecordReader(f.file, 0);
+      try {
+         Record r;
+         while ((r = reader.next(f.size)) != null) {
+            if (stopping)
+               return false;
+            byte[] keyBytes = r.keyBytes();
+            LogFileIndex.Entry location = new LogFileIndex.Entry(f.id, r.offset, r.bytes.length, r.expiryTime);
+            synchronized (writeLock) {
+               if (files.get(f.id) != f)
+                  return false;
+               boolean oldest = files.firstKey() == f.id;
+               LogFileIndex.Entry indexed = index.get(null, keyBytes);
+               if (location.equals(indexed)) {
+                  if (r.isExpired(now)) {
+                     index.remove(null, keyBytes, indexed);
+                     f.liveBytes -= location.size;
+                     if (!oldest)
+                        appendRemoval(keyBytes);
+                  } else {
+                     LogFileIndex.Entry copy = append(ByteBuffer.wrap(r.bytes), r.expiryTime);
+                     index.put(null, keyBytes, copy);
+                     f.liveBytes -= location.size;
+                     files.get(copy.file).liveBytes += copy.size;
+                  }
+               } else if (indexed == null && !oldest && (r.dataLength == REMOVED || r.isExpired(now))) {
+                  // an older log file may still hold a record of the key
+                  appendRemoval(keyBytes);
+               }
+            }
+         }
+         return true;
+      } catch (IOException e) {
+         if (files.get(f.id) != f)
+            return false;
+         throw e;
+      } finally {
+         reader.close();
+      }
+   }
+
+   private File snapshotFile() {
+      return new File(directory, SNAPSHOT_FILE_NAME);
+   }
+
+   private void deleteSnapshot() {
+      File snapshot = snapshotFile();
+      if (snapshot.exists() && !snapshot.delete())
+         log.debugf("Unable to delete %s", snapshot);
+   }
+
+   /**
+    * Saves the index along with the size of each log file. The index is visited while the log files are being written,
+    * but the modifications it misses are made by records appended after the saved sizes, and those are replayed when
+    * the snapshot is loaded.
+    */
+   private void writeSnapshot() throws Exception {
+      List<long[]> sizes = new ArrayList<long[]>();
+      final Map<Integer, Long> positions = new HashMap<Integer, Long>();
+      synchronized (writeLock) {
+         for (LogFile f : files.values()) {
+            sizes.add(new long[] { f.id, f.size, f.removedBytes });
+            positions.put(f.id, f.size);
+         }
+      }
+
+      File tmp = new File(directory, SNAPSHOT_FILE_NAME + ".tmp");
+      FileOutputStream fos = new FileOutputStream(tmp);
+      try {
+         BufferedOutputStream bos = new BufferedOutputStream(fos);
+         CRC32 crc = new CRC32();
+         final DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bos, crc));
+         out.write(SNAPSHOT_MAGIC);
+         out.writeInt(sizes.size());
+         for (long[] size : sizes) {
+            out.writeInt((int) size[0]);
+            out.writeLong(size[1]);
+            out.writeLong(size[2]);
+         }
+         index.forEach(new LogFileIndex.Visitor() {
+            @Override
+            public boolean visit(Object key, byte[] keyBytes, LogFileIndex.Entry entry) throws Exception {
+               // records appended after the snapshot positions are replayed, and may not be on disk yet
+               Long position = positions.get(entry.file);
+               if (position == null || entry.offset + entry.size > position)
+                  return true;
+               byte[] bytes = keyBytes != null ? keyBytes : getMarshaller().objectToByteBuffer(key);
+               out.writeInt(bytes.length);
+               out.write(bytes);
+               out.writeInt(entry.file);
+               out.writeInt(entry.offset);
+               out.writeInt(entry.size);
+               out.writeLong(entry.expiryTime);
+               return true;
+            }
+         });
+         out.writeInt(-1);
+         out.flush();
+         new DataOutputStream(bos).writeLong(crc.getValue());
+         bos.flush();
+         fos.getFD().sync();
+      } finally {
+         fos.close();
+      }
+
+      File snapshot = snapshotFile();
+      if ((snapshot.exists() && !snapshot.delete()) || !tmp.renameTo(snapshot))
+         throw new IOException("Unable to rename " + tmp + " to " + snapshot);
+   }
+
+   /**
+    * Loads the index from the snapshot, if any.
+    *
+    * @param positions filled with the size of each log file when the snapshot was taken, the records after it need to
+    *                  be replayed
+    * @return false if there's no usable snapshot and the index must be rebuilt from the log files
+    */
+   private boolean loadSnapshot(Map<Integer, Long> positions) {
+      File snapshot = snapshotFile();
+      if (!snapshot.exists())
+         return false;
+      try {
+         CRC32 crc = new CRC32();
+         DataInputStream in = new DataInputStream(new CheckedInputStream(
+               new BufferedInputStream(new FileInputStream(snapshot)), crc));
+         try {
+            byte[] magic = new byte[SNAPSHOT_MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(SNAPSHOT_MAGIC, magic))
+               throw new IOException("Unknown file format");
+
+            int fileCount = in.readInt();
+            int newest = -1;
+            for (int i = 0; i < fileCount; i++) {
+               int id = in.readInt();
+               long size = in.readLong();
+               long removedBytes = in.readLong();
+               LogFile f = files.get(id);
+               if (f == null || f.channel.size() < size)
+                  throw new IOException("Log file " + id + " is missing or incomplete");
+               positions.put(id, size);
+               f.removedBytes = removedBytes;
+               newest = Math.max(newest, id);
+            }
+            for (Integer id : files.headMap(newest).keySet()) {
+               if (!positions.containsKey(id))
+                  throw new IOException("Log file " + id + " is not part of the snapshot");
+            }
+
+            int keyLength;
+            while ((keyLength = in.readInt()) >= 0) {
+               byte[] keyBytes = new byte[keyLength];
+               in.readFully(keyBytes);
+               LogFileIndex.Entry entry = new LogFileIndex.Entry(in.readInt(), in.readInt(), in.readInt(), in.readLong());
+               index.put(null, keyBytes, entry);
+            }
+            long checksum = crc.getValue();
+            if (in.readLong() != checksum)
+               throw new IOException("Checksum mismatch");
+         } finally {
+            in.close();
+         }
+         return true;
+      } catch (Exception e) {
+         log.ignoringIndexSnapshot(snapshot.getPath(), e);
+         for (LogFile f : files.values())
+            f.removedBytes = 0;
+         return false;
+      }
+   }
+
+   /**
+    * A log file and the statistics used to decide when to compact it, guarded by the write lock.
+    */
+   private static final class LogFile {
+      final int id;
+      final File file;
+      final FileChannel channel;
+
+      /**
+       * Size of the valid records in the file.
+       */
+      long size;
+
+      /**
+       * Total size of the records referenced by the index.
+       */
+      long liveBytes;
+
+      /**
+       * Total size of the records marking keys as removed.
+       */
+      long removedBytes;
+
+      LogFile(int id, File file) throws IOException {
+         this.id = id;
+         this.file = file;
+         this.channel = new RandomAccessFile(file, "rw").getChannel();
+         this.size = channel.size();
+      }
+
+      /**
+       * @param oldest whether there's no older log file, in which case removals can be dropped
+       */
+      double deadRatio(boolean oldest) {
+         if (size == 0)
+            return 0;
+         long dead = size - liveBytes - (oldest ? 0 : removedBytes);
+         return (double) dead / size;
+      }
+
+      @Override
+      public String toString() {
+         return String.valueOf(id);
+      }
+   }
+
+   /**
+    * A record read from a log file.
+    */
+   private static final class Record {
+      final int offset;
+      final byte[] bytes;
+      final int keyLength;
+      final int dataLength;
+      final long expiryTime;
+
+      Record(int offset, byte[] bytes) {
+         ByteBuffer buf = ByteBuffer.wrap(bytes);
+         this.offset = offset;
+         this.bytes = bytes;
+         this.keyLength = buf.getInt(0);
+         this.dataLength = buf.getInt(DATA_LENGTH_POS);
+         this.expiryTime = buf.getLong(EXPIRY_TIME_POS);
+      }
+
+      byte[] keyBytes() {
+         return Arrays.copyOfRange(bytes, HEADER_SIZE, HEADER_SIZE + keyLength);
+      }
+
+      boolean isExpired(long now) {
+         return expiryTime > 0 && expiryTime < now;
+      }
+   }
+
+   /**
+    * Reads the records of a log file sequentially.
+    */
+   private static final class RecordReader {
+      private final DataInputStream in;
+      long position;
+
+      RecordReader(File file, long position) throws IOException {
+         FileInputStream fis = new FileInputStream(file);
+         fis.getChannel().position(position);
+         this.in = new DataInputStream(new BufferedInputStream(fis, 64 * 1024));
+         this.position = position;
+      }
+
+      /**
+       * @param length the length of the file
+       * @return the next record, or null if the end of the file or an invalid record is reached
+       */
+      Record next(long length) throws IOException {
+         if (position + HEADER_SIZE > length)
+            return null;
+         byte[] header = new byte[HEADER_SIZE];
+         in.readFully(header);
+         ByteBuffer buf = ByteBuffer.wrap(header);
+         int keyLength = buf.getInt(0);
+         int dataLength = buf.getInt(DATA_LENGTH_POS);
+         if (keyLength <= 0 || dataLength < REMOVED)
+            return null;
+         long size = (long) HEADER_SIZE + keyLength + Math.max(dataLength, 0);
+         if (position + size > length)
+            return null;
+
+         byte[] bytes = new byte[(int) size];
+         System.arraycopy(header, 0, bytes, 0, HEADER_SIZE);
+         in.readFully(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+         if (checksum(bytes) != buf.getInt(CHECKSUM_POS))
+            return null;
+
+         Record r = new Record((int) position, bytes);
+         position += size;
+         return r;
+      }
+
+      void close() throws IOException {
+         in.close();
+      }
+   }
+}
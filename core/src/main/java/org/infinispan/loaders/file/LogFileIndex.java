@@ -0,0 +1,93 @@
+package org.infinispan.loaders.file;
+
+/**
+ * The index of a {@link LogFileCacheStore}, mapping each key to the location of its most recent record in the log
+ * files.
+ * <p/>
+ * Keys are passed both as objects and in their marshalled form, either of which may be <tt>null</tt>; implementations
+ * marshall or unmarshall the key when they need the form that wasn't given.  Modifications are made by a single thread
+ * at a time, while lookups and iterations may run concurrently with them.
+ *
+ * @since 6.0
+ */
+interface LogFileIndex {
+
+   Entry get(Object key, byte[] keyBytes) throws Exception;
+
+   /**
+    * @return the previous entry of the key, or null if it wasn't indexed
+    */
+   Entry put(Object key, byte[] keyBytes, Entry entry) throws Exception;
+
+   /**
+    * @return the removed entry, or null if the key wasn't indexed
+    */
+   Entry remove(Object key, byte[] keyBytes) throws Exception;
+
+   /**
+    * Removes the key only if it is still mapped to the given entry.
+    */
+   boolean remove(Object key, byte[] keyBytes, Entry expected) throws Exception;
+
+   int size();
+
+   void clear();
+
+   /**
+    * Visits the indexed keys.  Keys modified concurrently may or may not be visited.
+    */
+   void forEach(Visitor visitor) throws Exception;
+
+   /**
+    * Releases the resources held by the index, which can't be used afterwards.
+    */
+   void destroy();
+
+   interface Visitor {
+      /**
+       * @param key the key, or null if only its marshalled form is available
+       * @param keyBytes the marshalled key, or null if only the key object is available
+       * @return false to stop the iteration
+       */
+      boolean visit(Object key, byte[] keyBytes, Entry entry) throws Exception;
+   }
+
+   /**
+    * The location of a record in the log files.
+    */
+   final class Entry {
+      final int file;
+      final int offset;
+      final int size;
+      final long expiryTime;
+
+      Entry(int file, int offset, int size, long expiryTime) {
+         this.file = file;
+         this.offset = offset;
+         this.size = size;
+         this.expiryTime = expiryTime;
+      }
+
+      boolean isExpired(long now) {
+         return expiryTime > 0 && expiryTime < now;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (!(o instanceof Entry)) return false;
+         Entry that = (Entry) o;
+         return file == that.file && offset == that.offset;
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * file + offset;
+      }
+
+      @Override
+      public String toString() {
+         return "Entry{file=" + file + ", offset=" + offset + ", size=" + size + ", expiryTime=" + expiryTime + '}';
+      }
+   }
+}
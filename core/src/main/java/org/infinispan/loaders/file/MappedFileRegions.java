@@ -0,0 +1,139 @@
+package org.infinispan.loaders.file;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Read-only memory mappings of a file, split in fixed size regions so that files larger than 2GB can be mapped and a
+ * growing file doesn't have to be remapped as a whole.
+ * <p/>
+ * Regions are mapped lazily, only up to the current end of the file: mapping past it would extend the file. A region
+ * covering the end of the file is remapped only once the file has grown past the end of the region, so that appending
+ * to the file doesn't create a new mapping per read; the bytes appended to a partially mapped region can't be read
+ * through the mappings until then.
+ * <p/>
+ * Reads of sections that span two regions or that aren't mapped aren't served, callers are expected to fall back to
+ * reading the file channel. The file may be written through the channel concurrently, as the mappings share the
+ * operating system's page cache with it, but it must not be truncated before {@link #unmap()} is called.
+ *
+ * @since 6.0
+ */
+final class MappedFileRegions {
+
+   private static final Log log = LogFactory.getLog(MappedFileRegions.class);
+
+   private final FileChannel channel;
+   private final int regionSize;
+
+   private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+   MappedFileRegions(FileChannel channel, int regionSize) {
+      this.channel = channel;
+      this.regionSize = regionSize;
+   }
+
+   /**
+    * Returns a view of a section of the file, without copying it.
+    *
+    * @return a buffer positioned at <tt>offset</tt>, with fewer than <tt>length</tt> remaining bytes if the end of the
+    *         file was reached, or null if the section spans two regions or isn't mapped yet
+    */
+   ByteBuffer slice(long offset, int length) throws IOException {
+      int index = (int) (offset / regionSize);
+      int start = (int) (offset - (long) index * regionSize);
+      if ((long) start + length > regionSize)
+         return null;
+
+      MappedByteBuffer region = region(index, start + length);
+      if (region == null)
+         return null;
+      ByteBuffer slice = region.duplicate();
+      int limit = Math.min(start + length, slice.capacity());
+      slice.limit(limit);
+      slice.position(Math.min(start, limit));
+      return slice;
+   }
+
+   /**
+    * Copies a section of the file into the given array.
+    *
+    * @return false if the section can't be read through the mappings, in which case nothing was read
+    */
+   boolean read(long offset, byte[] bytes) throws IOException {
+      ByteBuffer slice = slice(offset, bytes.length);
+      if (slice == null || slice.remaining() < bytes.length)
+         return false;
+      slice.get(bytes);
+      return true;
+   }
+
+   private MappedByteBuffer region(int index, int minLength) throws IOException {
+      MappedByteBuffer[] current = regions;
+      if (index < current.length && current[index] != null && current[index].capacity() >= minLength)
+         return current[index];
+      return map(index, minLength);
+   }
+
+   private synchronized MappedByteBuffer map(int index, int minLength) throws IOException {
+      MappedByteBuffer[] current = regions;
+      if (index < current.length && current[index] != null && current[index].capacity() >= minLength)
+         return current[index];
+
+      long position = (long) index * regionSize;
+      long fileSize = channel.size();
+      // partially mapped regions are only remapped once they are complete
+      if (index < current.length && current[index] != null && fileSize < position + regionSize)
+         return null;
+      long size = Math.min(regionSize, fileSize - position);
+      if (size <= 0)
+         return null;
+      MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+
+      MappedByteBuffer[] updated;
+      if (index >= current.length) {
+         updated = new MappedByteBuffer[index + 1];
+         System.arraycopy(current, 0, updated, 0, current.length);
+      } else {
+         updated = current.clone();
+      }
+      // a previous, partial mapping of the region may still be in use by concurrent readers, so it is left to the GC
+      updated[index] = region;
+      regions = updated;
+      return region;
+   }
+
+   /**
+    * Releases all the mappings.  Must only be called when there are no concurrent readers, accessing a released mapping
+    * may crash the JVM.
+    */
+   synchronized void unmap() {
+      MappedByteBuffer[] current = regions;
+      regions = new MappedByteBuffer[0];
+      for (MappedByteBuffer region : current) {
+         if (region != null)
+            release(region);
+      }
+   }
+
+   /**
+    * Mappings are otherwise only released when garbage collected, and some platforms don't allow truncating a file
+    * while it is mapped.
+    */
+   private static void release(MappedByteBuffer region) {
+      try {
+         Method cleanerMethod = region.getClass().getMethod("cleaner");
+         cleanerMethod.setAccessible(true);
+         Object cleaner = cleanerMethod.invoke(region);
+         if (cleaner != null)
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+      } catch (Exception e) {
+         log.tracef(e, "Unable to release mapping, it will be released when garbage collected");
+      }
+   }
+}
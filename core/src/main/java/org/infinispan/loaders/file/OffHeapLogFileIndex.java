@@ -0,0 +1,279 @@
+package org.infinispan.loaders.file;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.container.offheap.OffHeapMemory;
+
+/**
+ * A {@link LogFileIndex} keeping the marshalled keys and their locations in a hash table allocated outside of the Java
+ * heap, so that indexing a large number of keys neither fills the heap nor adds to the garbage collector's workload.
+ * <p/>
+ * Keys are compared using their marshalled form, so equal keys must marshall to equal bytes.  The table doubles its
+ * number of buckets when it holds more keys than 3/4 of its buckets.
+ *
+ * @since 6.0
+ */
+final class OffHeapLogFileIndex implements LogFileIndex {
+
+   // Node layout: bucket chain, key hash and length, location of the record, followed by the marshalled key
+   private static final int NEXT_OFFSET = 0;
+   private static final int HASH_OFFSET = 8;
+   private static final int KEY_LENGTH_OFFSET = 12;
+   private static final int FILE_OFFSET = 16;
+   private static final int RECORD_OFFSET_OFFSET = 20;
+   private static final int SIZE_OFFSET = 24;
+   private static final int EXPIRY_OFFSET = 32;
+   private static final int HEADER_SIZE = 40;
+
+   private static final int INITIAL_BUCKETS = 1024;
+   private static final Hash HASH = new MurmurHash3();
+
+   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+   private final StreamingMarshaller marshaller;
+
+   private long buckets;
+   private int bucketCount;
+   private int count;
+
+   OffHeapLogFileIndex(StreamingMarshaller marshaller) {
+      this.marshaller = marshaller;
+      this.buckets = allocateBuckets(INITIAL_BUCKETS);
+      this.bucketCount = INITIAL_BUCKETS;
+   }
+
+   private static long allocateBuckets(int bucketCount) {
+      long address = OffHeapMemory.allocate(bucketCount * 8L);
+      OffHeapMemory.setMemory(address, bucketCount * 8L, (byte) 0);
+      return address;
+   }
+
+   private byte[] keyBytes(Object key, byte[] keyBytes) throws Exception {
+      return keyBytes != null ? keyBytes : marshaller.objectToByteBuffer(key);
+   }
+
+   private static int hash(byte[] keyBytes) {
+      return HASH.hash(keyBytes);
+   }
+
+   private long bucketAddress(int hash) {
+      return buckets + (long) (hash & (bucketCount - 1)) * 8;
+   }
+
+   private long find(int hash, byte[] keyBytes) {
+      long node = OffHeapMemory.getLong(bucketAddress(hash));
+      while (node != 0) {
+         if (OffHeapMemory.getInt(node + HASH_OFFSET) == hash && keyEquals(node, keyBytes))
+            return node;
+         node = OffHeapMemory.getLong(node + NEXT_OFFSET);
+      }
+      return 0;
+   }
+
+   private static boolean keyEquals(long node, byte[] keyBytes) {
+      if (OffHeapMemory.getInt(node + KEY_LENGTH_OFFSET) != keyBytes.length)
+         return false;
+      long keyAddress = node + HEADER_SIZE;
+      for (int i = 0; i < keyBytes.length; i++) {
+         if (OffHeapMemory.getByte(keyAddress + i) != keyBytes[i])
+            return false;
+      }
+      return true;
+   }
+
+   private static Entry readEntry(long node) {
+      return new Entry(OffHeapMemory.getInt(node + FILE_OFFSET), OffHeapMemory.getInt(node + RECORD_OFFSET_OFFSET),
+                       OffHeapMemory.getInt(node + SIZE_OFFSET), OffHeapMemory.getLong(node + EXPIRY_OFFSET));
+   }
+
+   private static void writeEntry(long node, Entry entry) {
+      OffHeapMemory.putInt(node + FILE_OFFSET, entry.file);
+      OffHeapMemory.putInt(node + RECORD_OFFSET_OFFSET, entry.offset);
+      OffHeapMemory.putInt(node + SIZE_OFFSET, entry.size);
+      OffHeapMemory.putLong(node + EXPIRY_OFFSET, entry.expiryTime);
+   }
+
+   @Override
+   public Entry get(Object key, byte[] keyBytes) throws Exception {
+      byte[] bytes = keyBytes(key, keyBytes);
+      int hash = hash(bytes);
+      lock.readLock().lock();
+      try {
+         long node = find(hash, bytes);
+         return node != 0 ? readEntry(node) : null;
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
+   @Override
+   public Entry put(Object key, byte[] keyBytes, Entry entry) throws Exception {
+      byte[] bytes = keyBytes(key, keyBytes);
+      int hash = hash(bytes);
+      lock.writeLock().lock();
+      try {
+         long node = find(hash, bytes);
+         if (node != 0) {
+            Entry previous = readEntry(node);
+            writeEntry(node, entry);
+            return previous;
+         }
+
+         node = OffHeapMemory.allocate(HEADER_SIZE + bytes.length);
+         OffHeapMemory.putInt(node + HASH_OFFSET, hash);
+         OffHeapMemory.putInt(node + KEY_LENGTH_OFFSET, bytes.length);
+         writeEntry(node, entry);
+         OffHeapMemory.putBytes(node + HEADER_SIZE, bytes);
+         long bucket = bucketAddress(hash);
+         OffHeapMemory.putLong(node + NEXT_OFFSET, OffHeapMemory.getLong(bucket));
+         OffHeapMemory.putLong(bucket, node);
+
+         if (++count > bucketCount / 4 * 3)
+            resize();
+         return null;
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+
+   private void resize() {
+      int newBucketCount = bucketCount << 1;
+      if (newBucketCount <= 0)
+         return;
+      long newBuckets = allocateBuckets(newBucketCount);
+      for (int i = 0; i < bucketCount; i++) {
+         long node = OffHeapMemory.getLong(buckets + i * 8L);
+         while (node != 0) {
+            long next = OffHeapMemory.getLong(node + NEXT_OFFSET);
+            long bucket = newBuckets + (long) (OffHeapMemory.getInt(node + HASH_OFFSET) & (newBucketCount - 1)) * 8;
+            OffHeapMemory.putLong(node + NEXT_OFFSET, OffHeapMemory.getLong(bucket));
+            OffHeapMemory.putLong(bucket, node);
+            node = next;
+         }
+      }
+      OffHeapMemory.free(buckets);
+      buckets = newBuckets;
+      bucketCount = newBucketCount;
+   }
+
+   @Override
+   public Entry remove(Object key, byte[] keyBytes) throws Exception {
+      return removeEntry(keyBytes(key, keyBytes), null);
+   }
+
+   @Override
+   public boolean remove(Object key, byte[] keyBytes, Entry expected) throws Exception {
+      return removeEntry(keyBytes(key, keyBytes), expected) != null;
+   }
+
+   private Entry removeEntry(byte[] bytes, Entry expected) {
+      int hash = hash(bytes);
+      lock.writeLock().lock();
+      try {
+         long previous = 0;
+         long bucket = bucketAddress(hash);
+         long node = OffHeapMemory.getLong(bucket);
+         while (node != 0) {
+            long next = OffHeapMemory.getLong(node + NEXT_OFFSET);
+            if (OffHeapMemory.getInt(node + HASH_OFFSET) == hash && keyEquals(node, bytes)) {
+               Entry entry = readEntry(node);
+               if (expected != null && !expected.equals(entry))
+                  return null;
+               if (previous == 0)
+                  OffHeapMemory.putLong(bucket, next);
+               else
+                  OffHeapMemory.putLong(previous + NEXT_OFFSET, next);
+               OffHeapMemory.free(node);
+               count--;
+               return entry;
+            }
+            previous = node;
+            node = next;
+         }
+         return null;
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public int size() {
+      lock.readLock().lock();
+      try {
+         return count;
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void clear() {
+      lock.writeLock().lock();
+      try {
+         freeNodes();
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+
+   private void freeNodes() {
+      for (int i = 0; i < bucketCount; i++) {
+         long bucket = buckets + i * 8L;
+         long node = OffHeapMemory.getLong(bucket);
+         while (node != 0) {
+            long next = OffHeapMemory.getLong(node + NEXT_OFFSET);
+            OffHeapMemory.free(node);
+            node = next;
+         }
+         OffHeapMemory.putLong(bucket, 0);
+      }
+      count = 0;
+   }
+
+   /**
+    * {@inheritDoc}  The keys are copied to the heap before being visited, so that the visitor doesn't block concurrent
+    * modifications.
+    */
+   @Override
+   public void forEach(Visitor visitor) throws Exception {
+      List<byte[]> keys;
+      List<Entry> entries;
+      lock.readLock().lock();
+      try {
+         keys = new ArrayList<byte[]>(count);
+         entries = new ArrayList<Entry>(count);
+         for (int i = 0; i < bucketCount; i++) {
+            long node = OffHeapMemory.getLong(buckets + i * 8L);
+            while (node != 0) {
+               keys.add(OffHeapMemory.getBytes(node + HEADER_SIZE, OffHeapMemory.getInt(node + KEY_LENGTH_OFFSET)));
+               entries.add(readEntry(node));
+               node = OffHeapMemory.getLong(node + NEXT_OFFSET);
+            }
+         }
+      } finally {
+         lock.readLock().unlock();
+      }
+      for (int i = 0; i < keys.size(); i++) {
+         if (!visitor.visit(null, keys.get(i), entries.get(i)))
+            return;
+      }
+   }
+
+   @Override
+   public void destroy() {
+      lock.writeLock().lock();
+      try {
+         if (buckets != 0) {
+            freeNodes();
+            OffHeapMemory.free(buckets);
+            buckets = 0;
+         }
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+}
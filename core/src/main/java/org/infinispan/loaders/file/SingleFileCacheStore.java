@@ -7,24 +7,35 @@
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheLoaderConfiguration;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
 import org.infinispan.configuration.cache.SingleFileCacheStoreConfiguration;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.Log;
@@ -53,6 +64,18 @@
  * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
  * of individual cache entries.
+ * <p/>
+ * If configured to be memory mapped, the file is also mapped in regions of
+ * {@link #MAPPED_REGION_SIZE} bytes, and loads and the rebuilding of the index
+ * on startup read through the mappings rather than issuing a read system call
+ * per lookup.
+ * <p/>
+ * Writes are synced to disk as configured by the fsync mode. With group commit,
+ * stores and removals block until a sync issued after their write completes,
+ * and a single sync covers the writes of all the concurrent writers.
+ * <p/>
+ * Bulk stores append the entries to the end of the file with a single write
+ * per 4MB of serialized entries, and are synced once.
  *
  * @author Karsten Blees
  * @since 6.0
@@ -65,10 +88,16 @@ public class SingleFileCacheStore extends AbstractCacheStore {
    private static final byte[] ZERO_INT = { 0, 0, 0, 0 };
    private static final int KEYLEN_POS = 4;
    private static final int KEY_POS = 4 + 4 + 4 + 8;
+   static final int MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+   private static final int MAX_BATCH_WRITE_SIZE = 4 * 1024 * 1024;
 
    private SingleFileCacheStoreConfiguration configuration;
 
    private FileChannel file;
+   private MappedFileRegions mappedRegions;
+   private volatile GroupCommitter committer;
+   private ScheduledExecutorService periodicSync;
+   private volatile IOException syncFailure;
    private Map<Object, FileEntry> entries;
    private SortedSet<FileEntry> freeList;
    private long filePos = MAGIC.length;
@@ -100,6 +129,9 @@ public void start() throws CacheLoaderException {
              }
          }
          file = new RandomAccessFile(f, "rw").getChannel();
+         if (configuration.memoryMapped())
+            mappedRegions = new MappedFileRegions(file, MAPPED_REGION_SIZE);
+         startSync();
 
          // initialize data structures
          // only use LinkedHashMap (LRU) for entries when cache store is bounded
@@ -122,14 +154,95 @@ public void start() throws CacheLoaderException {
       }
    }
 
+   private void startSync() {
+      syncFailure = null;
+      switch (configuration.fsyncMode()) {
+         case GROUP_COMMIT:
+            committer = new GroupCommitter("SingleFileCacheStore-GroupCommitter-" + cache.getName(),
+                  configuration.fsyncMaxLatency(), TimeUnit.MILLISECONDS, configuration.fsyncMetadata());
+            break;
+         case PERIODIC:
+            final String threadName = "SingleFileCacheStore-Sync-" + cache.getName();
+            periodicSync = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+               @Override
+               public Thread newThread(Runnable r) {
+                  Thread t = new Thread(r, threadName);
+                  t.setDaemon(true);
+                  return t;
+               }
+            });
+            final FileChannel channel = file;
+            final boolean metadata = configuration.fsyncMetadata();
+            periodicSync.scheduleWithFixedDelay(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     channel.force(metadata);
+                     // the writes that preceded the failure are durable now
+                     syncFailure = null;
+                  } catch (IOException e) {
+                     // reported to the next writer
+                     log.tracef(e, "Error syncing %s", channel);
+                     syncFailure = e;
+                  }
+               }
+            }, configuration.fsyncInterval(), configuration.fsyncInterval(), TimeUnit.MILLISECONDS);
+            break;
+         default:
+            break;
+      }
+   }
+
+   /**
+    * Makes the preceding writes durable as required by the fsync mode.
+    */
+   private void sync() throws IOException {
+      switch (configuration.fsyncMode()) {
+         case PER_WRITE:
+            file.force(configuration.fsyncMetadata());
+            break;
+         case GROUP_COMMIT:
+            GroupCommitter committer = this.committer;
+            // after a concurrent stop() the writers sync the file themselves, like a stopped committer does
+            if (committer != null)
+               committer.commit(file);
+            else
+               file.force(configuration.fsyncMetadata());
+            break;
+         case PERIODIC:
+            IOException failure = syncFailure;
+            if (failure != null)
+               throw new IOException("Periodic sync of the cache store file failed", failure);
+            break;
+         default:
+            break;
+      }
+   }
+
    /** {@inheritDoc} */
    @Override
    public void stop() throws CacheLoaderException {
       try {
+         GroupCommitter committer = this.committer;
+         if (committer != null) {
+            this.committer = null;
+            committer.stop();
+         }
+         if (periodicSync != null) {
+            // interrupting a sync would close the file channel
+            periodicSync.shutdown();
+            while (!periodicSync.awaitTermination(1, TimeUnit.SECONDS))
+               log.tracef("Waiting for the periodic sync of %s to complete", file);
+            periodicSync = null;
+         }
          if (file != null) {
+            if (configuration.fsyncMode() != FsyncMode.DEFAULT)
+               file.force(configuration.fsyncMetadata());
             // reset state
             file.close();
             file = null;
+            // concurrent loads may still be reading the mappings, leave them to the GC
+            mappedRegions = null;
             entries = null;
             freeList = null;
             filePos = MAGIC.length;
@@ -144,15 +257,13 @@ public void stop() throws CacheLoaderException {
     * Rebuilds the in-memory index from file.
     */
    private void rebuildIndex() throws Exception {
-      ByteBuffer buf = ByteBuffer.allocate(KEY_POS);
+      ByteBuffer scratch = ByteBuffer.allocate(KEY_POS);
       for (;;) {
          // read FileEntry fields from file (size, keyLen etc.)
-         buf.clear().limit(KEY_POS);
-         file.read(buf, filePos);
+         ByteBuffer buf = read(filePos, KEY_POS, scratch);
          // return if end of file is reached
-         if (buf.remaining() > 0)
+         if (buf.remaining() < KEY_POS)
             return;
-         buf.flip();
 
          // initialize FileEntry from buffer
          FileEntry fe = new FileEntry(filePos, buf.getInt());
@@ -166,15 +277,22 @@ private void rebuildIndex() throws Exception {
          // check if the entry is used or free
          if (fe.keyLen > 0) {
             // load the key from file
-            if (buf.capacity() < fe.keyLen)
-               buf = ByteBuffer.allocate(fe.keyLen);
-
-            buf.clear().limit(fe.keyLen);
-            file.read(buf, fe.offset + KEY_POS);
+            buf = read(fe.offset + KEY_POS, fe.keyLen, scratch);
+            byte[] key;
+            int keyOffset;
+            if (buf.hasArray()) {
+               scratch = buf;
+               key = buf.array();
+               keyOffset = buf.arrayOffset() + buf.position();
+            } else {
+               // mapped, copy the key out of the mapping as the marshaller reads byte arrays
+               key = new byte[fe.keyLen];
+               keyOffset = 0;
+               buf.get(key);
+            }
 
             // deserialize key and add to entries map
-            Object key = getMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
-            entries.put(key, fe);
+            entries.put(getMarshaller().objectFromByteBuffer(key, keyOffset, fe.keyLen), fe);
          } else {
             // add to free list
             freeList.add(fe);
@@ -182,6 +300,27 @@ private void rebuildIndex() throws Exception {
       }
    }
 
+   /**
+    * Reads a section of the file, from the mappings if enabled.
+    *
+    * @param buf used to read the section if it isn't mapped, reallocated if it's too small
+    * @return a buffer positioned at the start of the section, with fewer than <tt>len</tt> remaining bytes if the end
+    *         of the file was reached
+    */
+   private ByteBuffer read(long offset, int len, ByteBuffer buf) throws IOException {
+      if (mappedRegions != null) {
+         ByteBuffer slice = mappedRegions.slice(offset, len);
+         if (slice != null)
+            return slice;
+      }
+      if (buf.capacity() < len)
+         buf = ByteBuffer.allocate(len);
+      buf.clear().limit(len);
+      file.read(buf, offset);
+      buf.flip();
+      return buf;
+   }
+
    /**
     * {@inheritDoc}
     * <p/>
@@ -279,11 +418,98 @@ public void store(InternalCacheEntry entry) throws CacheLoaderException {
             // in case we replaced or evicted an entry, add to freeList
             free(fe);
          }
+         sync();
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      if (entries == null || entries.isEmpty())
+         return;
+      try {
+         List<InternalCacheEntry> batch = new ArrayList<InternalCacheEntry>();
+         List<byte[]> keys = new ArrayList<byte[]>();
+         List<byte[]> values = new ArrayList<byte[]>();
+         int batchLen = 0;
+         for (InternalCacheEntry entry : entries) {
+            byte[] key = getMarshaller().objectToByteBuffer(entry.getKey());
+            byte[] data = getMarshaller().objectToByteBuffer(entry.toInternalCacheValue());
+            int len = KEY_POS + key.length + data.length;
+            if (!batch.isEmpty() && batchLen + len > MAX_BATCH_WRITE_SIZE) {
+               storeBatch(batch, keys, values, batchLen);
+               batch.clear();
+               keys.clear();
+               values.clear();
+               batchLen = 0;
+            }
+            batch.add(entry);
+            keys.add(key);
+            values.add(data);
+            batchLen += len;
+         }
+         storeBatch(batch, keys, values, batchLen);
+         sync();
       } catch (Exception e) {
          throw new CacheLoaderException(e);
       }
    }
 
+   /**
+    * Writes serialized entries to a newly allocated section at the end of the file with a single write, then adds them
+    * to the index.
+    */
+   private void storeBatch(List<InternalCacheEntry> batch, List<byte[]> keys, List<byte[]> values, int len)
+         throws IOException {
+      long offset;
+      synchronized (freeList) {
+         offset = filePos;
+         filePos += len;
+      }
+
+      FileEntry[] written = new FileEntry[batch.size()];
+      ByteBuffer buf = ByteBuffer.allocate(len);
+      for (int i = 0; i < written.length; i++) {
+         byte[] key = keys.get(i);
+         byte[] data = values.get(i);
+         FileEntry fe = new FileEntry(offset + buf.position(), KEY_POS + key.length + data.length);
+         fe.expiryTime = batch.get(i).getExpiryTime();
+         fe.keyLen = key.length;
+         fe.dataLen = data.length;
+         buf.putInt(fe.size);
+         buf.putInt(fe.keyLen);
+         buf.putInt(fe.dataLen);
+         buf.putLong(fe.expiryTime);
+         buf.put(key);
+         buf.put(data);
+         written[i] = fe;
+      }
+      buf.flip();
+      try {
+         while (buf.hasRemaining())
+            file.write(buf, offset + buf.position());
+      } catch (IOException e) {
+         // make the allocated space available again
+         for (FileEntry fe : written)
+            freeList.add(fe);
+         throw e;
+      }
+
+      for (int i = 0; i < written.length; i++) {
+         // add the new entry to in-memory index
+         FileEntry fe = entries.put(batch.get(i).getKey(), written[i]);
+
+         // if we added an entry, check if we need to evict something
+         if (fe == null)
+            fe = evict();
+
+         // in case we replaced or evicted an entry, add to freeList
+         free(fe);
+      }
+   }
+
    /**
     * Try to evict an entry if the capacity of the cache store is reached.
     *
@@ -319,12 +545,17 @@ public void clear() throws CacheLoaderException {
                entries.clear();
                freeList.clear();
 
+               // release the mappings before truncating the mapped file
+               if (mappedRegions != null)
+                  mappedRegions.unmap();
+
                // reset file
                file.truncate(0);
                file.write(ByteBuffer.wrap(MAGIC), 0);
                filePos = MAGIC.length;
             }
          }
+         sync();
       } catch (Exception e) {
          throw new CacheLoaderException(e);
       }
@@ -335,8 +566,32 @@ public void clear() throws CacheLoaderException {
    public boolean remove(Object key) throws CacheLoaderException {
       try {
          FileEntry fe = entries.remove(key);
+         if (fe == null)
+            return false;
          free(fe);
-         return fe != null;
+         sync();
+         return true;
+      } catch (Exception e) {
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void removeAll(Set<Object> keys) throws CacheLoaderException {
+      if (keys == null || keys.isEmpty())
+         return;
+      try {
+         boolean removed = false;
+         for (Object key : keys) {
+            FileEntry fe = entries.remove(key);
+            if (fe != null) {
+               free(fe);
+               removed = true;
+            }
+         }
+         if (removed)
+            sync();
       } catch (Exception e) {
          throw new CacheLoaderException(e);
       }
@@ -373,7 +628,9 @@ public InternalCacheEntry load(Object key) throws CacheLoaderException {
 
             // load serialized data from disk
             data = new byte[fe.dataLen];
-            file.read(ByteBuffer.wrap(data), fe.offset + KEY_POS + fe.keyLen);
+            long dataPos = fe.offset + KEY_POS + fe.keyLen;
+            if (mappedRegions == null || !mappedRegions.read(dataPos, data))
+               file.read(ByteBuffer.wrap(data), dataPos);
          } finally {
             // no need to keep the lock for deserialization
             fe.unlock();
@@ -408,6 +665,30 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return result;
    }
 
+   /**
+    * {@inheritDoc} The entries are read in the order they are stored in the file.
+    */
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      List<Map.Entry<Object, FileEntry>> snapshot;
+      synchronized (entries) {
+         snapshot = new ArrayList<Map.Entry<Object, FileEntry>>(entries.entrySet());
+      }
+      Collections.sort(snapshot, new Comparator<Map.Entry<Object, FileEntry>>() {
+         @Override
+         public int compare(Map.Entry<Object, FileEntry> e1, Map.Entry<Object, FileEntry> e2) {
+            long offset1 = e1.getValue().offset;
+            long offset2 = e2.getValue().offset;
+            return offset1 < offset2 ? -1 : offset1 == offset2 ? 0 : 1;
+         }
+      });
+      for (Map.Entry<Object, FileEntry> e : snapshot) {
+         InternalCacheEntry ice = load(e.getKey());
+         if (ice != null && !processEntry(task, ice))
+            return;
+      }
+   }
+
    /** {@inheritDoc} */
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
@@ -420,22 +701,60 @@ public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderExce
       return result;
    }
 
+   /**
+    * {@inheritDoc} The entries are counted from the in-memory index, without reading the file.
+    */
+   @Override
+   public int size() throws CacheLoaderException {
+      long now = System.currentTimeMillis();
+      int count = 0;
+      synchronized (entries) {
+         for (FileEntry fe : entries.values()) {
+            if (!fe.isExpired(now))
+               count++;
+         }
+      }
+      return count;
+   }
+
    /** {@inheritDoc} */
    @Override
    protected void purgeInternal() throws CacheLoaderException {
       long now = System.currentTimeMillis();
+      List<Map.Entry<Object, FileEntry>> expired = new ArrayList<Map.Entry<Object, FileEntry>>();
       synchronized (entries) {
-         for (Iterator<FileEntry> it = entries.values().iterator(); it.hasNext();) {
-            FileEntry fe = it.next();
-            if (fe.isExpired(now)) {
-               it.remove();
-               try {
-                  free(fe);
-               } catch (Exception e) {
-                  throw new CacheLoaderException(e);
+         for (Map.Entry<Object, FileEntry> e : entries.entrySet()) {
+            if (e.getValue().isExpired(now))
+               expired.add(new AbstractMap.SimpleImmutableEntry<Object, FileEntry>(e));
+         }
+      }
+
+      // remove the expired entries in batches, so that writes only wait for one batch to be freed
+      int batchSize = getPurgeBatchSize();
+      List<Map.Entry<Object, FileEntry>> removed = new ArrayList<Map.Entry<Object, FileEntry>>(Math.min(batchSize, expired.size()));
+      for (int from = 0; from < expired.size(); from += batchSize) {
+         if (isPurgeBudgetExhausted()) {
+            log.debugf("Purge time budget used up, %d expired entries left to the next purge", expired.size() - from);
+            break;
+         }
+         removed.clear();
+         synchronized (entries) {
+            for (Map.Entry<Object, FileEntry> e : expired.subList(from, Math.min(from + batchSize, expired.size()))) {
+               // skip the entries which have been updated or removed since they were found expired
+               if (entries.get(e.getKey()) == e.getValue()) {
+                  entries.remove(e.getKey());
+                  removed.add(e);
                }
             }
          }
+         try {
+            for (Map.Entry<Object, FileEntry> e : removed)
+               free(e.getValue());
+         } catch (Exception e) {
+            throw new CacheLoaderException(e);
+         }
+         for (Map.Entry<Object, FileEntry> e : removed)
+            notifyEntryPurged(e.getKey());
       }
    }
 
@@ -2,6 +2,7 @@
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -121,6 +122,11 @@ public boolean remove(Object key) throws CacheLoaderException {
       return delegate.remove(key);
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      for (InternalCacheEntry entry : entries) delegate.store(entry);
+   }
+
    @Override
    public void removeAll(Set<Object> keys) throws CacheLoaderException {
       delegate.removeAll(keys);
@@ -3,6 +3,7 @@
 import java.util.List;
 
 import org.infinispan.lifecycle.Lifecycle;
+import org.infinispan.loaders.CompressingMarshaller;
 import org.infinispan.loaders.spi.CacheLoader;
 import org.infinispan.loaders.spi.CacheStore;
 
@@ -33,6 +34,11 @@ public interface CacheLoaderManager extends Lifecycle {
    void disableCacheStore(String loaderType);
 
    <T extends CacheLoader> List<T> getCacheLoaders(Class<T> loaderClass);
+
+   /**
+    * @return the marshaller compressing the entries written to the cache stores, or null if compression is disabled
+    */
+   CompressingMarshaller getCompressingMarshaller();
 }
 
 
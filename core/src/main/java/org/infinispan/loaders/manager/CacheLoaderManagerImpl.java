@@ -6,6 +6,14 @@
 import static org.infinispan.loaders.decorators.AbstractDelegatingStore.undelegateCacheLoader;
 
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
@@ -26,17 +34,21 @@
 import org.infinispan.interceptors.CacheLoaderInterceptor;
 import org.infinispan.interceptors.CacheStoreInterceptor;
 import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.CompressingMarshaller;
 import org.infinispan.loaders.decorators.AsyncStore;
 import org.infinispan.loaders.decorators.ChainingCacheStore;
 import org.infinispan.loaders.decorators.ReadOnlyStore;
 import org.infinispan.loaders.decorators.SingletonStore;
+import org.infinispan.loaders.decorators.TieredCacheStore;
 import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.configuration.ConfigurationFor;
 import org.infinispan.commons.marshall.StreamingMarshaller;
-import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.Util;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
@@ -48,6 +60,7 @@ public class CacheLoaderManagerImpl implements CacheLoaderManager {
    LoadersConfiguration clmConfig;
    AdvancedCache<Object, Object> cache;
    StreamingMarshaller m;
+   private CompressingMarshaller compressingMarshaller;
    CacheLoader loader;
    InvocationContextContainer icc;
    TransactionManager transactionManager;
@@ -125,6 +138,8 @@ public boolean isFetchPersistentState() {
    public void start() {
       clmConfig = configuration.loaders();
       if (clmConfig != null) {
+         compressingMarshaller = clmConfig.compression() ?
+               new CompressingMarshaller(m, clmConfig.compressionThreshold()) : null;
          try {
             loader = createCacheLoader();
             Transaction xaTx = null;
@@ -216,13 +231,6 @@ public void preload() {
                start = timeService.time();
                log.debugf("Preloading transient state from cache loader %s", loader);
             }
-            Set<InternalCacheEntry> state;
-            try {
-               state = loadState();
-            } catch (CacheLoaderException e) {
-               throw new CacheException("Unable to preload!", e);
-            }
-
             List<Flag> flags = new ArrayList<Flag>(Arrays.asList(
                   CACHE_MODE_LOCAL, SKIP_OWNERSHIP_CHECK, IGNORE_RETURN_VALUES, SKIP_CACHE_STORE, SKIP_LOCKING));
 
@@ -237,37 +245,201 @@ public void preload() {
             AdvancedCache<Object, Object> flaggedCache = cache.getAdvancedCache()
                   .withFlags(flags.toArray(new Flag[flags.size()]));
 
-            for (InternalCacheEntry e : state)
-               flaggedCache.put(e.getKey(), e.getValue(), e.getMetadata());
+            int maxEntries = -1;
+            if (configuration.eviction().strategy().isEnabled()) maxEntries = configuration.eviction().maxEntries();
+            int preloaded = 0;
+            if (maxEntries != 0) {
+               try {
+                  preloaded = preload(flaggedCache, maxEntries);
+               } catch (CacheLoaderException e) {
+                  throw new CacheException("Unable to preload!", e);
+               }
+            }
 
             if (debugTiming) {
-               log.debugf("Preloaded %s keys in %s", state.size(),
+               log.debugf("Preloaded %s keys in %s", preloaded,
                           Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
             }
          }
       }
    }
 
+   /**
+    * Streams the entries of the cache loader into the cache.  At most {@link LoadersConfiguration#preloadBatchSize()}
+    * entries are buffered by each writer thread, and the cache loader is paused while all the writer threads are busy,
+    * so the memory used by the preload does not depend on the size of the cache store.
+    *
+    * @param maxEntries the maximum number of entries to preload, or -1 to preload all the entries
+    * @return the number of entries preloaded
+    */
+   private int preload(final AdvancedCache<Object, Object> flaggedCache, final int maxEntries) throws CacheLoaderException {
+      final int batchSize = clmConfig.preloadBatchSize();
+      final int numThreads = clmConfig.preloadThreads();
+      final AtomicInteger preloaded = new AtomicInteger();
+      final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+      if (numThreads <= 1) {
+         PreloadTask task = new PreloadTask(batchSize, maxEntries, failure) {
+            @Override
+            protected void flush(List<InternalCacheEntry> batch) {
+               preloaded.addAndGet(write(flaggedCache, batch));
+            }
+         };
+         process(task);
+         return preloaded.get();
+      }
+
+      final List<InternalCacheEntry> poison = Collections.emptyList();
+      final BlockingQueue<List<InternalCacheEntry>> batches = new ArrayBlockingQueue<List<InternalCacheEntry>>(numThreads);
+      final String cacheName = cache.getName();
+      ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+         private final AtomicInteger threadCounter = new AtomicInteger();
+
+         @Override
+         public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, cacheName + "-preload-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+         }
+      });
+      try {
+         for (int i = 0; i < numThreads; i++) {
+            executor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     List<InternalCacheEntry> batch;
+                     while ((batch = batches.take()) != poison) {
+                        // keep draining the queue after a failure so that the cache loader is never blocked
+                        if (failure.get() != null) continue;
+                        try {
+                           preloaded.addAndGet(write(flaggedCache, batch));
+                        } catch (Throwable t) {
+                           failure.compareAndSet(null, t);
+                        }
+                     }
+                  } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                  }
+               }
+            });
+         }
+
+         try {
+            process(new PreloadTask(batchSize, maxEntries, failure) {
+               @Override
+               protected void flush(List<InternalCacheEntry> batch) throws InterruptedException {
+                  batches.put(batch);
+               }
+            });
+         } finally {
+            try {
+               for (int i = 0; i < numThreads; i++) batches.put(poison);
+               executor.shutdown();
+               while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                  log.tracef("Waiting for the preload of cache %s to complete", cacheName);
+               }
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new CacheLoaderException("Interrupted while waiting for the preload to complete", e);
+            }
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+      Throwable t = failure.get();
+      if (t != null) {
+         if (t instanceof RuntimeException) throw (RuntimeException) t;
+         if (t instanceof Error) throw (Error) t;
+         throw new CacheLoaderException(t);
+      }
+      return preloaded.get();
+   }
+
+   private void process(PreloadTask task) throws CacheLoaderException {
+      loader.process(task);
+      try {
+         task.flush();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException("Interrupted while preloading", e);
+      }
+   }
+
+   /**
+    * Writes a batch with one putAll per distinct lifespan and max idle time. Entries with a version or a custom
+    * metadata can't be written by putAll without losing their metadata, so they are still written one by one.
+    */
+   private int write(AdvancedCache<Object, Object> flaggedCache, List<InternalCacheEntry> batch) {
+      Map<Metadata, Map<Object, Object>> byMetadata = new HashMap<Metadata, Map<Object, Object>>();
+      for (InternalCacheEntry e : batch) {
+         Metadata metadata = e.getMetadata();
+         if (metadata instanceof EmbeddedMetadata && metadata.version() == null) {
+            Map<Object, Object> entries = byMetadata.get(metadata);
+            if (entries == null) {
+               entries = new HashMap<Object, Object>();
+               byMetadata.put(metadata, entries);
+            }
+            entries.put(e.getKey(), e.getValue());
+         } else {
+            flaggedCache.put(e.getKey(), e.getValue(), metadata);
+         }
+      }
+      for (Map.Entry<Metadata, Map<Object, Object>> entries : byMetadata.entrySet()) {
+         Metadata metadata = entries.getKey();
+         flaggedCache.putAll(entries.getValue(), metadata.lifespan(), MILLISECONDS, metadata.maxIdle(), MILLISECONDS);
+      }
+      return batch.size();
+   }
+
+   /**
+    * Groups the entries of the cache loader in batches and stops the iteration when enough entries have been loaded or
+    * when a batch could not be written to the cache.
+    */
+   private abstract static class PreloadTask implements CacheLoaderTask {
+      private final int batchSize;
+      private final int maxEntries;
+      private final AtomicReference<Throwable> failure;
+      private List<InternalCacheEntry> batch;
+      private int count;
+
+      PreloadTask(int batchSize, int maxEntries, AtomicReference<Throwable> failure) {
+         this.batchSize = batchSize;
+         this.maxEntries = maxEntries;
+         this.failure = failure;
+         this.batch = new ArrayList<InternalCacheEntry>(batchSize);
+      }
+
+      @Override
+      public boolean processEntry(InternalCacheEntry entry) throws InterruptedException {
+         if (failure.get() != null) return false;
+         batch.add(entry);
+         count++;
+         boolean done = maxEntries >= 0 && count >= maxEntries;
+         if (batch.size() >= batchSize || done) {
+            flush();
+         }
+         return !done;
+      }
+
+      void flush() throws InterruptedException {
+         if (!batch.isEmpty()) {
+            List<InternalCacheEntry> full = batch;
+            batch = new ArrayList<InternalCacheEntry>(batchSize);
+            flush(full);
+         }
+      }
+
+      protected abstract void flush(List<InternalCacheEntry> batch) throws InterruptedException;
+   }
+
    private boolean localIndexingEnabled() {
       return configuration.indexing().enabled() && configuration.indexing().indexLocalOnly();
    }
 
-   private Set<InternalCacheEntry> loadState() throws CacheLoaderException {
-      int ne = -1;
-      if (configuration.eviction().strategy().isEnabled()) ne = configuration.eviction().maxEntries();
-      Set<InternalCacheEntry> state;
-      switch (ne) {
-         case -1:
-            state = loader.loadAll();
-            break;
-         case 0:
-            state = InfinispanCollections.emptySet();
-            break;
-         default:
-            state = loader.load(ne);
-            break;
-      }
-      return state;
+   @Override
+   public CompressingMarshaller getCompressingMarshaller() {
+      return compressingMarshaller;
    }
 
    @Override
@@ -290,8 +462,8 @@ CacheLoader createCacheLoader() throws Exception {
       // don't use a chaining cache loader at all.
       // also if we are using passivation then just directly use the first cache loader.
       if (clmConfig.usingChainingCacheLoader()) {
-         // create chaining cache loader.
-         ChainingCacheStore ccl = new ChainingCacheStore();
+         // create chaining cache loader, or a tiered one which copies the entries of the last store to the first one
+         ChainingCacheStore ccl = clmConfig.tiered() ? new TieredCacheStore(cache) : new ChainingCacheStore();
          tmpLoader = ccl;
 
          // only one cache loader may have fetchPersistentState to true.
@@ -353,7 +525,7 @@ CacheLoader createCacheLoader(CacheLoaderConfiguration cfg, AdvancedCache<Object
          }
 
          // load props
-         tmpLoader.init(cfg, cache, m);
+         tmpLoader.init(cfg, cache, compressingMarshaller != null ? compressingMarshaller : m);
       }
       return tmpLoader;
    }
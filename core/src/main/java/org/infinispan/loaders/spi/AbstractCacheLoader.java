@@ -3,11 +3,16 @@
 import org.infinispan.Cache;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.configuration.cache.CacheLoaderConfiguration;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * An abstract {@link org.infinispan.loaders.spi.CacheLoader} that holds common implementations for some methods
  *
@@ -34,6 +39,61 @@ public boolean containsKey(Object key) throws CacheLoaderException {
       return load(key) != null;
    }
 
+   /**
+    * {@inheritDoc} This implementation counts the entries passed to a task by {@link #process(CacheLoaderTask)}, so it
+    * reads all of them.  Implementations should override it if they can count the entries without reading them.
+    */
+   @Override
+   public int size() throws CacheLoaderException {
+      final int[] count = new int[1];
+      process(new CacheLoaderTask() {
+         @Override
+         public boolean processEntry(InternalCacheEntry entry) {
+            return ++count[0] < Integer.MAX_VALUE;
+         }
+      });
+      return count[0];
+   }
+
+   /**
+    * {@inheritDoc} This implementation loads the keys one by one, implementations should override it to read them in
+    * bulk.
+    */
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      for (Object key : keys) {
+         InternalCacheEntry entry = load(key);
+         if (entry != null) entries.put(key, entry);
+      }
+      return entries;
+   }
+
+   /**
+    * {@inheritDoc} This implementation delegates to {@link CacheLoader#loadAll()}, so all the entries are held in
+    * memory.  Implementations should override it to read the entries incrementally.
+    */
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      for (InternalCacheEntry entry : loadAll()) {
+         if (!processEntry(task, entry)) break;
+      }
+   }
+
+   /**
+    * Passes an entry to a {@link CacheLoaderTask}, converting interruptions to {@link CacheLoaderException}s.
+    *
+    * @return true if the iteration should continue
+    */
+   public static boolean processEntry(CacheLoaderTask task, InternalCacheEntry entry) throws CacheLoaderException {
+      try {
+         return task.processEntry(entry);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException("Interrupted while processing the entries of the cache loader", e);
+      }
+   }
+
    @Override
    public void init(CacheLoaderConfiguration config, Cache<?, ?> cache, StreamingMarshaller m) throws
          CacheLoaderException {
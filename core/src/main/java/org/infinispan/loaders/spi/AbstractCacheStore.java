@@ -3,6 +3,8 @@
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheLoaderConfiguration;
 import org.infinispan.configuration.cache.CacheStoreConfiguration;
+import org.infinispan.configuration.cache.LoadersConfiguration;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.modifications.Modification;
 import org.infinispan.loaders.modifications.Remove;
@@ -16,10 +18,15 @@
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -46,6 +53,10 @@ public abstract class AbstractCacheStore extends AbstractCacheLoader
    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
    protected boolean multiThreadedPurge = false;
    protected CacheStoreConfiguration configuration;
+   private final List<PurgeListener> purgeListeners = new CopyOnWriteArrayList<PurgeListener>();
+   private int purgeBatchSize = 1000;
+   private long purgeTimeBudget = 0;
+   private volatile long purgeDeadline = Long.MAX_VALUE;
 
    @Override
    public void init(CacheLoaderConfiguration config, Cache<?, ?> cache, StreamingMarshaller m) throws CacheLoaderException {
@@ -78,6 +89,11 @@ public Thread newThread(Runnable r) {
          });
       }
       transactions = CollectionFactory.makeConcurrentMap(64, getConcurrencyLevel());
+      if (cache != null && cache.getCacheConfiguration() != null) {
+         LoadersConfiguration loaders = cache.getCacheConfiguration().loaders();
+         purgeBatchSize = loaders.purgeBatchSize();
+         purgeTimeBudget = loaders.purgeTimeBudget();
+      }
    }
 
    protected boolean supportsMultiThreadedPurge() {
@@ -97,6 +113,7 @@ public void purgeExpired() throws CacheLoaderException {
       Future<Void> future = purgerService.submit(new Callable<Void>() {
          @Override
          public Void call() throws Exception {
+            purgeDeadline = purgeTimeBudget > 0 ? System.currentTimeMillis() + purgeTimeBudget : Long.MAX_VALUE;
             try {
                purgeInternal();
                return null;
@@ -132,26 +149,92 @@ public CacheLoaderConfiguration getConfiguration() {
       return this.configuration;
    }
 
+   /**
+    * Removes the expired entries.  Implementations should remove them in steps of at most {@link
+    * #getPurgeBatchSize()} entries, releasing their locks between the steps, stop once {@link #isPurgeBudgetExhausted()}
+    * and call {@link #notifyEntryPurged(Object)} for each removed entry.
+    */
    protected abstract void purgeInternal() throws CacheLoaderException;
 
+   /**
+    * Registers a listener notified of the keys of the expired entries removed by {@link #purgeExpired()}.
+    */
+   public void addPurgeListener(PurgeListener listener) {
+      purgeListeners.add(listener);
+   }
+
+   public void removePurgeListener(PurgeListener listener) {
+      purgeListeners.remove(listener);
+   }
+
+   /**
+    * @return true if any purge listener is registered, so that the purge needs the keys of the entries it removes
+    */
+   protected final boolean hasPurgeListeners() {
+      return !purgeListeners.isEmpty();
+   }
+
+   protected final void notifyEntryPurged(Object key) {
+      for (PurgeListener listener : purgeListeners) {
+         try {
+            listener.entryPurged(key);
+         } catch (RuntimeException e) {
+            log.warnf(e, "Purge listener %s failed for key %s", listener, key);
+         }
+      }
+   }
+
+   /**
+    * @return the maximum number of expired entries to remove in a single step of a purge
+    */
+   protected final int getPurgeBatchSize() {
+      return purgeBatchSize;
+   }
+
+   /**
+    * @return true if the current purge has used up its time budget, in which case it should leave the remaining expired
+    *         entries to the next purge
+    */
+   protected final boolean isPurgeBudgetExhausted() {
+      return System.currentTimeMillis() > purgeDeadline;
+   }
+
+   /**
+    * Applies the modifications of a transaction.  Only the last modification of each key is applied, and stores and
+    * removals are applied in bulk through {@link #storeAll(java.util.Collection)} and {@link #removeAll(java.util.Set)}.
+    */
    protected void applyModifications(List<? extends Modification> mods) throws CacheLoaderException {
+      Map<Object, Modification> pending = new LinkedHashMap<Object, Modification>();
       for (Modification m : mods) {
          switch (m.getType()) {
             case STORE:
                Store s = (Store) m;
-               store(s.getStoredEntry());
+               pending.put(s.getStoredEntry().getKey(), s);
                break;
             case CLEAR:
+               // the modifications preceding a clear would be wiped out anyway
+               pending.clear();
                clear();
                break;
             case REMOVE:
                Remove r = (Remove) m;
-               remove(r.getKey());
+               pending.put(r.getKey(), r);
                break;
             default:
                throw new IllegalArgumentException("Unknown modification type " + m.getType());
          }
       }
+
+      List<InternalCacheEntry> stores = new ArrayList<InternalCacheEntry>(pending.size());
+      Set<Object> removes = new HashSet<Object>();
+      for (Modification m : pending.values()) {
+         if (m.getType() == Modification.Type.STORE)
+            stores.add(((Store) m).getStoredEntry());
+         else
+            removes.add(((Remove) m).getKey());
+      }
+      if (!stores.isEmpty()) storeAll(stores);
+      if (!removes.isEmpty()) removeAll(removes);
    }
 
    @Override
@@ -174,6 +257,13 @@ public void commit(GlobalTransaction tx) throws CacheLoaderException {
       if (list != null && !list.isEmpty()) applyModifications(list);
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      if (entries != null && !entries.isEmpty()) {
+         for (InternalCacheEntry entry : entries) store(entry);
+      }
+   }
+
    @Override
    public void removeAll(Set<Object> keys) throws CacheLoaderException {
       if (keys != null && !keys.isEmpty()) {
@@ -6,6 +6,7 @@
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.loaders.CacheLoaderException;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -40,6 +41,16 @@ void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, StreamingMa
     */
    InternalCacheEntry load(Object key) throws CacheLoaderException;
 
+   /**
+    * Loads the entries mapped to by a set of keys, in as few round trips to the underlying storage as possible.  Keys
+    * which don't exist or whose entries are expired are not part of the returned map.
+    *
+    * @param keys keys to load
+    * @return a map of the keys found to their entries, or an empty map if none was found
+    * @throws CacheLoaderException in the event of problems reading from source
+    */
+   Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException;
+
    /**
     * Loads all entries in the loader.  Expired entries are not returned.
     *
@@ -57,6 +68,17 @@ void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, StreamingMa
     */
    Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException;
 
+   /**
+    * Iterates over all the entries in the loader, passing each of them to the given task as soon as it is read, so
+    * that the entries don't need to be held in memory all at the same time.  Expired entries are not passed to the
+    * task.  The task is invoked by the calling thread, in no particular order, until it returns false or all the
+    * entries have been processed.
+    *
+    * @param task the task processing the entries
+    * @throws CacheLoaderException in the event of problems reading from source, or if interrupted
+    */
+   void process(CacheLoaderTask task) throws CacheLoaderException;
+
    /**
     * Loads a set of all keys, excluding a filter set.
     *
@@ -73,6 +95,15 @@ void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, StreamingMa
     */
    boolean containsKey(Object key) throws CacheLoaderException;
 
+   /**
+    * Counts the entries in the loader, without loading them in memory.  Expired entries are not counted, but
+    * implementations which can't tell whether an entry is expired without reading it may return an approximation.
+    *
+    * @return the number of entries in the loader, or {@link Integer#MAX_VALUE} if there are more
+    * @throws CacheLoaderException in the event of problems reading from source
+    */
+   int size() throws CacheLoaderException;
+
    public void start() throws CacheLoaderException;
 
    public void stop() throws CacheLoaderException;
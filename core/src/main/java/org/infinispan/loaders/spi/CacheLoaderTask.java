@@ -0,0 +1,21 @@
+package org.infinispan.loaders.spi;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * Processes the entries iterated over by {@link CacheLoader#process(CacheLoaderTask)}.
+ *
+ * @since 6.0
+ */
+public interface CacheLoaderTask {
+
+   /**
+    * Processes an entry read from the cache loader.  Implementations may block, e.g. until they have room to hold the
+    * entry, in which case the cache loader stops reading entries until this method returns.
+    *
+    * @param entry the entry read from the cache loader
+    * @return true to continue the iteration, false to stop it
+    * @throws InterruptedException if interrupted while blocked
+    */
+   boolean processEntry(InternalCacheEntry entry) throws InterruptedException;
+}
@@ -2,6 +2,13 @@
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.infinispan.Cache;
@@ -158,6 +165,18 @@ public final Set<InternalCacheEntry> load(int maxEntries) throws CacheLoaderExce
       }
    }
 
+   @Override
+   public final void process(CacheLoaderTask task) throws CacheLoaderException {
+      if (!acquireGlobalLock(false)) {
+         throw new CacheLoaderException("Unable to acquire global lock");
+      }
+      try {
+         processLockSafe(task);
+      } finally {
+         releaseGlobalLock(false);
+      }
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       if (!acquireGlobalLock(false)) {
@@ -222,6 +241,106 @@ public final boolean remove(Object key) throws CacheLoaderException {
       }
    }
 
+   /**
+    * Stores the entries holding the locks of all of their keys, which are acquired in a consistent order so that
+    * concurrent bulk operations can't deadlock.
+    */
+   @Override
+   public final void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      if (entries == null || entries.isEmpty()) {
+         return;
+      }
+      if (trace) {
+         log.tracef("storeAll(%s)", entries);
+      }
+      long now = timeService.wallClockTime();
+      Map<L, List<InternalCacheEntry>> entriesByLock = new LinkedHashMap<L, List<InternalCacheEntry>>();
+      Set<Object> expiredKeys = new HashSet<Object>();
+      for (InternalCacheEntry ed : entries) {
+         if (ed.canExpire() && ed.isExpired(now)) {
+            if (trace) {
+               log.tracef("Entry %s is expired!  Removing!", ed);
+            }
+            expiredKeys.add(ed.getKey());
+            continue;
+         }
+         L lockingKey = getLockFromKey(ed.getKey());
+         List<InternalCacheEntry> locked = entriesByLock.get(lockingKey);
+         if (locked == null) {
+            locked = new ArrayList<InternalCacheEntry>();
+            entriesByLock.put(lockingKey, locked);
+         }
+         locked.add(ed);
+      }
+      removeAll(expiredKeys);
+
+      if (entriesByLock.isEmpty()) {
+         return;
+      }
+      List<Object> lockingKeys = locks.acquireAllLocksInOrder(entriesByLock.keySet(), true);
+      try {
+         storeAllLockSafe(entriesByLock);
+      } finally {
+         locks.releaseAllLocks(lockingKeys);
+      }
+   }
+
+   /**
+    * Removes the keys holding the locks of all of them, which are acquired in a consistent order so that concurrent
+    * bulk operations can't deadlock.
+    */
+   @Override
+   public final void removeAll(Set<Object> keys) throws CacheLoaderException {
+      if (keys == null || keys.isEmpty()) {
+         return;
+      }
+      if (trace) {
+         log.tracef("removeAll(%s)", keys);
+      }
+      Map<L, List<Object>> keysByLock = groupByLock(keys);
+      List<Object> lockingKeys = locks.acquireAllLocksInOrder(keysByLock.keySet(), true);
+      try {
+         removeAllLockSafe(keysByLock);
+      } finally {
+         locks.releaseAllLocks(lockingKeys);
+      }
+   }
+
+   /**
+    * Loads the keys holding the read locks of all of them, which are acquired in a consistent order so that concurrent
+    * bulk operations can't deadlock.
+    */
+   @Override
+   public final Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      if (keys == null || keys.isEmpty()) {
+         return new HashMap<Object, InternalCacheEntry>();
+      }
+      if (trace) {
+         log.tracef("loadAll(%s)", keys);
+      }
+      Map<L, List<Object>> keysByLock = groupByLock(keys);
+      List<Object> lockingKeys = locks.acquireAllLocksInOrder(keysByLock.keySet(), false);
+      try {
+         return loadAllLockSafe(keysByLock);
+      } finally {
+         locks.releaseAllLocks(lockingKeys);
+      }
+   }
+
+   private Map<L, List<Object>> groupByLock(Collection<?> keys) throws CacheLoaderException {
+      Map<L, List<Object>> keysByLock = new LinkedHashMap<L, List<Object>>();
+      for (Object key : keys) {
+         L lockingKey = getLockFromKey(key);
+         List<Object> locked = keysByLock.get(lockingKey);
+         if (locked == null) {
+            locked = new ArrayList<Object>();
+            keysByLock.put(lockingKey, locked);
+         }
+         locked.add(key);
+      }
+      return keysByLock;
+   }
+
    @Override
    public final void fromStream(ObjectInput objectInput) throws CacheLoaderException {
       if (!acquireGlobalLock(true)) {
@@ -271,6 +390,16 @@ public int getTotalLockCount() {
 
    protected abstract Set<InternalCacheEntry> loadLockSafe(int maxEntries) throws CacheLoaderException;
 
+   /**
+    * Passes all the entries to the given task.  This implementation delegates to {@link #loadAllLockSafe()}, so all the
+    * entries are held in memory: implementations should override it to read the entries incrementally.
+    */
+   protected void processLockSafe(CacheLoaderTask task) throws CacheLoaderException {
+      for (InternalCacheEntry entry : loadAllLockSafe()) {
+         if (!processEntry(task, entry)) break;
+      }
+   }
+
    protected abstract Set<Object> loadAllKeysLockSafe(Set<Object> keysToExclude) throws CacheLoaderException;
 
    protected abstract void toStreamLockSafe(ObjectOutput oos) throws CacheLoaderException;
@@ -281,7 +410,42 @@ public int getTotalLockCount() {
 
    protected abstract void storeLockSafe(InternalCacheEntry ed, L lockingKey) throws CacheLoaderException;
 
+   /**
+    * Stores the entries, grouped by the lock of their keys.  This implementation stores them one by one, implementations
+    * should override it to write them in bulk.
+    */
+   protected void storeAllLockSafe(Map<L, List<InternalCacheEntry>> entriesByLock) throws CacheLoaderException {
+      for (Map.Entry<L, List<InternalCacheEntry>> e : entriesByLock.entrySet()) {
+         for (InternalCacheEntry ed : e.getValue()) storeLockSafe(ed, e.getKey());
+      }
+   }
+
+   /**
+    * Removes the keys, grouped by their lock.  This implementation removes them one by one, implementations should
+    * override it to remove them in bulk.
+    */
+   protected void removeAllLockSafe(Map<L, List<Object>> keysByLock) throws CacheLoaderException {
+      for (Map.Entry<L, List<Object>> e : keysByLock.entrySet()) {
+         for (Object key : e.getValue()) removeLockSafe(key, e.getKey());
+      }
+   }
+
    protected abstract InternalCacheEntry loadLockSafe(Object key, L lockingKey) throws CacheLoaderException;
 
+   /**
+    * Loads the entries of the keys, grouped by their lock.  Expired entries are not returned.  This implementation
+    * loads them one by one, implementations should override it to read them in bulk.
+    */
+   protected Map<Object, InternalCacheEntry> loadAllLockSafe(Map<L, List<Object>> keysByLock) throws CacheLoaderException {
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      for (Map.Entry<L, List<Object>> e : keysByLock.entrySet()) {
+         for (Object key : e.getValue()) {
+            InternalCacheEntry entry = loadLockSafe(key, e.getKey());
+            if (entry != null) entries.put(key, entry);
+         }
+      }
+      return entries;
+   }
+
    protected abstract L getLockFromKey(Object key) throws CacheLoaderException;
 }
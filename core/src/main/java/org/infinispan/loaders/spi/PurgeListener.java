@@ -0,0 +1,20 @@
+package org.infinispan.loaders.spi;
+
+/**
+ * Receives the keys of the expired entries removed from a cache store by {@link CacheStore#purgeExpired()}, e.g. to
+ * remove them from an index as well.
+ *
+ * @see AbstractCacheStore#addPurgeListener(PurgeListener)
+ * @since 6.0
+ */
+public interface PurgeListener {
+
+   /**
+    * Called after an expired entry has been removed from the cache store.  Implementations shouldn't block, as the purge
+    * may hold locks of the cache store while notifying the listeners, and may be called by several purger threads
+    * concurrently.
+    *
+    * @param key the key of the removed entry
+    */
+   void entryPurged(Object key);
+}
@@ -185,6 +185,15 @@ public MarshalledValueByteStream getRaw() {
       return rawValue;
    }
 
+   /**
+    * Returns the size of the serialized representation. If this value has not been serialized yet, a guess is
+    * returned rather than forcing serialization.
+    */
+   public int getSerializedSize() {
+      MarshalledValueByteStream rawValue = raw;
+      return rawValue != null ? rawValue.size() : serialisedSize;
+   }
+
    /**
     * Returns the 'cached' instance
     */
@@ -5,6 +5,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 
 import java.util.Collection;
@@ -230,6 +231,24 @@ void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rp
    void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options,
                                NotifyingNotifiableFuture<Object> future);
 
+   /**
+    * The same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}
+    * except that the calling thread doesn't wait for the responses.  As opposed to {@link
+    * #invokeRemotelyInFuture(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions,
+    * org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture)}, no thread waits for them either.  The returned
+    * future is completed by a thread of the asynchronous transport executor, never by the thread receiving the
+    * responses, so its listeners may block.
+    *
+    * @param recipients recipients to invoke remote call on. If this is {@code null}, the call is broadcast to the
+    *                   entire cluster.
+    * @param rpc        command to execute remotely.
+    * @param options    it configures the invocation, as in {@link #invokeRemotely(java.util.Collection,
+    *                   org.infinispan.commands.ReplicableCommand, RpcOptions)}
+    * @return a future of the map of responses from each member contacted.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc,
+                                                               RpcOptions options);
+
    /**
     * @return a reference to the underlying transport.
     */
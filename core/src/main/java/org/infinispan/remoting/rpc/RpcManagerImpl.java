@@ -31,7 +31,10 @@
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.topology.LocalTopologyManager;
 import org.infinispan.util.TimeService;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -41,7 +44,10 @@
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -279,12 +285,7 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
 //                  responseFilter = new IgnoreExtraResponsesValidityFilter(cacheMembers, getAddress());
 //               }
 //            }
-         if (rpc instanceof TopologyAffectedCommand) {
-            TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
-            if (topologyAffectedCommand.getTopologyId() == -1) {
-               topologyAffectedCommand.setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
-            }
-         }
+         setTopologyId(rpc);
          Map<Address, Response> result = t.invokeRemotely(recipients, rpc, options.responseMode(), options.timeUnit().toMillis(options.timeout()),
                                                           !options.fifoOrder(), options.responseFilter(), options.totalOrder(),
                                                           configuration.clustering().cacheMode().isDistributed());
@@ -339,6 +340,96 @@ public Object call() throws Exception {
       futureSet.countDown();
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc,
+                                                                      RpcOptions options) {
+      final CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<Map<Address, Response>>();
+      if (!options.responseMode().isSynchronous()) {
+         // there are no responses to wait for
+         try {
+            future.complete(invokeRemotely(recipients, rpc, options));
+         } catch (Throwable t) {
+            future.completeExceptionally(t);
+         }
+         return future;
+      }
+      if (trace) log.tracef("%s invoking %s to recipient list %s with options %s, not waiting for the responses", t.getAddress(), rpc, recipients, options);
+
+      if (!configuration.clustering().cacheMode().isClustered())
+         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
+      final ReplicableCommand command = rpc instanceof CacheRpcCommand ? rpc : cf.buildSingleRpcCommand(rpc);
+      final long startTimeNanos = statisticsEnabled ? timeService.time() : 0;
+      setTopologyId(command);
+      t.invokeRemotelyAsync(recipients, command, options.responseMode(), options.timeUnit().toMillis(options.timeout()),
+                            !options.fifoOrder(), options.responseFilter(), options.totalOrder(),
+                            configuration.clustering().cacheMode().isDistributed())
+            .attachListener(new FutureListener<Map<Address, Response>>() {
+               @Override
+               public void futureDone(Future<Map<Address, Response>> responses) {
+                  Map<Address, Response> result = null;
+                  Throwable failure = null;
+                  try {
+                     result = responses.get();
+                     if (statisticsEnabled) replicationCount.incrementAndGet();
+                     if (trace) log.tracef("Response(s) to %s is %s", command, result);
+                     checkResponses(result);
+                  } catch (ExecutionException e) {
+                     failure = replicationFailed(e.getCause());
+                  } catch (Throwable th) {
+                     failure = replicationFailed(th);
+                  }
+                  if (statisticsEnabled) {
+                     long timeTaken = timeService.timeDuration(startTimeNanos, TimeUnit.MILLISECONDS);
+                     totalReplicationTime.getAndAdd(timeTaken);
+                  }
+                  completeInExecutor(future, result, failure);
+               }
+            });
+      return future;
+   }
+
+   /**
+    * The listeners of the future carry on with the invocation of the command, e.g. committing the entries or waiting
+    * for a new topology to retry the command, so they mustn't run in the JGroups thread which received the response.
+    */
+   private void completeInExecutor(final CompletableNotifyingFuture<Map<Address, Response>> future,
+                                   final Map<Address, Response> result, final Throwable failure) {
+      Runnable completion = new Runnable() {
+         @Override
+         public void run() {
+            if (failure == null)
+               future.complete(result);
+            else
+               future.completeExceptionally(failure);
+         }
+      };
+      try {
+         asyncExecutor.execute(completion);
+      } catch (RejectedExecutionException e) {
+         // the executor is shutting down, and so is the cache
+         completion.run();
+      }
+   }
+
+   private CacheException replicationFailed(Throwable th) {
+      if (statisticsEnabled) replicationFailures.incrementAndGet();
+      if (th instanceof CacheException) {
+         log.trace("replication exception: ", th);
+         return (CacheException) th;
+      }
+      log.unexpectedErrorReplicating(th);
+      return new CacheException(th);
+   }
+
+   private void setTopologyId(ReplicableCommand rpc) {
+      if (rpc instanceof TopologyAffectedCommand) {
+         TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
+         if (topologyAffectedCommand.getTopologyId() == -1) {
+            topologyAffectedCommand.setTopologyId(stateTransferManager.getCacheTopology().getTopologyId());
+         }
+      }
+   }
+
    @Override
    public Transport getTransport() {
       return t;
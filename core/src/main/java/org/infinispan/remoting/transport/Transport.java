@@ -1,6 +1,7 @@
 package org.infinispan.remoting.transport;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
@@ -49,6 +50,22 @@ Map<Address, Response> invokeRemotely(Collection<Address> recipients, Replicable
                                  boolean usePriorityQueue, ResponseFilter responseFilter, boolean totalOrder,
                                  boolean anycast) throws Exception;
 
+   /**
+    * The same as {@link #invokeRemotely(Collection, ReplicableCommand, ResponseMode, long, boolean, ResponseFilter,
+    * boolean, boolean)}, except that it doesn't block the calling thread waiting for the responses.  The returned future
+    * is completed by the thread receiving the responses, so its listeners shouldn't block.
+    * <p/>
+    * Implementations may fall back to a synchronous invocation, e.g. for total order or broadcast invocations, in which
+    * case the returned future is already completed.
+    *
+    * @return a future of the map of responses from each member contacted; failures, such as a timeout, complete it with
+    *         an exception.
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                               ResponseMode mode, long timeout, boolean usePriorityQueue,
+                                                               ResponseFilter responseFilter, boolean totalOrder,
+                                                               boolean anycast);
+
 
    BackupResponse backupRemotely(Collection<XSiteBackup> backups, ReplicableCommand rpcCommand) throws Exception;
 
@@ -18,6 +18,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.topology.CacheTopologyControlCommand;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -39,6 +40,7 @@
 import org.jgroups.util.NotifyingFuture;
 import org.jgroups.util.Rsp;
 import org.jgroups.util.RspList;
+import org.jgroups.util.TimeScheduler;
 
 import java.io.NotSerializableException;
 import java.util.Collections;
@@ -187,6 +189,39 @@ public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, Respon
       return invokeRemoteCommands(null, command, mode, timeout, oob, filter, asyncMarshalling, ignoreLeavers, totalOrder);
    }
 
+   /**
+    * Sends the command to each recipient with a separate unicast and returns without waiting for the responses.  The
+    * returned future is completed by the thread receiving the last response needed, or by the JGroups timer if the
+    * responses don't arrive in time.
+    *
+    * @param recipients Guaranteed not to be null.  Must <b>not</b> contain self.
+    * @param mode       either {@link ResponseMode#GET_ALL} or {@link ResponseMode#GET_FIRST}, in which case the first
+    *                   response accepted by the filter completes the future
+    * @return a future of the responses, or of {@code null} if there are none
+    */
+   public CompletableNotifyingFuture<RspList<Object>> invokeRemoteCommandsAsync(List<Address> recipients,
+                                                                                ReplicableCommand command,
+                                                                                ResponseMode mode, long timeout,
+                                                                                boolean oob, RspFilter filter,
+                                                                                boolean ignoreLeavers) {
+      if (trace) log.tracef("Replication task sending %s to addresses %s with response mode %s, not waiting for the responses", command, recipients, mode);
+      boolean rsvp = command instanceof CacheTopologyControlCommand || isRsvpCommand(command);
+      AsyncResponseCollator collator = new AsyncResponseCollator(recipients, filter, timeout, ignoreLeavers);
+      if (recipients.isEmpty()) {
+         collator.result.complete(null);
+         return collator.result;
+      }
+      Buffer buf = marshallCall(req_marshaller, command);
+      RequestOptions opts = new RequestOptions(mode, timeout);
+      opts.setExclusionList(getChannel().getAddress());
+      collator.scheduleTimeout(getChannel().getProtocolStack().getTransport().getTimer());
+      for (Address a : recipients) {
+         NotifyingFuture<Object> f = sendMessageWithFuture(constructMessage(buf, a, oob, mode, rsvp, false), opts);
+         collator.watchFuture(f, a);
+      }
+      return collator.result;
+   }
+
    private boolean containsOnlyNulls(RspList<Object> l) {
       for (Rsp<Object> r : l.values()) {
          if (r.getValue() != null || !r.wasReceived() || r.wasSuspected()) return false;
@@ -582,5 +617,126 @@ else if (e.getCause() instanceof Exception)
          }
       }
    }
-}
 
+   /**
+    * The asynchronous counterpart of {@link FutureCollator}: collects the responses to the unicasts sent by {@link
+    * #invokeRemoteCommandsAsync(List, ReplicableCommand, ResponseMode, long, boolean, RspFilter, boolean)} and completes
+    * {@link #result} instead of waking up a waiting thread.
+    */
+   final static class AsyncResponseCollator implements FutureListener<Object>, Runnable {
+      final CompletableNotifyingFuture<RspList<Object>> result = new CompletableNotifyingFuture<RspList<Object>>();
+      final RspFilter filter;
+      final long timeout;
+      final boolean ignoreLeavers;
+      @GuardedBy("this")
+      private final Map<Future<Object>, SenderContainer> futures;
+      @GuardedBy("this")
+      private final RspList<Object> responses = new RspList<Object>();
+      @GuardedBy("this")
+      private Exception exception;
+      @GuardedBy("this")
+      private int expectedResponses;
+      private volatile Future<?> timeoutTask;
+
+      AsyncResponseCollator(List<Address> recipients, RspFilter filter, long timeout, boolean ignoreLeavers) {
+         this.filter = filter;
+         this.timeout = timeout;
+         this.ignoreLeavers = ignoreLeavers;
+         this.expectedResponses = recipients.size();
+         this.futures = new HashMap<Future<Object>, SenderContainer>(recipients.size() * 2);
+      }
+
+      void scheduleTimeout(TimeScheduler timer) {
+         timeoutTask = timer.schedule(this, timeout, MILLISECONDS);
+      }
+
+      void watchFuture(NotifyingFuture<Object> f, Address address) {
+         synchronized (this) {
+            futures.put(f, new SenderContainer(address));
+         }
+         f.setListener(this);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public void futureDone(Future<Object> objectFuture) {
+         RspList<Object> toComplete = null;
+         Exception toFail = null;
+         synchronized (this) {
+            SenderContainer sc = futures.get(objectFuture);
+            if (sc.processed || result.isDone()) {
+               // the listener can be notified twice, see FutureCollator
+               if (trace) log.tracef("Not processing callback; already processed callback for sender %s", sc.address);
+               return;
+            }
+            sc.processed = true;
+            expectedResponses--;
+            Address sender = sc.address;
+            try {
+               Object response = objectFuture.get();
+               if (trace) log.tracef("Received response: %s from %s", response, sender);
+               if (filter == null) {
+                  responses.addRsp(sender, response);
+               } else {
+                  filter.isAcceptable(response, sender);
+                  if (!filter.needMoreResponses()) {
+                     toComplete = new RspList(Collections.singleton(new Rsp(sender, response)));
+                  }
+               }
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+               Throwable cause = e.getCause();
+               if (filter != null) {
+                  // like FutureCollator, skip this response and wait for a valid one
+                  exception = toCacheException(sender, cause);
+                  if (log.isDebugEnabled())
+                     log.debugf("Caught exception %s from sender %s.  Will skip this response.", exception.getClass().getName(), sender);
+               } else if (ignoreLeavers && cause instanceof SuspectedException) {
+                  log.tracef("Ignoring node %s that left during the remote call", sender);
+               } else {
+                  toFail = toCacheException(sender, cause);
+               }
+            }
+            if (toComplete == null && toFail == null && expectedResponses == 0) {
+               if (filter == null)
+                  toComplete = responses;
+               else if (exception != null)
+                  toFail = exception;
+               else
+                  toFail = new RpcException(format("No more valid responses.  Received invalid responses from all of %s", futures.values()));
+            }
+         }
+         if (toComplete != null || toFail != null) {
+            Future<?> task = timeoutTask;
+            if (task != null) task.cancel(false);
+            if (toFail != null)
+               result.completeExceptionally(toFail);
+            else
+               result.complete(toComplete);
+         }
+      }
+
+      /**
+       * Runs on the JGroups timer when the timeout expires.
+       */
+      @Override
+      public void run() {
+         String senders;
+         synchronized (this) {
+            if (result.isDone()) return;
+            senders = futures.values().toString();
+         }
+         result.completeExceptionally(new TimeoutException(format("Timed out waiting for %s for responses from %s.",
+                                                                  Util.prettyPrintTime(timeout), senders)));
+      }
+
+      private static Exception toCacheException(Address sender, Throwable cause) {
+         if (cause instanceof SuspectedException)
+            return new SuspectException("Node " + sender + " was suspected", fromJGroupsAddress(sender), cause);
+         if (cause instanceof org.jgroups.TimeoutException)
+            return new TimeoutException("Node " + sender + " timed out", cause);
+         return rewrapAsCacheException(cause);
+      }
+   }
+}
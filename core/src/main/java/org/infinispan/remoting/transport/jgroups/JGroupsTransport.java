@@ -15,6 +15,8 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.InboundInvocationHandler;
 import org.infinispan.remoting.responses.Response;
@@ -24,6 +26,7 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.BackupResponse;
 import org.infinispan.util.TimeService;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -59,6 +62,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -527,19 +531,82 @@ usePriorityQueue, toJGroupsFilter(responseFilter),
             responses = Collections.singletonMap(fromJGroupsAddress(singleJGAddress), singleResponse);
          }
       } else {
-         Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+         responses = toResponseMap(rsps, responseFilter, ignoreLeavers);
+      }
+      return responses;
+   }
 
-         boolean noValidResponses = true;
-         for (Rsp<Object> rsp : rsps.values()) {
-            noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
-                  responseFilter != null, ignoreLeavers);
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout,
+                                                                      boolean usePriorityQueue, final ResponseFilter responseFilter,
+                                                                      boolean totalOrder, boolean anycast) {
+      final CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<Map<Address, Response>>();
+      if (recipients == null || totalOrder || mode.isAsynchronous()) {
+         // broadcasts and total order use multicasts, which are only sent synchronously, and async modes don't wait anyway
+         try {
+            future.complete(invokeRemotely(recipients, rpcCommand, mode, timeout, usePriorityQueue, responseFilter, totalOrder, anycast));
+         } catch (Throwable t) {
+            future.completeExceptionally(t);
          }
+         return future;
+      }
 
-         if (noValidResponses)
-            throw new TimeoutException("Timed out waiting for valid responses!");
-         responses = retval;
+      if (trace)
+         log.tracef("dests=%s, command=%s, mode=%s, timeout=%s, not waiting for the responses", recipients, rpcCommand, mode, timeout);
+      final boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
+      if (!getMembers().containsAll(recipients)) {
+         if (ignoreLeavers) { // SYNCHRONOUS_IGNORE_LEAVERS || WAIT_FOR_VALID_RESPONSE
+            recipients = new HashSet<Address>(recipients);
+            recipients.retainAll(getMembers());
+         } else { // SYNCHRONOUS
+            future.completeExceptionally(new SuspectException("One or more nodes have left the cluster while replicating command " + rpcCommand));
+            return future;
+         }
       }
-      return responses;
+      if (!usePriorityQueue && (ResponseMode.SYNCHRONOUS == mode || ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS == mode))
+         usePriorityQueue = true;
+
+      CompletableNotifyingFuture<RspList<Object>> rspsFuture;
+      try {
+         rspsFuture = dispatcher.invokeRemoteCommandsAsync(toJGroupsAddressListExcludingSelf(recipients, false), rpcCommand,
+                                                           toJGroupsMode(mode), timeout, usePriorityQueue,
+                                                           toJGroupsFilter(responseFilter), ignoreLeavers);
+      } catch (Throwable t) {
+         future.completeExceptionally(t);
+         return future;
+      }
+      rspsFuture.attachListener(new FutureListener<RspList<Object>>() {
+         @Override
+         public void futureDone(Future<RspList<Object>> rspsDone) {
+            try {
+               RspList<Object> rsps = rspsDone.get();
+               if (rsps == null || rsps.isEmpty()) {
+                  future.complete(InfinispanCollections.<Address, Response>emptyMap());
+               } else {
+                  future.complete(toResponseMap(rsps, responseFilter, ignoreLeavers));
+               }
+            } catch (ExecutionException e) {
+               future.completeExceptionally(e.getCause());
+            } catch (Throwable t) {
+               future.completeExceptionally(t);
+            }
+         }
+      });
+      return future;
+   }
+
+   private Map<Address, Response> toResponseMap(RspList<Object> rsps, ResponseFilter responseFilter, boolean ignoreLeavers) throws Exception {
+      Map<Address, Response> retval = new HashMap<Address, Response>(rsps.size());
+
+      boolean noValidResponses = true;
+      for (Rsp<Object> rsp : rsps.values()) {
+         noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
+               responseFilter != null, ignoreLeavers);
+      }
+
+      if (noValidResponses)
+         throw new TimeoutException("Timed out waiting for valid responses!");
+      return retval;
    }
 
    @Override
@@ -4,8 +4,10 @@
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.manager.CacheLoaderManager;
 import org.infinispan.loaders.spi.CacheStore;
@@ -56,6 +58,8 @@ public class OutboundTransferTask implements Runnable {
 
    private final RpcManager rpcManager;
 
+   private final PassivationManager passivationManager;
+
    private final CommandsFactory commandsFactory;
 
    private final long timeout;
@@ -78,7 +82,7 @@ public class OutboundTransferTask implements Runnable {
 
    public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize,
                                int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
-                               CacheLoaderManager cacheLoaderManager, RpcManager rpcManager,
+                               CacheLoaderManager cacheLoaderManager, PassivationManager passivationManager, RpcManager rpcManager,
                                CommandsFactory commandsFactory, long timeout, String cacheName) {
       if (segments == null || segments.isEmpty()) {
          throw new IllegalArgumentException("Segments must not be null or empty");
@@ -97,6 +101,7 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       this.readCh = readCh;
       this.dataContainer = dataContainer;
       this.cacheLoaderManager = cacheLoaderManager;
+      this.passivationManager = passivationManager;
       this.rpcManager = rpcManager;
       this.commandsFactory = commandsFactory;
       this.timeout = timeout;
@@ -129,18 +134,39 @@ public Set<Integer> getSegments() {
 
    //todo [anistor] check thread interrupt status in loops to implement faster cancellation
    public void run() {
+      boolean suspendedPassivation = false;
       try {
+         CacheStore cacheStore = getCacheStore();
+         // with asynchronous passivation, an entry evicted after the data container was read may not be in the cache
+         // store yet when the cache store is read
+         if (cacheStore != null && passivationManager.isEnabled()) {
+            passivationManager.suspendAsyncPassivation();
+            suspendedPassivation = true;
+         }
+
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
-            Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
-            int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId)) {
-               sendEntry(ice, segmentId);
+         if (dataContainer instanceof SegmentedDataContainer
+               && ((SegmentedDataContainer) dataContainer).isSegmentedBy(readCh)) {
+            // only visit the entries of the requested segments
+            SegmentedDataContainer segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+            for (int segmentId : segments) {
+               Iterator<InternalCacheEntry> it = segmentedDataContainer.segmentIterator(segmentId);
+               // stop early if the segment gets cancelled
+               while (it.hasNext() && segments.contains(segmentId)) {
+                  sendEntry(it.next(), segmentId);
+               }
+            }
+         } else {
+            for (InternalCacheEntry ice : dataContainer) {
+               Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
+               int segmentId = readCh.getSegment(key);
+               if (segments.contains(segmentId)) {
+                  sendEntry(ice, segmentId);
+               }
             }
          }
 
          // send cache store entries if needed
-         CacheStore cacheStore = getCacheStore();
          if (cacheStore != null) {
             try {
                //todo [anistor] need to extend CacheStore interface to be able to specify a filter when loading keys (ie. keys should belong to desired segments)
@@ -174,6 +200,10 @@ public void run() {
          if (!runnableFuture.isCancelled()) {
             log.error("Failed to execute outbound transfer", t);
          }
+      } finally {
+         if (suspendedPassivation) {
+            passivationManager.resumeAsyncPassivation();
+         }
       }
       if (trace) {
          log.tracef("Outbound transfer of segments %s of cache %s to node %s is complete", segments, cacheName, destination);
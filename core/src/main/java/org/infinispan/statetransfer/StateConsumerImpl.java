@@ -8,6 +8,7 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -806,13 +807,30 @@ private void invalidateSegments(Set<Integer> newSegments, Set<Integer> segmentsT
       Set<Object> keysToRemove = new HashSet<Object>();
 
       // gather all keys from data container that belong to the segments that are being removed/moved to L1
-      for (InternalCacheEntry ice : dataContainer) {
-         Object key = ice.getKey();
-         int keySegment = getSegment(key);
-         if (segmentsToL1.contains(keySegment)) {
-            keysToL1.add(key);
-         } else if (!newSegments.contains(keySegment)) {
-            keysToRemove.add(key);
+      ConsistentHash readCh = cacheTopology.getReadConsistentHash();
+      SegmentedDataContainer segmentedDataContainer = null;
+      if (dataContainer instanceof SegmentedDataContainer
+            && ((SegmentedDataContainer) dataContainer).isSegmentedBy(readCh)) {
+         // only visit the entries of the segments we no longer own
+         segmentedDataContainer = (SegmentedDataContainer) dataContainer;
+         for (int segmentId = 0; segmentId < segmentedDataContainer.getNumSegments(); segmentId++) {
+            boolean toL1 = segmentsToL1.contains(segmentId);
+            if ((toL1 || !newSegments.contains(segmentId)) && segmentedDataContainer.segmentSize(segmentId) > 0) {
+               Set<Object> keys = toL1 ? keysToL1 : keysToRemove;
+               for (Iterator<InternalCacheEntry> it = segmentedDataContainer.segmentIterator(segmentId); it.hasNext(); ) {
+                  keys.add(it.next().getKey());
+               }
+            }
+         }
+      } else {
+         for (InternalCacheEntry ice : dataContainer) {
+            Object key = ice.getKey();
+            int keySegment = getSegment(key);
+            if (segmentsToL1.contains(keySegment)) {
+               keysToL1.add(key);
+            } else if (!newSegments.contains(keySegment)) {
+               keysToRemove.add(key);
+            }
          }
       }
 
@@ -867,6 +885,16 @@ private void invalidateSegments(Set<Integer> newSegments, Set<Integer> segmentsT
             log.failedToInvalidateKeys(e);
          }
       }
+
+      if (segmentedDataContainer != null) {
+         // release the memory of the segments we no longer own, unless their entries were just moved to L1
+         boolean l1OnRehash = configuration.clustering().l1().enabled() && configuration.clustering().l1().onRehash();
+         for (int segmentId = 0; segmentId < segmentedDataContainer.getNumSegments(); segmentId++) {
+            if (!newSegments.contains(segmentId) && !(l1OnRehash && segmentsToL1.contains(segmentId))) {
+               segmentedDataContainer.removeSegment(segmentId);
+            }
+         }
+      }
    }
 
    /**
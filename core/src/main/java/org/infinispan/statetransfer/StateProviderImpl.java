@@ -6,6 +6,7 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
@@ -48,6 +49,7 @@ public class StateProviderImpl implements StateProvider {
    private TransactionTable transactionTable;     // optional
    private DataContainer dataContainer;
    private CacheLoaderManager cacheLoaderManager; // optional
+   private PassivationManager passivationManager;
    private ExecutorService executorService;
    private StateTransferLock stateTransferLock;
    private long timeout;
@@ -72,6 +74,7 @@ public void init(Cache cache,
                     CommandsFactory commandsFactory,
                     CacheNotifier cacheNotifier,
                     CacheLoaderManager cacheLoaderManager,
+                    PassivationManager passivationManager,
                     DataContainer dataContainer,
                     TransactionTable transactionTable,
                     StateTransferLock stateTransferLock,
@@ -83,6 +86,7 @@ public void init(Cache cache,
       this.commandsFactory = commandsFactory;
       this.cacheNotifier = cacheNotifier;
       this.cacheLoaderManager = cacheLoaderManager;
+      this.passivationManager = passivationManager;
       this.dataContainer = dataContainer;
       this.transactionTable = transactionTable;
       this.stateTransferLock = stateTransferLock;
@@ -261,7 +265,7 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, Se
 
       // the destination node must already have an InboundTransferTask waiting for these segments
       OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, cacheTopology.getTopologyId(),
-            cacheTopology.getReadConsistentHash(), this, dataContainer, cacheLoaderManager, rpcManager, commandsFactory, timeout, cacheName);
+            cacheTopology.getReadConsistentHash(), this, dataContainer, cacheLoaderManager, passivationManager, rpcManager, commandsFactory, timeout, cacheName);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(executorService);
    }
@@ -13,17 +13,25 @@
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationCallback;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.remoting.RemoteException;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.transaction.LockingMode;
 import org.infinispan.transaction.RemoteTransaction;
+import org.infinispan.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 
 //todo [anistor] command forwarding breaks the rule that we have only one originator for a command. this opens now the possibility to have two threads processing incoming remote commands for the same TX
 /**
@@ -46,6 +54,7 @@
  * @author anistor@redhat.com
  * @since 5.2
  */
+@SupportsAsyncInvocation
 public class StateTransferInterceptor extends CommandInterceptor {
 
    private static final Log log = LogFactory.getLog(StateTransferInterceptor.class);
@@ -57,6 +66,8 @@ public class StateTransferInterceptor extends CommandInterceptor {
 
    private CommandsFactory commandFactory;
 
+   private ExecutorService asyncExecutor;
+
    private boolean useVersioning;
 
    private final AffectedKeysVisitor affectedKeysVisitor = new AffectedKeysVisitor();
@@ -68,10 +79,12 @@ protected Log getLog() {
 
    @Inject
    public void init(StateTransferLock stateTransferLock, Configuration configuration,
-                    CommandsFactory commandFactory, StateTransferManager stateTransferManager) {
+                    CommandsFactory commandFactory, StateTransferManager stateTransferManager,
+                    @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncExecutor) {
       this.stateTransferLock = stateTransferLock;
       this.commandFactory = commandFactory;
       this.stateTransferManager = stateTransferManager;
+      this.asyncExecutor = asyncExecutor;
 
       useVersioning = configuration.transaction().transactionMode().isTransactional() && configuration.locking().writeSkewCheck() &&
             configuration.transaction().lockingMode() == LockingMode.OPTIMISTIC && configuration.versioning().enabled();
@@ -148,6 +161,11 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return handleNonTxWriteCommand(ctx, command);
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      return handleNonTxWriteCommand(ctx, command);
+   }
+
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
       return handleNonTxWriteCommand(ctx, command);
@@ -200,31 +218,71 @@ private Object handleNonTxWriteCommand(InvocationContext ctx, WriteCommand comma
          return invokeNextInterceptor(ctx, command);
       }
 
-      int commandTopologyId = command.getTopologyId();
-      Object localResult;
-      try {
-         localResult = invokeNextInterceptor(ctx, command);
-         return localResult;
-      } catch (CacheException e) {
-         Throwable ce = e;
+      return invokeNextInterceptorAndThen(ctx, command, retryOnTopologyChange);
+   }
+
+   /**
+    * Retries a non-tx write command on the originator if it failed because the topology changed.
+    */
+   private final InvocationCallback retryOnTopologyChange = new InvocationCallback() {
+      @Override
+      public Object invocationDone(InvocationContext ctx, VisitableCommand command, Object returnValue,
+                                   Throwable throwable) throws Throwable {
+         if (throwable == null) return returnValue;
+         if (!(throwable instanceof CacheException))
+            throw throwable;
+         Throwable ce = throwable;
          while (ce instanceof RemoteException) {
             ce = ce.getCause();
          }
          if (!(ce instanceof OutdatedTopologyException))
-            throw e;
+            throw throwable;
 
-         log.tracef("Retrying command because of topology change: %s", command);
+         WriteCommand writeCommand = (WriteCommand) command;
+         log.tracef("Retrying command because of topology change: %s", writeCommand);
          // We increment the topology id so that updateTopologyIdAndWaitForTransactionData waits for the next topology.
          // Without this, we could retry the command too fast and we could get the OutdatedTopologyException again.
-         int newTopologyId = Math.max(stateTransferManager.getCacheTopology().getTopologyId(), commandTopologyId + 1);
-         command.setTopologyId(newTopologyId);
-         localResult = handleNonTxWriteCommand(ctx, command);
+         int newTopologyId = Math.max(stateTransferManager.getCacheTopology().getTopologyId(), writeCommand.getTopologyId() + 1);
+         writeCommand.setTopologyId(newTopologyId);
+         // We retry the command every time the topology changes, either in NonTxConcurrentDistributionInterceptor or in
+         // EntryWrappingInterceptor. So we don't need to forward the command again here (without holding a lock).
+         // stateTransferManager.forwardCommandIfNeeded(command, command.getAffectedKeys(), ctx.getOrigin(), false);
+         if (ctx.isUseFutureReturnType()) {
+            return retryAsync(ctx, writeCommand);
+         }
+         return handleNonTxWriteCommand(ctx, writeCommand);
       }
+   };
 
-      // We retry the command every time the topology changes, either in NonTxConcurrentDistributionInterceptor or in
-      // EntryWrappingInterceptor. So we don't need to forward the command again here (without holding a lock).
-      // stateTransferManager.forwardCommandIfNeeded(command, command.getAffectedKeys(), ctx.getOrigin(), false);
-      return localResult;
+   /**
+    * Retries a non-tx write command of an asynchronous invocation once the transaction data of its new topology has
+    * been received, without blocking the thread which completed the failed attempt.  The retry runs in the async
+    * transport executor, not in the thread installing the topology.
+    */
+   private Object retryAsync(final InvocationContext ctx, final WriteCommand command) {
+      final CompletableNotifyingFuture<Object> result = new CompletableNotifyingFuture<Object>();
+      final Runnable retry = new Runnable() {
+         @Override
+         public void run() {
+            try {
+               completeWith(result, handleNonTxWriteCommand(ctx, command));
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      };
+      stateTransferLock.runWhenTransactionDataReceived(command.getTopologyId(), new Runnable() {
+         @Override
+         public void run() {
+            try {
+               asyncExecutor.execute(retry);
+            } catch (RejectedExecutionException e) {
+               // the executor is shutting down, and so is the cache
+               result.completeExceptionally(new CacheException("Unable to retry the command, the cache is stopping", e));
+            }
+         }
+      });
+      return result;
    }
 
    @Override
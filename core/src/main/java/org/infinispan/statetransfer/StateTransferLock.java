@@ -39,6 +39,13 @@ public interface StateTransferLock {
 
    void waitForTransactionData(int expectedTopologyId) throws InterruptedException;
 
+   /**
+    * The same as {@link #waitForTransactionData(int)}, except that the calling thread doesn't wait: the task runs right
+    * away if the transaction data has already been received, otherwise in the thread signalling its reception, so it
+    * shouldn't block.
+    */
+   void runWhenTransactionDataReceived(int expectedTopologyId, Runnable task);
+
    // topology installation latch
    // TODO move this to Cluster/LocalTopologyManagerImpl and don't start requesting state until every node has the jgroups view with the local node
    void notifyTopologyInstalled(int topologyId);
@@ -3,6 +3,9 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -24,6 +27,8 @@ public class StateTransferLockImpl implements StateTransferLock {
 
    private volatile int transactionDataTopologyId;
    private final Object transactionDataLock = new Object();
+   // guarded by transactionDataLock
+   private final List<TransactionDataWaiter> transactionDataWaiters = new ArrayList<TransactionDataWaiter>();
 
    @Override
    public void acquireExclusiveTopologyLock() {
@@ -55,9 +60,41 @@ public void notifyTransactionDataReceived(int topologyId) {
          log.tracef("Signalling transaction data received for topology %d", topologyId);
       }
       transactionDataTopologyId = topologyId;
+      List<Runnable> tasks = null;
       synchronized (transactionDataLock) {
          transactionDataLock.notifyAll();
+         for (Iterator<TransactionDataWaiter> it = transactionDataWaiters.iterator(); it.hasNext(); ) {
+            TransactionDataWaiter waiter = it.next();
+            if (waiter.expectedTopologyId <= topologyId) {
+               if (tasks == null) tasks = new ArrayList<Runnable>();
+               tasks.add(waiter.task);
+               it.remove();
+            }
+         }
+      }
+      if (tasks != null) {
+         for (Runnable task : tasks) {
+            task.run();
+         }
+      }
+   }
+
+   @Override
+   public void runWhenTransactionDataReceived(int expectedTopologyId, Runnable task) {
+      if (transactionDataTopologyId < expectedTopologyId) {
+         synchronized (transactionDataLock) {
+            // the same check as in waitForTransactionData
+            if (transactionDataTopologyId < expectedTopologyId) {
+               if (trace) {
+                  log.tracef("Deferring a task until the transaction data for topology %d is received, current " +
+                        "topology is %d", expectedTopologyId, transactionDataTopologyId);
+               }
+               transactionDataWaiters.add(new TransactionDataWaiter(expectedTopologyId, task));
+               return;
+            }
+         }
       }
+      task.run();
    }
 
    @Override
@@ -117,4 +154,14 @@ public void waitForTopology(int expectedTopologyId) throws InterruptedException
          log.tracef("Topology %d is now installed, expected topology was %d", topologyId, expectedTopologyId);
       }
    }
+
+   private static final class TransactionDataWaiter {
+      final int expectedTopologyId;
+      final Runnable task;
+
+      TransactionDataWaiter(int expectedTopologyId, Runnable task) {
+         this.expectedTopologyId = expectedTopologyId;
+         this.task = task;
+      }
+   }
 }
@@ -6,6 +6,7 @@
 import org.infinispan.commands.tx.RollbackCommand;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
 import org.infinispan.transaction.xa.CacheTransaction;
 
 /**
@@ -29,6 +30,7 @@
  * @author Mircea Markus
  * @since 5.2
  */
+@SupportsAsyncInvocation
 public class TransactionSynchronizerInterceptor extends CommandInterceptor {
 
    @Override
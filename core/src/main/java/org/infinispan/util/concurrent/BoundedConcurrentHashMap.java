@@ -13,15 +13,16 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.Util;
 import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.eviction.EntrySizeCalculator;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 
 
@@ -170,7 +171,9 @@
    private transient final Equivalence<K> keyEquivalence;
    private transient final Equivalence<V> valueEquivalence;
    private transient final EvictionListener<K, V> evictionListener;
+   private transient final EntrySizeCalculator<? super K, ? super V> sizeCalculator;
    private final int evictCap;
+   private final long evictMemoryCap;
 
    /* ---------------- Small Utilities -------------- */
 
@@ -220,6 +223,11 @@ final Segment<K,V> segmentFor(int hash) {
       final int hash;
       volatile V value;
       final HashEntry<K, V> next;
+      /**
+       * Estimated size in bytes of this mapping, only maintained by memory bounded maps.
+       * Read and written while holding the Segment lock.
+       */
+      int estimatedSize;
 
       HashEntry(K key, int hash, HashEntry<K, V> next, V value) {
          this.key = key;
@@ -271,20 +279,31 @@ public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf)
          public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
             boolean isIBMJavaVendor = Util.isIBMJavaVendor();
             if (isIBMJavaVendor) {
-               return new IBMLRU<K, V>(s,capacity,lf,capacity*10,lf);
+               return new IBMLRU<K, V>(s,capacity,lf,maxBatchSize(capacity),lf);
             } else {
-               return new LRU<K, V>(s,capacity,lf,capacity*10,lf);
+               return new LRU<K, V>(s,capacity,lf,maxBatchSize(capacity),lf);
             }
          }
       },
       LIRS {
          @Override
          public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
-            return new LIRS<K,V>(s,capacity,capacity*10,lf);
+            return new LIRS<K,V>(s,capacity,maxBatchSize(capacity),lf);
+         }
+      },
+      TINY_LFU {
+         @Override
+         public <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf) {
+            return new TinyLFU<K, V>(s, capacity, maxBatchSize(capacity), lf);
          }
       };
 
       abstract <K, V> EvictionPolicy<K, V> make(Segment<K, V> s, int capacity, float lf);
+
+      private static int maxBatchSize(int capacity) {
+         // capacity is Integer.MAX_VALUE for memory bounded maps, so guard against overflow
+         return Math.min(capacity, EvictionPolicy.MAX_BATCH_SIZE) * 10;
+      }
    }
 
    public interface EvictionListener<K, V> {
@@ -388,6 +407,170 @@ public void onEntryRemoved(Object key) {
        * @return true if batching threshold has expired, false otherwise.
        */
       boolean thresholdExpired();
+
+      /**
+       * Returns the entry that this eviction algorithm would evict next, without removing it.
+       * Used by memory bounded maps to evict entries until the segment fits into its memory
+       * budget.
+       * <p>
+       * Note that this method is invoked while holding a lock on Segment.
+       *
+       * @return next entry to evict, or null if there is no entry to evict
+       */
+      HashEntry<K, V> evictionCandidate();
+
+      /**
+       * Invoked to notify EvictionPolicy implementation that an entry in Segment has been
+       * replaced with an identical copy because the Segment table was resized. Implementations
+       * should transfer any recency information from the old entry to the new one.
+       * <p>
+       * Note that this method is invoked while holding a lock on Segment.
+       *
+       * @param oldEntry
+       *            entry that has been dropped from Segment table
+       * @param newEntry
+       *            copy of the old entry that replaces it
+       */
+      void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry);
+   }
+
+   /**
+    * Receives the accesses drained from an {@link AccessBuffer}.
+    */
+   interface AccessProcessor<E> {
+
+      /**
+       * Applies an access to an entry. Invoked while holding the lock on Segment.
+       */
+      void onAccess(E e);
+   }
+
+   /**
+    * Records the entries hit by readers so that eviction policies can apply the accesses later, in
+    * batches, while holding the Segment lock.
+    * <p>
+    * Recording an access never blocks. The buffer is made of several small ring buffers, one of
+    * which is picked by each thread so that concurrent readers rarely contend with each other.
+    * Accesses are dropped when that ring buffer is full or when another reader wins the race for
+    * the same slot: the eviction policies only need approximate recency information, and losing
+    * a few accesses under heavy load is cheaper than making readers wait.
+    * <p>
+    * Since recorded entries may have been removed from the Segment before the buffer is drained,
+    * eviction policies must ignore accesses to entries that are no longer resident.
+    */
+   static final class AccessBuffer<E> {
+
+      /** Number of ring buffers, the number of processors rounded up to a power of two, up to 16 */
+      static final int STRIPES = stripes();
+
+      /** Capacity of each ring buffer, must be a power of two */
+      static final int BUFFER_SIZE = 32;
+      private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+      /** Spaces out the counters of different ring buffers so that they don't share a cache line */
+      private static final int COUNTER_SHIFT = 3;
+
+      private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<E>(STRIPES * BUFFER_SIZE);
+      private final AtomicLongArray writeCounts = new AtomicLongArray(STRIPES << COUNTER_SHIFT);
+      private final AtomicLongArray readCounts = new AtomicLongArray(STRIPES << COUNTER_SHIFT);
+      private final int drainThreshold;
+
+      /**
+       * @param maxBatchSize
+       *            the maximum number of accesses to apply in a batch
+       * @param batchThresholdFactor
+       *            the fraction of the batch size after which a ring buffer should be drained
+       */
+      AccessBuffer(int maxBatchSize, float batchThresholdFactor) {
+         int threshold = (int) (batchThresholdFactor * Math.min(maxBatchSize, EvictionPolicy.MAX_BATCH_SIZE));
+         // leave room for the accesses recorded while waiting for the lock
+         this.drainThreshold = Math.max(1, Math.min(threshold, BUFFER_SIZE / 2));
+      }
+
+      private static int stripes() {
+         int processors = Runtime.getRuntime().availableProcessors();
+         int stripes = 1;
+         while (stripes < processors && stripes < 16) {
+            stripes <<= 1;
+         }
+         return stripes;
+      }
+
+      private static int stripe() {
+         long id = Thread.currentThread().getId();
+         int h = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+         return (h >>> 16) & (STRIPES - 1);
+      }
+
+      /**
+       * Records an access to the given entry. Invoked without holding a lock on Segment.
+       *
+       * @return true if the ring buffer of the calling thread should be drained
+       */
+      boolean add(E e) {
+         int stripe = stripe();
+         int counter = stripe << COUNTER_SHIFT;
+         long tail = writeCounts.get(counter);
+         long pending = tail - readCounts.get(counter);
+         if (pending >= BUFFER_SIZE) {
+            // full, drop the access
+            return true;
+         }
+         if (writeCounts.compareAndSet(counter, tail, tail + 1)) {
+            buffer.lazySet(stripe * BUFFER_SIZE + (int) (tail & BUFFER_MASK), e);
+            return pending + 1 >= drainThreshold;
+         }
+         // another reader took the slot, drop the access
+         return false;
+      }
+
+      /**
+       * Returns true if any of the ring buffers holds enough accesses to be drained. Invoked
+       * without holding a lock on Segment.
+       */
+      boolean drainNeeded() {
+         for (int i = 0; i < STRIPES; i++) {
+            int counter = i << COUNTER_SHIFT;
+            if (writeCounts.get(counter) - readCounts.get(counter) >= drainThreshold) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      /**
+       * Passes all the recorded accesses to the given processor, in the order they were recorded
+       * by each thread, and removes them from the buffer. Invoked while holding the lock on Segment.
+       *
+       * @param processor applies the accesses, or null to discard them
+       */
+      void drain(AccessProcessor<E> processor) {
+         for (int i = 0; i < STRIPES; i++) {
+            int counter = i << COUNTER_SHIFT;
+            long head = readCounts.get(counter);
+            long tail = writeCounts.get(counter);
+            for (; head < tail; head++) {
+               int slot = i * BUFFER_SIZE + (int) (head & BUFFER_MASK);
+               E e = buffer.get(slot);
+               if (e == null) {
+                  // the slot was claimed but the access is not visible yet, pick it up next time
+                  break;
+               }
+               buffer.lazySet(slot, null);
+               if (processor != null) {
+                  processor.onAccess(e);
+               }
+            }
+            readCounts.lazySet(counter, head);
+         }
+      }
+
+      /**
+       * Discards all the recorded accesses. Invoked while holding the lock on Segment.
+       */
+      void clear() {
+         drain(null);
+      }
    }
 
    static class NullEvictionPolicy<K, V> implements EvictionPolicy<K, V> {
@@ -426,49 +609,57 @@ public boolean thresholdExpired() {
       public Eviction strategy() {
          return Eviction.NONE;
       }
-      
+
+      @Override
+      public HashEntry<K, V> evictionCandidate() {
+         return null;
+      }
+
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         // Do nothing.
+      }
+
       @Override
       public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
          return new HashEntry<K, V>(key, hash, next, value);
       }
    }
 
-   static final class LRU<K, V> extends LinkedHashMap<HashEntry<K,V>, V> implements EvictionPolicy<K, V> {
+   static final class LRU<K, V> extends LinkedHashMap<HashEntry<K,V>, V>
+         implements EvictionPolicy<K, V>, AccessProcessor<HashEntry<K, V>> {
 
       /** The serialVersionUID */
       private static final long serialVersionUID = -7645068174197717838L;
 
-      private final ConcurrentLinkedQueue<HashEntry<K, V>> accessQueue;
+      private final AccessBuffer<HashEntry<K, V>> accessBuffer;
       private final Segment<K,V> segment;
-      private final int maxBatchQueueSize;
       private final int trimDownSize;
-      private final float batchQueueSizeThreshold;
       private final Set<HashEntry<K, V>> evicted;
-      private final AtomicInteger accessQueueSize = new AtomicInteger(0);
 
       public LRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
-         super(capacity, lf, true);
+         super(Math.min(capacity, s.table.length), lf, true);
          this.segment = s;
          this.trimDownSize = capacity;
-         this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
-         this.batchQueueSizeThreshold = batchThresholdFactor * this.maxBatchQueueSize;
-         this.accessQueue = new ConcurrentLinkedQueue<HashEntry<K, V>>();
+         this.accessBuffer = new AccessBuffer<HashEntry<K, V>>(maxBatchSize, batchThresholdFactor);
          this.evicted = new HashSet<HashEntry<K, V>>();
       }
 
       @Override
       public Set<HashEntry<K, V>> execute() {
          Set<HashEntry<K, V>> evictedCopy = new HashSet<HashEntry<K, V>>();
-         for (HashEntry<K, V> e : accessQueue) {
-            put(e, e.value);
-         }
+         accessBuffer.drain(this);
          evictedCopy.addAll(evicted);
-         accessQueue.clear();
-         accessQueueSize.set(0);
          evicted.clear();
          return evictedCopy;
       }
 
+      @Override
+      public void onAccess(HashEntry<K, V> e) {
+         // moves the entry to the end of the access order, unless it was removed since
+         get(e);
+      }
+
       @Override
       public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> e) {
          put(e, e.value);
@@ -487,9 +678,7 @@ public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> e) {
        */
       @Override
       public boolean onEntryHit(HashEntry<K, V> e) {
-         accessQueue.add(e);
-         int sz = accessQueueSize.incrementAndGet();
-         return sz >= batchQueueSizeThreshold;
+         return accessBuffer.add(e);
       }
 
       /*
@@ -497,23 +686,18 @@ public boolean onEntryHit(HashEntry<K, V> e) {
        */
       @Override
       public boolean thresholdExpired() {
-         return accessQueueSize.get() >= maxBatchQueueSize;
+         return accessBuffer.drainNeeded();
       }
 
       @Override
       public void onEntryRemove(HashEntry<K, V> e) {
          remove(e);
-         // we could have multiple instances of e in accessQueue; remove them all
-         while (accessQueue.remove(e)) {
-            accessQueueSize.decrementAndGet();            
-         }
       }
 
       @Override
       public void clear() {
          super.clear();
-         accessQueue.clear();
-         accessQueueSize.set(0);
+         accessBuffer.clear();
       }
 
       @Override
@@ -521,6 +705,18 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public HashEntry<K, V> evictionCandidate() {
+         // apply pending accesses first so that the eldest entry is accurate
+         accessBuffer.drain(this);
+         return isEmpty() ? null : keySet().iterator().next();
+      }
+
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         // Entries are keyed by key and hash, so the old entry stands in for the new one.
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -547,26 +743,22 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
     * HashMap instead of LinkedHashMap whose implementation on IBM JDK contains a bug resulting in
     * wrong cache entries being evicted from memory.
     */
-   static final class IBMLRU<K, V> extends HashMap<HashEntry<K,V>, V> implements EvictionPolicy<K, V> {
+   static final class IBMLRU<K, V> extends HashMap<HashEntry<K,V>, V>
+         implements EvictionPolicy<K, V>, AccessProcessor<LRUHashEntry<K, V>> {
 
       private static final long serialVersionUID = -6475176618082216057L;
 
-      private final ConcurrentLinkedQueue<LRUHashEntry<K, V>> accessQueue;
+      private final AccessBuffer<LRUHashEntry<K, V>> accessBuffer;
       private final Segment<K,V> segment;
-      private final int maxBatchQueueSize;
       private final int trimDownSize;
-      private final float batchQueueSizeThreshold;
       private final Set<HashEntry<K, V>> evicted;
       private LRUHashEntry<K, V> head;
-      private final AtomicInteger accessQueueSize = new AtomicInteger(0);
 
       public IBMLRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float batchThresholdFactor) {
-         super(capacity, lf);
+         super(Math.min(capacity, s.table.length), lf);
          this.segment = s;
          this.trimDownSize = capacity;
-         this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
-         this.batchQueueSizeThreshold = batchThresholdFactor * this.maxBatchQueueSize;
-         this.accessQueue = new ConcurrentLinkedQueue<LRUHashEntry<K, V>>();
+         this.accessBuffer = new AccessBuffer<LRUHashEntry<K, V>>(maxBatchSize, batchThresholdFactor);
          this.evicted = new HashSet<HashEntry<K, V>>();
          this.head = (LRUHashEntry<K, V>) createNewEntry(null,-1, null, null);
          this.head.previousEntry = this.head.nextEntry = this.head;
@@ -575,17 +767,21 @@ public IBMLRU(Segment<K,V> s, int capacity, float lf, int maxBatchSize, float ba
       @Override
       public Set<HashEntry<K, V>> execute() {
          Set<HashEntry<K, V>> evictedCopy = new HashSet<HashEntry<K, V>>();
-         for (HashEntry<K, V> e : accessQueue) {
-            put(e, e.value);
-            addAndRemoveEldest(e);
-         }
+         accessBuffer.drain(this);
          evictedCopy.addAll(evicted);
-         accessQueue.clear();
-         accessQueueSize.set(0);
          evicted.clear();
          return evictedCopy;
       }
 
+      @Override
+      public void onAccess(LRUHashEntry<K, V> e) {
+         // moves the entry to the most recently used end of the list, unless it was removed since
+         if (e.nextEntry != null) {
+            e.remove();
+            e.addBefore(head);
+         }
+      }
+
       @Override
       public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> e) {
          put(e, e.value);
@@ -617,9 +813,7 @@ public void addAndRemoveEldest(HashEntry<K, V> entry) {
        */
       @Override
       public boolean onEntryHit(HashEntry<K, V> e) {
-         accessQueue.add((LRUHashEntry<K, V>) e);
-         int sz = accessQueueSize.incrementAndGet();
-         return sz >= batchQueueSizeThreshold;
+         return accessBuffer.add((LRUHashEntry<K, V>) e);
       }
 
       /*
@@ -627,17 +821,16 @@ public boolean onEntryHit(HashEntry<K, V> e) {
        */
       @Override
       public boolean thresholdExpired() {
-         return accessQueueSize.get() >= maxBatchQueueSize;
+         return accessBuffer.drainNeeded();
       }
 
       @Override
       public void onEntryRemove(HashEntry<K, V> e) {
          remove(e);
          //remove entry from doubly-linked list
-         ((LRUHashEntry<K, V>)e).remove();
-         // we could have multiple instances of e in accessQueue; remove them all
-         while (accessQueue.remove(e)) {
-            accessQueueSize.decrementAndGet();            
+         LRUHashEntry<K, V> linked = (LRUHashEntry<K, V>) e;
+         if (linked.nextEntry != null) {
+            linked.remove();
          }
       }
 
@@ -645,8 +838,7 @@ public void onEntryRemove(HashEntry<K, V> e) {
       public void clear() {
          super.clear();
          head.previousEntry = head.nextEntry = head;
-         accessQueue.clear();
-         accessQueueSize.set(0);
+         accessBuffer.clear();
       }
 
       @Override
@@ -654,6 +846,26 @@ public Eviction strategy() {
          return Eviction.LRU;
       }
 
+      @Override
+      public HashEntry<K, V> evictionCandidate() {
+         // apply pending accesses first so that the eldest entry is accurate
+         accessBuffer.drain(this);
+         return head.nextEntry == head ? null : head.nextEntry;
+      }
+
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         LRUHashEntry<K, V> oldLinked = (LRUHashEntry<K, V>) oldEntry;
+         LRUHashEntry<K, V> newLinked = (LRUHashEntry<K, V>) newEntry;
+         LRUHashEntry<K, V> successor = oldLinked.nextEntry;
+         if (successor != null) {
+            oldLinked.remove();
+            newLinked.addBefore(successor);
+         }
+         remove(oldLinked);
+         put(newLinked, newLinked.value);
+      }
+
       protected boolean isAboveThreshold(){
          return size() > trimDownSize;
       }
@@ -679,6 +891,7 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       private void remove() {
          previousEntry.nextEntry = nextEntry;
          nextEntry.previousEntry = previousEntry;
+         previousEntry = nextEntry = null;
       }
 
       private void addBefore(LRUHashEntry<K,V> entry) {
@@ -1074,6 +1287,40 @@ private void evict() {
         owner = null;
       }
 
+      /**
+       * Hands this entry's position in the stack and queue, as well as its
+       * recency status, over to an identical copy of it. This entry is left
+       * detached and non-resident, without affecting the owner's counters.
+       */
+      private void replaceWith(LIRSHashEntry<K, V> copy) {
+        copy.owner = owner;
+        copy.state = state;
+        if (inStack()) {
+          copy.previousInStack = previousInStack;
+          copy.nextInStack = nextInStack;
+          previousInStack.nextInStack = copy;
+          nextInStack.previousInStack = copy;
+        } else {
+          copy.previousInStack = null;
+          copy.nextInStack = null;
+        }
+        if (inQueue()) {
+          copy.previousInQueue = previousInQueue;
+          copy.nextInQueue = nextInQueue;
+          previousInQueue.nextInQueue = copy;
+          nextInQueue.previousInQueue = copy;
+        } else {
+          copy.previousInQueue = null;
+          copy.nextInQueue = null;
+        }
+        previousInStack = null;
+        nextInStack = null;
+        previousInQueue = null;
+        nextInQueue = null;
+        state = Recency.HIR_NONRESIDENT;
+        owner = null;
+      }
+
       /**
        * Removes this entry from the cache. This operation is not specified in
        * the paper, which does not account for forced eviction.
@@ -1108,29 +1355,18 @@ private V remove() {
       private final Segment<K,V> segment;
       
       /**
-       * The accessQueue for reducing lock contention 
+       * The access buffer for reducing lock contention 
        * See "BP-Wrapper: a system framework making any replacement algorithms
        * (almost) lock contention free"
        *  
        * http://www.cse.ohio-state.edu/hpcs/WWW/HTML/publications/abs09-1.html
        * 
        * */
-      private final ConcurrentLinkedQueue<LIRSHashEntry<K, V>> accessQueue;
-      private final AtomicInteger accessQueueSize = new AtomicInteger(0);
-      
-      /**
-       * The maxBatchQueueSize
-       * 
-       * See "BP-Wrapper: a system framework making any replacement algorithms (almost) lock
-       * contention free"
-       * */
-      private final int maxBatchQueueSize;     
+      private final AccessBuffer<LIRSHashEntry<K, V>> accessBuffer;
       
       /** The number of LIRS entries in a segment */
       private int size;
       
-      private final float batchQueueSizeThreshold;
-      
       
       /**
        * This header encompasses two data structures:
@@ -1153,10 +1389,10 @@ private V remove() {
       private final LIRSHashEntry<K,V> header = new LIRSHashEntry<K,V>(null, null,0,null,null);
 
       /** The maximum number of hot entries (L_lirs in the paper). */
-      private final int maximumHotSize;
+      private int maximumHotSize;
 
       /** The maximum number of resident entries (L in the paper). */
-      private final int maximumSize ;
+      private int maximumSize ;
 
       /** The actual number of hot entries. */
       private int hotSize = 0;
@@ -1167,9 +1403,7 @@ public LIRS(Segment<K,V> s, int capacity, int maxBatchSize, float batchThreshold
          this.segment = s;
          this.maximumSize = capacity;
          this.maximumHotSize = calculateLIRSize(capacity);
-         this.maxBatchQueueSize = maxBatchSize > MAX_BATCH_SIZE ? MAX_BATCH_SIZE : maxBatchSize;
-         this.batchQueueSizeThreshold = batchThresholdFactor * this.maxBatchQueueSize;
-         this.accessQueue = new ConcurrentLinkedQueue<LIRSHashEntry<K, V>>();                         
+         this.accessBuffer = new AccessBuffer<LIRSHashEntry<K, V>>(maxBatchSize, batchThresholdFactor);
       }
       
       private static int calculateLIRSize(int maximumSize) {
@@ -1179,18 +1413,16 @@ private static int calculateLIRSize(int maximumSize) {
 
       @Override
       public Set<HashEntry<K, V>> execute() {
-         Set<HashEntry<K, V>> evicted = new HashSet<HashEntry<K, V>>();
-         try {
-            for (LIRSHashEntry<K, V> e : accessQueue) {
-               if(e.isResident()){ 
+         final Set<HashEntry<K, V>> evicted = new HashSet<HashEntry<K, V>>();
+         accessBuffer.drain(new AccessProcessor<LIRSHashEntry<K, V>>() {
+            @Override
+            public void onAccess(LIRSHashEntry<K, V> e) {
+               if (e.isResident()) {
                   e.hit(evicted);
                }
             }
-            removeFromSegment(evicted);
-         } finally {
-            accessQueue.clear();
-            accessQueueSize.set(0);
-         }
+         });
+         removeFromSegment(evicted);
          return evicted;
       }          
     
@@ -1224,6 +1456,13 @@ private void pruneStack(Set<HashEntry<K,V>> evicted) {
       @Override
       public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> en) {
          LIRSHashEntry<K, V> e = (LIRSHashEntry<K, V>) en;
+         if (segment.isMemoryBounded()) {
+            // Keep the hot/cold split meaningful by sizing the stack after the
+            // number of entries that currently fit into the memory budget
+            int capacity = segment.estimatedCapacity();
+            maximumSize = capacity;
+            maximumHotSize = calculateLIRSize(capacity);
+         }
          Set<HashEntry<K, V>> evicted = e.miss();
          removeFromSegment(evicted);
          return evicted;
@@ -1241,9 +1480,7 @@ private void removeFromSegment(Set<HashEntry<K, V>> evicted) {
        */
       @Override
       public boolean onEntryHit(HashEntry<K, V> e) {
-         accessQueue.add((LIRSHashEntry<K, V>) e);
-         int sz = accessQueueSize.incrementAndGet();
-         return sz >= batchQueueSizeThreshold;
+         return accessBuffer.add((LIRSHashEntry<K, V>) e);
       }
 
       /*
@@ -1251,23 +1488,18 @@ public boolean onEntryHit(HashEntry<K, V> e) {
        */
       @Override
       public boolean thresholdExpired() {
-         return accessQueueSize.get() >= maxBatchQueueSize;
+         return accessBuffer.drainNeeded();
       }
 
       @Override
       public void onEntryRemove(HashEntry<K, V> e) {
-         
+         // buffered accesses to the entry are ignored once it is no longer resident
          ((LIRSHashEntry<K,V>)e).remove();
-         // we could have multiple instances of e in accessQueue; remove them all
-         while (accessQueue.remove(e)) {
-            accessQueueSize.decrementAndGet();
-         }
       }
 
       @Override
       public void clear() {
-         accessQueue.clear();
-         accessQueueSize.set(0);
+         accessBuffer.clear();
       }
 
       @Override
@@ -1275,6 +1507,18 @@ public Eviction strategy() {
          return Eviction.LIRS;
       }
 
+      @Override
+      public HashEntry<K, V> evictionCandidate() {
+         // cold entries go first, then the least recently used hot entry
+         LIRSHashEntry<K, V> candidate = queueFront();
+         return candidate != null ? candidate : stackBottom();
+      }
+
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         ((LIRSHashEntry<K, V>) oldEntry).replaceWith((LIRSHashEntry<K, V>) newEntry);
+      }
+
       /**
        * Returns the entry at the bottom of the stack.
        */
@@ -1306,6 +1550,460 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       }
    }
 
+   /**
+    * A probabilistic multiset estimating the popularity of entries, based on their hash, within
+    * a time window. Each entry is mapped to four 4-bit counters, the estimated frequency being
+    * the minimum of them (a count-min sketch). Once the number of increments reaches ten times
+    * the capacity, all the counters are halved so that the estimates favour recent history.
+    * <p>
+    * Not thread safe, callers must hold the Segment lock.
+    */
+   static final class FrequencySketch {
+
+      /** Upper bound for the number of counter words, regardless of the capacity */
+      private static final int MAXIMUM_WORDS = 1 << 20;
+      private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+      private static final long RESET_MASK = 0x7777777777777777L;
+      private static final long ONE_MASK = 0x1111111111111111L;
+
+      private long[] table = new long[0];
+      private int tableMask;
+      private int sampleSize;
+      private int size;
+
+      /**
+       * Grows the sketch so that it can estimate the frequency of the given number of entries
+       * with reasonable accuracy. Growing discards the popularity history.
+       */
+      void ensureCapacity(int capacity) {
+         int words = 16;
+         while (words < capacity && words < MAXIMUM_WORDS) {
+            words <<= 1;
+         }
+         if (table.length >= words) {
+            return;
+         }
+         table = new long[words];
+         tableMask = words - 1;
+         sampleSize = 10 * words;
+         size = 0;
+      }
+
+      /**
+       * Returns the estimated number of occurrences of the entry, up to 15.
+       */
+      int frequency(int hash) {
+         int start = (hash & 3) << 2;
+         int frequency = Integer.MAX_VALUE;
+         for (int i = 0; i < 4; i++) {
+            int count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+         }
+         return frequency;
+      }
+
+      /**
+       * Records an occurrence of the entry, aging all the counters when the sample is complete.
+       */
+      void increment(int hash) {
+         int start = (hash & 3) << 2;
+         boolean added = false;
+         for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+         }
+         if (added && ++size == sampleSize) {
+            reset();
+         }
+      }
+
+      private boolean incrementAt(int i, int j) {
+         int offset = j << 2;
+         long mask = 0xfL << offset;
+         if ((table[i] & mask) != mask) {
+            table[i] += 1L << offset;
+            return true;
+         }
+         return false;
+      }
+
+      private void reset() {
+         int odd = 0;
+         for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+         }
+         size = (size >>> 1) - (odd >>> 2);
+      }
+
+      private int indexOf(int hash, int i) {
+         long h = (hash + SEEDS[i]) * SEEDS[i];
+         h += h >>> 32;
+         return (int) h & tableMask;
+      }
+   }
+
+   private enum Region {
+      WINDOW, PROBATION, PROTECTED
+   }
+
+   /**
+    * Entry of the {@link TinyLFU} eviction policy, linked into the list of the region it lives in.
+    */
+   private static final class TinyLFUHashEntry<K, V> extends HashEntry<K, V> {
+
+      TinyLFUHashEntry<K, V> previousEntry, nextEntry;
+
+      /** The region this entry is linked into, or null if it is not resident. */
+      Region region;
+
+      TinyLFUHashEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         super(key, hash, next, value);
+      }
+
+      static <K, V> TinyLFUHashEntry<K, V> header() {
+         TinyLFUHashEntry<K, V> header = new TinyLFUHashEntry<K, V>(null, 0, null, null);
+         header.previousEntry = header;
+         header.nextEntry = header;
+         return header;
+      }
+
+      private void linkAfter(TinyLFUHashEntry<K, V> entry) {
+         previousEntry = entry;
+         nextEntry = entry.nextEntry;
+         entry.nextEntry = this;
+         nextEntry.previousEntry = this;
+      }
+
+      private void unlink() {
+         previousEntry.nextEntry = nextEntry;
+         nextEntry.previousEntry = previousEntry;
+         previousEntry = null;
+         nextEntry = null;
+         region = null;
+      }
+   }
+
+   /**
+    * Window TinyLFU eviction policy, as described in "TinyLFU: A Highly Efficient Cache Admission
+    * Policy" by Gil Einziger, Roy Friedman and Ben Manes.
+    * <p>
+    * New entries are added to a small LRU admission window. Entries leaving the window become
+    * candidates for the main space, a segmented LRU made of a probation and a protected region.
+    * When the segment is full, a candidate is only admitted if a {@link FrequencySketch} estimates
+    * that it has been used more often than the main space's victim; otherwise the candidate itself
+    * is evicted. This keeps scans and one-hit wonders from flushing popular entries out of the
+    * cache. Entries hit while in probation are promoted to the protected region, whose least
+    * recently used entries are demoted back to probation when it overflows.
+    * <p>
+    * Like the other policies, hits are recorded in an {@link AccessBuffer} and applied in batches
+    * while holding the Segment lock.
+    */
+   static final class TinyLFU<K, V> implements EvictionPolicy<K, V>, AccessProcessor<TinyLFUHashEntry<K, V>> {
+
+      /** The percentage of the cache dedicated to the admission window. */
+      private static final float WINDOW_PERCENTAGE = 0.01f;
+
+      /** The percentage of the main space dedicated to the protected region. */
+      private static final float PROTECTED_PERCENTAGE = 0.8f;
+
+      /** The owning segment */
+      private final Segment<K, V> segment;
+
+      private final AccessBuffer<TinyLFUHashEntry<K, V>> accessBuffer;
+
+      private final FrequencySketch sketch = new FrequencySketch();
+
+      /** Headers of the region lists, the most recently used entry is right after the header. */
+      private final TinyLFUHashEntry<K, V> window = TinyLFUHashEntry.header();
+      private final TinyLFUHashEntry<K, V> probation = TinyLFUHashEntry.header();
+      private final TinyLFUHashEntry<K, V> protectedRegion = TinyLFUHashEntry.header();
+
+      private int maximumSize;
+      private int maximumWindowSize;
+      private int maximumProtectedSize;
+      private int windowSize;
+      private int probationSize;
+      private int protectedSize;
+
+      /**
+       * The last entry removed from the segment, with its position. Segment.remove() replaces the
+       * entries preceding the removed one in its bucket with copies, which are put back in place.
+       */
+      private TinyLFUHashEntry<K, V> lastRemoved;
+      private TinyLFUHashEntry<K, V> lastRemovedPredecessor;
+      private Region lastRemovedRegion;
+
+      /** Written while holding the Segment lock. */
+      private volatile long admissions;
+      private volatile long rejections;
+
+      public TinyLFU(Segment<K, V> s, int capacity, int maxBatchSize, float batchThresholdFactor) {
+         this.segment = s;
+         this.accessBuffer = new AccessBuffer<TinyLFUHashEntry<K, V>>(maxBatchSize, batchThresholdFactor);
+         resize(capacity);
+         // memory bounded segments size the sketch after the number of entries they hold
+         sketch.ensureCapacity(s.isMemoryBounded() ? s.table.length : capacity);
+      }
+
+      private void resize(int capacity) {
+         maximumSize = capacity;
+         maximumWindowSize = Math.max(1, (int) (WINDOW_PERCENTAGE * capacity));
+         maximumProtectedSize = (int) (PROTECTED_PERCENTAGE * (capacity - maximumWindowSize));
+      }
+
+      long admissions() {
+         return admissions;
+      }
+
+      long rejections() {
+         return rejections;
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> execute() {
+         accessBuffer.drain(this);
+         // hits never cause evictions
+         return new HashSet<HashEntry<K, V>>();
+      }
+
+      @Override
+      public void onAccess(TinyLFUHashEntry<K, V> e) {
+         Region region = e.region;
+         if (region == null) {
+            // removed or replaced since it was accessed
+            return;
+         }
+         sketch.increment(e.hash);
+         switch (region) {
+            case WINDOW:
+               unlink(e);
+               link(e, Region.WINDOW, window);
+               break;
+            case PROBATION:
+               unlink(e);
+               link(e, Region.PROTECTED, protectedRegion);
+               while (protectedSize > maximumProtectedSize) {
+                  TinyLFUHashEntry<K, V> demoted = protectedRegion.previousEntry;
+                  unlink(demoted);
+                  link(demoted, Region.PROBATION, probation);
+               }
+               break;
+            case PROTECTED:
+               unlink(e);
+               link(e, Region.PROTECTED, protectedRegion);
+               break;
+         }
+      }
+
+      @Override
+      public Set<HashEntry<K, V>> onEntryMiss(HashEntry<K, V> en) {
+         TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) en;
+         TinyLFUHashEntry<K, V> removed = lastRemoved;
+         lastRemoved = null;
+         TinyLFUHashEntry<K, V> predecessor = lastRemovedPredecessor;
+         Region region = lastRemovedRegion;
+         lastRemovedPredecessor = null;
+         lastRemovedRegion = null;
+         if (removed != null && removed.key == e.key && removed.hash == e.hash && removed.value == e.value) {
+            // a copy made by Segment.remove(), or the very same mapping put back right after
+            // being removed: either way it keeps its position, unless a hit or an eviction
+            // moved or unlinked its predecessor in the meantime
+            link(e, region, isLinkedIn(predecessor, region) ? predecessor : header(region));
+            return new HashSet<HashEntry<K, V>>();
+         }
+
+         if (segment.isMemoryBounded()) {
+            resize(segment.estimatedCapacity());
+            sketch.ensureCapacity(segment.count);
+         }
+         sketch.increment(e.hash);
+         link(e, Region.WINDOW, window);
+
+         Set<HashEntry<K, V>> evicted = new HashSet<HashEntry<K, V>>();
+         evict(evicted);
+         for (HashEntry<K, V> victim : evicted) {
+            segment.remove(victim.key, victim.hash, null, true);
+         }
+         return evicted;
+      }
+
+      /**
+       * Moves the entries overflowing the admission window to the probation region, where each
+       * of them competes with the main space's victim when the segment is full. Evicted entries
+       * are unlinked and added to the given set.
+       */
+      private void evict(Set<HashEntry<K, V>> evicted) {
+         while (windowSize > maximumWindowSize) {
+            TinyLFUHashEntry<K, V> candidate = window.previousEntry;
+            unlink(candidate);
+            link(candidate, Region.PROBATION, probation);
+            if (size() > maximumSize) {
+               TinyLFUHashEntry<K, V> victim = mainVictim(candidate);
+               if (victim == null) {
+                  break;
+               }
+               if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                  admissions++;
+                  unlink(victim);
+                  evicted.add(victim);
+               } else {
+                  rejections++;
+                  unlink(candidate);
+                  evicted.add(candidate);
+               }
+            }
+         }
+         // the maximum size of memory bounded segments shrinks as entries grow
+         while (size() > maximumSize) {
+            TinyLFUHashEntry<K, V> victim = nextVictim();
+            unlink(victim);
+            evicted.add(victim);
+         }
+      }
+
+      /**
+       * Returns the least recently used entry of the main space, other than the given candidate.
+       */
+      private TinyLFUHashEntry<K, V> mainVictim(TinyLFUHashEntry<K, V> candidate) {
+         TinyLFUHashEntry<K, V> victim = probation.previousEntry;
+         if (victim != probation && victim != candidate) {
+            return victim;
+         }
+         victim = protectedRegion.previousEntry;
+         return victim != protectedRegion ? victim : null;
+      }
+
+      /**
+       * Returns the entry to evict when there is no candidate to compare with: the least recently
+       * used entry in probation, then in the window and finally in the protected region.
+       */
+      private TinyLFUHashEntry<K, V> nextVictim() {
+         if (probationSize > 0) {
+            return probation.previousEntry;
+         } else if (windowSize > 0) {
+            return window.previousEntry;
+         } else if (protectedSize > 0) {
+            return protectedRegion.previousEntry;
+         }
+         return null;
+      }
+
+      private int size() {
+         return windowSize + probationSize + protectedSize;
+      }
+
+      private TinyLFUHashEntry<K, V> header(Region region) {
+         switch (region) {
+            case WINDOW:
+               return window;
+            case PROBATION:
+               return probation;
+            default:
+               return protectedRegion;
+         }
+      }
+
+      private boolean isLinkedIn(TinyLFUHashEntry<K, V> e, Region region) {
+         return e == header(region) || e.region == region;
+      }
+
+      private void link(TinyLFUHashEntry<K, V> e, Region region, TinyLFUHashEntry<K, V> predecessor) {
+         e.linkAfter(predecessor);
+         e.region = region;
+         adjustSize(region, 1);
+      }
+
+      private void unlink(TinyLFUHashEntry<K, V> e) {
+         adjustSize(e.region, -1);
+         e.unlink();
+      }
+
+      private void adjustSize(Region region, int delta) {
+         switch (region) {
+            case WINDOW:
+               windowSize += delta;
+               break;
+            case PROBATION:
+               probationSize += delta;
+               break;
+            case PROTECTED:
+               protectedSize += delta;
+               break;
+         }
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean onEntryHit(HashEntry<K, V> e) {
+         return accessBuffer.add((TinyLFUHashEntry<K, V>) e);
+      }
+
+      /*
+       * Invoked without holding a lock on Segment
+       */
+      @Override
+      public boolean thresholdExpired() {
+         return accessBuffer.drainNeeded();
+      }
+
+      @Override
+      public void onEntryRemove(HashEntry<K, V> en) {
+         TinyLFUHashEntry<K, V> e = (TinyLFUHashEntry<K, V>) en;
+         if (e.region != null) {
+            lastRemoved = e;
+            lastRemovedRegion = e.region;
+            lastRemovedPredecessor = e.previousEntry;
+            unlink(e);
+         }
+      }
+
+      @Override
+      public void clear() {
+         window.previousEntry = window.nextEntry = window;
+         probation.previousEntry = probation.nextEntry = probation;
+         protectedRegion.previousEntry = protectedRegion.nextEntry = protectedRegion;
+         windowSize = 0;
+         probationSize = 0;
+         protectedSize = 0;
+         lastRemoved = null;
+         lastRemovedPredecessor = null;
+         lastRemovedRegion = null;
+         accessBuffer.clear();
+      }
+
+      @Override
+      public Eviction strategy() {
+         return Eviction.TINY_LFU;
+      }
+
+      @Override
+      public HashEntry<K, V> evictionCandidate() {
+         // apply pending accesses first so that the regions are accurate
+         execute();
+         return nextVictim();
+      }
+
+      @Override
+      public void onEntryReplaced(HashEntry<K, V> oldEntry, HashEntry<K, V> newEntry) {
+         TinyLFUHashEntry<K, V> oldLinked = (TinyLFUHashEntry<K, V>) oldEntry;
+         TinyLFUHashEntry<K, V> newLinked = (TinyLFUHashEntry<K, V>) newEntry;
+         Region region = oldLinked.region;
+         if (region != null) {
+            TinyLFUHashEntry<K, V> predecessor = oldLinked.previousEntry;
+            unlink(oldLinked);
+            link(newLinked, region, predecessor);
+         }
+      }
+
+      @Override
+      public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V value) {
+         return new TinyLFUHashEntry<K, V>(key, hash, next, value);
+      }
+   }
+
    /**
     * Segments are specialized versions of hash tables.  This
     * subclasses from ReentrantLock opportunistically, just to
@@ -1356,6 +2054,12 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
        */
       transient volatile int count;
 
+      /**
+       * Estimated number of bytes used by the entries in this segment's
+       * region. Only maintained by memory bounded maps.
+       */
+      transient volatile long memoryUsed;
+
       /**
        * Number of updates that alter the size of the table. This is
        * used during bulk-read methods to make sure they see a
@@ -1393,8 +2097,8 @@ public HashEntry<K, V> createNewEntry(K key, int hash, HashEntry<K, V> next, V v
       Segment(int cap, float lf, Eviction es, BoundedConcurrentHashMap map) {
          this.map = map;
          loadFactor = lf;
-         eviction = es.make(this, map.evictCap, lf);
          setTable(HashEntry.<K, V> newArray(cap));
+         eviction = es.make(this, map.evictCap, lf);
       }
 
       @SuppressWarnings("unchecked")
@@ -1406,6 +2110,74 @@ EvictionListener<K, V> getEvictionListener() {
          return map.evictionListener;
       }
 
+      boolean isMemoryBounded() {
+         return map.sizeCalculator != null;
+      }
+
+      /**
+       * Estimates how many entries fit into this segment's memory budget,
+       * based on the average size of the entries currently stored.
+       * Call only while holding lock.
+       */
+      int estimatedCapacity() {
+         long used = memoryUsed;
+         int c = count;
+         if (c == 0 || used <= 0) {
+            return Integer.MAX_VALUE;
+         }
+         long capacity = map.evictMemoryCap * c / used;
+         return (int) Math.max(2, Math.min(capacity, Integer.MAX_VALUE));
+      }
+
+      /**
+       * Recomputes the estimated size of the given entry and adjusts the
+       * memory used by this segment accordingly. Call only while holding lock.
+       */
+      @SuppressWarnings("unchecked")
+      private void updateEstimatedSize(HashEntry<K, V> e) {
+         if (isMemoryBounded()) {
+            long size = map.sizeCalculator.calculateSize(e.key, e.value);
+            int newSize = (int) Math.min(size, Integer.MAX_VALUE);
+            memoryUsed += newSize - e.estimatedSize;
+            e.estimatedSize = newSize;
+         }
+      }
+
+      /**
+       * Evicts entries, in the order suggested by the eviction policy, until
+       * the memory used by this segment fits into its budget. Call only while
+       * holding lock.
+       *
+       * @param evicted entries evicted so far by the current operation, may be null
+       * @return all evicted entries, or null if nothing was evicted
+       */
+      private Set<HashEntry<K, V>> evictToMemoryCap(Set<HashEntry<K, V>> evicted) {
+         if (!isMemoryBounded()) {
+            return evicted;
+         }
+         Set<HashEntry<K, V>> allEvicted = evicted;
+         while (memoryUsed > map.evictMemoryCap && count > 0) {
+            HashEntry<K, V> candidate = eviction.evictionCandidate();
+            if (candidate == null) {
+               break;
+            }
+            V evictedValue = remove(candidate.key, candidate.hash, null, true);
+            if (evictedValue == null) {
+               // eviction policy out of sync with the table, don't spin on it
+               break;
+            }
+            if (allEvicted == evicted) {
+               allEvicted = new HashSet<HashEntry<K, V>>();
+               if (evicted != null) {
+                  allEvicted.addAll(evicted);
+               }
+            }
+            // the candidate may be stale if the table was resized, so report the removed value
+            allEvicted.add(new HashEntry<K, V>(candidate.key, candidate.hash, null, evictedValue));
+         }
+         return allEvicted;
+      }
+
       /**
        * Sets table to new HashEntry array.
        * Call only while holding lock or in constructor.
@@ -1516,9 +2288,11 @@ boolean replace(K key, int hash, V oldValue, V newValue) {
             if (e != null && map.valueEquivalence.equals(oldValue, e.value)) {
                replaced = true;
                e.value = newValue;
+               updateEstimatedSize(e);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = evictToMemoryCap(evicted);
             }
             return replaced;
          } finally {
@@ -1540,9 +2314,11 @@ V replace(K key, int hash, V newValue) {
             if (e != null) {
                oldValue = e.value;
                e.value = newValue;
+               updateEstimatedSize(e);
                if (eviction.onEntryHit(e)) {
                   evicted = attemptEviction(true);
                }
+               evicted = evictToMemoryCap(evicted);
             }
             return oldValue;
          } finally {
@@ -1556,7 +2332,8 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
          Set<HashEntry<K, V>> evicted = null;
          try {
             int c = count;
-            if (c++ > threshold && eviction.strategy() == Eviction.NONE) {
+            // bounded segments never outgrow their table, unless they are bounded by memory
+            if (c++ > threshold && (eviction.strategy() == Eviction.NONE || isMemoryBounded())) {
                rehash();
             }
             HashEntry<K, V>[] tab = table;
@@ -1572,7 +2349,9 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                oldValue = e.value;
                if (!onlyIfAbsent) {
                   e.value = value;
+                  updateEstimatedSize(e);
                   eviction.onEntryHit(e);
+                  evicted = evictToMemoryCap(evicted);
                }
             } else {
                oldValue = null;
@@ -1587,6 +2366,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                   }
                   // add a new entry
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
+                  updateEstimatedSize(tab[index]);
                   // notify a miss
                   Set<HashEntry<K, V>> newlyEvicted = eviction.onEntryMiss(tab[index]);
                   if (!newlyEvicted.isEmpty()) {
@@ -1596,6 +2376,7 @@ V put(K key, int hash, V value, boolean onlyIfAbsent) {
                         evicted = newlyEvicted;
                      }
                   }
+                  evicted = evictToMemoryCap(evicted);
                } else {
                   tab[index] = eviction.createNewEntry(key, hash, first, value);
                }
@@ -1665,6 +2446,8 @@ void rehash() {
                      int k = p.hash & sizeMask;
                      HashEntry<K,V> n = newTable[k];
                      newTable[k] = eviction.createNewEntry(p.key, p.hash, n, p.value);
+                     newTable[k].estimatedSize = p.estimatedSize;
+                     eviction.onEntryReplaced(p, newTable[k]);
                   }
                }
             }
@@ -1705,6 +2488,7 @@ V remove(Object key, int hash, Object value, boolean isEvict) {
 
                   // e was removed
                   eviction.onEntryRemove(e);
+                  memoryUsed -= e.estimatedSize;
 
                   HashEntry<K, V> newFirst = e.next;
                   for (HashEntry<K, V> p = first; p != e; p = p.next) {
@@ -1712,6 +2496,7 @@ V remove(Object key, int hash, Object value, boolean isEvict) {
                      // allow p to be GC-ed
                      eviction.onEntryRemove(p);
                      newFirst = eviction.createNewEntry(p.key, p.hash, newFirst, p.value);
+                     newFirst.estimatedSize = p.estimatedSize;
                      // and notify eviction algorithm about new hash entries
                      eviction.onEntryMiss(newFirst);
                   }
@@ -1750,6 +2535,7 @@ void clear() {
                }
                ++modCount;
                eviction.clear();
+               memoryUsed = 0;
                count = 0; // write-volatile
             } finally {
                unlock();
@@ -1832,13 +2618,58 @@ private void notifyEvictionListener(Set<HashEntry<K, V>> evicted) {
    public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
          Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
          Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence) {
+      this(capacity, -1, concurrencyLevel, evictionStrategy, evictionListener,
+            keyEquivalence, valueEquivalence, null);
+   }
+
+   /**
+    * Creates a new, empty map bounded by the estimated amount of memory used by its entries
+    * rather than by their number.
+    *
+    * @param maxMemory
+    *            is the upper bound, in bytes, for the estimated size of all the mappings in this map
+    *
+    * @param concurrencyLevel
+    *            the estimated number of concurrently updating threads. The implementation performs
+    *            internal sizing to try to accommodate this many threads.
+    *
+    * @param evictionStrategy
+    *            the algorithm used to evict elements from this map
+    *
+    * @param evictionListener
+    *            the evicton listener callback to be notified about evicted elements
+    *
+    * @param sizeCalculator
+    *            estimates the size in bytes of each mapping
+    *
+    * @throws IllegalArgumentException
+    *             if the maximum memory is not positive, the concurrencyLevel is nonpositive or
+    *             the eviction strategy is {@link Eviction#NONE}.
+    */
+   public BoundedConcurrentHashMap(long maxMemory, int concurrencyLevel,
+         Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
+         Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence,
+         EntrySizeCalculator<? super K, ? super V> sizeCalculator) {
+      this(DEFAULT_MAXIMUM_CAPACITY, maxMemory, concurrencyLevel, evictionStrategy, evictionListener,
+            keyEquivalence, valueEquivalence, sizeCalculator);
+   }
+
+   private BoundedConcurrentHashMap(int capacity, long maxMemory, int concurrencyLevel,
+         Eviction evictionStrategy, EvictionListener<K, V> evictionListener,
+         Equivalence<K> keyEquivalence, Equivalence<V> valueEquivalence,
+         EntrySizeCalculator<? super K, ? super V> sizeCalculator) {
       this.keyEquivalence = keyEquivalence;
       this.valueEquivalence = valueEquivalence;
+      this.sizeCalculator = sizeCalculator;
 
       if (capacity < 0 || concurrencyLevel <= 0) {
          throw new IllegalArgumentException();
       }
 
+      if (sizeCalculator != null && (maxMemory <= 0 || evictionStrategy == Eviction.NONE)) {
+         throw new IllegalArgumentException("Memory bounded maps need a positive maximum memory and an eviction strategy");
+      }
+
       concurrencyLevel = Math.min(capacity / 2, concurrencyLevel); // concurrencyLevel cannot be > capacity/2
       concurrencyLevel = Math.max(concurrencyLevel, 1); // concurrencyLevel cannot be less than 1
 
@@ -1877,7 +2708,10 @@ public BoundedConcurrentHashMap(int capacity, int concurrencyLevel,
          cap <<= 1;
       }
 
-      this.evictCap = c;
+      // when bounded by memory, capacity is only the initial table size
+      // and the number of entries is limited by the memory budget instead
+      this.evictCap = sizeCalculator == null ? c : Integer.MAX_VALUE;
+      this.evictMemoryCap = sizeCalculator == null ? -1 : Math.max(1, maxMemory / ssize);
 
       for (int i = 0; i < this.segments.length; ++i) {
          this.segments[i] = new Segment<K, V>(cap, DEFAULT_LOAD_FACTOR, evictionStrategy, this);
@@ -2048,6 +2882,59 @@ public int size() {
       }
    }
 
+   /**
+    * Returns the estimated number of bytes used by the mappings in this map, as computed
+    * by its {@link EntrySizeCalculator}. Like {@link #size()}, the value is a snapshot that
+    * may not reflect concurrent updates.
+    *
+    * @return estimated memory used by the mappings, or -1 if this map is not bounded by memory
+    */
+   public long memoryUsed() {
+      if (sizeCalculator == null) {
+         return -1;
+      }
+      long sum = 0;
+      for (Segment<K, V> segment : segments) {
+         sum += segment.memoryUsed;
+      }
+      return sum;
+   }
+
+   /**
+    * Returns the number of times the {@link Eviction#TINY_LFU} eviction policy admitted an entry
+    * leaving its admission window by evicting a less frequently used entry instead.
+    *
+    * @return number of admissions, or -1 if this map does not use the TINY_LFU eviction policy
+    */
+   public long evictionAdmissions() {
+      long sum = 0;
+      for (Segment<K, V> segment : segments) {
+         if (!(segment.eviction instanceof TinyLFU)) {
+            return -1;
+         }
+         sum += ((TinyLFU<K, V>) segment.eviction).admissions();
+      }
+      return sum;
+   }
+
+   /**
+    * Returns the number of times the {@link Eviction#TINY_LFU} eviction policy evicted an entry
+    * leaving its admission window because it was not used more frequently than the entry it
+    * would have replaced.
+    *
+    * @return number of rejections, or -1 if this map does not use the TINY_LFU eviction policy
+    */
+   public long evictionRejections() {
+      long sum = 0;
+      for (Segment<K, V> segment : segments) {
+         if (!(segment.eviction instanceof TinyLFU)) {
+            return -1;
+         }
+         sum += ((TinyLFU<K, V>) segment.eviction).rejections();
+      }
+      return sum;
+   }
+
    /**
     * Returns the value to which the specified key is mapped,
     * or {@code null} if this map contains no mapping for the key.
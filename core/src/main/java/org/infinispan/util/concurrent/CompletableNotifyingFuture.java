@@ -0,0 +1,138 @@
+package org.infinispan.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link NotifyingFuture} which is completed explicitly, by calling {@link #complete(Object)} or {@link
+ * #completeExceptionally(Throwable)}, instead of wrapping a task running in an executor.
+ * <p/>
+ * The listeners are notified by the thread that completes the future, e.g. the thread which received the response of
+ * an RPC, or by the thread attaching them if the future is already completed. They shouldn't block.
+ *
+ * @since 6.0
+ */
+public class CompletableNotifyingFuture<T> implements NotifyingFuture<T> {
+
+   private final CountDownLatch completed = new CountDownLatch(1);
+   private List<org.infinispan.commons.util.concurrent.FutureListener<T>> listeners;
+   private volatile boolean done;
+   private boolean cancelled;
+   private T value;
+   private Throwable exception;
+
+   /**
+    * Completes the future with the given value.
+    *
+    * @return {@code true} if the future was completed by this call, {@code false} if it was already completed
+    */
+   public boolean complete(T value) {
+      List<org.infinispan.commons.util.concurrent.FutureListener<T>> toNotify;
+      synchronized (this) {
+         if (done) return false;
+         this.value = value;
+         toNotify = markDone();
+      }
+      notifyListeners(toNotify);
+      return true;
+   }
+
+   /**
+    * Completes the future with the given exception, which {@link #get()} throws wrapped in an {@link
+    * ExecutionException}.
+    *
+    * @return {@code true} if the future was completed by this call, {@code false} if it was already completed
+    */
+   public boolean completeExceptionally(Throwable exception) {
+      List<org.infinispan.commons.util.concurrent.FutureListener<T>> toNotify;
+      synchronized (this) {
+         if (done) return false;
+         this.exception = exception;
+         toNotify = markDone();
+      }
+      notifyListeners(toNotify);
+      return true;
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      List<org.infinispan.commons.util.concurrent.FutureListener<T>> toNotify;
+      synchronized (this) {
+         if (done) return false;
+         cancelled = true;
+         exception = new CancellationException();
+         toNotify = markDone();
+      }
+      notifyListeners(toNotify);
+      return true;
+   }
+
+   @Override
+   public synchronized boolean isCancelled() {
+      return cancelled;
+   }
+
+   @Override
+   public boolean isDone() {
+      return done;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      completed.await();
+      return report();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, java.util.concurrent.TimeoutException {
+      if (!completed.await(timeout, unit))
+         throw new java.util.concurrent.TimeoutException();
+      return report();
+   }
+
+   @Override
+   public NotifyingFuture<T> attachListener(FutureListener<T> listener) {
+      attach(listener);
+      return this;
+   }
+
+   @Override
+   public org.infinispan.commons.util.concurrent.NotifyingFuture<T> attachListener(org.infinispan.commons.util.concurrent.FutureListener<T> listener) {
+      attach(listener);
+      return this;
+   }
+
+   private void attach(org.infinispan.commons.util.concurrent.FutureListener<T> listener) {
+      synchronized (this) {
+         if (!done) {
+            if (listeners == null) listeners = new ArrayList<org.infinispan.commons.util.concurrent.FutureListener<T>>(2);
+            listeners.add(listener);
+            return;
+         }
+      }
+      listener.futureDone(this);
+   }
+
+   private List<org.infinispan.commons.util.concurrent.FutureListener<T>> markDone() {
+      done = true;
+      completed.countDown();
+      List<org.infinispan.commons.util.concurrent.FutureListener<T>> toNotify = listeners;
+      listeners = null;
+      return toNotify;
+   }
+
+   private void notifyListeners(List<org.infinispan.commons.util.concurrent.FutureListener<T>> toNotify) {
+      if (toNotify == null) return;
+      for (org.infinispan.commons.util.concurrent.FutureListener<T> l : toNotify) l.futureDone(this);
+   }
+
+   private synchronized T report() throws ExecutionException {
+      if (cancelled) throw (CancellationException) exception;
+      if (exception != null) throw new ExecutionException(exception);
+      return value;
+   }
+}
@@ -4,6 +4,8 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -173,6 +175,29 @@ public void acquireAllLocks(List<Object> keys, boolean exclusive) {
     }
    }
 
+   /**
+    * Acquires the locks of all the keys passed in, in a consistent order, so that threads locking overlapping sets of
+    * keys this way can't deadlock.  Each lock is acquired once even if several keys map to it.
+    *
+    * @param keys      keys to lock
+    * @param exclusive whether locks are exclusive.
+    * @return a key of each acquired lock, to be passed to {@link #releaseAllLocks(java.util.List)}
+    */
+   public List<Object> acquireAllLocksInOrder(Collection<?> keys, boolean exclusive) {
+      Object[] keyPerLock = new Object[sharedLocks.length];
+      for (Object k : keys) {
+         keyPerLock[hashToIndex(k)] = k;
+      }
+      List<Object> locked = new ArrayList<Object>();
+      for (Object k : keyPerLock) {
+         if (k != null) {
+            acquireLock(k, exclusive);
+            locked.add(k);
+         }
+      }
+      return locked;
+   }
+
    /**
     * Returns the total number of locks held by this class.
     */
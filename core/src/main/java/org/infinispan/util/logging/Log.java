@@ -942,5 +942,16 @@ void asyncStoreShutdownTimeoutTooHigh(long configuredAsyncStopTimeout,
 
    @Message(value = "Invalid Cache Loader class: %s", id = 252)
    CacheConfigurationException invalidCacheLoaderClass(String name);
-}
 
+   @LogMessage(level = WARN)
+   @Message(value = "Log file %s is corrupt or incomplete after offset %d, truncating it", id = 253)
+   void truncatingLogFile(String path, long offset);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Index snapshot %s cannot be used, the index will be rebuilt from the log files", id = 254)
+   void ignoringIndexSnapshot(String path, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Compacting the log files in %s failed", id = 255)
+   void logFileCompactionFailed(String path, @Cause Throwable cause);
+}
@@ -8,6 +8,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -98,6 +99,18 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
                                     command.getMetadata());
       }
 
+      @Override
+      public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+         if (!command.isIgnorePreviousValue()) {
+            // the backup was sent before the function was applied on the local site
+            return backupCache.invoke(command.getKey(), command.getFunction());
+         }
+         if (command.isRemoveEntry()) {
+            return backupCache.remove(command.getKey());
+         }
+         return backupCache.put(command.getKey(), command.getNewValue(), command.getMetadata());
+      }
+
       @Override
       public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
          Metadata metadata = command.getMetadata();
@@ -8,6 +8,7 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -277,6 +278,19 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
          return null;
       }
 
+      @Override
+      public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+         // the outcome of the function is only known if it was applied before the backup
+         if (command.isIgnorePreviousValue()) {
+            if (command.isRemoveEntry()) {
+               failurePolicy.handleRemoveFailure(site, command.getKey(), null);
+            } else {
+               failurePolicy.handlePutFailure(site, command.getKey(), command.getNewValue(), false);
+            }
+         }
+         return null;
+      }
+
       @Override
       public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
          failurePolicy.handleClearFailure(site);
@@ -0,0 +1,65 @@
+package org.infinispan.api;
+
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContextContainer;
+import org.infinispan.context.SingleKeyNonTxInvocationContext;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that the invocation context and the command which the non-transactional gets of a thread reuse don't keep the
+ * key and the value of the last get.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "api.ReusedReadInvocationTest")
+public class ReusedReadInvocationTest extends SingleCacheManagerTest {
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      return TestCacheManagerFactory.createCacheManager(new ConfigurationBuilder());
+   }
+
+   public void testIdleInvocationDoesNotKeepTheKeyAndValue() {
+      cache.put("k", "v");
+      assertEquals("v", cache.get("k"));
+
+      GetKeyValueCommand command = idleGetCommand();
+      assertNotNull(command);
+      assertNull(command.getKey());
+      assertNull(command.getRemotelyFetchedValue());
+
+      SingleKeyNonTxInvocationContext ctx = idleReadContext();
+      assertNotNull(ctx);
+      assertNull(ctx.getKey());
+      assertNull(ctx.getCacheEntry());
+
+      // the next get reuses them
+      assertEquals("v", cache.get("k"));
+      assertEquals(command, idleGetCommand());
+      assertEquals(ctx, idleReadContext());
+   }
+
+   @SuppressWarnings("unchecked")
+   private GetKeyValueCommand idleGetCommand() {
+      ThreadLocal<GetKeyValueCommand> idle = (ThreadLocal<GetKeyValueCommand>)
+            TestingUtil.extractField(cache.getAdvancedCache(), "idleGetCommand");
+      return idle.get();
+   }
+
+   @SuppressWarnings("unchecked")
+   private SingleKeyNonTxInvocationContext idleReadContext() {
+      InvocationContextContainer icc = TestingUtil.extractComponent(cache, InvocationContextContainer.class);
+      ThreadLocal<SingleKeyNonTxInvocationContext> idle = (ThreadLocal<SingleKeyNonTxInvocationContext>)
+            TestingUtil.extractField(icc, "idleReadContext");
+      return idle.get();
+   }
+}
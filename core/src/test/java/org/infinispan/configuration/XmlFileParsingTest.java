@@ -21,6 +21,7 @@
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.ByteArrayEquivalence;
 import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.CacheStoreConfiguration;
 import org.infinispan.configuration.cache.ClusterCacheLoaderConfiguration;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.FileCacheStoreConfiguration;
@@ -218,6 +219,133 @@ public void testPassivationOnDefaultEvictionOnNamed() throws Exception {
       withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)));
    }
 
+   public void testPreloadThreads() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders preload=\"true\" preloadThreads=\"4\" preloadBatchSize=\"500\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertTrue(cfg.loaders().preload());
+            assertEquals(4, cfg.loaders().preloadThreads());
+            assertEquals(500, cfg.loaders().preloadBatchSize());
+         }
+      });
+   }
+
+   public void testCoalesceLoads() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders coalesceLoads=\"true\" loadCoalescingWindow=\"5\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertTrue(cfg.loaders().coalesceLoads());
+            assertEquals(5, cfg.loaders().loadCoalescingWindow());
+         }
+      });
+   }
+
+   public void testAsyncPassivation() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders passivation=\"true\" asyncPassivation=\"true\" passivationQueueSize=\"200\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertTrue(cfg.loaders().asyncPassivation());
+            assertEquals(200, cfg.loaders().passivationQueueSize());
+         }
+      });
+   }
+
+   public void testPurgeBatchSizeAndTimeBudget() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders purgeBatchSize=\"50\" purgeTimeBudget=\"2000\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertEquals(50, cfg.loaders().purgeBatchSize());
+            assertEquals(2000, cfg.loaders().purgeTimeBudget());
+         }
+      });
+   }
+
+   public void testCompression() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders compression=\"true\" compressionThreshold=\"64\"/>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertTrue(cfg.loaders().compression());
+            assertEquals(64, cfg.loaders().compressionThreshold());
+         }
+      });
+   }
+
+   public void testTiered() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders tiered=\"true\">\n" +
+            "<store class=\"org.infinispan.loaders.dummy.DummyInMemoryCacheStore\"/>\n" +
+            "<store class=\"org.infinispan.loaders.dummy.DummyInMemoryCacheStore\"/>\n" +
+            "</loaders>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            assertTrue(cfg.loaders().tiered());
+            assertEquals(2, cfg.loaders().cacheLoaders().size());
+         }
+      });
+   }
+
+   public void testAsyncStoreLanes() throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders>\n" +
+            "<store class=\"org.infinispan.loaders.dummy.DummyInMemoryCacheStore\">\n" +
+            "<async enabled=\"true\" lanes=\"4\"/>\n" +
+            "</store>\n" +
+            "</loaders>\n" +
+            "</default>\n" +
+            INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Configuration cfg = cm.getDefaultCacheConfiguration();
+            CacheStoreConfiguration storeCfg = (CacheStoreConfiguration) cfg.loaders().cacheLoaders().get(0);
+            assertEquals(4, storeCfg.async().lanes());
+         }
+      });
+   }
+
    public void testVersioning() throws Exception {
       String config = INFINISPAN_START_TAG_NO_SCHEMA +
             "<default>\n" +
@@ -0,0 +1,160 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.EvictionThreadPolicy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.DefaultTimeService;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests purging expired entries from a {@link DefaultDataContainer} through its {@link ExpirationIndex}.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "container.ExpirationIndexTest")
+public class ExpirationIndexTest extends AbstractInfinispanTest {
+
+   private long now;
+   private final DefaultTimeService timeService = new DefaultTimeService() {
+      @Override
+      public long wallClockTime() {
+         return now;
+      }
+   };
+   private EvictionManager evictionManager;
+
+   @BeforeMethod
+   public void setUp() {
+      now = 1000000;
+   }
+
+   private DefaultDataContainer createContainer(DefaultDataContainer dc) {
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(timeService);
+      evictionManager = mock(EvictionManager.class);
+      dc.initialize(evictionManager, mock(PassivationManager.class), internalEntryFactory, null, null, timeService);
+      return dc;
+   }
+
+   /**
+    * Purges the container and returns the number of expired entries it reported to the eviction manager.
+    */
+   private int purge(DefaultDataContainer dc) {
+      reset(evictionManager);
+      dc.purgeExpired();
+      ArgumentCaptor<Integer> purged = ArgumentCaptor.forClass(Integer.class);
+      verify(evictionManager, atMost(1)).onExpiredEntriesPurged(purged.capture());
+      return purged.getAllValues().isEmpty() ? 0 : purged.getValue();
+   }
+
+   private DefaultDataContainer createContainer() {
+      return createContainer(new DefaultDataContainer(16, AnyEquivalence.getInstance(), AnyEquivalence.getInstance()));
+   }
+
+   private static Metadata lifespan(long millis) {
+      return new EmbeddedMetadata.Builder().lifespan(millis, TimeUnit.MILLISECONDS).build();
+   }
+
+   private static Metadata maxIdle(long millis) {
+      return new EmbeddedMetadata.Builder().maxIdle(millis, TimeUnit.MILLISECONDS).build();
+   }
+
+   public void testPurgeOnlyExpiredEntries() {
+      DefaultDataContainer dc = createContainer();
+      for (int i = 0; i < 100; i++) dc.put("immortal" + i, "v", new EmbeddedMetadata.Builder().build());
+      for (int i = 0; i < 10; i++) dc.put("short" + i, "v", lifespan(500 + i * 10));
+      for (int i = 0; i < 10; i++) dc.put("long" + i, "v", lifespan(60000));
+
+      assertEquals(0, purge(dc));
+      now += 505;
+      assertEquals(1, purge(dc));
+      now += 5000;
+      assertEquals(9, purge(dc));
+      assertEquals(110, dc.size());
+      assertFalse(dc.containsKey("short9"));
+      assertTrue(dc.containsKey("long0"));
+
+      now += 60000;
+      assertEquals(10, purge(dc));
+      assertEquals(100, dc.size());
+      assertEquals(0, dc.expirationIndex.size());
+   }
+
+   public void testTouchedEntriesNotPurged() {
+      DefaultDataContainer dc = createContainer();
+      dc.put("k1", "v", maxIdle(3000));
+      dc.put("k2", "v", maxIdle(3000));
+
+      now += 2000;
+      assertNotNull(dc.get("k1"));
+      now += 2000;
+      assertEquals(1, purge(dc));
+      assertTrue(dc.containsKey("k1"));
+      assertFalse(dc.containsKey("k2"));
+
+      now += 500;
+      assertEquals(0, purge(dc));
+      now += 2000;
+      assertEquals(1, purge(dc));
+      assertEquals(0, dc.size());
+      assertEquals(0, dc.expirationIndex.size());
+   }
+
+   public void testUpdatedEntries() {
+      DefaultDataContainer dc = createContainer();
+      dc.put("k1", "v", lifespan(10000));
+      dc.put("k2", "v", lifespan(10000));
+      dc.put("k3", "v", lifespan(10000));
+      dc.put("k1", "v", lifespan(1000));
+      dc.put("k2", "v", new EmbeddedMetadata.Builder().build());
+      dc.put("k3", "v", maxIdle(1000));
+      assertEquals(2, dc.expirationIndex.size());
+
+      now += 5000;
+      assertEquals(2, purge(dc));
+      assertEquals(1, dc.size());
+      assertTrue(dc.containsKey("k2"));
+
+      now += 10000;
+      assertEquals(0, purge(dc));
+      assertEquals(1, dc.size());
+   }
+
+   public void testRemovedEntriesNotIndexed() {
+      DefaultDataContainer dc = createContainer();
+      for (int i = 0; i < 10; i++) dc.put("k" + i, "v", lifespan(10000));
+      for (int i = 0; i < 5; i++) dc.remove("k" + i);
+      assertEquals(5, dc.expirationIndex.size());
+      dc.clear();
+      assertEquals(0, dc.expirationIndex.size());
+   }
+
+   public void testEvictedEntriesNotIndexed() {
+      DefaultDataContainer dc = createContainer(new DefaultDataContainer(1, 10, EvictionStrategy.LRU,
+            EvictionThreadPolicy.DEFAULT, AnyEquivalence.getInstance(), AnyEquivalence.getInstance()));
+      for (int i = 0; i < 100; i++) dc.put("k" + i, "v", lifespan(10000));
+      assertEquals(dc.size(), dc.expirationIndex.size());
+
+      now += 20000;
+      assertEquals(dc.size(), purge(dc));
+      assertEquals(0, dc.size());
+   }
+}
@@ -0,0 +1,101 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.distribution.ch.ReplicatedConsistentHashFactory;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.SegmentedDataContainerTest")
+public class SegmentedDataContainerTest extends AbstractInfinispanTest {
+
+   private static final int NUM_SEGMENTS = 16;
+
+   ConsistentHash ch;
+   SegmentedDataContainer dc;
+
+   @BeforeMethod
+   public void setUp() {
+      ch = new DefaultConsistentHashFactory().create(new MurmurHash3(), 1, NUM_SEGMENTS,
+            Collections.<Address>singletonList(new TestAddress(0)));
+      dc = new SegmentedDataContainer(ch, 16, AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      EvictionManager evictionManager = mock(EvictionManager.class);
+      for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+         dc.segmentContainer(segment).initialize(evictionManager, null, internalEntryFactory, null, null, TIME_SERVICE);
+      }
+   }
+
+   public void testEntriesPartitionedBySegment() {
+      for (int i = 0; i < 200; i++) dc.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+
+      assertEquals(200, dc.size());
+      int total = 0;
+      for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+         int count = 0;
+         for (Iterator<InternalCacheEntry> it = dc.segmentIterator(segment); it.hasNext(); ) {
+            assertEquals(segment, ch.getSegment(it.next().getKey()));
+            count++;
+         }
+         assertEquals(count, dc.segmentSize(segment));
+         total += count;
+      }
+      assertEquals(200, total);
+   }
+
+   public void testRemoveSegment() {
+      for (int i = 0; i < 200; i++) dc.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+      int segment = ch.getSegment("k0");
+      int removed = dc.segmentSize(segment);
+
+      dc.removeSegment(segment);
+      assertEquals(0, dc.segmentSize(segment));
+      assertEquals(200 - removed, dc.size());
+      assertFalse(dc.containsKey("k0"));
+   }
+
+   public void testWholeContainerViews() {
+      for (int i = 0; i < 50; i++) dc.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+
+      Set<Object> keys = new HashSet<Object>(dc.keySet());
+      Set<Object> values = new HashSet<Object>(dc.values());
+      Set<Object> iterated = new HashSet<Object>();
+      for (InternalCacheEntry ice : dc) iterated.add(ice.getKey());
+      assertEquals(50, keys.size());
+      assertEquals(50, values.size());
+      assertEquals(keys, iterated);
+      assertTrue(dc.keySet().contains("k7"));
+      assertEquals(50, dc.entrySet().size());
+
+      dc.clear();
+      assertEquals(0, dc.size());
+   }
+
+   public void testSegmentMappingCompatibility() {
+      List<Address> members = Arrays.<Address>asList(new TestAddress(1), new TestAddress(2));
+      assertTrue(dc.isSegmentedBy(new DefaultConsistentHashFactory().create(new MurmurHash3(), 2, NUM_SEGMENTS, members)));
+      assertFalse(dc.isSegmentedBy(new DefaultConsistentHashFactory().create(new MurmurHash3(), 2, NUM_SEGMENTS * 2, members)));
+      assertFalse(dc.isSegmentedBy(new ReplicatedConsistentHashFactory().create(new MurmurHash3(), 2, NUM_SEGMENTS, members)));
+   }
+}
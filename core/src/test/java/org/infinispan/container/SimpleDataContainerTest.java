@@ -7,6 +7,7 @@
 import org.infinispan.container.entries.MortalCacheEntry;
 import org.infinispan.container.entries.TransientCacheEntry;
 import org.infinispan.container.entries.TransientMortalCacheEntry;
+import org.infinispan.eviction.EvictionManager;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.util.CoreImmutables;
 import org.testng.annotations.AfterMethod;
@@ -18,6 +19,7 @@
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import static org.mockito.Mockito.mock;
 import static org.testng.AssertJUnit.assertEquals;
 
 @Test(groups = "unit", testName = "container.SimpleDataContainerTest")
@@ -38,7 +40,7 @@ protected DataContainer createContainer() {
       DefaultDataContainer dc = new DefaultDataContainer(16, AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
       InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
       internalEntryFactory.injectTimeService(TIME_SERVICE);
-      dc.initialize(null, null, internalEntryFactory, null, null, TIME_SERVICE);
+      dc.initialize(mock(EvictionManager.class), null, internalEntryFactory, null, null, TIME_SERVICE);
       return dc;
    }
 
@@ -0,0 +1,130 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.container.entries.TransientCacheEntry;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+@Test(groups = "unit", testName = "container.offheap.OffHeapDataContainerTest")
+public class OffHeapDataContainerTest extends AbstractInfinispanTest {
+   OffHeapDataContainer dc;
+
+   @BeforeMethod
+   public void setUp() {
+      dc = new OffHeapDataContainer(4, 64);
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(mock(EvictionManager.class), null, internalEntryFactory, null, null, TIME_SERVICE, new TestObjectStreamMarshaller());
+      dc.allocate();
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      dc.deallocate();
+      dc = null;
+   }
+
+   public void testPutGetRemove() {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().build());
+      assertEquals(1, dc.size());
+      assertTrue(dc.containsKey("k"));
+      InternalCacheEntry entry = dc.get("k");
+      assertEquals(ImmortalCacheEntry.class, entry.getClass());
+      assertEquals("k", entry.getKey());
+      assertEquals("v", entry.getValue());
+
+      dc.put("k", "v2", new EmbeddedMetadata.Builder().build());
+      assertEquals(1, dc.size());
+      assertEquals("v2", dc.peek("k").getValue());
+
+      assertEquals("v2", dc.remove("k").getValue());
+      assertNull(dc.get("k"));
+      assertEquals(0, dc.size());
+      assertEquals(0, dc.memoryUsed());
+   }
+
+   public void testByteArrayKeysComparedByContent() {
+      dc.put(new byte[]{1, 2, 3}, new byte[]{4, 5, 6}, new EmbeddedMetadata.Builder().build());
+      InternalCacheEntry entry = dc.get(new byte[]{1, 2, 3});
+      assertTrue(entry != null);
+      assertEquals(3, ((byte[]) entry.getValue()).length);
+      assertFalse(dc.containsKey(new byte[]{1, 2}));
+   }
+
+   public void testMetadataPreserved() {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().version(new NumericVersion(7)).build());
+      assertEquals(new NumericVersion(7), dc.get("k").getMetadata().version());
+
+      dc.put("k", "v", new EmbeddedMetadata.Builder().lifespan(100, TimeUnit.MINUTES).build());
+      InternalCacheEntry entry = dc.get("k");
+      assertEquals(MortalCacheEntry.class, entry.getClass());
+      assertEquals(TimeUnit.MINUTES.toMillis(100), entry.getLifespan());
+   }
+
+   public void testExpiredData() throws InterruptedException {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().lifespan(0, TimeUnit.MINUTES).build());
+      Thread.sleep(10);
+      assertNull(dc.get("k"));
+      assertEquals(0, dc.size());
+
+      dc.put("k", "v", new EmbeddedMetadata.Builder().lifespan(0, TimeUnit.MINUTES).build());
+      dc.put("k2", "v", new EmbeddedMetadata.Builder().build());
+      Thread.sleep(10);
+      assertEquals(2, dc.size());
+      dc.purgeExpired();
+      assertEquals(1, dc.size());
+      assertTrue(dc.containsKey("k2"));
+   }
+
+   public void testUpdatingLastUsed() throws InterruptedException {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().maxIdle(100, TimeUnit.MINUTES).build());
+      InternalCacheEntry entry = dc.get("k");
+      assertEquals(TransientCacheEntry.class, entry.getClass());
+      long lastUsed = entry.getLastUsed();
+      Thread.sleep(100);
+      assertTrue(dc.get("k").getLastUsed() > lastUsed);
+   }
+
+   public void testIteration() {
+      for (int i = 0; i < 100; i++) dc.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+
+      Set<Object> keys = new HashSet<Object>(dc.keySet());
+      Set<Object> values = new HashSet<Object>(dc.values());
+      Set<Object> iterated = new HashSet<Object>();
+      for (InternalCacheEntry ice : dc) iterated.add(ice.getKey());
+      assertEquals(100, dc.entrySet().size());
+      for (int i = 0; i < 100; i++) {
+         assertTrue(keys.contains("k" + i));
+         assertTrue(values.contains("v" + i));
+         assertTrue(iterated.contains("k" + i));
+      }
+   }
+
+   public void testClearReleasesMemory() {
+      for (int i = 0; i < 100; i++) dc.put("k" + i, new byte[256], new EmbeddedMetadata.Builder().build());
+      assertTrue(dc.memoryUsed() > 100 * 256);
+      dc.clear();
+      assertEquals(0, dc.size());
+      assertEquals(0, dc.memoryUsed());
+      assertNull(dc.get("k0"));
+   }
+}
@@ -0,0 +1,104 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests caches configured to store their entries off-heap.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapEvictionTest")
+public class OffHeapEvictionTest extends SingleCacheManagerTest {
+
+   private static final int MAX_ENTRIES = 128;
+   private static final long MAX_MEMORY = 256 * 1024;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(false);
+      builder.dataContainer().offHeap(true).addressCount(1024)
+            .keyEquivalence(ByteArrayEquivalence.INSTANCE).valueEquivalence(ByteArrayEquivalence.INSTANCE);
+      cacheManager = TestCacheManagerFactory.createCacheManager(builder);
+
+      builder = getDefaultStandaloneCacheConfig(false);
+      builder.dataContainer().offHeap(true).addressCount(1024)
+            .eviction().strategy(EvictionStrategy.LRU).maxEntries(MAX_ENTRIES);
+      cacheManager.defineConfiguration("count", builder.build());
+
+      builder = getDefaultStandaloneCacheConfig(false);
+      builder.dataContainer().offHeap(true).addressCount(1024)
+            .eviction().strategy(EvictionStrategy.LRU).type(EvictionType.MEMORY).maxMemory(MAX_MEMORY);
+      cacheManager.defineConfiguration("memory", builder.build());
+      return cacheManager;
+   }
+
+   public void testByteArrayKeys() {
+      Cache<byte[], byte[]> c = cacheManager.getCache();
+      assertTrue(c.getAdvancedCache().getDataContainer() instanceof OffHeapDataContainer);
+      c.put(new byte[]{1, 2, 3}, new byte[]{4, 5, 6});
+      assertEquals(6, c.get(new byte[]{1, 2, 3})[2]);
+      c.remove(new byte[]{1, 2, 3});
+      assertEquals(0, c.size());
+   }
+
+   public void testBoundedByCount() {
+      Cache<String, String> c = cacheManager.getCache("count");
+      for (int i = 0; i < MAX_ENTRIES * 4; i++) {
+         c.put("key" + i, "value" + i);
+         assertTrue(c.getAdvancedCache().getDataContainer().size() <= MAX_ENTRIES);
+      }
+      // the most recently written entries are kept
+      assertEquals("value" + (MAX_ENTRIES * 4 - 1), c.get("key" + (MAX_ENTRIES * 4 - 1)));
+      assertEquals(MAX_ENTRIES, c.getAdvancedCache().getDataContainer().size());
+   }
+
+   public void testBoundedByMemory() {
+      Cache<String, byte[]> c = cacheManager.getCache("memory");
+      OffHeapDataContainer dc = (OffHeapDataContainer) c.getAdvancedCache().getDataContainer();
+      int numEntries = (int) (MAX_MEMORY / 1024) * 4;
+      for (int i = 0; i < numEntries; i++) {
+         c.put("key" + i, new byte[1024]);
+         assertTrue("Memory used exceeds limit: " + dc.memoryUsed(), dc.memoryUsed() <= MAX_MEMORY);
+      }
+      assertTrue(dc.size() < numEntries / 2);
+      c.clear();
+      assertEquals(0, dc.memoryUsed());
+   }
+
+   public void testClearDuringEviction() throws Exception {
+      final Cache<String, String> c = cacheManager.getCache("count");
+      OffHeapDataContainer dc = (OffHeapDataContainer) c.getAdvancedCache().getDataContainer();
+      Future<Void> writer = fork(new Callable<Void>() {
+         @Override
+         public Void call() throws Exception {
+            for (int i = 0; i < MAX_ENTRIES * 100; i++) {
+               c.put("key" + i, "value" + i);
+               c.get("key" + (i / 2));
+            }
+            return null;
+         }
+      });
+      while (!writer.isDone()) {
+         c.clear();
+      }
+      writer.get(10, TimeUnit.SECONDS);
+      c.clear();
+      assertEquals(0, dc.size());
+      assertEquals(0, dc.memoryUsed());
+   }
+}
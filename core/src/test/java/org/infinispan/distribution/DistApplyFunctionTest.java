@@ -0,0 +1,136 @@
+package org.infinispan.distribution;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.EntryFunction;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that {@link AdvancedCache#invoke(Object, EntryFunction)} applies the function once, on the primary owner, and
+ * that its outcome reaches all the owners.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistApplyFunctionTest")
+@CleanupAfterMethod
+public class DistApplyFunctionTest extends MultipleCacheManagersTest {
+
+   private static final AtomicInteger applications = new AtomicInteger();
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      cfg.clustering().hash().numOwners(2);
+      createCluster(cfg, 3);
+      waitForClusterToForm();
+      applications.set(0);
+   }
+
+   public void testInvokeOnNonOwner() {
+      MagicKey key = new MagicKey("k", cache(1), cache(2));
+      cache(1).put(key, 1);
+
+      AdvancedCache<Object, Integer> cache = advancedCache(0);
+      assertEquals(Integer.valueOf(1), cache.invoke(key, new Increment()));
+      assertEquals(1, applications.get());
+      assertValue(key, 2);
+      assertFalse(dataContainer(0).containsKey(key));
+   }
+
+   public void testInvokeOnBackupOwner() {
+      MagicKey key = new MagicKey("k", cache(1), cache(2));
+      cache(1).put(key, 1);
+
+      AdvancedCache<Object, Integer> cache = advancedCache(2);
+      assertEquals(Integer.valueOf(1), cache.invoke(key, new Increment()));
+      assertEquals(1, applications.get());
+      assertValue(key, 2);
+   }
+
+   public void testInvokeCreatesEntry() {
+      MagicKey key = new MagicKey("k", cache(1), cache(2));
+
+      AdvancedCache<Object, Integer> cache = advancedCache(0);
+      assertNull(cache.invoke(key, new Increment()));
+      assertValue(key, 1);
+   }
+
+   public void testInvokeRemovesEntry() {
+      MagicKey key = new MagicKey("k", cache(1), cache(2));
+      cache(1).put(key, 1);
+
+      AdvancedCache<Object, Integer> cache = advancedCache(0);
+      assertEquals(Boolean.TRUE, cache.invoke(key, new Remove()));
+      for (int i = 0; i < 3; i++) {
+         assertFalse(dataContainer(i).containsKey(key));
+         assertNull(cache(i).get(key));
+      }
+   }
+
+   public void testReadOnlyFunctionDoesNotWrite() {
+      MagicKey key = new MagicKey("k", cache(1), cache(2));
+      cache(1).put(key, 1);
+      long created = dataContainer(2).get(key).getCreated();
+
+      AdvancedCache<Object, Integer> cache = advancedCache(0);
+      assertEquals(Integer.valueOf(1), cache.invoke(key, new Read()));
+      assertEquals(1, applications.get());
+      assertValue(key, 1);
+      assertEquals(created, dataContainer(2).get(key).getCreated());
+   }
+
+   private void assertValue(Object key, Object value) {
+      for (int i = 0; i < 3; i++) {
+         assertEquals(value, cache(i).get(key));
+      }
+      assertTrue(dataContainer(1).containsKey(key));
+      assertTrue(dataContainer(2).containsKey(key));
+      assertEquals(value, dataContainer(1).get(key).getValue());
+      assertEquals(value, dataContainer(2).get(key).getValue());
+   }
+
+   private DataContainer dataContainer(int index) {
+      return TestingUtil.extractComponent(cache(index), DataContainer.class);
+   }
+
+   static class Increment implements EntryFunction<Object, Integer, Integer>, Serializable {
+      @Override
+      public Integer apply(MutableEntry<Object, Integer> entry) {
+         applications.incrementAndGet();
+         Integer previous = entry.getValue();
+         entry.setValue(previous == null ? 1 : previous + 1);
+         return previous;
+      }
+   }
+
+   static class Remove implements EntryFunction<Object, Integer, Boolean>, Serializable {
+      @Override
+      public Boolean apply(MutableEntry<Object, Integer> entry) {
+         applications.incrementAndGet();
+         boolean existed = entry.exists();
+         entry.remove();
+         return existed;
+      }
+   }
+
+   static class Read implements EntryFunction<Object, Integer, Integer>, Serializable {
+      @Override
+      public Integer apply(MutableEntry<Object, Integer> entry) {
+         applications.incrementAndGet();
+         return entry.getValue();
+      }
+   }
+}
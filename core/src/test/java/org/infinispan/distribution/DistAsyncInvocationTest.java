@@ -0,0 +1,188 @@
+package org.infinispan.distribution;
+
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.CallInterceptor;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.SupportsAsyncInvocation;
+import org.infinispan.remoting.RemoteException;
+import org.infinispan.statetransfer.OutdatedTopologyException;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.util.concurrent.TimeoutException;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that {@link org.infinispan.Cache#getAsync(Object)} and {@link org.infinispan.Cache#putAsync(Object, Object)}
+ * are invoked asynchronously through the interceptor chain, without an executor thread.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistAsyncInvocationTest")
+@CleanupAfterMethod
+public class DistAsyncInvocationTest extends MultipleCacheManagersTest {
+
+   private static final long REPL_TIMEOUT = 2000;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      createCluster(buildConfiguration(), 2);
+      waitForClusterToForm();
+   }
+
+   private ConfigurationBuilder buildConfiguration() {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      cfg.clustering().hash().numOwners(1)
+            .sync().replTimeout(REPL_TIMEOUT);
+      return cfg;
+   }
+
+   public void testChainSupportsAsyncInvocation() {
+      for (int i = 0; i < 2; i++) {
+         InterceptorChain chain = TestingUtil.extractComponent(cache(i), InterceptorChain.class);
+         assertTrue(chain.isAsyncInvocationSupported());
+      }
+   }
+
+   public void testPutAndGetFromNonOwner() throws Exception {
+      MagicKey key = new MagicKey("k", cache(1));
+
+      Future<Object> put = cache(0).putAsync(key, "v1");
+      assertNull(put.get(10, TimeUnit.SECONDS));
+      assertEquals("v1", cache(1).get(key));
+
+      put = cache(0).putAsync(key, "v2");
+      assertEquals("v1", put.get(10, TimeUnit.SECONDS));
+
+      Future<Object> get = cache(0).getAsync(key);
+      assertEquals("v2", get.get(10, TimeUnit.SECONDS));
+   }
+
+   public void testPutAndGetOnOwner() throws Exception {
+      MagicKey key = new MagicKey("local", cache(0));
+
+      assertNull(cache(0).putAsync(key, "v").get(10, TimeUnit.SECONDS));
+      assertEquals("v", cache(0).getAsync(key).get(10, TimeUnit.SECONDS));
+      assertEquals("v", cache(1).getAsync(key).get(10, TimeUnit.SECONDS));
+   }
+
+   public void testGetMissingKey() throws Exception {
+      MagicKey key = new MagicKey("missing", cache(1));
+      assertNull(cache(0).getAsync(key).get(10, TimeUnit.SECONDS));
+   }
+
+   public void testRetryOnTopologyChange() throws Exception {
+      MagicKey key = new MagicKey("retry", cache(1));
+      final PutInterceptor primary = new PutInterceptor();
+      primary.outdatedTopologies.set(1);
+      cache(1).getAdvancedCache().addInterceptorBefore(primary, CallInterceptor.class);
+      PutInterceptor originator = new PutInterceptor();
+      cache(0).getAdvancedCache().addInterceptorBefore(originator, CallInterceptor.class);
+
+      // the retry waits for the next topology, without blocking the thread which received the response
+      Future<Object> put = cache(0).putAsync(key, "v");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return primary.outdatedTopologies.get() <= 0;
+         }
+      });
+      assertNull(cache(0).get(new MagicKey("other", cache(1))));
+
+      addClusterEnabledCacheManager(buildConfiguration());
+      waitForClusterToForm();
+      put.get(10, TimeUnit.SECONDS);
+      assertEquals("v", cache(0).get(key));
+      assertTrue(originator.localThreads.size() >= 2);
+      String retryThread = originator.localThreads.get(1);
+      assertTrue(retryThread, retryThread.startsWith("asyncTransportThread"));
+   }
+
+   public void testTimeout() throws Exception {
+      MagicKey key = new MagicKey("timeout", cache(1));
+      PutInterceptor primary = new PutInterceptor();
+      primary.blocked = new CountDownLatch(1);
+      cache(1).getAdvancedCache().addInterceptorBefore(primary, CallInterceptor.class);
+
+      try {
+         Future<Object> put = cache(0).putAsync(key, "v");
+         put.get(REPL_TIMEOUT * 5, TimeUnit.MILLISECONDS);
+         fail("The put should have timed out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause().toString(), e.getCause() instanceof TimeoutException);
+      } finally {
+         primary.blocked.countDown();
+      }
+   }
+
+   public void testExceptionOnPrimaryOwner() throws Exception {
+      MagicKey key = new MagicKey("exception", cache(1));
+      PutInterceptor primary = new PutInterceptor();
+      primary.failure = new IllegalStateException("Simulated failure");
+      cache(1).getAdvancedCache().addInterceptorBefore(primary, CallInterceptor.class);
+
+      try {
+         cache(0).putAsync(key, "v").get(10, TimeUnit.SECONDS);
+         fail("The put should have failed");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause().toString(), e.getCause() instanceof RemoteException);
+      }
+      assertNull(cache(1).get(key));
+      // the failure didn't leave the key locked
+      primary.failure = null;
+      assertNull(cache(0).putAsync(key, "v").get(10, TimeUnit.SECONDS));
+      assertEquals("v", cache(1).get(key));
+   }
+
+   public void testPutOnPrimaryOwnerRunsInExecutor() throws Exception {
+      MagicKey key = new MagicKey("primary", cache(0));
+      PutInterceptor originator = new PutInterceptor();
+      cache(0).getAdvancedCache().addInterceptorBefore(originator, CallInterceptor.class);
+
+      // the primary owner locks the key and replicates the write, which mustn't happen in the calling thread
+      assertNull(cache(0).putAsync(key, "v").get(10, TimeUnit.SECONDS));
+      assertEquals("v", cache(1).get(key));
+      String thread = originator.localThreads.get(0);
+      assertTrue(thread, thread.startsWith("asyncTransportThread"));
+   }
+
+   @SupportsAsyncInvocation
+   static class PutInterceptor extends CommandInterceptor {
+      final AtomicInteger outdatedTopologies = new AtomicInteger();
+      final List<String> localThreads = new CopyOnWriteArrayList<String>();
+      volatile CountDownLatch blocked;
+      volatile RuntimeException failure;
+
+      @Override
+      public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
+         if (ctx.isOriginLocal()) {
+            localThreads.add(Thread.currentThread().getName());
+         } else {
+            if (outdatedTopologies.getAndDecrement() > 0)
+               throw new OutdatedTopologyException("Simulated topology change");
+            if (blocked != null)
+               blocked.await(10, TimeUnit.SECONDS);
+            if (failure != null)
+               throw failure;
+         }
+         return invokeNextInterceptor(ctx, command);
+      }
+   }
+}
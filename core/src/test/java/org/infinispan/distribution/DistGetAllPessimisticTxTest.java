@@ -0,0 +1,48 @@
+package org.infinispan.distribution;
+
+import org.infinispan.context.Flag;
+import org.infinispan.transaction.LockingMode;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistGetAllPessimisticTxTest")
+public class DistGetAllPessimisticTxTest extends DistGetAllTest {
+
+   public DistGetAllPessimisticTxTest() {
+      transactional = true;
+      lockingMode = LockingMode.PESSIMISTIC;
+   }
+
+   public void testForceWriteLockLocksAllKeys() throws Exception {
+      MagicKey k0 = new MagicKey("locked0", cache(0));
+      MagicKey k1 = new MagicKey("locked1", cache(1));
+      MagicKey k2 = new MagicKey("locked2", cache(2));
+      cache(0).put(k0, "v0");
+      cache(0).put(k1, "v1");
+
+      tm(0).begin();
+      try {
+         Map<Object, Object> values = advancedCache(0).withFlags(Flag.FORCE_WRITE_LOCK)
+               .getAll(new HashSet<Object>(Arrays.asList(k0, k1, k2)));
+         assertEquals(2, values.size());
+         assertTrue(lockManager(0).isLocked(k0));
+         assertTrue(lockManager(1).isLocked(k1));
+         assertTrue(lockManager(2).isLocked(k2));
+      } finally {
+         tm(0).commit();
+      }
+      assertFalse(lockManager(0).isLocked(k0));
+      assertFalse(lockManager(1).isLocked(k1));
+      assertFalse(lockManager(2).isLocked(k2));
+   }
+}
@@ -0,0 +1,97 @@
+package org.infinispan.distribution;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.util.CountingRpcManager;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that {@link AdvancedCache#getAll(java.util.Set)} returns the values of keys owned by several nodes.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.DistGetAllTest")
+public class DistGetAllTest extends MultipleCacheManagersTest {
+
+   protected boolean transactional = false;
+   protected LockingMode lockingMode = LockingMode.OPTIMISTIC;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, transactional);
+      cfg.clustering().hash().numOwners(1);
+      if (transactional) cfg.transaction().lockingMode(lockingMode);
+      createCluster(cfg, 3);
+      waitForClusterToForm();
+   }
+
+   public void testGetAllFromSeveralOwners() {
+      MagicKey k0 = new MagicKey("k0", cache(0));
+      MagicKey k1 = new MagicKey("k1", cache(1));
+      MagicKey k2 = new MagicKey("k2", cache(2));
+      MagicKey k1b = new MagicKey("k1b", cache(1));
+      cache(0).put(k0, "v0");
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+      cache(0).put(k1b, "v1b");
+
+      for (int i = 0; i < 3; i++) {
+         AdvancedCache<Object, Object> cache = advancedCache(i);
+         Map<Object, Object> values = cache.getAll(new HashSet<Object>(Arrays.asList(k0, k1, k2, k1b)));
+         assertEquals(4, values.size());
+         assertEquals("v0", values.get(k0));
+         assertEquals("v1", values.get(k1));
+         assertEquals("v2", values.get(k2));
+         assertEquals("v1b", values.get(k1b));
+      }
+   }
+
+   public void testOneRpcPerOwner() {
+      MagicKey k0 = new MagicKey("rpc0", cache(0));
+      MagicKey k1 = new MagicKey("rpc1", cache(1));
+      MagicKey k1b = new MagicKey("rpc1b", cache(1));
+      MagicKey k2 = new MagicKey("rpc2", cache(2));
+      MagicKey k2b = new MagicKey("rpc2b", cache(2));
+      Set<Object> keys = new HashSet<Object>(Arrays.asList(k0, k1, k1b, k2, k2b));
+      for (Object key : keys) {
+         cache(0).put(key, "value");
+      }
+
+      CountingRpcManager rpcManager = CountingRpcManager.replaceRpcManager(cache(0));
+      rpcManager.resetStats();
+      assertEquals(5, advancedCache(0).getAll(keys).size());
+      // the local key is read locally, nodes 1 and 2 are each asked for both of their keys at once
+      assertEquals(2, rpcManager.clusterGetAll);
+      assertEquals(0, rpcManager.clusterGet);
+   }
+
+   public void testMissingKeysAreLeftOut() {
+      MagicKey present = new MagicKey("present", cache(1));
+      MagicKey absentRemote = new MagicKey("absentRemote", cache(1));
+      MagicKey absentLocal = new MagicKey("absentLocal", cache(0));
+      cache(0).put(present, "value");
+
+      Set<Object> keys = new HashSet<Object>(Arrays.asList(present, absentRemote, absentLocal));
+      Map<Object, Object> values = advancedCache(0).getAll(keys);
+      assertEquals(1, values.size());
+      assertEquals("value", values.get(present));
+      assertFalse(values.containsKey(absentRemote));
+      assertFalse(values.containsKey(absentLocal));
+   }
+
+   public void testEmptySet() {
+      assertTrue(advancedCache(0).getAll(new HashSet<Object>()).isEmpty());
+   }
+}
@@ -0,0 +1,82 @@
+package org.infinispan.distribution.rehash;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the entries evicted with asynchronous passivation, but not written to the cache store yet, are transferred
+ * to the new owners when a node joins.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "distribution.rehash.RehashWithAsyncPassivationTest")
+public class RehashWithAsyncPassivationTest extends MultipleCacheManagersTest {
+
+   private static final int MAX_ENTRIES = 10;
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      addClusterEnabledCacheManager(buildConfiguration(0));
+      waitForClusterToForm();
+   }
+
+   private ConfigurationBuilder buildConfiguration(int node) {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1)
+            .eviction().strategy(EvictionStrategy.LRU).maxEntries(MAX_ENTRIES)
+            .loaders().passivation(true).asyncPassivation(true).passivationQueueSize(NUM_KEYS)
+               .addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
+                  .storeName(getClass().getName() + node).fetchPersistentState(true);
+      return builder;
+   }
+
+   public void testPendingPassivationsAreTransferred() throws Exception {
+      Cache<Object, Object> cache0 = cache(0);
+      PassivationManager passivationManager = TestingUtil.extractComponent(cache0, PassivationManager.class);
+      // keep the evicted entries waiting for the passivation writer
+      final CountDownLatch writerReleased = new CountDownLatch(1);
+      ExecutorService writer = (ExecutorService) TestingUtil.extractField(passivationManager, "writer");
+      writer.execute(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               writerReleased.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+      });
+
+      try {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            cache0.put("key" + i, "value" + i);
+         }
+         assertTrue(passivationManager.getPendingPassivationCount() > 0);
+
+         addClusterEnabledCacheManager(buildConfiguration(1));
+         waitForClusterToForm();
+      } finally {
+         writerReleased.countDown();
+      }
+
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("value" + i, cache(0).get("key" + i));
+         assertEquals("value" + i, cache(1).get("key" + i));
+      }
+   }
+}
@@ -0,0 +1,120 @@
+package org.infinispan.eviction;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStore;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the entries evicted with asynchronous passivation can be read before they are written to the cache store,
+ * and that an activation doesn't leave them in the cache store, nor waits for their write.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.AsyncPassivationTest")
+public class AsyncPassivationTest extends SingleCacheManagerTest {
+
+   private static final int MAX_ENTRIES = 2;
+   private static final int NUM_KEYS = 10;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder
+         .eviction().strategy(EvictionStrategy.LRU).maxEntries(MAX_ENTRIES)
+         .loaders().passivation(true).asyncPassivation(true)
+            .addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
+               .storeName(getClass().getName()).slow(true);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testEvictedEntriesReadableBeforePassivation() throws Exception {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("key" + i, "value" + i);
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("value" + i, cache.get("key" + i));
+      }
+
+      final PassivationManager passivator = TestingUtil.extractComponent(cache, PassivationManager.class);
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return passivator.getPendingPassivationCount() == 0;
+         }
+      });
+
+      // each key is either in memory or in the cache store, never in both
+      DataContainer container = cache.getAdvancedCache().getDataContainer();
+      DummyInMemoryCacheStore store = (DummyInMemoryCacheStore) TestingUtil.extractComponent(cache,
+            CacheLoaderManager.class).getCacheStore();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "key" + i;
+         if (container.containsKey(key)) {
+            assertFalse(key + " is still in the cache store", store.containsKey(key));
+         } else {
+            assertTrue(key + " is missing from the cache store", store.containsKey(key));
+         }
+         assertEquals("value" + i, cache.get(key));
+      }
+   }
+
+   public void testCancelDoesNotWaitForWrite() throws Exception {
+      final PassivationManager passivator = TestingUtil.extractComponent(cache, PassivationManager.class);
+      final DummyInMemoryCacheStore store = (DummyInMemoryCacheStore) TestingUtil.extractComponent(cache,
+            CacheLoaderManager.class).getCacheStore();
+      final int stores = store.stats().get("store");
+      passivator.passivate(TestInternalCacheEntryFactory.create("k", "v"));
+      // the slow store sleeps before writing the entry
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return store.stats().get("store") > stores;
+         }
+      }, 1000, 1000);
+
+      passivator.cancelPassivation("k");
+      assertFalse("The cancellation waited for the write", store.containsKey("k"));
+      assertNull(passivator.getPendingPassivation("k"));
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return passivator.getPendingPassivationCount() == 0;
+         }
+      });
+      assertFalse("The cancelled entry was left in the cache store", store.containsKey("k"));
+   }
+
+   public void testPendingPassivationOfByteArrayKey() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder
+         .dataContainer().keyEquivalence(ByteArrayEquivalence.INSTANCE)
+         .eviction().strategy(EvictionStrategy.LRU).maxEntries(MAX_ENTRIES)
+         .loaders().passivation(true).asyncPassivation(true)
+            .addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
+               .storeName(getClass().getName() + "-bytes").slow(true);
+      cacheManager.defineConfiguration("bytes", builder.build());
+      Cache<byte[], String> bytesCache = cacheManager.getCache("bytes");
+      final PassivationManager passivator = TestingUtil.extractComponent(bytesCache, PassivationManager.class);
+
+      passivator.passivate(TestInternalCacheEntryFactory.create(new byte[]{1, 2, 3}, "v"));
+      assertEquals("v", passivator.getPendingPassivation(new byte[]{1, 2, 3}).getValue());
+      passivator.cancelPassivation(new byte[]{1, 2, 3});
+      assertNull(passivator.getPendingPassivation(new byte[]{1, 2, 3}));
+   }
+}
@@ -53,6 +53,10 @@ public void testPiggybackUNORDERED() {
       runTest(EvictionThreadPolicy.PIGGYBACK, EvictionStrategy.UNORDERED);
    }
 
+   public void testPiggybackTINY_LFU() {
+      runTest(EvictionThreadPolicy.PIGGYBACK, EvictionStrategy.TINY_LFU);
+   }
+
    public void testDefaultLRU() {
       runTest(EvictionThreadPolicy.DEFAULT, EvictionStrategy.LRU);
    }
@@ -70,6 +74,10 @@ public void testDefaultUNORDERED() {
       runTest(EvictionThreadPolicy.DEFAULT, EvictionStrategy.UNORDERED);
    }
 
+   public void testDefaultTINY_LFU() {
+      runTest(EvictionThreadPolicy.DEFAULT, EvictionStrategy.TINY_LFU);
+   }
+
    private void runTest(EvictionThreadPolicy p, EvictionStrategy s) {
       String name = "test-" + p + "-" + s;
       Cache<String, String> testCache = cacheManager.getCache(name);
@@ -0,0 +1,88 @@
+package org.infinispan.eviction;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.interceptors.CacheMgmtInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests eviction bounded by the estimated memory used by the entries.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "eviction.MemoryBasedEvictionTest")
+public class MemoryBasedEvictionTest extends SingleCacheManagerTest {
+
+   private static final long MAX_MEMORY = 1024 * 1024;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(getDefaultStandaloneCacheConfig(false));
+      for (EvictionStrategy strategy : new EvictionStrategy[]{EvictionStrategy.LRU, EvictionStrategy.LIRS}) {
+         ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(false);
+         // the memory budget is split among lock segments
+         builder.jmxStatistics().enable()
+               .locking().concurrencyLevel(4)
+               .eviction().strategy(strategy).type(EvictionType.MEMORY).maxMemory(MAX_MEMORY);
+         cacheManager.defineConfiguration(strategy.name(), builder.build());
+      }
+      return cacheManager;
+   }
+
+   public void testLRUBoundedByMemory() {
+      runTest(EvictionStrategy.LRU);
+   }
+
+   public void testLIRSBoundedByMemory() {
+      runTest(EvictionStrategy.LIRS);
+   }
+
+   public void testMemoryReleasedOnRemove() {
+      Cache<String, byte[]> c = cacheManager.getCache(EvictionStrategy.LRU.name());
+      DefaultDataContainer dc = (DefaultDataContainer) c.getAdvancedCache().getDataContainer();
+      c.clear();
+      assertEquals(0, dc.memoryUsed());
+      c.put("k", new byte[1024]);
+      assertTrue(dc.memoryUsed() > 1024);
+      c.put("k", new byte[2048]);
+      assertTrue(dc.memoryUsed() > 2048);
+      c.remove("k");
+      assertEquals(0, dc.memoryUsed());
+   }
+
+   public void testCountBasedContainerDoesNotTrackMemory() {
+      DefaultDataContainer dc = (DefaultDataContainer) cache.getAdvancedCache().getDataContainer();
+      cache.put("k", new byte[1024]);
+      assertEquals(-1, dc.memoryUsed());
+   }
+
+   private void runTest(EvictionStrategy strategy) {
+      Cache<String, byte[]> c = cacheManager.getCache(strategy.name());
+      DefaultDataContainer dc = (DefaultDataContainer) c.getAdvancedCache().getDataContainer();
+      int valueSize = 1024;
+      int numEntries = (int) (MAX_MEMORY / valueSize) * 4;
+      for (int i = 0; i < numEntries; i++) {
+         c.put("key" + i, new byte[valueSize]);
+         assertTrue("Memory used exceeds limit: " + dc.memoryUsed(), dc.memoryUsed() <= MAX_MEMORY);
+      }
+      assertTrue("Expected entries to be evicted, but there are " + dc.size(), dc.size() < numEntries / 2);
+      assertTrue(dc.memoryUsed() > 0);
+
+      // growing an existing value must evict others to make room
+      int sizeBefore = dc.size();
+      c.put("key" + (numEntries - 1), new byte[valueSize * 4]);
+      assertTrue(dc.size() < sizeBefore);
+      assertTrue(dc.memoryUsed() <= MAX_MEMORY);
+
+      CacheMgmtInterceptor stats = TestingUtil.findInterceptor(c, CacheMgmtInterceptor.class);
+      assertEquals(dc.memoryUsed(), stats.getDataMemoryUsed());
+   }
+}
@@ -1,6 +1,7 @@
 package org.infinispan.interceptors;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -9,6 +10,12 @@
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.commands.write.InvalidateL1Command;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.components.ComponentMetadataRepo;
 import org.infinispan.factories.components.ModuleMetadataFileFinder;
 import org.infinispan.interceptors.base.CommandInterceptor;
@@ -16,6 +23,8 @@
 import org.infinispan.util.logging.LogFactory;
 import org.testng.annotations.Test;
 
+import static org.testng.AssertJUnit.assertEquals;
+
 /**
  * Tests {@link InterceptorChain} logic
  *
@@ -60,6 +69,69 @@ public void testConcurrentAddRemove() throws Exception {
       assert ic.asList().size() == 5 : "Resulting interceptor chain was actually " + ic.asList();
    }
 
+   public void testPipelineSkipsInterceptorsNotHandlingTheCommand() {
+      ComponentMetadataRepo componentMetadataRepo = new ComponentMetadataRepo();
+      componentMetadataRepo.initialize(Collections.<ModuleMetadataFileFinder>emptyList(), InterceptorChainTest.class.getClassLoader());
+      InterceptorChain ic = new InterceptorChain(componentMetadataRepo);
+      CallInterceptor call = new CallInterceptor();
+      ic.setFirstInChain(call);
+      PutInterceptor put = new PutInterceptor();
+      ic.addInterceptor(put, 0);
+      InvalidateInterceptor invalidate = new InvalidateInterceptor();
+      ic.addInterceptor(invalidate, 0);
+
+      assertEquals(Arrays.asList(put, call), ic.asList(PutKeyValueCommand.class));
+      assertEquals(Arrays.asList(call), ic.asList(GetKeyValueCommand.class));
+      assertEquals(Arrays.asList(invalidate, call), ic.asList(InvalidateL1Command.class));
+      assertEquals(put, ic.getFirstInChain(PutKeyValueCommand.class));
+      // unknown command types go through the whole chain
+      assertEquals(invalidate, ic.getFirstInChain(VisitableCommand.class));
+
+      // the pipelines are rebuilt when the chain changes
+      CacheMgmtInterceptor mgmt = new CacheMgmtInterceptor();
+      ic.addInterceptor(mgmt, 1);
+      assertEquals(Arrays.asList(mgmt, call), ic.asList(GetKeyValueCommand.class));
+      assertEquals(Arrays.asList(mgmt, put, call), ic.asList(PutKeyValueCommand.class));
+      ic.removeInterceptor(PutInterceptor.class);
+      assertEquals(Arrays.asList(mgmt, call), ic.asList(PutKeyValueCommand.class));
+   }
+
+   public void testDisabledPipelinesGoThroughTheWholeChain() {
+      ComponentMetadataRepo componentMetadataRepo = new ComponentMetadataRepo();
+      componentMetadataRepo.initialize(Collections.<ModuleMetadataFileFinder>emptyList(), InterceptorChainTest.class.getClassLoader());
+      InterceptorChain ic = new InterceptorChain(componentMetadataRepo);
+      CallInterceptor call = new CallInterceptor();
+      ic.setFirstInChain(call);
+      PutInterceptor put = new PutInterceptor();
+      ic.addInterceptor(put, 0);
+      InvalidateInterceptor invalidate = new InvalidateInterceptor();
+      ic.addInterceptor(invalidate, 0);
+
+      ic.setPipelinesEnabled(false);
+      assertEquals(Arrays.asList(invalidate, put, call), ic.asList(GetKeyValueCommand.class));
+      assertEquals(invalidate, ic.getFirstInChain(PutKeyValueCommand.class));
+      // the chain changes keep the pipelines disabled
+      ic.removeInterceptor(InvalidateInterceptor.class);
+      assertEquals(Arrays.asList(put, call), ic.asList(GetKeyValueCommand.class));
+
+      ic.setPipelinesEnabled(true);
+      assertEquals(Arrays.asList(call), ic.asList(GetKeyValueCommand.class));
+   }
+
+   private static class PutInterceptor extends CommandInterceptor {
+      @Override
+      public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
+         return invokeNextInterceptor(ctx, command);
+      }
+   }
+
+   private static class InvalidateInterceptor extends CommandInterceptor {
+      @Override
+      public Object visitInvalidateCommand(InvocationContext ctx, InvalidateCommand command) throws Throwable {
+         return invokeNextInterceptor(ctx, command);
+      }
+   }
+
    private static class InterceptorChainUpdater implements Callable<Void> {
       private final InterceptorChain ic;
       private final CyclicBarrier barrier;
@@ -16,6 +16,7 @@
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
@@ -489,6 +490,77 @@ public void testStoreAndRemoveAll() throws CacheLoaderException {
       assert expected.isEmpty();
    }
 
+   public void testStoreAllAndRemoveAll() throws CacheLoaderException {
+      cs.store(TestInternalCacheEntryFactory.create("k1", "v1"));
+
+      List<InternalCacheEntry> entries = new ArrayList<InternalCacheEntry>();
+      for (int i = 1; i <= 100; i++) entries.add(TestInternalCacheEntryFactory.create("k" + i, "v" + i + "-bulk"));
+      cs.storeAll(entries);
+
+      assertEquals(100, cs.loadAll().size());
+      for (int i = 1; i <= 100; i++) assertEquals("v" + i + "-bulk", cs.load("k" + i).getValue());
+
+      Set<Object> toRemove = new HashSet<Object>();
+      for (int i = 1; i <= 50; i++) toRemove.add("k" + i);
+      toRemove.add("missing");
+      cs.removeAll(toRemove);
+
+      assertEquals(50, cs.loadAll().size());
+      for (int i = 1; i <= 50; i++) assert !cs.containsKey("k" + i);
+      for (int i = 51; i <= 100; i++) assertEquals("v" + i + "-bulk", cs.load("k" + i).getValue());
+   }
+
+   public void testLoadAllOfKeys() throws Exception {
+      for (int i = 1; i <= 150; i++) cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      cs.store(TestInternalCacheEntryFactory.create("expired", "v", 1));
+      // some stores round the lifespan up to a second
+      for (int i = 0; i < 50 && cs.load("expired") != null; i++) Thread.sleep(100);
+
+      Set<Object> keys = new HashSet<Object>();
+      for (int i = 1; i <= 150; i += 2) keys.add("k" + i);
+      keys.add("expired");
+      keys.add("missing");
+      Map<Object, InternalCacheEntry> loaded = cs.loadAll(keys);
+
+      assertEquals(75, loaded.size());
+      for (int i = 1; i <= 150; i += 2) {
+         InternalCacheEntry entry = loaded.get("k" + i);
+         assertEquals("k" + i, entry.getKey());
+         assertEquals("v" + i, entry.getValue());
+      }
+      assert cs.loadAll(Collections.emptySet()).isEmpty();
+   }
+
+   public void testSize() throws CacheLoaderException {
+      assertEquals(0, cs.size());
+      for (int i = 0; i < 10; i++) cs.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      assertEquals(10, cs.size());
+      cs.remove("k0");
+      cs.remove("k1");
+      assertEquals(8, cs.size());
+      cs.clear();
+      assertEquals(0, cs.size());
+   }
+
+   public void testOnePhaseCommitAppliesLastModificationOfEachKey() throws CacheLoaderException {
+      cs.store(TestInternalCacheEntryFactory.create("k0", "v0"));
+
+      List<Modification> mods = new ArrayList<Modification>();
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k1", "v1")));
+      mods.add(new Clear());
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k2", "v2")));
+      mods.add(new Remove("k2"));
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k3", "v3")));
+      mods.add(new Remove("k3"));
+      mods.add(new Store(TestInternalCacheEntryFactory.create("k3", "v3-new")));
+      cs.prepare(mods, gtf.newGlobalTransaction(null, true), true);
+
+      assert !cs.containsKey("k0");
+      assert !cs.containsKey("k1");
+      assert !cs.containsKey("k2");
+      assertEquals("v3-new", cs.load("k3").getValue());
+   }
+
    public void testPurgeExpired() throws Exception {
       // Increased lifespan and idle timeouts to accommodate slower cache stores
       long lifespan = 6000;
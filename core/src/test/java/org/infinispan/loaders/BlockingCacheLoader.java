@@ -0,0 +1,143 @@
+package org.infinispan.loaders;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.CacheLoaderConfiguration;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.interceptors.CacheLoaderInterceptor;
+import org.infinispan.loaders.spi.CacheLoader;
+import org.infinispan.loaders.spi.CacheLoaderTask;
+import org.infinispan.test.TestingUtil;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replaces the cache loader used by the {@link CacheLoaderInterceptor} of a cache with a loader that blocks the loads
+ * of single keys and bulk loads of several keys until {@link #release()} is called, and counts them.
+ *
+ * @since 6.0
+ */
+public class BlockingCacheLoader implements CacheLoader {
+
+   private final CacheLoaderInterceptor interceptor;
+   private final CacheLoader delegate;
+   private final CountDownLatch released = new CountDownLatch(1);
+   private final AtomicInteger loads = new AtomicInteger();
+
+   private BlockingCacheLoader(CacheLoaderInterceptor interceptor, CacheLoader delegate) {
+      this.interceptor = interceptor;
+      this.delegate = delegate;
+   }
+
+   public static BlockingCacheLoader install(Cache<?, ?> cache) {
+      CacheLoaderInterceptor interceptor = TestingUtil.findInterceptor(cache, CacheLoaderInterceptor.class);
+      CacheLoader loader = (CacheLoader) TestingUtil.extractField(CacheLoaderInterceptor.class, interceptor, "loader");
+      BlockingCacheLoader blocking = new BlockingCacheLoader(interceptor, loader);
+      blocking.replaceLoader(blocking);
+      return blocking;
+   }
+
+   /**
+    * Unblocks the loads and gives the original cache loader back to the interceptor.
+    */
+   public void uninstall() {
+      release();
+      replaceLoader(delegate);
+   }
+
+   private void replaceLoader(CacheLoader loader) {
+      TestingUtil.replaceField(loader, "loader", interceptor, CacheLoaderInterceptor.class);
+      Object loadCoalescer = TestingUtil.extractField(CacheLoaderInterceptor.class, interceptor, "loadCoalescer");
+      if (loadCoalescer != null) {
+         TestingUtil.replaceField(loader, "loader", loadCoalescer, loadCoalescer.getClass());
+      }
+   }
+
+   public void release() {
+      released.countDown();
+   }
+
+   /**
+    * @return the number of loads of single keys and bulk loads of several keys
+    */
+   public int getLoads() {
+      return loads.get();
+   }
+
+   private void block() throws CacheLoaderException {
+      loads.incrementAndGet();
+      try {
+         if (!released.await(10, TimeUnit.SECONDS))
+            throw new CacheLoaderException("The loads were never released");
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoaderException(e);
+      }
+   }
+
+   @Override
+   public InternalCacheEntry load(Object key) throws CacheLoaderException {
+      block();
+      return delegate.load(key);
+   }
+
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) throws CacheLoaderException {
+      block();
+      return delegate.loadAll(keys);
+   }
+
+   @Override
+   public void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, StreamingMarshaller m) throws CacheLoaderException {
+      delegate.init(configuration, cache, m);
+   }
+
+   @Override
+   public Set<InternalCacheEntry> loadAll() throws CacheLoaderException {
+      return delegate.loadAll();
+   }
+
+   @Override
+   public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException {
+      return delegate.load(numEntries);
+   }
+
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      delegate.process(task);
+   }
+
+   @Override
+   public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
+      return delegate.loadAllKeys(keysToExclude);
+   }
+
+   @Override
+   public boolean containsKey(Object key) throws CacheLoaderException {
+      return delegate.containsKey(key);
+   }
+
+   @Override
+   public int size() throws CacheLoaderException {
+      return delegate.size();
+   }
+
+   @Override
+   public void start() throws CacheLoaderException {
+      delegate.start();
+   }
+
+   @Override
+   public void stop() throws CacheLoaderException {
+      delegate.stop();
+   }
+
+   @Override
+   public CacheLoaderConfiguration getConfiguration() {
+      return delegate.getConfiguration();
+   }
+}
@@ -8,6 +8,7 @@
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.context.Flag;
 import org.infinispan.lifecycle.ComponentStatus;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStore;
 import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
 import org.infinispan.loaders.manager.CacheLoaderManager;
 import org.infinispan.loaders.spi.CacheStore;
@@ -26,7 +27,10 @@
 import javax.transaction.TransactionManager;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.infinispan.api.mvcc.LockAssert.assertNoLocks;
@@ -461,6 +465,46 @@ public void testLoadingToMemory() throws CacheLoaderException {
       assert "v2".equals(cache.get("k2"));
    }
 
+   public void testSizeAndViewsDoNotLoadAllKeys() throws CacheLoaderException {
+      cache.put("k0", "v0");
+      for (int i = 1; i <= 3; i++) store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      DummyInMemoryCacheStore dimcs = (DummyInMemoryCacheStore) store;
+      dimcs.clearStats();
+
+      assertEquals(4, cache.size());
+      assertEquals(1, dimcs.stats().get("size").intValue());
+      assertEquals(0, dimcs.stats().get("loadAllKeys").intValue());
+
+      // the sizes of the views don't read the store, the iteration streams its entries
+      Set<String> keySet = cache.keySet();
+      assertEquals(new HashSet<String>(Arrays.asList("k0", "k1", "k2", "k3")), new HashSet<String>(keySet));
+      assertEquals(4, keySet.size());
+      assertEquals(4, cache.entrySet().size());
+      assertEquals(4, cache.values().size());
+      assert !cache.values().isEmpty();
+      assertEquals(1, dimcs.stats().get("process").intValue());
+      assertEquals(0, dimcs.stats().get("loadAllKeys").intValue());
+      assertEquals(0, dimcs.stats().get("load").intValue());
+      assertEquals(0, dimcs.stats().get("loadAll").intValue());
+
+      Set<String> values = new HashSet<String>();
+      for (Object value : cache.values()) values.add((String) value);
+      assertEquals(new HashSet<String>(Arrays.asList("v0", "v1", "v2", "v3")), values);
+      assertEquals(2, dimcs.stats().get("process").intValue());
+      assertEquals(0, dimcs.stats().get("load").intValue());
+      assertEquals(0, dimcs.stats().get("loadAll").intValue());
+
+      // isEmpty() stops at the first entry of the store which isn't in memory
+      cache.getAdvancedCache().getDataContainer().clear();
+      assert !cache.keySet().isEmpty();
+      assertEquals(3, dimcs.stats().get("process").intValue());
+      assertEquals(0, dimcs.stats().get("loadAllKeys").intValue());
+
+      assert keySet.contains("k0");
+      assert keySet.contains("k3");
+      assert !keySet.contains("k4");
+   }
+
    public void testSkipLocking(Method m) {
       String name = m.getName();
       AdvancedCache<String, String> advancedCache = cache.getAdvancedCache();
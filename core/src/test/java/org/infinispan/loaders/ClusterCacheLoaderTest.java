@@ -3,6 +3,7 @@
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.interceptors.CacheLoaderInterceptor;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.loaders.decorators.ChainingCacheStore;
 import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
@@ -10,9 +11,18 @@
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+
 /**
  * Tester for {@link org.infinispan.loaders.cluster.ClusterCacheLoader}
  *
@@ -21,6 +31,8 @@
 @Test(groups = "functional", testName = "loaders.ClusterCacheLoaderTest")
 public class ClusterCacheLoaderTest extends MultipleCacheManagersTest {
 
+   private static final int NUM_THREADS = 10;
+
    @Override
    protected void createCacheManagers() throws Throwable {
       EmbeddedCacheManager cacheManager1 = TestCacheManagerFactory.createClusteredCacheManager();
@@ -28,6 +40,7 @@ protected void createCacheManagers() throws Throwable {
       registerCacheManager(cacheManager1, cacheManager2);
 
       ConfigurationBuilder config1 = getDefaultClusteredCacheConfig(CacheMode.INVALIDATION_SYNC, false);
+      config1.jmxStatistics().enable();
       config1.loaders().addClusterCacheLoader();
 
       ConfigurationBuilder config2 = getDefaultClusteredCacheConfig(CacheMode.INVALIDATION_SYNC, false);
@@ -61,4 +74,40 @@ public void testRemoteLoadFromCacheLoader() throws Exception {
       assert cs2.load("key").getValue().equals("value");
       assert cache1.get("key").equals("value");
    }
+
+   public void testConcurrentRemoteLoadsOfSameKeyShareLoad() throws Exception {
+      final Cache<String, String> cache1 = cache(0, "clusteredCl");
+      Cache<String, String> cache2 = cache(1, "clusteredCl");
+      cache2.put("hot", "value");
+      cache1.getAdvancedCache().getDataContainer().clear();
+
+      final CacheLoaderInterceptor interceptor = TestingUtil.findInterceptor(cache1, CacheLoaderInterceptor.class);
+      interceptor.resetStatistics();
+      BlockingCacheLoader loader = BlockingCacheLoader.install(cache1);
+      try {
+         List<Future<String>> gets = new ArrayList<Future<String>>();
+         for (int i = 0; i < NUM_THREADS; i++) {
+            gets.add(fork(new Callable<String>() {
+               @Override
+               public String call() throws Exception {
+                  return cache1.get("hot");
+               }
+            }));
+         }
+         // the first miss loads the key from the other node, the others wait for its load
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return interceptor.getCacheLoaderSharedLoads() == NUM_THREADS - 1;
+            }
+         });
+         loader.release();
+         for (Future<String> get : gets) {
+            assertEquals("value", get.get(10, TimeUnit.SECONDS));
+         }
+         assertEquals(1, loader.getLoads());
+      } finally {
+         loader.uninstall();
+      }
+   }
 }
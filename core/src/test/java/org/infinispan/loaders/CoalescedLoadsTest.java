@@ -0,0 +1,266 @@
+package org.infinispan.loaders;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.interceptors.CacheLoaderInterceptor;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStore;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that concurrent cache misses are loaded from the cache store with bulk loads when load coalescing is enabled,
+ * and that concurrent misses of the same key share a single load, with and without load coalescing.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "loaders.CoalescedLoadsTest")
+public class CoalescedLoadsTest extends SingleCacheManagerTest {
+
+   private static final int NUM_THREADS = 20;
+   private static final String NOT_COALESCED = "notCoalesced";
+   private static final String BYTE_ARRAY_KEYS = "byteArrayKeys";
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(loadersConfiguration(true));
+      cm.defineConfiguration(NOT_COALESCED, loadersConfiguration(false).build());
+      ConfigurationBuilder byteArrayKeys = loadersConfiguration(false);
+      byteArrayKeys.dataContainer().keyEquivalence(ByteArrayEquivalence.INSTANCE);
+      cm.defineConfiguration(BYTE_ARRAY_KEYS, byteArrayKeys.build());
+      return cm;
+   }
+
+   private ConfigurationBuilder loadersConfiguration(boolean coalesceLoads) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enable()
+            .loaders().coalesceLoads(coalesceLoads).loadCoalescingWindow(200)
+            .addLoader(DummyInMemoryCacheStoreConfigurationBuilder.class)
+            .storeName(getClass().getName() + (coalesceLoads ? "" : "-" + NOT_COALESCED));
+      return builder;
+   }
+
+   public void testConcurrentMissesAreCoalesced() throws Exception {
+      List<String> keys = new ArrayList<String>();
+      for (int i = 0; i < NUM_THREADS; i++) {
+         cache.put("key" + i, "value" + i);
+         keys.add("key" + i);
+      }
+      DummyInMemoryCacheStore store = evictAllAndResetStats();
+
+      final BlockingCacheLoader loader = BlockingCacheLoader.install(cache);
+      List<Object> values = new ArrayList<Object>();
+      try {
+         // a lone miss is loaded right away, without waiting for the coalescing window
+         List<Future<Object>> gets = forkGets(cache, keys.subList(0, 1));
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return loader.getLoads() == 1;
+            }
+         });
+         // the misses meanwhile are loaded together, without waiting for the bulk load in progress
+         gets.addAll(forkGets(cache, keys.subList(1, NUM_THREADS)));
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return loader.getLoads() >= 2;
+            }
+         });
+         loader.release();
+         for (Future<Object> get : gets) {
+            values.add(get.get(10, TimeUnit.SECONDS));
+         }
+      } finally {
+         loader.uninstall();
+      }
+      for (int i = 0; i < NUM_THREADS; i++) {
+         assertEquals("value" + i, values.get(i));
+      }
+
+      assertEquals(0, store.stats().get("load").intValue());
+      int bulkLoads = store.stats().get("loadAll");
+      assertTrue("Expected fewer bulk loads than misses, but got " + bulkLoads, bulkLoads < NUM_THREADS);
+      for (int i = 0; i < NUM_THREADS; i++) {
+         assertTrue(cache.getAdvancedCache().getDataContainer().containsKey("key" + i));
+      }
+   }
+
+   public void testConcurrentMissesOfSameKeyShareLoad() throws Exception {
+      doTestConcurrentMissesOfSameKeyShareLoad(cache);
+      // with coalescing, the shared load is a bulk load
+      assertEquals(0, store(cache).stats().get("load").intValue());
+      assertEquals(1, store(cache).stats().get("loadAll").intValue());
+   }
+
+   public void testConcurrentMissesOfSameKeyShareLoadWithoutCoalescing() throws Exception {
+      Cache<Object, Object> notCoalesced = cacheManager.getCache(NOT_COALESCED);
+      doTestConcurrentMissesOfSameKeyShareLoad(notCoalesced);
+      // without coalescing, the shared load loads the single key
+      assertEquals(1, store(notCoalesced).stats().get("load").intValue());
+      assertEquals(0, store(notCoalesced).stats().get("loadAll").intValue());
+   }
+
+   private void doTestConcurrentMissesOfSameKeyShareLoad(final Cache<Object, Object> cache) throws Exception {
+      cache.put("hot", "value");
+      evictAllAndResetStats(cache);
+
+      final CacheLoaderInterceptor interceptor = TestingUtil.findInterceptor(cache, CacheLoaderInterceptor.class);
+      BlockingCacheLoader loader = BlockingCacheLoader.install(cache);
+      try {
+         List<String> keys = new ArrayList<String>();
+         for (int i = 0; i < NUM_THREADS; i++) {
+            keys.add("hot");
+         }
+         List<Future<Object>> gets = forkGets(cache, keys);
+         // the first miss loads the key, the others wait for its load
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return interceptor.getCacheLoaderSharedLoads() == NUM_THREADS - 1;
+            }
+         });
+         loader.release();
+         for (Future<Object> get : gets) {
+            assertEquals("value", get.get(10, TimeUnit.SECONDS));
+         }
+         assertEquals(1, loader.getLoads());
+         assertEquals(NUM_THREADS - 1, interceptor.getCacheLoaderSharedLoads());
+      } finally {
+         loader.uninstall();
+      }
+   }
+
+   public void testConcurrentMissesOfEqualByteArrayKeysShareLoad() throws Exception {
+      final Cache<Object, Object> byteArrayKeys = cacheManager.getCache(BYTE_ARRAY_KEYS);
+      final CacheLoaderInterceptor interceptor = TestingUtil.findInterceptor(byteArrayKeys, CacheLoaderInterceptor.class);
+      BlockingCacheLoader loader = BlockingCacheLoader.install(byteArrayKeys);
+      try {
+         final CyclicBarrier barrier = new CyclicBarrier(NUM_THREADS);
+         List<Future<Object>> gets = new ArrayList<Future<Object>>();
+         for (int i = 0; i < NUM_THREADS; i++) {
+            gets.add(fork(new Callable<Object>() {
+               @Override
+               public Object call() throws Exception {
+                  barrier.await();
+                  // a distinct, but equal, key instance per thread
+                  return byteArrayKeys.get(new byte[]{1, 2, 3});
+               }
+            }));
+         }
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return interceptor.getCacheLoaderSharedLoads() == NUM_THREADS - 1;
+            }
+         });
+         loader.release();
+         for (Future<Object> get : gets) {
+            assertNull(get.get(10, TimeUnit.SECONDS));
+         }
+         assertEquals(1, loader.getLoads());
+      } finally {
+         loader.uninstall();
+      }
+   }
+
+   public void testGetAllSharesLoadWithConcurrentGet() throws Exception {
+      final Cache<Object, Object> notCoalesced = cacheManager.getCache(NOT_COALESCED);
+      notCoalesced.put("hot", "value");
+      notCoalesced.put("other", "otherValue");
+      DummyInMemoryCacheStore store = evictAllAndResetStats(notCoalesced);
+
+      final CacheLoaderInterceptor interceptor = TestingUtil.findInterceptor(notCoalesced, CacheLoaderInterceptor.class);
+      final BlockingCacheLoader loader = BlockingCacheLoader.install(notCoalesced);
+      try {
+         Future<Map<Object, Object>> getAll = fork(new Callable<Map<Object, Object>>() {
+            @Override
+            public Map<Object, Object> call() throws Exception {
+               return notCoalesced.getAdvancedCache().getAll(new HashSet<Object>(Arrays.asList("hot", "other")));
+            }
+         });
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return loader.getLoads() == 1;
+            }
+         });
+         // the miss of a key being bulk loaded waits for the bulk load
+         Future<Object> get = fork(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+               return notCoalesced.get("hot");
+            }
+         });
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return interceptor.getCacheLoaderSharedLoads() == 1;
+            }
+         });
+         loader.release();
+         assertEquals("value", get.get(10, TimeUnit.SECONDS));
+         Map<Object, Object> values = getAll.get(10, TimeUnit.SECONDS);
+         assertEquals("value", values.get("hot"));
+         assertEquals("otherValue", values.get("other"));
+         assertEquals(1, loader.getLoads());
+         assertEquals(0, store.stats().get("load").intValue());
+      } finally {
+         loader.uninstall();
+      }
+   }
+
+   public void testMissingKey() {
+      assertNull(cache.get("missing"));
+   }
+
+   private DummyInMemoryCacheStore evictAllAndResetStats() {
+      return evictAllAndResetStats(cache);
+   }
+
+   private DummyInMemoryCacheStore evictAllAndResetStats(Cache<Object, Object> cache) {
+      cache.getAdvancedCache().getDataContainer().clear();
+      DummyInMemoryCacheStore store = store(cache);
+      store.clearStats();
+      TestingUtil.findInterceptor(cache, CacheLoaderInterceptor.class).resetStatistics();
+      return store;
+   }
+
+   private DummyInMemoryCacheStore store(Cache<Object, Object> cache) {
+      return (DummyInMemoryCacheStore) TestingUtil.extractComponent(cache, CacheLoaderManager.class).getCacheStore();
+   }
+
+   private List<Future<Object>> forkGets(final Cache<Object, Object> cache, List<String> keys) {
+      final CyclicBarrier barrier = new CyclicBarrier(keys.size());
+      List<Future<Object>> futures = new ArrayList<Future<Object>>();
+      for (final String key : keys) {
+         futures.add(fork(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+               barrier.await();
+               return cache.get(key);
+            }
+         }));
+      }
+      return futures;
+   }
+}
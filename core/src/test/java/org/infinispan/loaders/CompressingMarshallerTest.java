@@ -0,0 +1,72 @@
+package org.infinispan.loaders;
+
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the objects marshalled by {@link CompressingMarshaller} are only compressed when they are large enough, and
+ * are unmarshalled back whether they have been compressed or not.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.CompressingMarshallerTest")
+public class CompressingMarshallerTest extends AbstractInfinispanTest {
+
+   private static final int THRESHOLD = 256;
+
+   public void testSmallObjectNotCompressed() throws Exception {
+      CompressingMarshaller marshaller = new CompressingMarshaller(new TestObjectStreamMarshaller(), 1 << 20);
+      String value = repeat("small", 10);
+      byte[] bytes = marshaller.objectToByteBuffer(value);
+      assertEquals(value, marshaller.objectFromByteBuffer(bytes));
+      assertTrue(marshaller.getCompressionRatio() < 1);
+   }
+
+   public void testLargeObjectCompressed() throws Exception {
+      CompressingMarshaller marshaller = new CompressingMarshaller(new TestObjectStreamMarshaller(), THRESHOLD);
+      String value = repeat("{\"name\":\"value\"}", 1000);
+      byte[] bytes = marshaller.objectToByteBuffer(value);
+      assertTrue("Expected " + bytes.length + " to be less than " + value.length(), bytes.length < value.length());
+      assertTrue(marshaller.getCompressionRatio() > 5);
+      assertEquals(value, marshaller.objectFromByteBuffer(bytes));
+
+      ByteBuffer buffer = marshaller.objectToBuffer(value);
+      assertEquals(value, marshaller.objectFromInputStream(new ByteArrayInputStream(buffer.getBuf(),
+            buffer.getOffset(), buffer.getLength())));
+
+      marshaller.resetStatistics();
+      assertEquals(1.0, marshaller.getCompressionRatio());
+   }
+
+   public void testOffsetAndLength() throws Exception {
+      CompressingMarshaller marshaller = new CompressingMarshaller(new TestObjectStreamMarshaller(), THRESHOLD);
+      String value = repeat("abc", 1000);
+      byte[] bytes = marshaller.objectToByteBuffer(value);
+      byte[] padded = new byte[bytes.length + 10];
+      System.arraycopy(bytes, 0, padded, 5, bytes.length);
+      assertEquals(value, marshaller.objectFromByteBuffer(padded, 5, bytes.length));
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testTruncatedObject() throws Exception {
+      CompressingMarshaller marshaller = new CompressingMarshaller(new TestObjectStreamMarshaller(), THRESHOLD);
+      byte[] bytes = marshaller.objectToByteBuffer(repeat("abc", 1000));
+      marshaller.objectFromByteBuffer(bytes, 0, bytes.length / 2);
+   }
+
+   private static String repeat(String s, int times) {
+      StringBuilder sb = new StringBuilder(s.length() * times);
+      for (int i = 0; i < times; i++) {
+         sb.append(s);
+      }
+      return sb.toString();
+   }
+}
@@ -0,0 +1,104 @@
+package org.infinispan.loaders;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests preloading the entries of a cache store in batches, with several writer threads.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "loaders.ParallelPreloadTest")
+public class ParallelPreloadTest extends SingleCacheManagerTest {
+
+   private static final int NUM_KEYS = 1000;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(false);
+
+      cm.defineConfiguration("singleThread", preloadConfiguration(1, 7).build());
+      cm.defineConfiguration("multiThread", preloadConfiguration(4, 10).build());
+
+      ConfigurationBuilder builder = preloadConfiguration(3, 8);
+      builder.eviction().strategy(EvictionStrategy.LRU).maxEntries(100);
+      cm.defineConfiguration("evicting", builder.build());
+
+      cm.defineConfiguration("expiring", preloadConfiguration(2, 10, getClass().getName() + "-expiring").build());
+      return cm;
+   }
+
+   private ConfigurationBuilder preloadConfiguration(int preloadThreads, int preloadBatchSize) {
+      return preloadConfiguration(preloadThreads, preloadBatchSize, getClass().getName());
+   }
+
+   private ConfigurationBuilder preloadConfiguration(int preloadThreads, int preloadBatchSize, String storeName) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.loaders().preload(true).preloadThreads(preloadThreads).preloadBatchSize(preloadBatchSize)
+            .addLoader(DummyInMemoryCacheStoreConfigurationBuilder.class)
+            .storeName(storeName);
+      return builder;
+   }
+
+   public void testPreloadWithSingleThread() {
+      doTest("singleThread", NUM_KEYS);
+   }
+
+   public void testPreloadWithMultipleThreads() {
+      doTest("multiThread", NUM_KEYS);
+   }
+
+   public void testPreloadStopsAtMaxEntries() {
+      doTest("evicting", 100);
+   }
+
+   public void testPreloadKeepsTheExpirationOfTheEntries() {
+      Cache<Object, Object> cache = cacheManager.getCache("expiring");
+      for (int i = 0; i < NUM_KEYS; i++) {
+         if (i % 3 == 0) cache.put("key" + i, "value" + i);
+         else cache.put("key" + i, "value" + i, i % 3 * 60, TimeUnit.MINUTES, i % 3 * 30, TimeUnit.MINUTES);
+      }
+      cache.stop();
+      cache.start();
+
+      DataContainer dataContainer = cache.getAdvancedCache().getDataContainer();
+      assertEquals(NUM_KEYS, dataContainer.size());
+      for (int i = 0; i < NUM_KEYS; i++) {
+         InternalCacheEntry entry = dataContainer.get("key" + i);
+         assertEquals("value" + i, entry.getValue());
+         assertEquals(i % 3 == 0 ? -1 : TimeUnit.MINUTES.toMillis(i % 3 * 60), entry.getLifespan());
+         assertEquals(i % 3 == 0 ? -1 : TimeUnit.MINUTES.toMillis(i % 3 * 30), entry.getMaxIdle());
+      }
+   }
+
+   private void doTest(String cacheName, int maxSize) {
+      Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("key" + i, "value" + i);
+      }
+      cache.stop();
+      cache.start();
+
+      DataContainer dataContainer = cache.getAdvancedCache().getDataContainer();
+      // eviction may keep fewer entries than maxEntries
+      assertTrue(dataContainer.size() > 0);
+      assertTrue(dataContainer.size() <= maxSize);
+      if (maxSize == NUM_KEYS) assertEquals(NUM_KEYS, dataContainer.size());
+      for (Object key : dataContainer.keySet()) {
+         assertEquals("value" + ((String) key).substring(3), dataContainer.get(key).getValue());
+      }
+   }
+}
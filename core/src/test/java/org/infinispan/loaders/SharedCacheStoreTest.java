@@ -12,7 +12,9 @@
 import org.infinispan.test.fwk.CleanupAfterMethod;
 import org.testng.annotations.Test;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Test (testName = "loaders.SharedCacheStoreTest", groups = "functional")
 @CleanupAfterMethod
@@ -63,6 +65,20 @@ public void testUnnecessaryWrites() throws CacheLoaderException {
       }
    }
 
+   public void testPutAllStoresInBulk() throws CacheLoaderException {
+      Map<Object, Object> values = new HashMap<Object, Object>();
+      for (int i = 0; i < 10; i++) values.put("key" + i, "value" + i);
+      cache(0).putAll(values);
+
+      List<CacheStore> cachestores = TestingUtil.cachestores(caches());
+      for (CacheStore cs : cachestores) {
+         DummyInMemoryCacheStore dimcs = (DummyInMemoryCacheStore) cs;
+         for (Object key : values.keySet()) assert cs.containsKey(key);
+         assert dimcs.stats().get("storeAll") == 1 : "Entries should have been written in a single bulk store, but were written in " + dimcs.stats().get("storeAll");
+         assert dimcs.stats().get("store") == values.size() : "Each entry should have been written once, but " + dimcs.stats().get("store") + " were written";
+      }
+   }
+
    public void testSkipSharedCacheStoreFlagUsage() throws CacheLoaderException {
       cache(0).getAdvancedCache().withFlags(Flag.SKIP_SHARED_CACHE_STORE).put("key", "value");
       assert cache(0).get("key").equals("value");
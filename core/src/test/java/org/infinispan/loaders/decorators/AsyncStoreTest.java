@@ -9,6 +9,7 @@
 import org.infinispan.configuration.cache.LoadersConfigurationBuilder;
 import org.infinispan.configuration.cache.SingletonStoreConfiguration;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.interceptors.CacheStoreInterceptor;
 import org.infinispan.loaders.AbstractCacheStoreTest;
 import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfiguration;
 import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
@@ -53,6 +54,10 @@ public class AsyncStoreTest extends AbstractInfinispanTest {
    private AsyncStore store;
 
    private void createStore() throws CacheLoaderException {
+      createStore(1);
+   }
+
+   private void createStore(int lanes) throws CacheLoaderException {
       DummyInMemoryCacheStoreConfigurationBuilder dummyCfg = TestCacheManagerFactory.getDefaultCacheConfiguration(false)
             .loaders()
                .addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
@@ -60,7 +65,8 @@ private void createStore() throws CacheLoaderException {
       dummyCfg
          .async()
             .enable()
-            .threadPoolSize(10);
+            .threadPoolSize(10)
+            .lanes(lanes);
       DummyInMemoryCacheStore underlying = new DummyInMemoryCacheStore();
       store = new AsyncStore(underlying);
       store.init(dummyCfg.create(), getCache(), null);
@@ -99,6 +105,93 @@ public void testPutClearPut() throws Exception {
       doTestRemove(number, key);
    }
 
+   @Test(timeOut=10000)
+   public void testStripedPutClearPut() throws Exception {
+      TestCacheManagerFactory.backgroundTestStarted(this);
+      createStore(4);
+
+      final int number = 1000;
+      String key = "testStripedPutClearPut-k-";
+      String value = "testStripedPutClearPut-v-";
+      doTestPut(number, key, value);
+      doTestClear(number, key);
+      value = "testStripedPutClearPut-v[2]-";
+      doTestPut(number, key, value);
+
+      // once flushed, the underlying store only has the entries written after the clear
+      final CacheStore delegate = store.getDelegate();
+      final String expectedValue = value;
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int pending : store.getPendingModifications()) {
+               if (pending != 0) return false;
+            }
+            return delegate.loadAllKeys(null).size() == number;
+         }
+      });
+      for (int i = 0; i < number; i++) {
+         InternalCacheEntry ice = delegate.load(key + i);
+         assert ice != null && (expectedValue + i).equals(ice.getValue());
+      }
+      doTestRemove(number, key);
+   }
+
+   @Test(timeOut=10000)
+   public void testStripedConsecutiveClears() throws Exception {
+      TestCacheManagerFactory.backgroundTestStarted(this);
+      createStore(4);
+
+      final int number = 100;
+      String key = "testStripedConsecutiveClears-k-";
+      doTestPut(number, key, "testStripedConsecutiveClears-v-");
+      // the second clear waits for the first one to be applied by all the lanes
+      for (int i = 0; i < 3; i++) {
+         doTestClear(number, key);
+      }
+      final String value = "testStripedConsecutiveClears-v[2]-";
+      doTestPut(number, key, value);
+
+      final CacheStore delegate = store.getDelegate();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int pending : store.getPendingModifications()) {
+               if (pending != 0) return false;
+            }
+            return delegate.loadAllKeys(null).size() == number;
+         }
+      });
+      for (int i = 0; i < number; i++) {
+         InternalCacheEntry ice = delegate.load(key + i);
+         assert ice != null && (value + i).equals(ice.getValue());
+      }
+   }
+
+   @Test(timeOut=10000)
+   public void testStripedStatistics() throws Exception {
+      TestCacheManagerFactory.backgroundTestStarted(this);
+      createStore(4);
+
+      assert store.getLaneCount() == 4;
+      doTestPut(100, "testStripedStatistics-k-", "testStripedStatistics-v-");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int pending : store.getPendingModifications()) {
+               if (pending != 0) return false;
+            }
+            return true;
+         }
+      });
+      assert store.getAverageFlushTimes().length == 4;
+      assert store.getBlockedWrites().length == 4;
+      store.resetStatistics();
+      for (long blocked : store.getBlockedWrites()) {
+         assert blocked == 0;
+      }
+   }
+
    @Test(timeOut=10000)
    public void testMultiplePutsOnSameKey() throws Exception {
       TestCacheManagerFactory.backgroundTestStarted(this);
@@ -608,6 +701,117 @@ public void run() {
       }
    }
 
+   private LockableCacheStore createLockableStore(int lanes, int queueSize, long shutdownTimeout) throws CacheLoaderException {
+      LockableCacheStore underlying = new LockableCacheStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+
+      LockableCacheStoreConfigurationBuilder lcscsBuilder = new LockableCacheStoreConfigurationBuilder(builder.loaders());
+      lcscsBuilder.async()
+            .modificationQueueSize(queueSize)
+            .shutdownTimeout(shutdownTimeout)
+            .lanes(lanes);
+
+      store = new AsyncStore(underlying);
+      store.init(lcscsBuilder.create(), getCache(), null);
+      store.start();
+      return underlying;
+   }
+
+   private void awaitNoPendingModifications() {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            for (int pending : store.getPendingModifications()) {
+               if (pending != 0) return false;
+            }
+            return true;
+         }
+      });
+   }
+
+   @Test(timeOut=10000)
+   public void testBlockedWritesAndFlushTimesAreRecorded(final Method m) throws Exception {
+      final LockableCacheStore underlying = createLockableStore(1, 10, 5000);
+
+      underlying.lock.lock();
+      try {
+         fork(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  for (int i = 0; i < 30; i++)
+                     store.store(TestInternalCacheEntryFactory.create(k(m, i), v(m, i)));
+               } catch (Exception e) {
+                  log.error("Error storing entry", e);
+               }
+            }
+         }, null);
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return store.getBlockedWrites()[0] > 0;
+            }
+         });
+         // the back-end store is slow: the flush in progress takes at least this long
+         TestingUtil.sleepThread(200);
+      } finally {
+         underlying.lock.unlock();
+      }
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return underlying.loadAllKeys(null).size() == 30;
+         }
+      });
+      awaitNoPendingModifications();
+      assert store.getAverageFlushTimes()[0] > 0;
+
+      store.resetStatistics();
+      assert store.getBlockedWrites()[0] == 0;
+      assert store.getAverageFlushTimes()[0] == 0;
+   }
+
+   @Test(timeOut=20000)
+   public void testClearBarrierTimeoutKeepsWrites() throws Exception {
+      // Integer keys: the even ones go to the first lane, the odd ones to the second lane
+      final LockableCacheStore underlying = createLockableStore(2, 100, 500);
+
+      underlying.lock.lock();
+      try {
+         store.store(TestInternalCacheEntryFactory.create(0, "v0"));
+         // the first lane is writing, so it can't apply the clear until the back-end store is unlocked
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return underlying.lock.hasQueuedThreads();
+            }
+         });
+         store.clear();
+         // the first clear isn't done in time: the second one breaks its barrier instead of failing
+         store.clear();
+         for (int i = 1; i <= 5; i++)
+            store.store(TestInternalCacheEntryFactory.create(i, "v" + i));
+         // longer than the shutdown timeout: the second lane mustn't give up waiting for the first one
+         TestingUtil.sleepThread(1500);
+      } finally {
+         underlying.lock.unlock();
+      }
+
+      awaitNoPendingModifications();
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return underlying.loadAllKeys(null).size() == 5;
+         }
+      });
+      assert underlying.load(0) == null;
+      for (int i = 1; i <= 5; i++) {
+         InternalCacheEntry ice = underlying.load(i);
+         assert ice != null && ("v" + i).equals(ice.getValue());
+      }
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final LockableCacheStore store;
@@ -690,6 +894,56 @@ public void call() {
       });
    }
 
+   public void testInterceptorExposesAsyncStoreStatistics() throws Exception {
+      ConfigurationBuilder config = new ConfigurationBuilder();
+      config.jmxStatistics().enable()
+            .loaders().addStore(LockableCacheStoreConfigurationBuilder.class)
+               .async().enable().modificationQueueSize(10);
+      TestingUtil.withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.createCacheManager(config)) {
+         @Override
+         public void call() {
+            final Cache<String, String> cache = cm.getCache();
+            final LockableCacheStore underlying = STORE.get();
+            final CacheStoreInterceptor interceptor = TestingUtil.findInterceptor(cache, CacheStoreInterceptor.class);
+
+            underlying.lock.lock();
+            try {
+               fork(new Runnable() {
+                  @Override
+                  public void run() {
+                     for (int i = 0; i < 30; i++)
+                        cache.put("k" + i, "v" + i);
+                  }
+               }, null);
+               eventually(new Condition() {
+                  @Override
+                  public boolean isSatisfied() throws Exception {
+                     return interceptor.getAsyncStoreBlockedWrites() > 0;
+                  }
+               });
+               assert interceptor.getAsyncStorePendingModifications() > 0;
+               assert interceptor.getAsyncStoreMaxLanePendingModifications() > 0;
+               TestingUtil.sleepThread(200);
+            } finally {
+               underlying.lock.unlock();
+            }
+
+            eventually(new Condition() {
+               @Override
+               public boolean isSatisfied() throws Exception {
+                  return interceptor.getAsyncStorePendingModifications() == 0
+                        && underlying.loadAllKeys(null).size() == 30;
+               }
+            });
+            assert interceptor.getAsyncStoreMaxLanePendingModifications() == 0;
+            assert interceptor.getAsyncStoreMaxLaneAverageFlushTime() > 0;
+
+            interceptor.resetStatistics();
+            assert interceptor.getAsyncStoreBlockedWrites() == 0;
+         }
+      });
+   }
+
    private Cache getCache() {
       return AbstractCacheStoreTest.mockCache(getClass().getName());
    }
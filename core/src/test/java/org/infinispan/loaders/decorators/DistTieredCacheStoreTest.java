@@ -0,0 +1,49 @@
+package org.infinispan.loaders.decorators;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.distribution.MagicKey;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the tiered cache store with a distributed cache, where only the primary owner of a key writes it to the shared
+ * store, wherever the write originates from.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "loaders.decorators.DistTieredCacheStoreTest")
+public class DistTieredCacheStoreTest extends TieredCacheStoreTest {
+
+   @Override
+   protected CacheMode cacheMode() {
+      return CacheMode.DIST_SYNC;
+   }
+
+   @Override
+   protected Object key(String name, int node) {
+      return new MagicKey(name, cache(node));
+   }
+
+   public void testWriteFromBackupOwnerInvalidatesLocalTier() throws Exception {
+      // written to both tiers by node 1, the primary owner
+      Object key = key("backup", 1);
+      cache(1).put(key, "value");
+      assertTrue(localTier(1).containsKey(key));
+      assertFalse(localTier(0).containsKey(key));
+
+      // node 0, the backup owner, copies the entry to its local tier when loading it
+      cache(0).evict(key);
+      assertEquals("value", cache(0).get(key));
+      assertTrue(localTier(0).containsKey(key));
+
+      // the write originates from node 0, but node 1 writes it to the shared store
+      cache(0).put(key, "value2");
+      assertFalse(localTier(0).containsKey(key));
+      assertTrue(localTier(1).containsKey(key));
+      cache(0).evict(key);
+      assertEquals("value2", cache(0).get(key));
+   }
+}
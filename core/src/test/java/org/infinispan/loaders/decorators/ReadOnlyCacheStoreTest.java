@@ -24,6 +24,8 @@ public void testWriteMethods() throws CacheLoaderException {
       store.purgeExpired();
       store.remove("key");
       store.store(null);
+      store.storeAll(null);
+      store.removeAll(null);
       store.fromStream(null);
       store.prepare(null, null, true);
       store.commit(null);
@@ -0,0 +1,197 @@
+package org.infinispan.loaders.decorators;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.LoadersConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStore;
+import org.infinispan.loaders.dummy.DummyInMemoryCacheStoreConfigurationBuilder;
+import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that a tiered cache store serves the loads from its local tier, and that the local tier is invalidated by the
+ * writes and clears of the other nodes and by topology changes.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "loaders.decorators.TieredCacheStoreTest")
+@CleanupAfterMethod
+public class TieredCacheStoreTest extends MultipleCacheManagersTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      for (int i = 0; i < 2; i++) {
+         addClusterEnabledCacheManager(buildConfiguration(i));
+      }
+      waitForClusterToForm();
+   }
+
+   protected CacheMode cacheMode() {
+      return CacheMode.REPL_SYNC;
+   }
+
+   /**
+    * @return a key whose entry is written to the shared store by the node, when the write originates from it
+    */
+   protected Object key(String name, int node) {
+      return name;
+   }
+
+   private ConfigurationBuilder buildConfiguration(int node) {
+      ConfigurationBuilder cfg = new ConfigurationBuilder();
+      cfg.clustering().cacheMode(cacheMode());
+      LoadersConfigurationBuilder loaders = cfg.loaders().shared(true).tiered(true);
+      loaders.addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
+            .storeName(getClass().getName() + "-local-" + node).purgeOnStartup(true);
+      loaders.addStore(DummyInMemoryCacheStoreConfigurationBuilder.class)
+            .storeName(getClass().getName() + "-shared");
+      return cfg;
+   }
+
+   private List<DummyInMemoryCacheStore> tiers(Cache<Object, Object> cache) {
+      CacheStore store = TestingUtil.extractComponent(cache, CacheLoaderManager.class).getCacheStore();
+      assertTrue(store instanceof TieredCacheStore);
+      List<DummyInMemoryCacheStore> tiers = new ArrayList<DummyInMemoryCacheStore>();
+      for (CacheStore tier : ((TieredCacheStore) store).getStores().keySet()) {
+         tiers.add((DummyInMemoryCacheStore) tier);
+      }
+      return tiers;
+   }
+
+   protected DummyInMemoryCacheStore localTier(int node) {
+      return tiers(cache(node)).get(0);
+   }
+
+   protected DummyInMemoryCacheStore sharedTier(int node) {
+      return tiers(cache(node)).get(1);
+   }
+
+   public void testLoadCopiesToLocalTier() throws Exception {
+      Object key = key("loaded", 0);
+      cache(0).put(key, "value");
+      assertTrue(localTier(0).containsKey(key));
+      assertTrue(sharedTier(0).containsKey(key));
+
+      localTier(0).remove(key);
+      cache(0).evict(key);
+      sharedTier(0).clearStats();
+      assertEquals("value", cache(0).get(key));
+      assertTrue(localTier(0).containsKey(key));
+      assertEquals(1, (int) sharedTier(0).stats().get("load"));
+
+      // the next load doesn't reach the shared tier
+      cache(0).evict(key);
+      sharedTier(0).clearStats();
+      assertEquals("value", cache(0).get(key));
+      assertEquals(0, (int) sharedTier(0).stats().get("load"));
+   }
+
+   public void testRemoteWriteInvalidatesLocalTier() throws Exception {
+      Object key = key("written", 0);
+      cache(0).put(key, "value");
+      // with a shared cache store, only one node writes the entry
+      assertFalse(localTier(1).containsKey(key));
+
+      cache(1).evict(key);
+      assertEquals("value", cache(1).get(key));
+      assertTrue(localTier(1).containsKey(key));
+
+      cache(0).put(key, "value2");
+      assertFalse(localTier(1).containsKey(key));
+      cache(1).evict(key);
+      assertEquals("value2", cache(1).get(key));
+
+      cache(0).remove(key);
+      assertFalse(localTier(1).containsKey(key));
+      assertFalse(sharedTier(1).containsKey(key));
+   }
+
+   public void testTopologyChangeInvalidatesLocalTier() throws Exception {
+      final Object key = key("rebalanced", 0);
+      cache(0).put(key, "value");
+      assertTrue(localTier(0).containsKey(key));
+
+      addClusterEnabledCacheManager(buildConfiguration(2));
+      waitForClusterToForm();
+
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return !localTier(0).containsKey(key);
+         }
+      });
+      assertTrue(sharedTier(0).containsKey(key));
+      cache(0).evict(key);
+      assertEquals("value", cache(0).get(key));
+   }
+
+   public void testRemoteClearInvalidatesLocalTier() throws Exception {
+      Object key = key("cleared", 0);
+      cache(0).put(key, "value");
+      cache(1).evict(key);
+      assertEquals("value", cache(1).get(key));
+      assertTrue(localTier(1).containsKey(key));
+
+      cache(0).clear();
+      assertFalse(sharedTier(0).containsKey(key));
+      assertFalse(localTier(1).containsKey(key));
+      assertNull(cache(1).get(key));
+   }
+
+   public void testWriteDuringLoadDropsCopy() throws Exception {
+      LoadersConfigurationBuilder loaders = new ConfigurationBuilder().loaders();
+      final TieredCacheStore tiered = new TieredCacheStore(cache(0));
+      DummyInMemoryCacheStore local = createStore(loaders, "-unit-local");
+      DummyInMemoryCacheStore shared = createStore(loaders, "-unit-shared");
+      tiered.addCacheLoader(local);
+      // the key is written to both tiers while its entry is read from the shared tier
+      tiered.addCacheLoader(new AbstractDelegatingStore(shared) {
+         @Override
+         public InternalCacheEntry load(Object key) throws CacheLoaderException {
+            InternalCacheEntry entry = super.load(key);
+            if (entry != null && "value".equals(entry.getValue()))
+               tiered.store(TestInternalCacheEntryFactory.create(key, "value2"));
+            return entry;
+         }
+      });
+
+      try {
+         shared.store(TestInternalCacheEntryFactory.create("k", "value"));
+         assertEquals("value", tiered.load("k").getValue());
+         // the older entry read from the shared tier wasn't left in the local tier
+         assertFalse(local.containsKey("k"));
+         assertEquals("value2", tiered.load("k").getValue());
+         assertTrue(local.containsKey("k"));
+      } finally {
+         local.stop();
+         shared.stop();
+      }
+   }
+
+   private DummyInMemoryCacheStore createStore(LoadersConfigurationBuilder loaders, String suffix)
+         throws CacheLoaderException {
+      DummyInMemoryCacheStore store = new DummyInMemoryCacheStore();
+      store.init(new DummyInMemoryCacheStoreConfigurationBuilder(loaders)
+            .storeName(getClass().getName() + suffix).purgeOnStartup(true).create(),
+            cache(0), new TestObjectStreamMarshaller());
+      store.start();
+      return store;
+   }
+}
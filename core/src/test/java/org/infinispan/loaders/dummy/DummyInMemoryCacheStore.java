@@ -5,6 +5,7 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.spi.AbstractCacheStore;
+import org.infinispan.loaders.spi.CacheLoaderTask;
 import org.infinispan.loaders.spi.CacheStore;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -19,6 +20,7 @@
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -90,6 +92,12 @@ private InternalCacheEntry deserializeEntry(byte[] b) {
       }
    }
 
+   @Override
+   public void storeAll(Collection<InternalCacheEntry> entries) throws CacheLoaderException {
+      record("storeAll");
+      super.storeAll(entries);
+   }
+
    @Override
    public void fromStream(ObjectInput ois) throws CacheLoaderException {
       record("fromStream");
@@ -156,6 +164,21 @@ public void init(CacheLoaderConfiguration configuration, Cache<?, ?> cache, Stre
    @Override
    public InternalCacheEntry load(Object key) {
       record("load");
+      return loadEntry(key);
+   }
+
+   @Override
+   public Map<Object, InternalCacheEntry> loadAll(Set<?> keys) {
+      record("loadAll");
+      Map<Object, InternalCacheEntry> entries = new HashMap<Object, InternalCacheEntry>();
+      for (Object key : keys) {
+         InternalCacheEntry se = loadEntry(key);
+         if (se != null) entries.put(key, se);
+      }
+      return entries;
+   }
+
+   private InternalCacheEntry loadEntry(Object key) {
       if (key == null) return null;
       InternalCacheEntry se = deserializeEntry(store.get(key));
       if (se == null) return null;
@@ -202,6 +225,27 @@ public Set<InternalCacheEntry> load(int numEntries) throws CacheLoaderException
       return s;
    }
 
+   @Override
+   public void process(CacheLoaderTask task) throws CacheLoaderException {
+      record("process");
+      final long currentTimeMillis = System.currentTimeMillis();
+      for (byte[] se : store.values()) {
+         InternalCacheEntry entry = deserializeEntry(se);
+         if (!entry.isExpired(currentTimeMillis) && !processEntry(task, entry)) break;
+      }
+   }
+
+   @Override
+   public int size() {
+      record("size");
+      int size = 0;
+      final long currentTimeMillis = System.currentTimeMillis();
+      for (byte[] se : store.values()) {
+         if (!deserializeEntry(se).isExpired(currentTimeMillis)) size++;
+      }
+      return size;
+   }
+
    @Override
    public Set<Object> loadAllKeys(Set<Object> keysToExclude) throws CacheLoaderException {
       record("loadAllKeys");
@@ -0,0 +1,18 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.LoadersConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the file cache store functional tests with every bucket compressed.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.CompressedFileCacheStoreFunctionalTest")
+public class CompressedFileCacheStoreFunctionalTest extends FileCacheStoreFunctionalTest {
+
+   @Override
+   protected LoadersConfigurationBuilder createCacheStoreConfig(LoadersConfigurationBuilder loaders) {
+      return super.createCacheStoreConfig(loaders).compression(true).compressionThreshold(0);
+   }
+}
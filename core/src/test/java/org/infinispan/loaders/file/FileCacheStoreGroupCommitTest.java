@@ -0,0 +1,14 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "loaders.file.FileCacheStoreGroupCommitTest")
+public class FileCacheStoreGroupCommitTest extends FileCacheStoreTest {
+
+   @Override
+   protected FileCacheStoreConfigurationBuilder.FsyncMode getFsyncMode() {
+      return FileCacheStoreConfigurationBuilder.FsyncMode.GROUP_COMMIT;
+   }
+
+}
@@ -0,0 +1,54 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Runs the log file cache store tests syncing the writes with group commits.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.GroupCommitLogFileCacheStoreTest")
+public class GroupCommitLogFileCacheStoreTest extends LogFileCacheStoreTest {
+
+   @Override
+   protected FsyncMode fsyncMode() {
+      return FsyncMode.GROUP_COMMIT;
+   }
+
+   public void testConcurrentWritersAcrossLogFiles() throws Exception {
+      final int writers = 8;
+      final int keysPerWriter = 50;
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int w = 0; w < writers; w++) {
+         final int writer = w;
+         futures.add(fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int i = 0; i < keysPerWriter; i++) {
+                  store.store(TestInternalCacheEntryFactory.create("k" + writer + "-" + i, "v" + i));
+                  if (i % 5 == 0)
+                     store.remove("k" + writer + "-" + i);
+               }
+               return null;
+            }
+         }));
+      }
+      for (Future<Void> future : futures)
+         future.get();
+
+      // the writes rolled over to new log files, whose predecessors were synced
+      assertTrue(store.getLogFileCount() > 1);
+      assertEquals(writers * (keysPerWriter - keysPerWriter / 5), store.loadAllKeys(null).size());
+      assertEquals("v1", store.load("k3-1").getValue());
+   }
+}
@@ -0,0 +1,102 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
+import org.infinispan.configuration.cache.LoadersConfigurationBuilder;
+import org.infinispan.configuration.cache.LogFileCacheStoreConfiguration;
+import org.infinispan.loaders.BaseCacheStoreFunctionalTest;
+import org.infinispan.loaders.manager.CacheLoaderManager;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.test.CacheManagerCallable;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+
+import static org.infinispan.test.TestingUtil.*;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Log file cache store functional test.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.LogFileCacheStoreFunctionalTest")
+public class LogFileCacheStoreFunctionalTest extends BaseCacheStoreFunctionalTest {
+
+   private String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this);
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      TestingUtil.recursiveFileRemove(tmpDirectory);
+      new File(tmpDirectory).mkdirs();
+   }
+
+   @Override
+   protected LoadersConfigurationBuilder createCacheStoreConfig(LoadersConfigurationBuilder loaders) {
+      loaders
+         .addLogFileCacheStore()
+         .location(tmpDirectory)
+         .purgeSynchronously(true);
+      return loaders;
+   }
+
+   public void testParsingEmptyElement() throws Exception {
+      LogFileCacheStoreConfiguration storeConfiguration = parse("<logFileStore/> \n");
+      assertEquals("Infinispan-LogFileCacheStore", storeConfiguration.location());
+      assertEquals(16 * 1024 * 1024, storeConfiguration.maxFileSize());
+      assertEquals(0.5, storeConfiguration.compactionThreshold());
+      assertEquals(false, storeConfiguration.offHeapIndex());
+      assertEquals(FsyncMode.DEFAULT, storeConfiguration.fsyncMode());
+      assertEquals(true, storeConfiguration.fsyncMetadata());
+   }
+
+   public void testParsingElement() throws Exception {
+      LogFileCacheStoreConfiguration storeConfiguration = parse(
+            "<logFileStore location=\"" + tmpDirectory + "\" maxFileSize=\"65536\" compactionThreshold=\"0.25\" " +
+                  "offHeapIndex=\"true\" fsyncMode=\"PERIODIC\" fsyncInterval=\"50\" fsyncMetadata=\"false\"/> \n");
+      assertEquals(tmpDirectory, storeConfiguration.location());
+      assertEquals(65536, storeConfiguration.maxFileSize());
+      assertEquals(0.25, storeConfiguration.compactionThreshold());
+      assertEquals(true, storeConfiguration.offHeapIndex());
+      assertEquals(FsyncMode.PERIODIC, storeConfiguration.fsyncMode());
+      assertEquals(50, storeConfiguration.fsyncInterval());
+      assertEquals(false, storeConfiguration.fsyncMetadata());
+   }
+
+   private LogFileCacheStoreConfiguration parse(String storeElement) throws Exception {
+      String config = INFINISPAN_START_TAG_NO_SCHEMA +
+            "<default>\n" +
+            "<loaders passivation=\"false\" shared=\"false\" preload=\"true\"> \n" +
+            storeElement +
+            "</loaders>\n" +
+            "</default>\n" + INFINISPAN_END_TAG;
+      InputStream is = new ByteArrayInputStream(config.getBytes());
+      final LogFileCacheStoreConfiguration[] result = new LogFileCacheStoreConfiguration[1];
+      withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.fromStream(is)) {
+         @Override
+         public void call() {
+            Cache<Object, Object> cache = cm.getCache();
+            cache.put(1, "v1");
+            assertEquals("v1", cache.get(1));
+            CacheStore store = extractComponent(cache, CacheLoaderManager.class).getCacheStore();
+            assertTrue(store instanceof LogFileCacheStore);
+            result[0] = (LogFileCacheStoreConfiguration) store.getConfiguration();
+            cache.clear();
+         }
+      });
+      return result[0];
+   }
+
+}
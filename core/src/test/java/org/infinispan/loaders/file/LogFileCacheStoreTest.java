@@ -0,0 +1,144 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
+import org.infinispan.configuration.cache.LogFileCacheStoreConfiguration;
+import org.infinispan.configuration.cache.LogFileCacheStoreConfigurationBuilder;
+import org.infinispan.loaders.BaseCacheStoreTest;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.infinispan.test.TestingUtil.recursiveFileRemove;
+import static org.testng.AssertJUnit.*;
+
+/**
+ * Low level log file cache store tests.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.LogFileCacheStoreTest")
+public class LogFileCacheStoreTest extends BaseCacheStoreTest {
+
+   LogFileCacheStore store;
+   String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = TestingUtil.tmpDirectory(this);
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      recursiveFileRemove(tmpDirectory);
+   }
+
+   protected boolean offHeapIndex() {
+      return false;
+   }
+
+   protected FsyncMode fsyncMode() {
+      return FsyncMode.DEFAULT;
+   }
+
+   @Override
+   protected CacheStore createCacheStore() throws Exception {
+      clearTempDir();
+      store = newStore();
+      return store;
+   }
+
+   private LogFileCacheStore newStore() throws CacheLoaderException {
+      LogFileCacheStore logFileStore = new LogFileCacheStore();
+      LogFileCacheStoreConfiguration configuration = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .loaders()
+               .addLoader(LogFileCacheStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .maxFileSize(4096)
+                  .offHeapIndex(offHeapIndex())
+                  .fsyncMode(fsyncMode())
+                  .fsyncMaxLatency(1)
+                  .purgeSynchronously(true)
+                  .create();
+      logFileStore.init(configuration, getCache(), getMarshaller());
+      logFileStore.start();
+      return logFileStore;
+   }
+
+   private void restart() throws CacheLoaderException {
+      store.stop();
+      store = newStore();
+      cs = store;
+   }
+
+   public void testEntriesSurviveRestart() throws CacheLoaderException {
+      for (int i = 0; i < 100; i++) {
+         store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+      for (int i = 0; i < 100; i += 2) {
+         store.remove("k" + i);
+      }
+      restart();
+
+      assertEquals(50, store.loadAllKeys(null).size());
+      for (int i = 0; i < 100; i++) {
+         if (i % 2 == 0)
+            assertNull(store.load("k" + i));
+         else
+            assertEquals("v" + i, store.load("k" + i).getValue());
+      }
+   }
+
+   public void testCompactionReclaimsOverwrittenRecords() throws Exception {
+      for (int round = 0; round < 10; round++) {
+         for (int i = 0; i < 50; i++) {
+            store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i + "-" + round));
+         }
+      }
+      store.compactNow();
+      // the live records of 50 keys don't need more than a few files
+      assertTrue("Too many log files: " + store.getLogFileCount(), store.getLogFileCount() < 10);
+
+      restart();
+      for (int i = 0; i < 50; i++) {
+         assertEquals("v" + i + "-9", store.load("k" + i).getValue());
+      }
+   }
+
+   public void testRemovedEntriesStayRemovedAfterCompaction() throws Exception {
+      for (int i = 0; i < 200; i++) {
+         store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+      for (int i = 0; i < 200; i++) {
+         if (i % 10 != 0)
+            store.remove("k" + i);
+      }
+      store.compactNow();
+      restart();
+
+      assertEquals(20, store.loadAllKeys(null).size());
+      for (int i = 0; i < 200; i++) {
+         assertEquals(i % 10 == 0, store.containsKey("k" + i));
+      }
+   }
+
+   @Override
+   @Test(enabled = false)
+   public void testStreamingAPI() throws IOException, CacheLoaderException {
+      // the log file store doesn't support the streaming API
+   }
+
+   @Override
+   @Test(enabled = false)
+   public void testStreamingAPIReusingStreams() throws IOException, CacheLoaderException {
+      // the log file store doesn't support the streaming API
+   }
+
+}
@@ -0,0 +1,74 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.SingleFileCacheStoreConfiguration;
+import org.infinispan.configuration.cache.SingleFileCacheStoreConfigurationBuilder;
+import org.infinispan.loaders.CacheLoaderException;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Single-file cache store tests, reading the file through memory mappings.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.MemoryMappedSingleFileCacheStoreTest")
+public class MemoryMappedSingleFileCacheStoreTest extends SingleFileCacheStoreTest {
+
+   @Override
+   protected CacheStore createCacheStore() throws Exception {
+      clearTempDir();
+      store = newStore();
+      return store;
+   }
+
+   private SingleFileCacheStore newStore() throws CacheLoaderException {
+      SingleFileCacheStore fileStore = new SingleFileCacheStore();
+      SingleFileCacheStoreConfiguration fileStoreConfiguration = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .loaders()
+               .addLoader(SingleFileCacheStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .memoryMapped(true)
+                  .purgeSynchronously(true)
+                  .create();
+      fileStore.init(fileStoreConfiguration, getCache(), getMarshaller());
+      fileStore.start();
+      return fileStore;
+   }
+
+   public void testIndexRebuiltFromMappedFile() throws CacheLoaderException {
+      for (int i = 0; i < 100; i++) {
+         store.store(TestInternalCacheEntryFactory.create("k" + i, "v" + i));
+      }
+      for (int i = 0; i < 100; i += 3) {
+         store.remove("k" + i);
+      }
+      // overwritten in place, in space freed by the removals
+      store.store(TestInternalCacheEntryFactory.create("k1", "v1-updated"));
+
+      store.stop();
+      store = newStore();
+      cs = store;
+
+      for (int i = 0; i < 100; i++) {
+         if (i % 3 == 0)
+            assertNull(store.load("k" + i));
+         else
+            assertEquals(i == 1 ? "v1-updated" : "v" + i, store.load("k" + i).getValue());
+      }
+   }
+
+   public void testLoadAfterClear() throws CacheLoaderException {
+      store.store(TestInternalCacheEntryFactory.create("k", "v"));
+      assertEquals("v", store.load("k").getValue());
+      store.clear();
+      assertNull(store.load("k"));
+      store.store(TestInternalCacheEntryFactory.create("k", "v2"));
+      assertEquals("v2", store.load("k").getValue());
+   }
+}
@@ -0,0 +1,17 @@
+package org.infinispan.loaders.file;
+
+import org.testng.annotations.Test;
+
+/**
+ * Runs the log file cache store tests with the index kept off-heap.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.OffHeapIndexLogFileCacheStoreTest")
+public class OffHeapIndexLogFileCacheStoreTest extends LogFileCacheStoreTest {
+
+   @Override
+   protected boolean offHeapIndex() {
+      return true;
+   }
+}
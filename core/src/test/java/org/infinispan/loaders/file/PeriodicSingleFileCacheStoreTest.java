@@ -0,0 +1,56 @@
+package org.infinispan.loaders.file;
+
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
+import org.infinispan.configuration.cache.SingleFileCacheStoreConfiguration;
+import org.infinispan.configuration.cache.SingleFileCacheStoreConfigurationBuilder;
+import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Single-file cache store tests, syncing the writes periodically.
+ *
+ * @since 6.0
+ */
+@Test(groups = "unit", testName = "loaders.file.PeriodicSingleFileCacheStoreTest")
+public class PeriodicSingleFileCacheStoreTest extends SingleFileCacheStoreTest {
+
+   @Override
+   protected CacheStore createCacheStore() throws Exception {
+      clearTempDir();
+      store = new SingleFileCacheStore();
+      SingleFileCacheStoreConfiguration fileStoreConfiguration = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .loaders()
+               .addLoader(SingleFileCacheStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .fsyncMode(FsyncMode.PERIODIC)
+                  .fsyncInterval(10)
+                  .purgeSynchronously(true)
+                  .create();
+      store.init(fileStoreConfiguration, getCache(), getMarshaller());
+      store.start();
+      return store;
+   }
+
+   public void testSyncFailureIsClearedBySuccessfulSync() throws Exception {
+      final SingleFileCacheStore fileStore = (SingleFileCacheStore) store;
+      TestingUtil.replaceField(new IOException("Simulated sync failure"), "syncFailure", fileStore, SingleFileCacheStore.class);
+
+      // the next periodic sync succeeds and makes the preceding writes durable
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return TestingUtil.extractField(fileStore, "syncFailure") == null;
+         }
+      });
+      store.store(TestInternalCacheEntryFactory.create("k2", "v2"));
+      assertEquals("v2", store.load("k2").getValue());
+   }
+}
@@ -1,6 +1,7 @@
 package org.infinispan.loaders.file;
 
 import org.infinispan.Cache;
+import org.infinispan.configuration.cache.FileCacheStoreConfigurationBuilder.FsyncMode;
 import org.infinispan.configuration.cache.LoadersConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileCacheStoreConfiguration;
 import org.infinispan.configuration.cache.SingleFileCacheStoreConfigurationBuilder;
@@ -20,6 +21,7 @@
 
 import static org.infinispan.test.TestingUtil.*;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
@@ -79,6 +81,9 @@ public void call() {
             }
             assertEquals("Infinispan-SingleFileCacheStore", storeConfiguration.location());
             assertEquals(-1, storeConfiguration.maxEntries());
+            assertFalse(storeConfiguration.memoryMapped());
+            assertEquals(FsyncMode.DEFAULT, storeConfiguration.fsyncMode());
+            assertTrue(storeConfiguration.fsyncMetadata());
          }
       });
    }
@@ -88,7 +93,7 @@ public void testParsingElement() throws Exception {
             "<default>\n" +
             "<eviction maxEntries=\"100\"/>" +
             "<loaders passivation=\"false\" shared=\"false\" preload=\"true\"> \n" +
-            "<singleFileStore maxEntries=\"100\" location=\"other-location\"/> \n" +
+            "<singleFileStore maxEntries=\"100\" location=\"other-location\" memoryMapped=\"true\" fsyncMode=\"GROUP_COMMIT\" fsyncMaxLatency=\"5\" fsyncMetadata=\"false\"/> \n" +
             "</loaders>\n" +
             "</default>\n" + INFINISPAN_END_TAG;
       InputStream is = new ByteArrayInputStream(config.getBytes());
@@ -109,6 +114,10 @@ public void call() {
             }
             assertEquals("other-location", storeConfiguration.location());
             assertEquals(100, storeConfiguration.maxEntries());
+            assertTrue(storeConfiguration.memoryMapped());
+            assertEquals(FsyncMode.GROUP_COMMIT, storeConfiguration.fsyncMode());
+            assertEquals(5, storeConfiguration.fsyncMaxLatency());
+            assertFalse(storeConfiguration.fsyncMetadata());
          }
       });
    }
@@ -5,15 +5,24 @@
 import org.infinispan.loaders.BaseCacheStoreTest;
 import org.infinispan.loaders.CacheLoaderException;
 import org.infinispan.loaders.spi.CacheStore;
+import org.infinispan.loaders.spi.PurgeListener;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.infinispan.test.TestingUtil.recursiveFileRemove;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
 
 /**
  * Low level single-file cache store tests.
@@ -53,6 +62,25 @@ protected CacheStore createCacheStore() throws Exception {
       return store;
    }
 
+   public void testPurgeNotifiesListeners() throws Exception {
+      final Set<Object> purged = Collections.synchronizedSet(new HashSet<Object>());
+      store.addPurgeListener(new PurgeListener() {
+         @Override
+         public void entryPurged(Object key) {
+            purged.add(key);
+         }
+      });
+      store.store(TestInternalCacheEntryFactory.create("k1", "v1", 100));
+      store.store(TestInternalCacheEntryFactory.create("k2", "v2", 100));
+      store.store(TestInternalCacheEntryFactory.create("k3", "v3"));
+      Thread.sleep(200);
+      store.purgeExpired();
+
+      assertEquals(new HashSet<Object>(Arrays.asList("k1", "k2")), purged);
+      assertFalse(store.containsKey("k1"));
+      assertTrue(store.containsKey("k3"));
+   }
+
    @Override
    @Test(enabled = false)
    public void testStreamingAPI() throws IOException, CacheLoaderException {
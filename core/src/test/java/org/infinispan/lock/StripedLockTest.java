@@ -5,6 +5,8 @@
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
@@ -86,6 +88,19 @@ public void testAquireGlobalAndRelease() {
 
    }
 
+   public void testAcquireAllLocksInOrder() throws Exception {
+      List<Object> keys = new ArrayList<Object>();
+      for (int i = 0; i < 100; i++) keys.add("key" + i);
+      keys.add(KEY);
+      List<Object> locked = stripedLock.acquireAllLocksInOrder(keys, true);
+      assert locked.size() <= stripedLock.getSharedLockCount();
+      assert stripedLock.getTotalWriteLockCount() == locked.size();
+      assert !canAquireRL();
+      stripedLock.releaseAllLocks(locked);
+      assert stripedLock.getTotalWriteLockCount() == 0;
+      assert canAquireWL();
+   }
+
    private boolean aquireWL() throws Exception {
       OtherThread otherThread = new OtherThread();
       otherThread.start();
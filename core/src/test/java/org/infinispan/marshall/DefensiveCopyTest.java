@@ -1,6 +1,8 @@
 package org.infinispan.marshall;
 
+import org.infinispan.EntryFunction;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.marshall.core.MarshalledValue;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.test.SingleCacheManagerTest;
 import org.infinispan.test.data.Person;
@@ -8,6 +10,7 @@
 import org.testng.annotations.Test;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 /**
  * Tests defensive copy logic.
@@ -47,4 +50,31 @@ public void testSafetyAfterRetrieving() {
       assertEquals(new Person("Mr Coe"), cache.get(k));
    }
 
+   public void testSafetyOfInvoke() {
+      final Integer k = 3;
+      cache().put(k, new Person("Mr Coe"));
+      // changing the value read by the function doesn't change the cached one
+      cache().getAdvancedCache().invoke(k, new EntryFunction<Object, Object, Object>() {
+         @Override
+         public Object apply(MutableEntry<Object, Object> entry) {
+            ((Person) entry.getValue()).setName("Mr Digweed");
+            return null;
+         }
+      });
+      assertEquals(new Person("Mr Coe"), cache.get(k));
+
+      // nor does changing the value set by the function once it's been applied
+      final Person person = new Person("Mr Digweed");
+      cache().getAdvancedCache().invoke(k, new EntryFunction<Object, Object, Object>() {
+         @Override
+         public Object apply(MutableEntry<Object, Object> entry) {
+            entry.setValue(person);
+            return null;
+         }
+      });
+      person.setName("Ms Hibernate");
+      assertEquals(new Person("Mr Digweed"), cache.get(k));
+      assertTrue(cache.getAdvancedCache().getDataContainer().get(k).getValue() instanceof MarshalledValue);
+   }
+
 }
@@ -0,0 +1,68 @@
+package org.infinispan.profiling;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Measures the overhead of the interceptor chain for local gets and puts, invoking the commands through the per
+ * command type pipelines of the {@link InterceptorChain} and through the whole chain.
+ *
+ * @since 6.0
+ */
+@Test(groups = "profiling", enabled = false, testName = "profiling.LocalInvocationPerfTest")
+public class LocalInvocationPerfTest extends SingleCacheManagerTest {
+
+   private static final int KEYS = 1000;
+   private static final int WARMUP_OPERATIONS = 2000000;
+   private static final int OPERATIONS = 10000000;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cfg = new ConfigurationBuilder();
+      cfg.jmxStatistics().enable();
+      return TestCacheManagerFactory.createCacheManager(cfg);
+   }
+
+   public void testLocalGetAndPut() {
+      InterceptorChain chain = TestingUtil.extractComponent(cache, InterceptorChain.class);
+      System.out.println("Full chain: " + chain.asList().size() + " interceptors, get pipeline: "
+            + chain.asList(GetKeyValueCommand.class).size() + ", put pipeline: "
+            + chain.asList(PutKeyValueCommand.class).size());
+
+      for (int i = 0; i < KEYS; i++) cache.put(i, i);
+
+      // the whole chain, as before the pipelines existed
+      TestingUtil.setPipelinesEnabled(chain, false);
+      assert chain.asList(GetKeyValueCommand.class).equals(chain.asList());
+      run("whole chain", cache);
+
+      TestingUtil.setPipelinesEnabled(chain, true);
+      run("pipelines", cache);
+   }
+
+   private void run(String name, Cache<Object, Object> cache) {
+      get(cache, WARMUP_OPERATIONS);
+      put(cache, WARMUP_OPERATIONS);
+      System.out.printf("%s: get %d ns/op, put %d ns/op%n", name, get(cache, OPERATIONS), put(cache, OPERATIONS));
+   }
+
+   private long get(Cache<Object, Object> cache, int operations) {
+      long start = System.nanoTime();
+      for (int i = 0; i < operations; i++) cache.get(i % KEYS);
+      return (System.nanoTime() - start) / operations;
+   }
+
+   private long put(Cache<Object, Object> cache, int operations) {
+      long start = System.nanoTime();
+      for (int i = 0; i < operations; i++) cache.put(i % KEYS, i);
+      return (System.nanoTime() - start) / operations;
+   }
+}
@@ -0,0 +1,67 @@
+package org.infinispan.profiling;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the memory allocated by the local reads of a non-transactional cache, which reuse the invocation context
+ * and the command of the previous read of the thread and don't wrap the entries they read.
+ *
+ * @since 6.0
+ */
+@Test(groups = "profiling", testName = "profiling.LocalReadAllocationTest")
+public class LocalReadAllocationTest extends SingleCacheManagerTest {
+
+   private static final int KEYS = 1000;
+   private static final int WARMUP_OPERATIONS = 1000000;
+   private static final int OPERATIONS = 1000000;
+
+   private final String[] keys = new String[KEYS];
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cfg = new ConfigurationBuilder();
+      cfg.locking().isolationLevel(IsolationLevel.REPEATABLE_READ);
+      return TestCacheManagerFactory.createCacheManager(cfg);
+   }
+
+   public void testGetDoesNotAllocate() {
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (!(threadMXBean instanceof com.sun.management.ThreadMXBean))
+         throw new SkipException("The JVM doesn't measure the memory allocated by threads");
+      com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threadMXBean;
+      if (!allocations.isThreadAllocatedMemorySupported())
+         throw new SkipException("The JVM doesn't measure the memory allocated by threads");
+      allocations.setThreadAllocatedMemoryEnabled(true);
+
+      for (int i = 0; i < KEYS; i++) {
+         keys[i] = "key" + i;
+         cache.put(keys[i], "value" + i);
+      }
+      get(WARMUP_OPERATIONS);
+
+      long threadId = Thread.currentThread().getId();
+      long before = allocations.getThreadAllocatedBytes(threadId);
+      get(OPERATIONS);
+      long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+      double bytesPerGet = (double) allocated / OPERATIONS;
+      System.out.printf("Allocated %d bytes for %d gets, %.2f bytes/get%n", allocated, OPERATIONS, bytesPerGet);
+      // leave some room for the allocations of the measurement itself
+      assert bytesPerGet < 1 : "Local gets allocate " + bytesPerGet + " bytes each";
+   }
+
+   private void get(int operations) {
+      for (int i = 0; i < operations; i++) {
+         assert cache.get(keys[i % KEYS]) != null;
+      }
+   }
+}
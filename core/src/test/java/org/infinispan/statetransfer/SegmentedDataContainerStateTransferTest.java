@@ -0,0 +1,101 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests state transfer with a data container partitioned by segment.
+ *
+ * @since 6.0
+ */
+@Test(groups = "functional", testName = "statetransfer.SegmentedDataContainerStateTransferTest")
+public class SegmentedDataContainerStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 100;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1).numSegments(20).l1().disable()
+            .dataContainer().segmented(true);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+   }
+
+   public void testJoinAndLeave() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+      assertOnlyOwnedSegmentsStored();
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      assertAllKeysPresent(cache(2));
+      assertOnlyOwnedSegmentsStored();
+
+      killMember(0);
+      waitForClusterToForm();
+      assertAllKeysPresent(cache(0));
+      assertOnlyOwnedSegmentsStored();
+   }
+
+   public void testSegmentContainersAreWiredByTheRegistry() {
+      SegmentedDataContainer dc = (SegmentedDataContainer) cache(0).getAdvancedCache().getDataContainer();
+      ComponentRegistry componentRegistry = TestingUtil.extractComponentRegistry(cache(0));
+      for (int segment = 0; segment < dc.getNumSegments(); segment++) {
+         DefaultDataContainer segmentContainer = componentRegistry.getComponent(DefaultDataContainer.class,
+               SegmentedDataContainer.segmentComponentName(segment));
+         assertNotNull(segmentContainer);
+         assertNotNull(TestingUtil.extractField(segmentContainer, "entryFactory"));
+      }
+   }
+
+   private void assertAllKeysPresent(Cache<Object, Object> c) {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, c.get("k" + i));
+      }
+   }
+
+   private void assertOnlyOwnedSegmentsStored() {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            int total = 0;
+            for (Cache<Object, Object> c : caches()) {
+               SegmentedDataContainer dc = (SegmentedDataContainer) c.getAdvancedCache().getDataContainer();
+               ConsistentHash ch = c.getAdvancedCache().getDistributionManager().getReadConsistentHash();
+               Address address = c.getAdvancedCache().getRpcManager().getAddress();
+               assertTrue(dc.isSegmentedBy(ch));
+               for (int segment = 0; segment < dc.getNumSegments(); segment++) {
+                  boolean owned = ch.locateOwnersForSegment(segment).contains(address);
+                  if (!owned && dc.segmentSize(segment) > 0) return false;
+                  for (Iterator<InternalCacheEntry> it = dc.segmentIterator(segment); it.hasNext(); ) {
+                     assertEquals(segment, ch.getSegment(it.next().getKey()));
+                  }
+               }
+               total += dc.size();
+            }
+            // one owner per key
+            return total == NUM_KEYS;
+         }
+      });
+   }
+}
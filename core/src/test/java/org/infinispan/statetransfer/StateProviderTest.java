@@ -14,6 +14,7 @@
 import org.infinispan.distribution.TestAddress;
 import org.infinispan.distribution.ch.DefaultConsistentHash;
 import org.infinispan.distribution.ch.DefaultConsistentHashFactory;
+import org.infinispan.eviction.PassivationManager;
 import org.infinispan.loaders.manager.CacheLoaderManager;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.remoting.responses.Response;
@@ -73,6 +74,7 @@ public class StateProviderTest {
    private CommandsFactory commandsFactory;
    private CacheNotifier cacheNotifier;
    private CacheLoaderManager cacheLoaderManager;
+   private PassivationManager passivationManager;
    private DataContainer dataContainer;
    private TransactionTable transactionTable;
    private StateTransferLock stateTransferLock;
@@ -108,6 +110,7 @@ public Thread newThread(Runnable r) {
       commandsFactory = mock(CommandsFactory.class);
       cacheNotifier = mock(CacheNotifier.class);
       cacheLoaderManager = mock(CacheLoaderManager.class);
+      passivationManager = mock(PassivationManager.class);
       dataContainer = mock(DataContainer.class);
       transactionTable = mock(TransactionTable.class);
       stateTransferLock = mock(StateTransferLock.class);
@@ -161,7 +164,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       StateProviderImpl stateProvider = new StateProviderImpl();
       stateProvider.init(cache, mockExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, cacheLoaderManager,
-            dataContainer, transactionTable, stateTransferLock, stateConsumer);
+            passivationManager, dataContainer, transactionTable, stateTransferLock, stateConsumer);
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
       Object key1 = new TestKey("key1", 0, ch1);
@@ -269,7 +272,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       StateProviderImpl stateProvider = new StateProviderImpl();
       stateProvider.init(cache, pooledExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, cacheLoaderManager,
-            dataContainer, transactionTable, stateTransferLock, stateConsumer);
+            passivationManager, dataContainer, transactionTable, stateTransferLock, stateConsumer);
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
       Object key1 = new TestKey("key1", 0, ch1);
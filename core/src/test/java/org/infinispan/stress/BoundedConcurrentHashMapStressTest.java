@@ -0,0 +1,97 @@
+package org.infinispan.stress;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of concurrent reads of a small set of hot keys in a
+ * {@link BoundedConcurrentHashMap}, for each eviction policy. Reads of hot keys are recorded by the
+ * eviction policies, so this shows how much readers contend with each other compared to an unbounded
+ * map. Run it against an older build to compare implementations.
+ *
+ * @since 6.0
+ */
+@Test(testName = "stress.BoundedConcurrentHashMapStressTest", groups = "stress", enabled = false,
+      description = "Disabled by default, designed to be run manually.")
+public class BoundedConcurrentHashMapStressTest {
+   final int RUN_TIME_MILLIS = 30 * 1000; // 30 sec
+   final int WARMUP_TIME_MILLIS = 10 * 1000; // 10 sec
+   final int CAPACITY = 10000;
+   final int NUM_HOT_KEYS = 100;
+   final int NUM_READERS = Runtime.getRuntime().availableProcessors() * 2;
+
+   private static final Log log = LogFactory.getLog(BoundedConcurrentHashMapStressTest.class);
+
+   public void testUnbounded() throws InterruptedException {
+      doTest(Eviction.NONE);
+   }
+
+   public void testLRU() throws InterruptedException {
+      doTest(Eviction.LRU);
+   }
+
+   public void testLIRS() throws InterruptedException {
+      doTest(Eviction.LIRS);
+   }
+
+   public void testTinyLFU() throws InterruptedException {
+      doTest(Eviction.TINY_LFU);
+   }
+
+   private void doTest(Eviction eviction) throws InterruptedException {
+      BoundedConcurrentHashMap<Integer, Integer> map = new BoundedConcurrentHashMap<Integer, Integer>(
+            CAPACITY, 32, eviction, AnyEquivalence.<Integer>getInstance(), AnyEquivalence.<Integer>getInstance());
+      for (int i = 0; i < CAPACITY; i++) map.put(i, i);
+
+      doTest(map, true);
+      long opsPerMillis = doTest(map, false);
+      log.warnf("%s: %d readers: %d gets/ms", eviction, NUM_READERS, opsPerMillis);
+   }
+
+   private long doTest(final BoundedConcurrentHashMap<Integer, Integer> map, boolean warmup) throws InterruptedException {
+      final CountDownLatch latch = new CountDownLatch(1);
+      final AtomicBoolean run = new AtomicBoolean(true);
+      final AtomicLong ops = new AtomicLong();
+
+      Thread[] readers = new Thread[NUM_READERS];
+      for (int i = 0; i < readers.length; i++) {
+         readers[i] = new Thread("Reader-" + i) {
+            public void run() {
+               Random r = new Random();
+               try {
+                  latch.await();
+               } catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+               }
+               long runs = 0;
+               while (run.get()) {
+                  for (int j = 0; j < 1000; j++) {
+                     map.get(r.nextInt(NUM_HOT_KEYS));
+                  }
+                  runs += 1000;
+               }
+               ops.addAndGet(runs);
+            }
+         };
+         readers[i].start();
+      }
+
+      long start = System.nanoTime();
+      latch.countDown();
+      Thread.sleep(warmup ? WARMUP_TIME_MILLIS : RUN_TIME_MILLIS);
+      run.set(false);
+      for (Thread t : readers) t.join();
+      long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      return ops.get() / Math.max(1, totalMillis);
+   }
+}
@@ -152,6 +152,20 @@ public static <T extends CommandInterceptor> T findInterceptor(Cache<?, ?> cache
       return null;
    }
 
+   /**
+    * Enables or disables the interceptor pipelines of a chain, so that performance tests can compare them with the
+    * whole chain.
+    */
+   public static void setPipelinesEnabled(InterceptorChain chain, boolean enabled) {
+      try {
+         Method method = InterceptorChain.class.getDeclaredMethod("setPipelinesEnabled", boolean.class);
+         method.setAccessible(true);
+         method.invoke(chain, enabled);
+      } catch (Exception e) {
+         throw new RuntimeException(e);
+      }
+   }
+
    public static void waitForRehashToComplete(Cache... caches) {
       int gracetime = 90000; // 90 seconds
       long giveup = System.currentTimeMillis() + gracetime;
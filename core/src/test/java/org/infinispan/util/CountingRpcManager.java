@@ -4,6 +4,7 @@
 import org.infinispan.Cache;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.control.LockControlCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.remoting.RpcException;
 import org.infinispan.remoting.responses.Response;
@@ -14,6 +15,7 @@
 import org.infinispan.remoting.rpc.RpcOptionsBuilder;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -33,6 +35,7 @@ public class CountingRpcManager implements RpcManager {
 
    public volatile int lockCount;
    public volatile int clusterGet;
+   public volatile int clusterGetAll;
    public volatile int otherCount;
 
    protected final RpcManager realOne;
@@ -56,6 +59,8 @@ protected void aboutToInvokeRpc(ReplicableCommand rpcCommand) {
          lockCount++;
       } else if (rpcCommand instanceof ClusteredGetCommand) {
          clusterGet++;
+      } else if (rpcCommand instanceof ClusteredGetAllCommand) {
+         clusterGetAll++;
       } else {
          otherCount++;
       }
@@ -64,6 +69,7 @@ protected void aboutToInvokeRpc(ReplicableCommand rpcCommand) {
    public void resetStats() {
       lockCount = 0;
       clusterGet = 0;
+      clusterGetAll = 0;
       otherCount = 0;
    }
 
@@ -177,6 +183,13 @@ public void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCom
       realOne.invokeRemotelyInFuture(recipients, rpc, options, future);
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc, RpcOptions options) {
+      log.trace("CountingRpcManager.invokeRemotelyAsync");
+      aboutToInvokeRpc(rpc);
+      return realOne.invokeRemotelyAsync(recipients, rpc, options);
+   }
+
    @Override
    public Transport getTransport() {
       return realOne.getTransport();
@@ -1,9 +1,11 @@
 package org.infinispan.util.concurrent;
 
+import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.util.EquivalentHashMapTest;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -38,6 +40,68 @@ public void testByteArrayPutIfAbsentFail() {
       byteArrayPutIfAbsentFail(createComparingConcurrentMap(), true);
    }
 
+   public void testTinyLFUKeepsPopularEntriesDuringScans() {
+      BoundedConcurrentHashMap<String, String> map = new BoundedConcurrentHashMap<String, String>(
+            128, 32, BoundedConcurrentHashMap.Eviction.TINY_LFU,
+            AnyEquivalence.<String>getInstance(), AnyEquivalence.<String>getInstance());
+      for (int i = 0; i < 16; i++) map.put("hot-" + i, "value");
+      for (int j = 0; j < 10; j++) {
+         for (int i = 0; i < 16; i++) map.get("hot-" + i);
+      }
+      for (int i = 0; i < 1000; i++) map.put("scan-" + i, "value");
+
+      assertEquals(128, map.size());
+      for (int i = 0; i < 16; i++) {
+         assertTrue("hot-" + i + " was evicted by the scan", map.containsKey("hot-" + i));
+      }
+      assertTrue(map.evictionRejections() > 0);
+   }
+
+   public void testBufferedAccessesToRemovedEntriesAreIgnored() {
+      for (BoundedConcurrentHashMap.Eviction eviction : BoundedConcurrentHashMap.Eviction.values()) {
+         BoundedConcurrentHashMap<Integer, Integer> map = new BoundedConcurrentHashMap<Integer, Integer>(
+               64, 1, eviction, AnyEquivalence.<Integer>getInstance(), AnyEquivalence.<Integer>getInstance());
+         for (int i = 0; i < 64; i++) map.put(i, i);
+         // record accesses, then remove the entries before the accesses are applied
+         for (int i = 0; i < 8; i++) map.get(i);
+         for (int i = 0; i < 8; i++) map.remove(i);
+         for (int i = 64; i < 256; i++) map.put(i, i);
+
+         assertEquals(eviction.toString(), eviction == BoundedConcurrentHashMap.Eviction.NONE ? 248 : 64, map.size());
+         for (int i = 0; i < 8; i++) assertFalse(map.containsKey(i));
+         int count = 0;
+         for (Integer key : map.keySet()) {
+            assertEquals(key, map.get(key));
+            count++;
+         }
+         assertEquals(map.size(), count);
+      }
+   }
+
+   public void testTinyLFURemovedMappingPutBackAfterItsPredecessorMoved() {
+      BoundedConcurrentHashMap<Integer, Integer> map = new BoundedConcurrentHashMap<Integer, Integer>(
+            64, 1, BoundedConcurrentHashMap.Eviction.TINY_LFU,
+            AnyEquivalence.<Integer>getInstance(), AnyEquivalence.<Integer>getInstance());
+      Random random = new Random(42);
+      for (int i = 0; i < 100; i++) map.put(i, i);
+      for (int round = 0; round < 10000; round++) {
+         // small integers are cached, so the same key and value instances are put back
+         Integer removed = random.nextInt(100);
+         map.remove(removed);
+         // hits promote and reorder the entries, including the predecessor of the removed one
+         for (int i = 0; i < 32; i++) map.get(random.nextInt(100));
+         map.put(removed, removed);
+      }
+
+      assertTrue(map.size() <= 64);
+      int count = 0;
+      for (Integer key : map.keySet()) {
+         assertEquals(key, map.get(key));
+         count++;
+      }
+      assertEquals(map.size(), count);
+   }
+
    protected void byteArrayConditionalRemove(
          ConcurrentMap<byte[], byte[]> map, boolean expectRemove) {
       byte[] key = {1, 2, 3};
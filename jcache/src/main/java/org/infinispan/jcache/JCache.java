@@ -33,7 +33,6 @@
 import org.infinispan.jcache.logging.Log;
 import org.infinispan.jmx.JmxUtil;
 import org.infinispan.loaders.manager.CacheLoaderManager;
-import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.util.concurrent.locks.containers.LockContainer;
 import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
@@ -297,69 +296,36 @@ public <T> T invoke(final K key, final EntryProcessor<K, V, T> entryProcessor, f
       if (entryProcessor == null)
          throw new NullPointerException("Entry processor cannot be null");
 
-      // Using references for backup copies to provide perceived exclusive
-      // read access, and only apply changes if original value was not
-      // changed by another thread, the JSR requirements for this method could
-      // have been full filled. However, the TCK has some timing checks which
-      // verify that under contended access, one of the threads should "wait"
-      // for the other, hence the use locks.
-
       if (log.isTraceEnabled())
          log.tracef("Invoke entry processor %s for key=%s", entryProcessor, key);
 
+      // The processor is applied by the primary owner of the key while the
+      // key is locked, and only its outcome is replicated to the other
+      // owners. The processor lock still makes the CRUD methods invoked
+      // locally wait for it, as the TCK has some timing checks verifying
+      // that under contended access one of the threads "waits" for the other.
       return new WithProcessorLock<T>().call(key, new Callable<T>() {
          @Override
          public T call() throws Exception {
-            // Get old value skipping any listeners to impacting
-            // listener invocation expectations set by the TCK.
-            V oldValue = skipCacheLoadAndStatsCache.get(key);
-            V safeOldValue = oldValue;
-            if (configuration.isStoreByValue()) {
-               // Make a copy because the entry processor could make changes
-               // directly in the value, and we wanna keep a safe old value
-               // around for when calling the atomic replace() call.
-               safeOldValue = safeCopy(oldValue);
-            }
-
-            MutableJCacheEntry<K, V> mutable =
-                  new MutableJCacheEntry<K, V>(cache, key, safeOldValue);
-            T ret = entryProcessor.process(mutable, arguments);
-
-            if (mutable.isRemoved()) {
-               cache.remove(key);
-            } else {
-               V newValue = mutable.getNewValue();
-               if (newValue != null) {
-                  if (oldValue != null) {
-                     // Only allow change to be applied if value has not
-                     // changed since the start of the processing.
-                     cache.replace(key, oldValue, newValue);
-                  } else {
-                     cache.putIfAbsent(key, newValue);
-                  }
-               }
-            }
-            return ret;
+            return skipCacheLoadCache.invoke(key,
+                  new JCacheEntryProcessorAdapter<K, V, T>(entryProcessor, arguments));
          }
       });
    }
 
    @Override
    public <T> Map<K, T> invokeAll(Set<? extends K> keys, EntryProcessor<K, V, T> entryProcessor, Object... arguments) {
-      return null;  // TODO: Customise this generated block
-   }
+      checkNotClosed();
+      if (keys == null)
+         throw log.parameterMustNotBeNull("keys");
 
-   @SuppressWarnings("unchecked")
-   private V safeCopy(V original) {
-      try {
-         StreamingMarshaller marshaller = skipCacheLoadCache.getComponentRegistry().getCacheMarshaller();
-         byte[] bytes = marshaller.objectToByteBuffer(original);
-         Object o = marshaller.objectFromByteBuffer(bytes);
-         return (V) o;
-      } catch (Exception e) {
-         throw new CacheException(
-               "Unexpected error making a copy of entry " + original, e);
+      Map<K, T> results = new HashMap<K, T>();
+      for (K key : keys) {
+         T result = invoke(key, entryProcessor, arguments);
+         if (result != null)
+            results.put(key, result);
       }
+      return results;
    }
 
    private boolean lockRequired(K key) {
@@ -0,0 +1,44 @@
+package org.infinispan.jcache;
+
+import java.io.Serializable;
+
+import javax.cache.Cache.EntryProcessor;
+
+import org.infinispan.EntryFunction;
+
+/**
+ * Adapts a JSR-107 {@link EntryProcessor} to an {@link EntryFunction}, so
+ * that {@link JCache#invoke(Object, EntryProcessor, Object...)} is
+ * executed by {@link org.infinispan.AdvancedCache#invoke(Object, EntryFunction)}
+ * on the primary owner of the key, while the key is locked. The processor
+ * and its arguments must be marshallable for this to work in a cluster.
+ *
+ * @param <K> the type of key maintained by this cache entry
+ * @param <V> the type of value maintained by this cache entry
+ * @param <T> the type of the result of the processor
+ * @since 6.0
+ */
+public class JCacheEntryProcessorAdapter<K, V, T> implements EntryFunction<K, V, T>, Serializable {
+
+   private static final long serialVersionUID = 6457289425738516314L;
+
+   private final EntryProcessor<K, V, T> processor;
+
+   private final Object[] arguments;
+
+   public JCacheEntryProcessorAdapter(EntryProcessor<K, V, T> processor, Object... arguments) {
+      this.processor = processor;
+      this.arguments = arguments;
+   }
+
+   @Override
+   public T apply(EntryFunction.MutableEntry<K, V> entry) {
+      return processor.process(new MutableJCacheEntry<K, V>(entry), arguments);
+   }
+
+   @Override
+   public String toString() {
+      return "JCacheEntryProcessorAdapter{processor=" + processor + "}";
+   }
+
+}
@@ -45,6 +45,36 @@ public void testInvokeProcesorStoreByValue(Method m) {
       invokeProcessor(m, new MutableConfiguration<String, List<Integer>>());
    }
 
+   public void testInvokeProcesorStoreByValueCopiesNewValue(Method m) {
+      final String name = getName(m);
+      withCachingProvider(new JCacheRunnable() {
+         @Override
+         public void run(CachingProvider provider) {
+            CacheManager cm = provider.getCacheManager();
+            Cache<String, List<Integer>> cache = cm.configureCache(name,
+                  new MutableConfiguration<String, List<Integer>>());
+            final String query = "select * from x";
+            cache.put(query, new ArrayList<Integer>(Arrays.asList(1, 2, 3)));
+            final List<Integer> ids = new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4));
+            cache.invoke(query,
+                  new Cache.EntryProcessor<String, List<Integer>, Object>() {
+                     @Override
+                     public Object process(Cache.MutableEntry<String, List<Integer>> entry, Object... arguments) {
+                        // changing the current value without setting it isn't visible
+                        entry.getValue().add(5);
+                        entry.setValue(ids);
+                        return null;
+                     }
+                  });
+
+            // changing the new value once set isn't visible either
+            ids.add(6);
+            assertEquals(new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4)),
+                  cache.get(query));
+         }
+      });
+   }
+
    private void invokeProcessorThrowsException(
          Method m, final MutableConfiguration<String, List<Integer>> jcacheCfg,
          final List<Integer> expectedValue) {
@@ -21,6 +21,7 @@
 import org.hibernate.search.spi.SearchFactoryIntegrator;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.ApplyFunctionCommand;
 import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
@@ -126,6 +127,13 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return valueReplaced;
    }
 
+   @Override
+   public Object visitApplyFunctionCommand(InvocationContext ctx, ApplyFunctionCommand command) throws Throwable {
+      Object result = invokeNextInterceptor(ctx, command);
+      processApplyFunctionCommand(command, ctx, null);
+      return result;
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       Object mapPut = invokeNextInterceptor(ctx, command);
@@ -383,6 +391,29 @@ private void processRemoveCommand(final RemoveCommand command, final InvocationC
       }
    }
 
+   /**
+    * Indexing management of an ApplyFunctionCommand
+    *
+    * @param command the visited ApplyFunctionCommand
+    * @param ctx the InvocationContext of the ApplyFunctionCommand
+    * @param transactionContext Optional for lazy initialization, or reuse an existing context.
+    */
+   private void processApplyFunctionCommand(final ApplyFunctionCommand command, final InvocationContext ctx, TransactionContext transactionContext) {
+      if (command.isSuccessful() && shouldModifyIndexes(command, ctx)) {
+         Object key = extractValue(command.getKey());
+         Object previousValue = extractValue(command.getPreviousValue());
+         if (updateKnownTypesIfNeeded(previousValue)) {
+            transactionContext = transactionContext == null ? makeTransactionalEventContext() : transactionContext;
+            removeFromIndexes(previousValue, key, transactionContext);
+         }
+         Object newValue = command.isRemoveEntry() ? null : extractValue(command.getNewValue());
+         if (updateKnownTypesIfNeeded(newValue)) {
+            transactionContext = transactionContext == null ? makeTransactionalEventContext() : transactionContext;
+            updateIndexes(newValue, key, transactionContext);
+         }
+      }
+   }
+
    /**
     * Indexing management of a PutMapCommand
     *